@@ -20,9 +20,14 @@
 package org.extex.exbib.main;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
 import java.util.Set;
+import java.util.logging.FileHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.extex.cli.BooleanOption;
@@ -36,7 +41,9 @@ import org.extex.cli.StringPropertyOption;
 import org.extex.cli.exception.UnknownOptionCliException;
 import org.extex.exbib.core.ExBib;
 import org.extex.exbib.core.ExBib.ExBibDebug;
+import org.extex.exbib.core.ExBibBatch;
 import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.logging.LogFormatter;
 
 /**
  * This class contains the main program for <logo>&epsilon;&chi;Bib</logo>.
@@ -72,6 +79,11 @@ import org.extex.framework.configuration.exception.ConfigurationException;
  * <dd>Use the given encoding for the output file.</dd>
  * <dt><tt>--h[elp] | -? | -h</tt></dt>
  * <dd>Show a short list of command line arguments.</dd>
+ * <dt><tt>--j[obs] | -j &lt;n&gt;</tt></dt>
+ * <dd>Process several aux files in parallel with the given number of threads.
+ * The parsed bst files and bib files are shared by the jobs. Each job writes
+ * the blg file derived from its aux file; the option <tt>--logfile</tt> is
+ * ignored.</dd>
  * <dt><tt>--la[nguage] | -L &lt;language></tt></dt>
  * <dd>Use the named language for message. The argument is a two-letter ISO
  * code.</dd>
@@ -160,6 +172,18 @@ public class ExBibMain extends AbstractMain {
      */
     private ExBib exBib;
 
+    /**
+     * The field <tt>jobs</tt> contains the number of threads for the
+     * processing of several aux files or 0 if only one aux file is accepted.
+     */
+    private int jobs = 0;
+
+    /**
+     * The field <tt>files</tt> contains the aux files for the processing of
+     * several aux files.
+     */
+    private List<String> files = new ArrayList<String>();
+
     /**
      * Creates a new object.
      * 
@@ -258,6 +282,18 @@ public class ExBibMain extends AbstractMain {
         });
         option("-e", "--encoding", new StringPropertyOption("opt.encoding",
             ExBib.PROP_ENCODING, properties));
+        option("-j", "--jobs", new NumberOption("opt.jobs") {
+
+            @Override
+            protected int run(String arg, int value) {
+
+                if (value < 1) {
+                    return logBanner("jobs.illegal", Integer.toString(value));
+                }
+                jobs = value;
+                return EXIT_CONTINUE;
+            }
+        });
         option("-M", "--min.crossrefs", new NumberPropertyOption(
             "opt.min.crossref", ExBib.PROP_MIN_CROSSREF, properties),
             "--min-crossrefs", "--min_crossrefs");
@@ -349,11 +385,35 @@ public class ExBibMain extends AbstractMain {
     public int run() throws IOException, ConfigurationException {
 
         logBanner();
+        if (jobs > 0 && !files.isEmpty()) {
+            ExBibBatch batch = new ExBibBatch(getProperties()) {
+
+                /**
+                 * {@inheritDoc}
+                 * 
+                 * @see org.extex.exbib.core.ExBibBatch#makeLogHandler(java.lang.String)
+                 */
+                @Override
+                protected Handler makeLogHandler(String file)
+                        throws IOException {
+
+                    Handler handler = new FileHandler(file);
+                    handler.setFormatter(new LogFormatter());
+                    handler.setLevel(Level.FINE);
+                    return handler;
+                }
+            };
+            batch.setLogger(getLogger());
+            batch.setThreads(jobs);
+            batch.getDebug().addAll(exBib.getDebug());
+            return batch.run(files) ? CLI.EXIT_OK : CLI.EXIT_FAIL;
+        }
         return exBib.run() ? CLI.EXIT_OK : CLI.EXIT_FAIL;
     }
 
     /**
-     * Setter for the file name.
+     * Setter for the file name. If the option <tt>--jobs</tt> has been given
+     * then any number of file names is accepted.
      * 
      * @param arg the file name
      * 
@@ -362,6 +422,10 @@ public class ExBibMain extends AbstractMain {
     @Override
     protected int setFile(String arg) {
 
+        if (jobs > 0 && !"".equals(arg)) {
+            files.add(arg);
+            return CLI.EXIT_CONTINUE;
+        }
         return exBib.setFile(arg) ? CLI.EXIT_CONTINUE : CLI.EXIT_FAIL;
     }
 
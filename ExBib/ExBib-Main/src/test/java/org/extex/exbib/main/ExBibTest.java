@@ -80,6 +80,8 @@ public class ExBibTest extends BibTester {
                     + "\t\tUse the given encoding for the output file.\n"
                     + "\t--h[elp] | -? | -h\n"
                     + "\t\tShow a short list of command line arguments.\n"
+                    + "\t--j[obs] | -j <n>\n"
+                    + "\t\tProcess several aux files in parallel with n threads.\n"
                     + "\t--la[nguage] | -L <language>\n"
                     + "\t\tUse the named language for message.\n"
                     + "\t\tThe argument is a two-letter ISO code.\n"
@@ -933,6 +935,41 @@ public class ExBibTest extends BibTester {
             "-v", "--mcites=123");
     }
 
+    /**
+     * <testcase> Test that the command line option <tt>--jobs</tt> needs a
+     * positive argument. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testJobs1() throws Exception {
+
+        runFailure(BANNER
+                + "The number of jobs must be positive instead of 0.\n", //
+            "--jobs", "0");
+    }
+
+    /**
+     * <testcase> Test that the command line option <tt>--jobs</tt> accepts
+     * several aux files. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testJobs2() throws Exception {
+
+        try {
+            runFailure(BANNER + "I couldn't open file abc.aux\n"
+                    + "(There was 1 error)\n"
+                    + "I couldn't open file def.aux\n"
+                    + "(There was 1 error)\n", //
+                "-j", "1", "abc.aux", "def.aux");
+        } finally {
+            new File("abc.blg").delete();
+            new File("def.blg").delete();
+        }
+    }
+
     /**
      * <testcase> Test that the command line option <tt>--language</tt> needs an
      * argument. </testcase>
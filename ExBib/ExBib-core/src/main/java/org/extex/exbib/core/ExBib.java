@@ -31,6 +31,7 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.extex.exbib.core.bst.BstInterpreterCore;
 import org.extex.exbib.core.bst.exception.ExBibIllegalValueException;
 import org.extex.exbib.core.db.DB;
 import org.extex.exbib.core.db.sorter.SorterFactory;
@@ -40,7 +41,9 @@ import org.extex.exbib.core.io.Writer;
 import org.extex.exbib.core.io.auxio.AuxReader;
 import org.extex.exbib.core.io.auxio.AuxReaderFactory;
 import org.extex.exbib.core.io.bblio.BblWriterFactory;
+import org.extex.exbib.core.io.bibio.BibCache;
 import org.extex.exbib.core.io.bibio.BibReaderFactory;
+import org.extex.exbib.core.io.bstio.BstCache;
 import org.extex.exbib.core.io.csf.CsfException;
 import org.extex.exbib.core.util.DBObserver;
 import org.extex.exbib.core.util.EntryObserver;
@@ -123,6 +126,13 @@ import org.extex.resource.ResourceFinderFactory;
  * <tt>config/exbib</tt>.
  * </p>
  * 
+ * <h2>Caches</h2>
+ * <p>
+ * Several instances of this class can share the parsed bib files and bst files
+ * with a {@link BibCache BibCache} and a {@link BstCache BstCache}. This is
+ * used by {@link ExBibBatch ExBibBatch} to process many aux files at once.
+ * </p>
+ * 
  * <h2>Dot Files</h2>
  * <p>
  * This class does <em>not</em> try to load settings from a dot file. This could
@@ -295,6 +305,18 @@ public class ExBib {
      */
     private ResourceFinder resourceFinder = null;
 
+    /**
+     * The field <tt>bibCache</tt> contains the cache for parsed bib files or
+     * <code>null</code>.
+     */
+    private BibCache bibCache = null;
+
+    /**
+     * The field <tt>bstCache</tt> contains the cache for parsed bst files or
+     * <code>null</code>.
+     */
+    private BstCache bstCache = null;
+
     /**
      * Creates a new object. The properties containing the controlling
      * attributes are initialized from the System.properties.
@@ -448,6 +470,46 @@ public class ExBib {
         return log(Level.SEVERE, tag, args);
     }
 
+    /**
+     * Make a factory for the readers of bib files. The factory is connected
+     * to the cache for parsed bib files.
+     * 
+     * @param finder the resource finder
+     * @param cfg the configuration
+     * 
+     * @return the factory
+     */
+    protected BibReaderFactory makeBibReaderFactory(ResourceFinder finder,
+            Configuration cfg) {
+
+        BibReaderFactory factory =
+                new BibReaderFactory(cfg, finder, properties
+                    .getProperty(PROP_BIB_ENCODING), properties
+                    .getProperty(PROP_ENCODING));
+        factory.setCache(bibCache);
+        return factory;
+    }
+
+    /**
+     * Make a resource finder. The resource finder set explicitly is used if
+     * present.
+     * 
+     * @param cfg the configuration
+     * 
+     * @return the resource finder
+     * 
+     * @throws ConfigurationException in case of a configuration error
+     */
+    protected ResourceFinder makeResourceFinder(Configuration cfg)
+            throws ConfigurationException {
+
+        if (resourceFinder != null) {
+            return resourceFinder;
+        }
+        return new ResourceFinderFactory().createResourceFinder(cfg, logger,
+            properties, null);
+    }
+
     /**
      * Make a sorter or throw an error.
      * 
@@ -532,13 +594,7 @@ public class ExBib {
                 "exbib/" + properties.getProperty(PROP_CONFIG, ""));
 
             ResourceFinder finder =
-                    (resourceFinder != null
-                            ? resourceFinder
-                            : new ResourceFinderFactory().createResourceFinder(//
-                                config.getConfiguration("Resource"), //
-                                logger, //
-                                properties, //
-                                null));
+                    makeResourceFinder(config.getConfiguration("Resource"));
 
             if (debug.contains(ExBibDebug.SEARCH)) {
                 finder.enableTracing(true);
@@ -550,9 +606,8 @@ public class ExBib {
 
             String encoding = properties.getProperty(PROP_ENCODING);
             BibReaderFactory bibReaderFactory =
-                    new BibReaderFactory(config.getConfiguration("BibReader"),
-                        finder, properties.getProperty(PROP_BIB_ENCODING),
-                        encoding);
+                    makeBibReaderFactory(finder, config
+                        .getConfiguration("BibReader"));
             ProcessorContainer container =
                     new ProcessorContainer(config, logger, properties) {
 
@@ -570,6 +625,11 @@ public class ExBib {
 
                             db.registerObserver("makeEntry", new EntryObserver(
                                 logger, processor));
+                            if (bstCache != null
+                                    && processor instanceof BstInterpreterCore) {
+                                ((BstInterpreterCore) processor)
+                                    .setBstCache(bstCache);
+                            }
                         }
                     };
             container.setSorterFactory(makeSorterFactory(finder,
@@ -731,6 +791,28 @@ public class ExBib {
         return funcall;
     };
 
+    /**
+     * Setter for the cache of parsed bib files.
+     * 
+     * @param cache the cache or <code>null</code> to parse the bib files each
+     *        time
+     */
+    public void setBibCache(BibCache cache) {
+
+        this.bibCache = cache;
+    }
+
+    /**
+     * Setter for the cache of parsed bst files.
+     * 
+     * @param cache the cache or <code>null</code> to parse the bst files each
+     *        time
+     */
+    public void setBstCache(BstCache cache) {
+
+        this.bstCache = cache;
+    }
+
     /**
      * Setter for the debugging indicator.
      * 
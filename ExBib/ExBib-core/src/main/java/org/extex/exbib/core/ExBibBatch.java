@@ -0,0 +1,471 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ * 
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package org.extex.exbib.core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.extex.exbib.core.ExBib.ExBibDebug;
+import org.extex.exbib.core.io.bibio.BibCache;
+import org.extex.exbib.core.io.bibio.BibReaderFactory;
+import org.extex.exbib.core.io.bstio.BstCache;
+import org.extex.framework.configuration.Configuration;
+import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.resource.ResourceFinder;
+import org.extex.resource.ResourceFinderFactory;
+import org.extex.resource.io.NamedInputStream;
+
+/**
+ * This class processes several aux files in parallel. Each aux file is
+ * processed by an instance of {@link ExBib ExBib} of its own. Those instances
+ * share the parsed bst files and bib files.
+ * <p>
+ * The jobs are performed by a fixed number of threads. Each job gets a copy
+ * of the properties with the name of its aux file. The output file is always
+ * derived from the name of the aux file. Thus the property
+ * {@link ExBib#PROP_OUTFILE} is ignored.
+ * </p>
+ * <p>
+ * Each job has a logger of its own which passes the messages on to the
+ * logger of the batch. In addition the messages of a job are written to the
+ * blg file derived from the name of its aux file.
+ * </p>
+ * <p>
+ * A bst file is parsed once and the calls performed on the processor are
+ * replayed for the other jobs (see {@link BstCache BstCache}). A bib file is
+ * parsed once into a database which is not modified. Each job copies it into
+ * its own database (see {@link BibCache BibCache}). A file is parsed again if
+ * its contents has been changed. The caches are kept for subsequent
+ * invocations of {@link #run(List) run()}. The jobs share the resource finder
+ * and the factory for bib readers since both are part of the key of a cached
+ * bib file.
+ * </p>
+ * 
+ * <pre>
+ *  ExBibBatch batch = new ExBibBatch(new Properties());
+ *  batch.setThreads(4);
+ *  batch.run(Arrays.asList("a.aux", "b.aux", "c.aux"));
+ * </pre>
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class ExBibBatch {
+
+    /**
+     * This resource finder passes the requests on to another resource finder
+     * one at a time. The resource finders initialize their internal caches
+     * lazily. Thus they can not be used by several threads at once.
+     */
+    private static final class SynchronizedFinder implements ResourceFinder {
+
+        /**
+         * The field <tt>finder</tt> contains the resource finder.
+         */
+        private final ResourceFinder finder;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param finder the resource finder
+         */
+        public SynchronizedFinder(ResourceFinder finder) {
+
+            this.finder = finder;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.resource.ResourceFinder#enableTracing(boolean)
+         */
+        public synchronized void enableTracing(boolean flag) {
+
+            finder.enableTracing(flag);
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.resource.ResourceFinder#findResource(java.lang.String,
+         *      java.lang.String)
+         */
+        public synchronized NamedInputStream findResource(String name,
+                String type) throws ConfigurationException {
+
+            return finder.findResource(name, type);
+        }
+
+    }
+
+    /**
+     * The field <tt>bibCache</tt> contains the cache for parsed bib files.
+     */
+    private BibCache bibCache = new BibCache();
+
+    /**
+     * The field <tt>bstCache</tt> contains the cache for parsed bst files.
+     */
+    private BstCache bstCache = new BstCache();
+
+    /**
+     * The field <tt>bibReaderFactory</tt> contains the factory for bib readers
+     * shared by the jobs or <code>null</code> if none has been made yet.
+     */
+    private BibReaderFactory bibReaderFactory = null;
+
+    /**
+     * The field <tt>debug</tt> contains the indicator for debugging output.
+     */
+    private Set<ExBibDebug> debug = new HashSet<ExBibDebug>();
+
+    /**
+     * The field <tt>logger</tt> contains the logger shared by the jobs.
+     */
+    private Logger logger = Logger.getLogger(ExBib.class.getName());
+
+    /**
+     * The field <tt>finder</tt> contains the resource finder shared by the
+     * jobs or <code>null</code> if none has been made yet.
+     */
+    private ResourceFinder finder = null;
+
+    /**
+     * The field <tt>properties</tt> contains the settings for the jobs.
+     */
+    private Properties properties;
+
+    /**
+     * The field <tt>threads</tt> contains the number of threads.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Creates a new object.
+     * 
+     * @param properties the properties with the parameters for all jobs
+     */
+    public ExBibBatch(Properties properties) {
+
+        this.properties = properties;
+    }
+
+    /**
+     * Getter for the cache of parsed bib files.
+     * 
+     * @return the cache
+     */
+    public BibCache getBibCache() {
+
+        return bibCache;
+    }
+
+    /**
+     * Getter for the cache of parsed bst files.
+     * 
+     * @return the cache
+     */
+    public BstCache getBstCache() {
+
+        return bstCache;
+    }
+
+    /**
+     * Getter for the debugging indicators. The set returned can be modified to
+     * change the indicators of the subsequent jobs.
+     * 
+     * @return the debugging indicators
+     */
+    public Set<ExBibDebug> getDebug() {
+
+        return debug;
+    }
+
+    /**
+     * Getter for the number of threads.
+     * 
+     * @return the number of threads
+     */
+    public int getThreads() {
+
+        return threads;
+    }
+
+    /**
+     * Create a new instance of {@link ExBib ExBib} for a job. It is already
+     * connected to the caches and shares the resource finder and the factory
+     * for bib readers with the other jobs. Derived classes can overwrite this
+     * method to adjust the instance.
+     * 
+     * @param props the properties for the job
+     * @param log the logger for the job
+     * 
+     * @return the new instance
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    protected ExBib makeExBib(final Properties props, final Logger log)
+            throws IOException {
+
+        ExBib exBib = new ExBib(props) {
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.ExBib#makeBibReaderFactory(org.extex.resource.ResourceFinder,
+             *      org.extex.framework.configuration.Configuration)
+             */
+            @Override
+            protected BibReaderFactory makeBibReaderFactory(
+                    ResourceFinder resourceFinder, Configuration cfg) {
+
+                synchronized (ExBibBatch.this) {
+                    if (bibReaderFactory == null
+                            || bibReaderFactory.getResourceFinder() != resourceFinder) {
+                        bibReaderFactory =
+                                super.makeBibReaderFactory(resourceFinder, cfg);
+                    }
+                    return bibReaderFactory;
+                }
+            }
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.ExBib#makeResourceFinder(org.extex.framework.configuration.Configuration)
+             */
+            @Override
+            protected ResourceFinder makeResourceFinder(Configuration cfg)
+                    throws ConfigurationException {
+
+                synchronized (ExBibBatch.this) {
+                    if (finder == null) {
+                        finder =
+                                new SynchronizedFinder(
+                                    new ResourceFinderFactory()
+                                        .createResourceFinder(cfg,
+                                            ExBibBatch.this.logger,
+                                            props, null));
+                    }
+                    return finder;
+                }
+            }
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.ExBib#recognizeFile(java.lang.String,
+             *      java.lang.String)
+             */
+            @Override
+            protected void recognizeFile(String file, String extension)
+                    throws IOException {
+
+                Handler handler = makeLogHandler(file + extension);
+                if (handler != null) {
+                    log.addHandler(handler);
+                }
+            }
+        };
+        exBib.setLogger(log);
+        for (ExBibDebug d : debug) {
+            exBib.setDebug(d);
+        }
+        exBib.setBibCache(bibCache);
+        exBib.setBstCache(bstCache);
+        return exBib;
+    }
+
+    /**
+     * Create a handler for the log file of a job. Derived classes can
+     * overwrite this method to change the format of the log file or to
+     * suppress it.
+     * 
+     * @param file the name of the log file
+     * 
+     * @return the handler or <code>null</code> for none
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    protected Handler makeLogHandler(String file) throws IOException {
+
+        Handler handler = new FileHandler(file);
+        handler.setFormatter(new Formatter() {
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see java.util.logging.Formatter#format(java.util.logging.LogRecord)
+             */
+            @Override
+            public String format(LogRecord record) {
+
+                String message = record.getMessage();
+                return message == null ? "" : message;
+            }
+        });
+        handler.setLevel(Level.FINE);
+        return handler;
+    }
+
+    /**
+     * Create the logger for a job. It passes the messages on to the logger of
+     * the batch.
+     * 
+     * @return the logger
+     */
+    private Logger makeLogger() {
+
+        Logger log = Logger.getAnonymousLogger();
+        log.setParent(logger);
+        log.setUseParentHandlers(true);
+        return log;
+    }
+
+    /**
+     * Process some aux files. The method returns when all of them have been
+     * processed.
+     * 
+     * @param files the names of the aux files
+     * 
+     * @return <code>false</code> iff an error has occurred in one of the jobs
+     * 
+     * @throws IOException is case of an uncaught IOException
+     * @throws ConfigurationException in case that the top-level configuration
+     *         could not be found
+     */
+    public boolean run(List<String> files)
+            throws IOException,
+                ConfigurationException {
+
+        ExecutorService executor =
+                Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                    /**
+                     * {@inheritDoc}
+                     * 
+                     * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+                     */
+                    public Thread newThread(Runnable r) {
+
+                        Thread t = new Thread(r, "ExBibBatch");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        try {
+            List<Future<Boolean>> jobs = new ArrayList<Future<Boolean>>();
+            for (String file : files) {
+                final Properties props = new Properties();
+                props.putAll(properties);
+                props.remove(ExBib.PROP_OUTFILE);
+                props.setProperty(ExBib.PROP_FILE, file);
+                jobs.add(executor.submit(new Callable<Boolean>() {
+
+                    /**
+                     * {@inheritDoc}
+                     * 
+                     * @see java.util.concurrent.Callable#call()
+                     */
+                    public Boolean call() throws Exception {
+
+                        Logger log = makeLogger();
+                        try {
+                            return Boolean.valueOf(makeExBib(props, log).run());
+                        } finally {
+                            for (Handler h : log.getHandlers()) {
+                                log.removeHandler(h);
+                                h.close();
+                            }
+                        }
+                    }
+                }));
+            }
+
+            boolean ok = true;
+            for (Future<Boolean> job : jobs) {
+                try {
+                    ok = job.get().booleanValue() && ok;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof ConfigurationException) {
+                        throw (ConfigurationException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+            return ok;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Setter for the logger. The logger is shared by all jobs.
+     * 
+     * @param logger the logger to set which must not be <code>null</code>
+     */
+    public void setLogger(Logger logger) {
+
+        if (logger == null) {
+            throw new IllegalArgumentException();
+        }
+        this.logger = logger;
+    }
+
+    /**
+     * Setter for the number of threads.
+     * 
+     * @param threads the number of threads; it must be positive
+     */
+    public void setThreads(int threads) {
+
+        if (threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.threads = threads;
+    }
+
+}
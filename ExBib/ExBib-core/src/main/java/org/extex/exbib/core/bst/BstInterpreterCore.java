@@ -34,8 +34,10 @@ import org.extex.exbib.core.bst.exception.ExBibIllegalValueException;
 import org.extex.exbib.core.bst.exception.ExBibStackEmptyException;
 import org.extex.exbib.core.bst.token.Token;
 import org.extex.exbib.core.bst.token.TokenFactory;
+import org.extex.exbib.core.bst.token.impl.TBlock;
 import org.extex.exbib.core.bst.token.impl.TField;
 import org.extex.exbib.core.bst.token.impl.TInteger;
+import org.extex.exbib.core.bst.token.impl.TLiteral;
 import org.extex.exbib.core.bst.token.impl.TLocalInteger;
 import org.extex.exbib.core.bst.token.impl.TLocalString;
 import org.extex.exbib.core.bst.token.impl.TString;
@@ -50,6 +52,8 @@ import org.extex.exbib.core.exceptions.ExBibMissingNumberException;
 import org.extex.exbib.core.exceptions.ExBibMissingStringException;
 import org.extex.exbib.core.io.Locator;
 import org.extex.exbib.core.io.Writer;
+import org.extex.exbib.core.io.bstio.BstCache;
+import org.extex.exbib.core.io.bstio.BstReader;
 import org.extex.exbib.core.io.bstio.BstReaderFactory;
 import org.extex.exbib.core.util.NotObservableException;
 import org.extex.exbib.core.util.Observer;
@@ -110,6 +114,13 @@ import org.extex.resource.ResourceFinder;
  * informed when such an event is recognized.
  * </p>
  * 
+ * <h3>The Linking</h3>
+ * <p>
+ * When the program has been read the literals in the functions and commands
+ * are linked to the {@link FunctionBinding bindings} of the functions named.
+ * Thus the invocation of a function does not have to look up its name.
+ * </p>
+ * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @version $Revision$
  */
@@ -143,9 +154,9 @@ public class BstInterpreterCore extends BibliographyCore
 
     /**
      * The field <tt>functions</tt> contains the mapping from the name to the
-     * code for functions.
+     * binding containing the code for functions.
      */
-    private Map<String, Code> functions;
+    private Map<String, FunctionBinding> functions;
 
     /**
      * The field <tt>addFunctionObservers</tt> contains the list of observers
@@ -231,6 +242,12 @@ public class BstInterpreterCore extends BibliographyCore
      */
     private long warnings = 0;
 
+    /**
+     * The field <tt>bstCache</tt> contains the cache for parsed styles or
+     * <code>null</code> if the styles are parsed each time.
+     */
+    private BstCache bstCache = null;
+
     /**
      * Creates a new Processor object. This method is mainly meant to be used in
      * the factory. Please make sure that database, log writer, and out writer
@@ -260,7 +277,7 @@ public class BstInterpreterCore extends BibliographyCore
             throws ExBibImpossibleException {
 
         super(db, log);
-        functions = new HashMap<String, Code>();
+        functions = new HashMap<String, FunctionBinding>();
         this.outWriter = out;
 
         reset();
@@ -294,8 +311,15 @@ public class BstInterpreterCore extends BibliographyCore
                 locator);
         }
 
-        if (functions.put(name, body) != null) {
-            throw new ExBibFunctionExistsException(name, locator);
+        FunctionBinding binding = functions.get(name);
+        if (binding == null) {
+            functions.put(name, new FunctionBinding(this, body));
+        } else {
+            Code code = binding.getCode();
+            binding.setCode(body);
+            if (code != null) {
+                throw new ExBibFunctionExistsException(name, locator);
+            }
         }
 
         if (addFunctionObservers != null) {
@@ -318,11 +342,12 @@ public class BstInterpreterCore extends BibliographyCore
                 locator);
         }
 
-        if (functions.get(name) == null) {
+        FunctionBinding binding = functions.get(name);
+        if (binding == null || binding.getCode() == null) {
             throw new ExBibFunctionUndefinedException(name, locator);
         }
 
-        functions.put(name, body);
+        binding.setCode(body);
     }
 
     /**
@@ -417,7 +442,8 @@ public class BstInterpreterCore extends BibliographyCore
      */
     public Code getFunction(String name) {
 
-        return (functions.get(name));
+        FunctionBinding binding = functions.get(name);
+        return (binding == null ? null : binding.getCode());
     }
 
     /**
@@ -510,6 +536,51 @@ public class BstInterpreterCore extends BibliographyCore
         return commands.iterator();
     }
 
+    /**
+     * Link the literals in the functions and commands to the bindings of the
+     * functions named. A function which is not defined yet gets a binding
+     * without code. It is filled when the function is defined later on.
+     */
+    public void link() {
+
+        for (FunctionBinding binding : new ArrayList<FunctionBinding>(functions
+            .values())) {
+            Code code = binding.getCode();
+            if (code instanceof MacroCode) {
+                link(((MacroCode) code).getToken());
+            } else if (code instanceof Token) {
+                link((Token) code);
+            }
+        }
+        for (Command command : commands) {
+            link(command.getValue());
+        }
+    }
+
+    /**
+     * Link the literals in a token and the tokens contained in it.
+     * 
+     * @param token the token or <code>null</code>
+     */
+    private void link(Token token) {
+
+        if (token instanceof TLiteral) {
+            String name = token.getValue();
+            FunctionBinding binding = functions.get(name);
+            if (binding == null) {
+                binding = new FunctionBinding(this, null);
+                functions.put(name, binding);
+            }
+            ((TLiteral) token).link(binding);
+        } else if (token instanceof TBlock) {
+            link(((TBlock) token).getTokenList());
+        } else if (token instanceof TokenList) {
+            for (Token t : (TokenList) token) {
+                link(t);
+            }
+        }
+    }
+
     /**
      * Pop an element from the stack. If the stack is empty an exception is
      * thrown.
@@ -532,7 +603,9 @@ public class BstInterpreterCore extends BibliographyCore
         }
 
         Token t = literalStack.pop();
-        popObservers.update(this, t);
+        if (!popObservers.isEmpty()) {
+            popObservers.update(this, t);
+        }
 
         return t;
     }
@@ -642,7 +715,13 @@ public class BstInterpreterCore extends BibliographyCore
         BstReaderFactory bstReaderFactory =
                 new BstReaderFactory(
                     configuration.getConfiguration("BstReader"), finder);
-        bstReaderFactory.newInstance().parse(this);
+        BstReader reader = bstReaderFactory.newInstance();
+        if (bstCache == null) {
+            reader.parse(this);
+        } else {
+            bstCache.parse(reader, this, finder);
+        }
+        link();
 
         for (Command command : commands) {
             runObservers.update(this, command);
@@ -670,7 +749,9 @@ public class BstInterpreterCore extends BibliographyCore
     public void push(Token token) {
 
         literalStack.push(token);
-        pushObservers.update(this, token);
+        if (!pushObservers.isEmpty()) {
+            pushObservers.update(this, token);
+        }
     }
 
     /**
@@ -720,7 +801,7 @@ public class BstInterpreterCore extends BibliographyCore
         theStrings = new ArrayList<String>();
         commands = new ArrayList<Command>();
         if (functions == null) {
-            functions = new HashMap<String, Code>();
+            functions = new HashMap<String, FunctionBinding>();
         }
         try {
             addFunction("sort.key$", new TLocalString("sort.key$", locator),
@@ -734,6 +815,18 @@ public class BstInterpreterCore extends BibliographyCore
         }
     }
 
+    /**
+     * Setter for the cache of parsed styles. The cache can be shared by
+     * several processors.
+     * 
+     * @param cache the cache or <code>null</code> to parse the styles each
+     *        time
+     */
+    public void setBstCache(BstCache cache) {
+
+        this.bstCache = cache;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -840,7 +933,9 @@ public class BstInterpreterCore extends BibliographyCore
      */
     public void step(Object obj) {
 
-        stepObservers.update(this, obj);
+        if (!stepObservers.isEmpty()) {
+            stepObservers.update(this, obj);
+        }
     }
 
     /**
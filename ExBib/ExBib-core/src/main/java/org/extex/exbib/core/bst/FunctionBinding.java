@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ * 
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package org.extex.exbib.core.bst;
+
+import org.extex.exbib.core.bst.code.Code;
+
+/**
+ * This class is a cell containing the code of a function in a function
+ * container. The cell of a name stays the same when the function is changed.
+ * Thus it can be attached to the literals of a program when the program has
+ * been read. Afterwards the invocation of a function does not need to look up
+ * its name.
+ * <p>
+ * The cell of a function which is not defined yet contains <code>null</code>.
+ * </p>
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public final class FunctionBinding {
+
+    /**
+     * The field <tt>code</tt> contains the code or <code>null</code>.
+     */
+    private Code code;
+
+    /**
+     * The field <tt>container</tt> contains the container of the function.
+     */
+    private final FunctionContainer container;
+
+    /**
+     * Creates a new object.
+     * 
+     * @param container the container of the function
+     * @param code the code or <code>null</code>
+     */
+    public FunctionBinding(FunctionContainer container, Code code) {
+
+        this.container = container;
+        this.code = code;
+    }
+
+    /**
+     * Getter for the code.
+     * 
+     * @return the code or <code>null</code> if the function is not defined
+     */
+    public Code getCode() {
+
+        return code;
+    }
+
+    /**
+     * Getter for the container.
+     * 
+     * @return the container
+     */
+    public FunctionContainer getContainer() {
+
+        return container;
+    }
+
+    /**
+     * Setter for the code.
+     * 
+     * @param code the code
+     */
+    public void setCode(Code code) {
+
+        this.code = code;
+    }
+
+}
@@ -20,6 +20,7 @@ package org.extex.exbib.core.bst.token.impl;
 
 import org.extex.exbib.core.Processor;
 import org.extex.exbib.core.bst.BstProcessor;
+import org.extex.exbib.core.bst.FunctionBinding;
 import org.extex.exbib.core.bst.code.Code;
 import org.extex.exbib.core.bst.exception.ExBibEmptyFunctionNameException;
 import org.extex.exbib.core.bst.token.AbstractToken;
@@ -37,6 +38,12 @@ import org.extex.exbib.core.io.Locator;
  */
 public class TLiteral extends AbstractToken {
 
+    /**
+     * The field <tt>binding</tt> contains the binding of the function or
+     * <code>null</code> if the literal has not been linked.
+     */
+    private FunctionBinding binding = null;
+
     /**
      * Creates a new object.
      * 
@@ -59,7 +66,8 @@ public class TLiteral extends AbstractToken {
     /**
      * The definition of the literal as function is sought and the respective
      * code is executed. If no function definition is found then an Exception is
-     * thrown.
+     * thrown. If the literal has been linked for the processor then the binding
+     * is used instead of looking up the name.
      * 
      * @param processor the processor context
      * @param entry the current entry or <code>null</code>
@@ -79,7 +87,11 @@ public class TLiteral extends AbstractToken {
         String name = getValue();
         processor.step(name);
 
-        Code code = processor.getFunction(name);
+        FunctionBinding b = binding;
+        Code code =
+                (b != null && b.getContainer() == processor
+                        ? b.getCode()
+                        : processor.getFunction(name));
 
         if (code == null) {
             throw new ExBibFunctionUndefinedException(name, locator);
@@ -103,6 +115,16 @@ public class TLiteral extends AbstractToken {
         return macro != null ? macro : "";
     }
 
+    /**
+     * Attach the binding of the function named by this literal.
+     * 
+     * @param binding the binding
+     */
+    public void link(FunctionBinding binding) {
+
+        this.binding = binding;
+    }
+
     /**
      * {@inheritDoc}
      * 
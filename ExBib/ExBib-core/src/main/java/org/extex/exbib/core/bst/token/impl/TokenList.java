@@ -78,8 +78,9 @@ public class TokenList extends AbstractToken implements Iterable<Token> {
     public void execute(BstProcessor processor, Entry entry, Locator locator)
             throws ExBibException {
 
-        for (Token t : value) {
-            t.execute(processor, entry, locator);
+        int size = value.size();
+        for (int i = 0; i < size; i++) {
+            value.get(i).execute(processor, entry, locator);
         }
     }
 
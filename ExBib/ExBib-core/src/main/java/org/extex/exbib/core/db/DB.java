@@ -159,7 +159,8 @@ public interface DB extends Iterable<Entry> {
      * @param key the key for the new entry
      * @param locator the locator from the user's perspective
      * 
-     * @return a new entry
+     * @return a new entry or <code>null</code> if the entry is not needed. In
+     *         the latter case the reader skips the fields of the entry
      */
     Entry makeEntry(String type, String key, Locator locator);
 
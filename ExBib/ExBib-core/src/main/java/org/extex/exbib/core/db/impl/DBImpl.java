@@ -18,13 +18,17 @@
 
 package org.extex.exbib.core.db.impl;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.extex.exbib.core.bst.exception.ExBibEntryUndefinedException;
 import org.extex.exbib.core.db.DB;
@@ -34,6 +38,7 @@ import org.extex.exbib.core.db.sorter.CodepointIgnoreCaseSorter;
 import org.extex.exbib.core.db.sorter.Sorter;
 import org.extex.exbib.core.exceptions.ExBibException;
 import org.extex.exbib.core.io.Locator;
+import org.extex.exbib.core.io.bibio.BibIndex;
 import org.extex.exbib.core.io.bibio.BibReader;
 import org.extex.exbib.core.io.bibio.BibReaderFactory;
 import org.extex.exbib.core.util.NotObservableException;
@@ -51,6 +56,39 @@ import org.extex.framework.configuration.exception.ConfigurationMissingException
  * "text-transform:uppercase;font-size:90%;vertical-align:-0.4ex;margin-left:-0.2em;margin-right:-0.1em;line-height:0;"
  * >e</span>X compatible database.
  * 
+ * <h3>Configuration</h3>
+ * <p>
+ * The attribute <tt>streaming</tt> can be used to reduce the memory needed
+ * for large databases. If it has the value <tt>true</tt> then only the cited
+ * entries and the entries referenced by them via <tt>crossref</tt> are
+ * stored. The fields of all other entries are skipped by the reader. The
+ * strings and the preamble are stored as usual. If all entries are cited
+ * (<tt>\nocite{*}</tt>) then the whole database is loaded anyway.
+ * </p>
+ * 
+ * <pre>
+ *   &lt;DB class="org.extex.exbib.core.db.impl.DBImpl" streaming="true"/&gt;
+ * </pre>
+ * 
+ * <p>
+ * The database is read once. Only if an entry is referenced via
+ * <tt>crossref</tt> before the referencing entry has been seen the database
+ * is read another time to get the missing entries. As for a normal load the
+ * last entry with a given key wins.
+ * </p>
+ * <p>
+ * The attribute <tt>index</tt> names a directory for index files (see
+ * {@link BibIndex}). If it is present then a streaming load uses the index
+ * file of the database from this directory. The index file is created if it
+ * is missing or outdated. Afterwards only the needed entries are read from
+ * the database. Without this attribute no index files are used or written.
+ * </p>
+ * 
+ * <pre>
+ *   &lt;DB class="org.extex.exbib.core.db.impl.DBImpl" streaming="true"
+ *       index="/var/cache/exbib"/&gt;
+ * </pre>
+ * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @version $Revision$
  */
@@ -125,6 +163,53 @@ public class DBImpl implements DB, Configurable, Observable {
      */
     private int minCrossrefs = 2;
 
+    /**
+     * The field <tt>streaming</tt> contains the indicator that only the needed
+     * entries should be stored.
+     */
+    private boolean streaming = false;
+
+    /**
+     * The field <tt>indexDirectory</tt> contains the directory for the index
+     * files used for a streaming load. It is <code>null</code> if no index
+     * files are used.
+     */
+    private File indexDirectory = null;
+
+    /**
+     * The field <tt>wanted</tt> contains the normalized keys of the entries to
+     * be stored during a streaming load. It is <code>null</code> if all
+     * entries should be stored.
+     */
+    private Set<String> wanted = null;
+
+    /**
+     * The field <tt>late</tt> contains the normalized keys of the entries
+     * which have become wanted while reading. They might have been skipped
+     * already.
+     */
+    private Set<String> late = null;
+
+    /**
+     * The field <tt>loaded</tt> contains the normalized keys of the entries
+     * stored by the previous passes of a streaming load. Those entries are
+     * skipped when the database is read another time.
+     */
+    private Set<String> loaded = null;
+
+    /**
+     * The field <tt>checked</tt> contains the number of entries which have
+     * been inspected for a crossref during a streaming load.
+     */
+    private int checked = 0;
+
+    /**
+     * The field <tt>rescan</tt> contains the indicator that the database is
+     * read another time to get some missing entries. In this case the
+     * preambles are not stored again.
+     */
+    private boolean rescan = false;
+
     /**
      * Create a new empty database.
      */
@@ -132,6 +217,23 @@ public class DBImpl implements DB, Configurable, Observable {
 
     }
 
+    /**
+     * Add the targets of the crossrefs of the entries stored since the last
+     * invocation to the wanted entries.
+     */
+    private void collectCrossrefs() {
+
+        for (; checked < entries.size(); checked++) {
+            Value xref = entries.get(checked).get("crossref");
+            if (xref != null) {
+                String key = xref.expand(this).toLowerCase(Locale.ENGLISH);
+                if (wanted.add(key)) {
+                    late.add(key);
+                }
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -140,6 +242,14 @@ public class DBImpl implements DB, Configurable, Observable {
     public void configure(Configuration config) throws ConfigurationException {
 
         sorter = new CodepointIgnoreCaseSorter();
+        if (config != null) {
+            streaming =
+                    Boolean.valueOf(config.getAttribute("streaming"))
+                        .booleanValue();
+            String index = config.getAttribute("index");
+            indexDirectory =
+                    (index == null || index.equals("") ? null : new File(index));
+        }
     }
 
     /**
@@ -257,6 +367,26 @@ public class DBImpl implements DB, Configurable, Observable {
         }
     }
 
+    /**
+     * Getter for the directory for the index files.
+     * 
+     * @return the directory or <code>null</code> if no index files are used
+     */
+    public File getIndexDirectory() {
+
+        return indexDirectory;
+    }
+
+    /**
+     * Getter for the streaming indicator.
+     * 
+     * @return <code>true</code> iff only the needed entries are stored
+     */
+    public boolean isStreaming() {
+
+        return streaming;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -277,12 +407,19 @@ public class DBImpl implements DB, Configurable, Observable {
                 ConfigurationException,
                 FileNotFoundException {
 
-        BibReader reader = bibReaderFactory.newInstance(file);
-
-        reader.load(this);
-
         List<String> missing = new ArrayList<String>();
 
+        if (wanted != null) {
+            // an included file of a streaming load
+            bibReaderFactory.newInstance(file).load(this);
+            return missing;
+        } else if (streaming && citation != null
+                && !citation.containsKey("*")) {
+            stream(file, citation);
+        } else {
+            bibReaderFactory.newInstance(file).load(this);
+        }
+
         if (citation == null || citation.containsKey("*")) {
             return missing;
         }
@@ -347,10 +484,19 @@ public class DBImpl implements DB, Configurable, Observable {
      * @param key the key for the new entry
      * @param locator the locator from the user's perspective
      * 
-     * @return a new entry
+     * @return a new entry or <code>null</code> if the entry is not needed by
+     *         a streaming load
      */
     public Entry makeEntry(String type, String key, Locator locator) {
 
+        if (wanted != null) {
+            collectCrossrefs();
+            String k = key.toLowerCase(Locale.ENGLISH);
+            if (!wanted.contains(k) || loaded.contains(k)) {
+                return null;
+            }
+        }
+
         Entry entry = new Entry(locator);
         entry.setKey(key);
         entry.setType(type);
@@ -416,6 +562,28 @@ public class DBImpl implements DB, Configurable, Observable {
         this.sorter = sorter;
     }
 
+    /**
+     * Setter for the directory for the index files.
+     * 
+     * @param indexDirectory the directory or <code>null</code> if no index
+     *        files should be used
+     */
+    public void setIndexDirectory(File indexDirectory) {
+
+        this.indexDirectory = indexDirectory;
+    }
+
+    /**
+     * Setter for the streaming indicator.
+     * 
+     * @param streaming <code>true</code> iff only the needed entries should be
+     *        stored
+     */
+    public void setStreaming(boolean streaming) {
+
+        this.streaming = streaming;
+    }
+
     /**
      * Sort the database according to the configured sorter.
      * 
@@ -447,7 +615,15 @@ public class DBImpl implements DB, Configurable, Observable {
 
         Entry entry = getEntry(key);
 
-        if (entry == null) {
+        if (entry == null && wanted != null) {
+            // the entry has been skipped
+            String k = key.toLowerCase(Locale.ENGLISH);
+            if (wanted.contains(alias.toLowerCase(Locale.ENGLISH))
+                    && wanted.add(k)) {
+                late.add(k);
+            }
+            return;
+        } else if (entry == null) {
             throw new ExBibEntryUndefinedException(key, locator);
         }
 
@@ -472,6 +648,9 @@ public class DBImpl implements DB, Configurable, Observable {
      */
     public void storePreamble(Value pre) {
 
+        if (rescan) {
+            return;
+        }
         preamble.add(pre);
         makePreambleHook.update(this, pre);
     }
@@ -489,4 +668,77 @@ public class DBImpl implements DB, Configurable, Observable {
         makeStringHook.update(this, name);
     }
 
+    /**
+     * Read a database and store only the cited entries and the entries
+     * referenced by them. If an index is available then only those entries
+     * are parsed.
+     * 
+     * @param file the name of the file to load
+     * @param citation the map of citations
+     * 
+     * @throws ExBibException in case of an syntax error
+     * @throws ConfigurationException in case of an invalid configuration
+     * @throws FileNotFoundException in case that the requested file could not
+     *         be opened for reading
+     */
+    private void stream(String file, Map<String, String> citation)
+            throws ExBibException,
+                ConfigurationException,
+                FileNotFoundException {
+
+        wanted = new HashSet<String>();
+        late = new HashSet<String>();
+        loaded = new HashSet<String>();
+        int first = entries.size();
+        for (String key : citation.keySet()) {
+            wanted.add(key.toLowerCase(Locale.ENGLISH));
+        }
+        checked = 0;
+        collectCrossrefs();
+        late.clear();
+
+        try {
+            BibIndex index =
+                    (indexDirectory != null ? bibReaderFactory.newIndex(file,
+                        indexDirectory) : null);
+            if (index != null) {
+                index.loadStrings(this);
+                Collection<String> keys = new ArrayList<String>(wanted);
+                while (!keys.isEmpty()) {
+                    index.load(this, keys);
+                    collectCrossrefs();
+                    late.removeAll(entryHash.keySet());
+                    keys = new ArrayList<String>(late);
+                    late.clear();
+                }
+                return;
+            }
+
+            bibReaderFactory.newInstance(file).load(this);
+            collectCrossrefs();
+            late.removeAll(entryHash.keySet());
+
+            while (!late.isEmpty()) {
+                int n = entries.size();
+                for (int i = first; i < n; i++) {
+                    loaded.add(entries.get(i).getKey().toLowerCase(
+                        Locale.ENGLISH));
+                }
+                late.clear();
+                rescan = true;
+                bibReaderFactory.newInstance(file).load(this);
+                collectCrossrefs();
+                if (entries.size() == n) {
+                    break;
+                }
+                late.removeAll(entryHash.keySet());
+            }
+        } finally {
+            wanted = null;
+            late = null;
+            loaded = null;
+            rescan = false;
+        }
+    }
+
 }
@@ -19,7 +19,6 @@
 package org.extex.exbib.core.db.sorter;
 
 import java.io.Serializable;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -36,6 +35,14 @@ import org.extex.exbib.core.db.Entry;
  * Note: this comparator imposes orderings that are inconsistent with equals.
  * </p>
  * 
+ * <p>
+ * For sorting the keys are folded once in advance: each character is mapped
+ * to the lower case of its upper case just like
+ * {@link String#compareToIgnoreCase(String) compareToIgnoreCase()} does it
+ * for each comparison. Keys containing surrogates are compared with
+ * <tt>compareToIgnoreCase()</tt> directly.
+ * </p>
+ * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @version $Revision$
  */
@@ -51,6 +58,68 @@ public class CodepointIgnoreCaseSorter
      */
     private static final long serialVersionUID = 2008L;
 
+    /**
+     * This class contains a sort key and its folded characters.
+     */
+    private static final class Folded {
+
+        /**
+         * The field <tt>chars</tt> contains the folded characters or
+         * <code>null</code> if the key contains surrogates.
+         */
+        private final char[] chars;
+
+        /**
+         * The field <tt>key</tt> contains the sort key.
+         */
+        private final String key;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param key the sort key
+         */
+        Folded(String key) {
+
+            this.key = key;
+            char[] c = key.toCharArray();
+            for (int i = 0; i < c.length; i++) {
+                char ch = c[i];
+                if (Character.isHighSurrogate(ch)
+                        || Character.isLowSurrogate(ch)) {
+                    c = null;
+                    break;
+                }
+                c[i] = Character.toLowerCase(Character.toUpperCase(ch));
+            }
+            this.chars = c;
+        }
+
+        /**
+         * Compare this key to another one.
+         * 
+         * @param other the other key
+         * 
+         * @return a negative number, zero, or a positive number if this key is
+         *         less than, equal to, or greater than the other key
+         */
+        int compareTo(Folded other) {
+
+            char[] a = chars;
+            char[] b = other.chars;
+            if (a == null || b == null) {
+                return key.compareToIgnoreCase(other.key);
+            }
+            int n = Math.min(a.length, b.length);
+            for (int i = 0; i < n; i++) {
+                if (a[i] != b[i]) {
+                    return a[i] - b[i];
+                }
+            }
+            return a.length - b.length;
+        }
+    }
+
     /**
      * Provide a Comparator which just uses the appropriate keys and compares
      * them without respect to the case.
@@ -84,7 +153,31 @@ public class CodepointIgnoreCaseSorter
      */
     public void sort(List<Entry> list) {
 
-        Collections.sort(list, this);
+        new KeySorter<Folded>() {
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.db.sorter.KeySorter#compareKeys(java.lang.Object,
+             *      java.lang.Object)
+             */
+            @Override
+            protected int compareKeys(Folded a, Folded b) {
+
+                return a.compareTo(b);
+            }
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.db.sorter.KeySorter#makeKey(java.lang.String)
+             */
+            @Override
+            protected Folded makeKey(String sortKey) {
+
+                return new Folded(sortKey);
+            }
+        }.sort(list);
     }
 
 }
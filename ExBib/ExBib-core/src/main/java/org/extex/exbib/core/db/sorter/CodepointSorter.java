@@ -19,7 +19,6 @@
 package org.extex.exbib.core.db.sorter;
 
 import java.io.Serializable;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -75,7 +74,31 @@ public class CodepointSorter implements Comparator<Entry>, Sorter, Serializable
      */
     public void sort(List<Entry> list) {
 
-        Collections.sort(list, this);
+        new KeySorter<String>() {
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.db.sorter.KeySorter#compareKeys(java.lang.Object,
+             *      java.lang.Object)
+             */
+            @Override
+            protected int compareKeys(String a, String b) {
+
+                return a.compareTo(b);
+            }
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.db.sorter.KeySorter#makeKey(java.lang.String)
+             */
+            @Override
+            protected String makeKey(String sortKey) {
+
+                return sortKey;
+            }
+        }.sort(list);
     }
 
 }
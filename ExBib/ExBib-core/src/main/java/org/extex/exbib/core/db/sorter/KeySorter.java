@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.exbib.core.db.sorter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.extex.exbib.core.db.Entry;
+
+/**
+ * This class sorts a list of entries with precomputed keys. The key of each
+ * entry is computed once before the sorting starts. Thus the comparisons
+ * during the sorting do not have to inspect the entries again.
+ * 
+ * <p>
+ * The sorting is stable. Large lists are split into parts which are sorted
+ * in parallel and merged afterwards; the threads are shared by all sorters.
+ * The result is the same as the one of {@link java.util.Collections#sort(List,
+ * Comparator) Collections.sort()} with a comparator consistent with the keys.
+ * </p>
+ * 
+ * @param <K> the type of the keys
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+abstract class KeySorter<K> implements Comparator<KeySorter.Item<K>> {
+
+    /**
+     * This class contains an entry and its key.
+     * 
+     * @param <K> the type of the key
+     */
+    protected static final class Item<K> {
+
+        /**
+         * The field <tt>entry</tt> contains the entry.
+         */
+        private final Entry entry;
+
+        /**
+         * The field <tt>key</tt> contains the key.
+         */
+        private final K key;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param entry the entry
+         * @param key the key
+         */
+        Item(Entry entry, K key) {
+
+            this.entry = entry;
+            this.key = key;
+        }
+    }
+
+    /**
+     * The field <tt>PARALLEL_THRESHOLD</tt> contains the minimal number of
+     * entries in a part of a list sorted in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 0x2000;
+
+    /**
+     * The field <tt>executor</tt> contains the executor shared by all sorters
+     * for sorting in parallel. It is created when needed.
+     */
+    private static ExecutorService executor = null;
+
+    /**
+     * Get the string to be used for sorting an entry. This is the sort key if
+     * present or the key of the entry otherwise.
+     * 
+     * @param entry the entry
+     * 
+     * @return the sort key
+     */
+    protected static String sortKey(Entry entry) {
+
+        String key = entry.getSortKey();
+        return key == null ? entry.getKey() : key;
+    }
+
+    /**
+     * Wait for the completion of some tasks and forget them afterwards.
+     * 
+     * @param futures the pending tasks
+     * 
+     * @throws InterruptedException in case that the current thread has been
+     *         interrupted
+     */
+    private static void await(List<Future<?>> futures)
+            throws InterruptedException {
+
+        try {
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            for (Future<?> f : futures) {
+                f.cancel(true);
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            futures.clear();
+        }
+    }
+
+    /**
+     * Getter for the executor for sorting in parallel. The executor is
+     * created if needed. Its threads are daemons; thus it is never shut down.
+     * 
+     * @return the executor
+     */
+    private static synchronized ExecutorService getExecutor() {
+
+        if (executor == null) {
+            executor =
+                    Executors.newFixedThreadPool(Runtime.getRuntime()
+                        .availableProcessors(), new ThreadFactory() {
+
+                        /**
+                         * {@inheritDoc}
+                         * 
+                         * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+                         */
+                        public Thread newThread(Runnable r) {
+
+                            Thread t = new Thread(r, "KeySorter");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+        }
+        return executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+     */
+    public final int compare(Item<K> a, Item<K> b) {
+
+        return compareKeys(a.key, b.key);
+    }
+
+    /**
+     * Compare two keys.
+     * 
+     * @param a the first key
+     * @param b the second key
+     * 
+     * @return a negative number, zero, or a positive number if the first key
+     *         is less than, equal to, or greater than the second key
+     */
+    protected abstract int compareKeys(K a, K b);
+
+    /**
+     * Compute the key for a sort key.
+     * 
+     * @param sortKey the sort key of an entry
+     * 
+     * @return the key
+     */
+    protected abstract K makeKey(String sortKey);
+
+    /**
+     * Create the list of entries and their keys.
+     * 
+     * @param list the list of entries
+     * 
+     * @return the items in the order of the list
+     */
+    private List<Item<K>> makeItems(List<Entry> list) {
+
+        List<Item<K>> items = new ArrayList<Item<K>>(list.size());
+        for (Entry e : list) {
+            items.add(new Item<K>(e, makeKey(sortKey(e))));
+        }
+        return items;
+    }
+
+    /**
+     * Merge two adjacent sorted ranges of a list. On equal keys the element
+     * of the first range is taken first.
+     * 
+     * @param items the list
+     * @param buffer the scratch list of the same size
+     * @param from the start of the first range
+     * @param mid the start of the second range
+     * @param to the end of the second range
+     */
+    private void merge(List<Item<K>> items, List<Item<K>> buffer, int from,
+            int mid, int to) {
+
+        for (int k = from; k < to; k++) {
+            buffer.set(k, items.get(k));
+        }
+        int i = from;
+        int j = mid;
+        int k = from;
+        while (i < mid && j < to) {
+            items.set(k++, compare(buffer.get(j), buffer.get(i)) < 0 ? buffer
+                .get(j++) : buffer.get(i++));
+        }
+        while (i < mid) {
+            items.set(k++, buffer.get(i++));
+        }
+        while (j < to) {
+            items.set(k++, buffer.get(j++));
+        }
+    }
+
+    /**
+     * Sort a list in parallel. The list is split into parts which are sorted
+     * in the threads of the shared executor. The sorted parts are merged
+     * pairwise.
+     * 
+     * @param items the list to sort
+     * @param parts the number of parts
+     * 
+     * @throws InterruptedException in case that the current thread has been
+     *         interrupted
+     */
+    private void parallelSort(final List<Item<K>> items, int parts)
+            throws InterruptedException {
+
+        final int[] bounds = new int[parts + 1];
+        for (int i = 0; i <= parts; i++) {
+            bounds[i] = (int) ((long) items.size() * i / parts);
+        }
+        final List<Item<K>> buffer = new ArrayList<Item<K>>(items);
+        ExecutorService exec = getExecutor();
+
+        List<Future<?>> futures = new ArrayList<Future<?>>(parts);
+        for (int i = 0; i < parts; i++) {
+            final List<Item<K>> part = items.subList(bounds[i], bounds[i + 1]);
+            futures.add(exec.submit(new Runnable() {
+
+                /**
+                 * {@inheritDoc}
+                 * 
+                 * @see java.lang.Runnable#run()
+                 */
+                public void run() {
+
+                    Collections.sort(part, KeySorter.this);
+                }
+            }));
+        }
+        await(futures);
+
+        for (int width = 1; width < parts; width *= 2) {
+            for (int i = 0; i + width < parts; i += 2 * width) {
+                final int from = bounds[i];
+                final int mid = bounds[i + width];
+                final int to = bounds[Math.min(i + 2 * width, parts)];
+                futures.add(exec.submit(new Runnable() {
+
+                    /**
+                     * {@inheritDoc}
+                     * 
+                     * @see java.lang.Runnable#run()
+                     */
+                    public void run() {
+
+                        merge(items, buffer, from, mid, to);
+                    }
+                }));
+            }
+            await(futures);
+        }
+    }
+
+    /**
+     * Sort the given list. The list is modified to reflect the new order.
+     * 
+     * @param list the list to sort
+     */
+    public void sort(List<Entry> list) {
+
+        int size = list.size();
+        if (size < 2) {
+            return;
+        }
+        List<Item<K>> items = makeItems(list);
+        int parts =
+                Math.min(Runtime.getRuntime().availableProcessors(), size
+                        / PARALLEL_THRESHOLD);
+        if (parts < 2) {
+            Collections.sort(items, this);
+        } else {
+            try {
+                parallelSort(items, parts);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // parts of the list might still be under way
+                items = makeItems(list);
+                Collections.sort(items, this);
+            }
+        }
+
+        ListIterator<Entry> it = list.listIterator();
+        for (Item<K> item : items) {
+            it.next();
+            it.set(item.entry);
+        }
+    }
+
+}
@@ -19,8 +19,8 @@
 package org.extex.exbib.core.db.sorter;
 
 import java.io.Serializable;
+import java.text.CollationKey;
 import java.text.Collator;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
@@ -31,6 +31,12 @@ import org.extex.framework.configuration.exception.ConfigurationException;
 /**
  * This sorter uses a locale and the Java built-in collator for it.
  * 
+ * <p>
+ * The collation key of each entry is computed once before the sorting.
+ * Comparing collation keys is considerably cheaper than comparing the strings
+ * with the collator.
+ * </p>
+ * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @version $Revision$
  */
@@ -103,7 +109,31 @@ public class LocaleSorter implements Comparator<Entry>, Sorter, Serializable {
      */
     public void sort(List<Entry> list) throws ConfigurationException {
 
-        Collections.sort(list, this);
+        new KeySorter<CollationKey>() {
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.db.sorter.KeySorter#compareKeys(java.lang.Object,
+             *      java.lang.Object)
+             */
+            @Override
+            protected int compareKeys(CollationKey a, CollationKey b) {
+
+                return a.compareTo(b);
+            }
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.db.sorter.KeySorter#makeKey(java.lang.String)
+             */
+            @Override
+            protected CollationKey makeKey(String sortKey) {
+
+                return collator.getCollationKey(sortKey);
+            }
+        }.sort(list);
     }
 
     /**
@@ -19,10 +19,10 @@
 package org.extex.exbib.core.db.sorter;
 
 import java.io.Serializable;
+import java.text.CollationKey;
 import java.text.Collator;
 import java.text.ParseException;
 import java.text.RuleBasedCollator;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -109,7 +109,31 @@ public class RbcSorter
             throw new ConfigurationMissingException("RbcSorter");
         }
 
-        Collections.sort(list, this);
+        new KeySorter<CollationKey>() {
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.db.sorter.KeySorter#compareKeys(java.lang.Object,
+             *      java.lang.Object)
+             */
+            @Override
+            protected int compareKeys(CollationKey a, CollationKey b) {
+
+                return a.compareTo(b);
+            }
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.exbib.core.db.sorter.KeySorter#makeKey(java.lang.String)
+             */
+            @Override
+            protected CollationKey makeKey(String sortKey) {
+
+                return collator.getCollationKey(sortKey);
+            }
+        }.sort(list);
     }
 
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ * 
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package org.extex.exbib.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This is the base class for caches of parsed files. Such a cache can be
+ * shared by several runs of <logo>&epsilon;&chi;Bib</logo> &ndash; even if
+ * they are performed in parallel threads.
+ * <p>
+ * The cache is organized in slots. Each slot is identified by a key which
+ * usually contains the resolved file name. A slot holds the parsed contents
+ * together with the SHA-1 hash of the bytes it has been parsed from. Thus a
+ * modified file is detected even if its time stamp has not changed. The hash
+ * is computed while the file is read; the contents is not kept in memory.
+ * </p>
+ * <p>
+ * The number of slots is limited. The slot used least recently is dropped
+ * when a new one is needed and the limit has been reached.
+ * </p>
+ * <p>
+ * The caller is expected to synchronize on the slot while it is inspected and
+ * filled. This way a file is parsed only once even if several threads need it
+ * at the same time.
+ * </p>
+ * 
+ * @param <T> the type of the parsed contents
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public abstract class ContentCache<T> {
+
+    /**
+     * This class represents a slot in the cache.
+     * 
+     * @param <T> the type of the parsed contents
+     */
+    protected static final class Slot<T> {
+
+        /**
+         * The field <tt>digest</tt> contains the hash of the contents the value
+         * has been parsed from.
+         */
+        private byte[] digest = null;
+
+        /**
+         * The field <tt>value</tt> contains the parsed contents or
+         * <code>null</code>.
+         */
+        private T value = null;
+
+        /**
+         * Getter for the value.
+         * 
+         * @param hash the hash of the current contents
+         * 
+         * @return the value or <code>null</code> if the slot is empty or the
+         *         value has been parsed from a different contents
+         */
+        public T get(byte[] hash) {
+
+            return Arrays.equals(hash, digest) ? value : null;
+        }
+
+        /**
+         * Setter for the value.
+         * 
+         * @param hash the hash of the contents the value has been parsed from
+         * @param value the value
+         */
+        public void set(byte[] hash, T value) {
+
+            this.digest = hash;
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * The constant <tt>DEFAULT_SIZE</tt> contains the default for the maximal
+     * number of slots.
+     */
+    public static final int DEFAULT_SIZE = 64;
+
+    /**
+     * Compute the SHA-1 hash of the remaining bytes of a stream and close it
+     * afterwards.
+     * 
+     * @param stream the stream
+     * 
+     * @return the hash
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    protected static byte[] digest(InputStream stream) throws IOException {
+
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            byte[] b = new byte[8192];
+            for (int n = stream.read(b); n >= 0; n = stream.read(b)) {
+                md.update(b, 0, n);
+            }
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * The field <tt>limit</tt> contains the maximal number of slots.
+     */
+    private final int limit;
+
+    /**
+     * The field <tt>slots</tt> contains the mapping from keys to slots in the
+     * order of their last use.
+     */
+    private Map<Object, Slot<T>> slots =
+            new LinkedHashMap<Object, Slot<T>>(16, 0.75f, true) {
+
+                /**
+                 * The field <tt>serialVersionUID</tt> contains the version
+                 * number for serialization.
+                 */
+                private static final long serialVersionUID = 1L;
+
+                /**
+                 * {@inheritDoc}
+                 * 
+                 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+                 */
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Object, Slot<T>> eldest) {
+
+                    return size() > limit;
+                }
+            };
+
+    /**
+     * Creates a new object with the default number of slots.
+     */
+    public ContentCache() {
+
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new object.
+     * 
+     * @param limit the maximal number of slots; it must be positive
+     */
+    public ContentCache(int limit) {
+
+        if (limit < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.limit = limit;
+    }
+
+    /**
+     * Discard all cached contents.
+     */
+    public synchronized void clear() {
+
+        slots.clear();
+    }
+
+    /**
+     * Getter for the number of slots in use.
+     * 
+     * @return the number of slots
+     */
+    public synchronized int getSize() {
+
+        return slots.size();
+    }
+
+    /**
+     * Get the slot for a key. A new slot is created if none is present. The
+     * keys are compared with {@link Object#equals(Object) equals()}.
+     * 
+     * @param key the key
+     * 
+     * @return the slot
+     */
+    protected synchronized Slot<T> getSlot(Object key) {
+
+        Slot<T> slot = slots.get(key);
+        if (slot == null) {
+            slot = new Slot<T>();
+            slots.put(key, slot);
+        }
+        return slot;
+    }
+
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ * 
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package org.extex.exbib.core.io.bibio;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.extex.exbib.core.bst.exception.ExBibEntryUndefinedException;
+import org.extex.exbib.core.db.DB;
+import org.extex.exbib.core.db.Entry;
+import org.extex.exbib.core.db.Value;
+import org.extex.exbib.core.db.impl.DBImpl;
+import org.extex.exbib.core.exceptions.ExBibException;
+import org.extex.exbib.core.exceptions.ExBibIoException;
+import org.extex.exbib.core.io.ContentCache;
+import org.extex.exbib.core.io.Locator;
+import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.resource.ResourceFinder;
+import org.extex.resource.io.NamedInputStream;
+
+/**
+ * This class contains a cache of parsed bib files. It is attached to a
+ * {@link BibReaderFactory BibReaderFactory} with
+ * {@link BibReaderFactory#setCache(BibCache) setCache()}.
+ * <p>
+ * A bib file is parsed once into a database of its own which is not modified
+ * afterwards. The readers delivered for this file copy the strings, the
+ * preamble, the entries and the aliases into the database of the caller. Each
+ * caller gets fresh entries with their own local values; the values of the
+ * fields are shared since they are not modified.
+ * </p>
+ * <p>
+ * The copy is made with the same methods of the database the parser uses.
+ * Thus observers and the streaming mode of the database work as usual. The
+ * strings are stored before the entries.
+ * </p>
+ * <p>
+ * The file is found and included files are read with the resource finder and
+ * the factory of the caller. Thus both are part of the key of a file; they
+ * are compared by identity. Callers have to share them to share the parsed
+ * files. The class of the reader and the encoding are part of the key as
+ * well.
+ * </p>
+ * <p>
+ * Files included with <tt>@include</tt> become part of the database of the
+ * including file. Changes of an included file are not detected. Input which
+ * is not taken from a file can not be recognized again. It is parsed
+ * directly into the database of the caller.
+ * </p>
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class BibCache extends ContentCache<BibCache.Snapshot> {
+
+    /**
+     * This class is a reader which copies a cached database. The database is
+     * parsed when the reader is used for the first time or the contents of the
+     * file have changed.
+     */
+    private final class CachedReader implements BibReader {
+
+        /**
+         * The field <tt>direct</tt> contains the indicator that the reader has
+         * been opened for a {@link Reader Reader}. In this case the input is
+         * parsed directly.
+         */
+        private boolean direct = false;
+
+        /**
+         * The field <tt>encoding</tt> contains the encoding or
+         * <code>null</code> for the platform default.
+         */
+        private String encoding = null;
+
+        /**
+         * The field <tt>factory</tt> contains the factory for included files.
+         */
+        private BibReaderFactory factory;
+
+        /**
+         * The field <tt>file</tt> contains the name of the file as requested.
+         */
+        private String file = null;
+
+        /**
+         * The field <tt>reader</tt> contains the reader used for parsing.
+         */
+        private BibReader reader;
+
+        /**
+         * The field <tt>stream</tt> contains the stream for the file or
+         * <code>null</code> if the reader is not open.
+         */
+        private NamedInputStream stream = null;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param reader the reader used for parsing
+         * @param factory the factory for included files
+         */
+        public CachedReader(BibReader reader, BibReaderFactory factory) {
+
+            this.reader = reader;
+            this.factory = factory;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.io.bibio.BibReader#close()
+         */
+        public void close() throws IOException {
+
+            if (direct) {
+                direct = false;
+                reader.close();
+            }
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.io.bibio.BibReader#load(org.extex.exbib.core.db.DB)
+         */
+        public void load(DB db) throws ExBibException, ConfigurationException {
+
+            if (direct) {
+                reader.load(db);
+                return;
+            }
+            if (stream == null) {
+                return;
+            }
+            Key key =
+                    new Key(factory.getResourceFinder(), factory, reader
+                        .getClass(), encoding, stream.getName());
+            byte[] hash;
+            try {
+                hash = digest(stream);
+            } catch (IOException e) {
+                throw new ExBibIoException(e);
+            } finally {
+                stream = null;
+            }
+            Slot<Snapshot> slot = getSlot(key);
+            Snapshot snapshot;
+            synchronized (slot) {
+                snapshot = slot.get(hash);
+                if (snapshot == null) {
+                    snapshot = parse();
+                    slot.set(hash, snapshot);
+                }
+            }
+            snapshot.copy(db);
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Input which is not taken from a file is not cached. The reader used
+         * for parsing is opened instead.
+         * </p>
+         * 
+         * @see org.extex.exbib.core.io.bibio.BibReader#open(java.lang.String,
+         *      java.io.Reader)
+         */
+        public LineNumberReader open(String name, Reader r)
+                throws FileNotFoundException,
+                    ConfigurationException {
+
+            try {
+                close();
+            } catch (IOException e) {
+                // ignored
+            }
+            LineNumberReader lnr = reader.open(name, r);
+            direct = true;
+            return lnr;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.io.bibio.BibReader#open(java.lang.String,
+         *      java.lang.String)
+         */
+        public void open(String name, String enc)
+                throws ConfigurationException,
+                    FileNotFoundException {
+
+            try {
+                close();
+            } catch (IOException e) {
+                // ignored
+            }
+            ResourceFinder finder = factory.getResourceFinder();
+            NamedInputStream s =
+                    (finder == null ? null : finder.findResource(name, "bib"));
+            if (s == null) {
+                throw new FileNotFoundException(name);
+            }
+            stream = s;
+            file = name;
+            encoding = enc;
+        }
+
+        /**
+         * Parse the file into a new snapshot. The file is opened again for
+         * this purpose.
+         * 
+         * @return the snapshot
+         * 
+         * @throws ExBibException in case of an syntax error
+         * @throws ConfigurationException in case of a configuration error
+         */
+        private Snapshot parse() throws ExBibException, ConfigurationException {
+
+            try {
+                reader.open(file, encoding);
+            } catch (FileNotFoundException e) {
+                throw new ExBibIoException(e);
+            }
+            Snapshot snapshot = new Snapshot();
+            snapshot.setBibReaderFactory(factory);
+            try {
+                reader.load(snapshot);
+            } finally {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // ignored
+                }
+            }
+            return snapshot;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.io.bibio.BibReader#setResourceFinder(org.extex.resource.ResourceFinder)
+         */
+        public void setResourceFinder(ResourceFinder finder) {
+
+            reader.setResourceFinder(finder);
+        }
+
+    }
+
+    /**
+     * This class is the key of a cached file. The resource finder and the
+     * factory are compared by identity.
+     */
+    private static final class Key {
+
+        /**
+         * The field <tt>encoding</tt> contains the encoding or
+         * <code>null</code>.
+         */
+        private final String encoding;
+
+        /**
+         * The field <tt>factory</tt> contains the factory for included files.
+         */
+        private final BibReaderFactory factory;
+
+        /**
+         * The field <tt>finder</tt> contains the resource finder.
+         */
+        private final ResourceFinder finder;
+
+        /**
+         * The field <tt>name</tt> contains the resolved name of the file.
+         */
+        private final String name;
+
+        /**
+         * The field <tt>reader</tt> contains the class of the reader.
+         */
+        private final Class<?> reader;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param finder the resource finder
+         * @param factory the factory for included files
+         * @param reader the class of the reader
+         * @param encoding the encoding or <code>null</code>
+         * @param name the resolved name of the file
+         */
+        public Key(ResourceFinder finder, BibReaderFactory factory,
+                Class<?> reader, String encoding, String name) {
+
+            this.finder = finder;
+            this.factory = factory;
+            this.reader = reader;
+            this.encoding = encoding;
+            this.name = name;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) obj;
+            return finder == k.finder
+                    && factory == k.factory
+                    && reader == k.reader
+                    && (encoding == null ? k.encoding == null : encoding
+                        .equals(k.encoding))
+                    && (name == null ? k.name == null : name.equals(k.name));
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+
+            return System.identityHashCode(finder)
+                    ^ 31 * System.identityHashCode(factory)
+                    ^ reader.hashCode()
+                    ^ (encoding == null ? 0 : encoding.hashCode())
+                    ^ (name == null ? 0 : name.hashCode());
+        }
+
+    }
+
+    /**
+     * This class is the database a file is parsed into. It keeps track of the
+     * aliases in addition.
+     */
+    static final class Snapshot extends DBImpl {
+
+        /**
+         * The field <tt>aliases</tt> contains the aliases in the order of
+         * their definition.
+         */
+        private List<String[]> aliases = new ArrayList<String[]>();
+
+        /**
+         * The field <tt>locators</tt> contains the locators of the aliases.
+         */
+        private List<Locator> locators = new ArrayList<Locator>();
+
+        /**
+         * Copy the contents to another database.
+         * 
+         * @param db the target database
+         * 
+         * @throws ExBibEntryUndefinedException in case of an alias for an
+         *         undefined entry
+         */
+        public void copy(DB db) throws ExBibEntryUndefinedException {
+
+            for (String name : getMacroNames()) {
+                db.storeString(name, getMacro(name));
+            }
+            Value preamble = getPreamble();
+            if (!preamble.isEmpty()) {
+                db.storePreamble(preamble);
+            }
+            for (Entry e : getEntries()) {
+                Entry entry = db.makeEntry(e.getType(), e.getKey(), //
+                    e.getLocator());
+                if (entry != null) {
+                    for (String key : e) {
+                        entry.set(key, e.get(key));
+                    }
+                }
+            }
+            for (int i = 0; i < aliases.size(); i++) {
+                String[] alias = aliases.get(i);
+                db.storeAlias(alias[0], alias[1], locators.get(i));
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.db.impl.DBImpl#storeAlias(java.lang.String,
+         *      java.lang.String, org.extex.exbib.core.io.Locator)
+         */
+        @Override
+        public void storeAlias(String alias, String key, Locator locator)
+                throws ExBibEntryUndefinedException {
+
+            super.storeAlias(alias, key, locator);
+            aliases.add(new String[]{alias, key});
+            locators.add(locator);
+        }
+
+    }
+
+    /**
+     * Creates a new object with the default number of slots.
+     */
+    public BibCache() {
+
+        super();
+    }
+
+    /**
+     * Creates a new object.
+     * 
+     * @param limit the maximal number of files kept; it must be positive
+     */
+    public BibCache(int limit) {
+
+        super(limit);
+    }
+
+    /**
+     * Open a file for a reader. The reader is not used directly. Instead a
+     * reader is returned which copies the cached database.
+     * 
+     * @param reader the reader used if the file has to be parsed
+     * @param factory the factory for included files
+     * @param file the name of the file
+     * @param encoding the encoding or <code>null</code> for the platform
+     *        default
+     * 
+     * @return the reader for the cached database
+     * 
+     * @throws ConfigurationException in case of a configuration error
+     * @throws FileNotFoundException in case that the file could not be found
+     */
+    public BibReader open(BibReader reader, BibReaderFactory factory,
+            String file, String encoding)
+            throws ConfigurationException,
+                FileNotFoundException {
+
+        BibReader r = new CachedReader(reader, factory);
+        r.open(file, encoding);
+        return r;
+    }
+
+}
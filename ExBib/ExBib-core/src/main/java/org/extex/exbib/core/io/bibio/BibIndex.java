@@ -0,0 +1,1168 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.exbib.core.io.bibio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.extex.exbib.core.db.DB;
+import org.extex.exbib.core.db.VBlock;
+import org.extex.exbib.core.db.VMacro;
+import org.extex.exbib.core.db.VNumber;
+import org.extex.exbib.core.db.VString;
+import org.extex.exbib.core.db.Value;
+import org.extex.exbib.core.db.ValueItem;
+import org.extex.exbib.core.db.ValueVisitor;
+import org.extex.exbib.core.db.impl.DBImpl;
+import org.extex.exbib.core.exceptions.ExBibException;
+import org.extex.exbib.core.exceptions.ExBibIoException;
+import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.resource.io.NamedInputStream;
+
+/**
+ * This class contains an index of a bib file. It is used to read the cited
+ * entries of a large database without parsing the whole file. The index is
+ * acquired with {@link BibReaderFactory#newIndex(String, File)
+ * BibReaderFactory.newIndex()}.
+ * <p>
+ * The index is stored in a file in a directory given by the caller. Index
+ * files are never written anywhere else. The name of the index file consists
+ * of the base name of the bib file and a hash of its absolute path with the
+ * extension <tt>.bix</tt>. It contains the keys of the entries with
+ * their positions in the bib file and the <tt>@string</tt> and
+ * <tt>@preamble</tt> instructions in parsed form. The index is valid as long
+ * as the size and the modification time of the bib file are unchanged. If
+ * only the modification time differs then the SHA-1 hash of the contents
+ * decides. Otherwise the index is built anew and written if possible.
+ * </p>
+ * <p>
+ * The bib file is mapped into memory. An entry is read by handing its
+ * characters to a reader of the configured class. Thus the entries are the
+ * same as those of a load of the whole file. If a key is used several times
+ * then the last entry is contained in the index.
+ * </p>
+ * <p>
+ * An index can only be built for files in an encoding compatible to ASCII
+ * like ISO-8859-1 or UTF-8. Files containing <tt>@alias</tt>,
+ * <tt>@include</tt>, or <tt>@modify</tt> instructions, or <tt>@comment</tt>
+ * blocks containing an <tt>@</tt> are not indexed. This fact is recorded in
+ * the index file as well.
+ * </p>
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public final class BibIndex {
+
+    /**
+     * This class is a database which records the strings and the preambles
+     * stored in it.
+     */
+    private static final class Recorder extends DBImpl {
+
+        /**
+         * The field <tt>names</tt> contains the names of the strings or
+         * <code>null</code> for the preambles.
+         */
+        private List<String> names = new ArrayList<String>();
+
+        /**
+         * The field <tt>values</tt> contains the values of the strings and
+         * the preambles.
+         */
+        private List<Value> values = new ArrayList<Value>();
+
+        /**
+         * Creates a new object.
+         */
+        public Recorder() {
+
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.db.impl.DBImpl#storePreamble(org.extex.exbib.core.db.Value)
+         */
+        @Override
+        public void storePreamble(Value pre) {
+
+            names.add(null);
+            values.add(pre);
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.db.impl.DBImpl#storeString(java.lang.String,
+         *      org.extex.exbib.core.db.Value)
+         */
+        @Override
+        public void storeString(String name, Value value) {
+
+            names.add(name);
+            values.add(value);
+        }
+    }
+
+    /**
+     * This class contains a record found in the bib file.
+     */
+    private static final class Record {
+
+        /**
+         * The field <tt>key</tt> contains the normalized key of an entry or
+         * <code>null</code> for a <tt>@string</tt> or <tt>@preamble</tt>.
+         */
+        private String key;
+
+        /**
+         * The field <tt>length</tt> contains the number of bytes.
+         */
+        private int length;
+
+        /**
+         * The field <tt>line</tt> contains the line number of the
+         * <tt>@</tt>.
+         */
+        private int line;
+
+        /**
+         * The field <tt>offset</tt> contains the position of the <tt>@</tt>.
+         */
+        private int offset;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param key the normalized key or <code>null</code>
+         * @param offset the position of the <tt>@</tt>
+         * @param length the number of bytes
+         * @param line the line number of the <tt>@</tt>
+         */
+        Record(String key, int offset, int length, int line) {
+
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+            this.line = line;
+        }
+    }
+
+    /**
+     * This class writes values to a data output stream.
+     */
+    private static final class ValueWriter implements ValueVisitor {
+
+        /**
+         * The field <tt>out</tt> contains the output stream.
+         */
+        private DataOutputStream out;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param out the output stream
+         */
+        ValueWriter(DataOutputStream out) {
+
+            this.out = out;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.db.ValueVisitor#visitBlock(org.extex.exbib.core.db.VBlock,
+         *      org.extex.exbib.core.db.DB)
+         */
+        public void visitBlock(VBlock value, DB db) throws IOException {
+
+            out.writeByte(BLOCK);
+            writeString(out, value.getContent());
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.db.ValueVisitor#visitMacro(org.extex.exbib.core.db.VMacro,
+         *      org.extex.exbib.core.db.DB)
+         */
+        public void visitMacro(VMacro value, DB db) throws IOException {
+
+            out.writeByte(MACRO);
+            writeString(out, value.getContent());
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.db.ValueVisitor#visitNumber(org.extex.exbib.core.db.VNumber,
+         *      org.extex.exbib.core.db.DB)
+         */
+        public void visitNumber(VNumber value, DB db) throws IOException {
+
+            out.writeByte(NUMBER);
+            out.writeInt(value.getValue());
+            writeString(out, value.getContent());
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.db.ValueVisitor#visitString(org.extex.exbib.core.db.VString,
+         *      org.extex.exbib.core.db.DB)
+         */
+        public void visitString(VString value, DB db) throws IOException {
+
+            out.writeByte(STRING);
+            writeString(out, value.getContent());
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.exbib.core.db.ValueVisitor#visitValue(org.extex.exbib.core.db.Value,
+         *      org.extex.exbib.core.db.DB)
+         */
+        public void visitValue(Value value, DB db) throws IOException {
+
+            List<ValueItem> items = new ArrayList<ValueItem>();
+            for (ValueItem item : value) {
+                items.add(item);
+            }
+            out.writeInt(items.size());
+            for (ValueItem item : items) {
+                item.visit(this, db);
+            }
+        }
+    }
+
+    /**
+     * The constant <tt>BLOCK</tt> contains the tag for a block.
+     */
+    private static final byte BLOCK = 1;
+
+    /**
+     * The constant <tt>EXTENSION</tt> contains the extension of the index
+     * file.
+     */
+    private static final String EXTENSION = ".bix";
+
+    /**
+     * The constant <tt>MACRO</tt> contains the tag for a macro.
+     */
+    private static final byte MACRO = 2;
+
+    /**
+     * The constant <tt>MAGIC</tt> contains the first bytes of an index file.
+     */
+    private static final int MAGIC = 0x45784269;
+
+    /**
+     * The constant <tt>MTIME_POSITION</tt> contains the position of the
+     * modification time in the index file.
+     */
+    private static final int MTIME_POSITION = 16;
+
+    /**
+     * The constant <tt>NUMBER</tt> contains the tag for a number.
+     */
+    private static final byte NUMBER = 3;
+
+    /**
+     * The constant <tt>STRING</tt> contains the tag for a string.
+     */
+    private static final byte STRING = 4;
+
+    /**
+     * The constant <tt>VERSION</tt> contains the version of the format of the
+     * index file.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The field <tt>bib</tt> contains the contents of the bib file.
+     */
+    private ByteBuffer bib;
+
+    /**
+     * The field <tt>charset</tt> contains the charset of the bib file.
+     */
+    private Charset charset;
+
+    /**
+     * The field <tt>factory</tt> contains the factory for the readers.
+     */
+    private BibReaderFactory factory;
+
+    /**
+     * The field <tt>index</tt> contains the contents of the index.
+     */
+    private ByteBuffer index;
+
+    /**
+     * The field <tt>name</tt> contains the name of the bib file.
+     */
+    private String name;
+
+    /**
+     * The field <tt>names</tt> contains the names of the strings or
+     * <code>null</code> for the preambles.
+     */
+    private List<String> names = new ArrayList<String>();
+
+    /**
+     * The field <tt>size</tt> contains the number of entries.
+     */
+    private int size;
+
+    /**
+     * The field <tt>table</tt> contains the position of the table of entries
+     * in the index.
+     */
+    private int table;
+
+    /**
+     * The field <tt>values</tt> contains the values of the strings and the
+     * preambles.
+     */
+    private List<Value> values = new ArrayList<Value>();
+
+    /**
+     * Creates a new object. The strings and preambles are read from the
+     * index.
+     * 
+     * @param factory the factory for the readers
+     * @param name the name of the bib file
+     * @param charset the charset of the bib file
+     * @param bib the contents of the bib file
+     * @param index the contents of the index positioned at the strings
+     */
+    private BibIndex(BibReaderFactory factory, String name, Charset charset,
+            ByteBuffer bib, ByteBuffer index) {
+
+        this.factory = factory;
+        this.name = name;
+        this.charset = charset;
+        this.bib = bib;
+        for (int n = index.getInt(); n > 0; n--) {
+            names.add(index.get() == 0 ? null : readString(index));
+            values.add(readValue(index));
+        }
+        this.size = index.getInt();
+        this.table = index.position();
+        this.index = index;
+    }
+
+    /**
+     * Compute the SHA-1 hash of the contents of a buffer.
+     * 
+     * @param buffer the buffer
+     * 
+     * @return the hash
+     */
+    private static byte[] digest(ByteBuffer buffer) {
+
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            md.update(buffer.duplicate());
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Find an entry in the index.
+     * 
+     * @param key the normalized key
+     * 
+     * @return the record or <code>null</code> if none is found
+     */
+    private Record find(String key) {
+
+        ByteBuffer b = index.duplicate();
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            b.position(index.getInt(table + 4 * mid));
+            String k = readString(b);
+            int cmp = k.compareTo(key);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return new Record(k, b.getInt(), b.getInt(), b.getInt());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the charset for an encoding. Only charsets which encode the ASCII
+     * characters as single bytes and do not use these bytes otherwise are
+     * accepted.
+     * 
+     * @param encoding the encoding or <code>null</code> for the platform
+     *        default
+     * 
+     * @return the charset or <code>null</code> if it is not suitable
+     */
+    private static Charset getCharset(String encoding) {
+
+        Charset charset;
+        try {
+            charset =
+                    (encoding == null
+                            ? Charset.defaultCharset()
+                            : Charset.forName(encoding));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if ("UTF-8".equals(charset.name())) {
+            return charset;
+        }
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        try {
+            if (charset.newEncoder().maxBytesPerChar() == 1
+                    && new String(ascii, "US-ASCII").equals(new String(ascii,
+                        charset.name()))) {
+                return charset;
+            }
+        } catch (UnsupportedOperationException e) {
+            // no encoder available
+        } catch (UnsupportedEncodingException e) {
+            // not suitable
+        }
+        return null;
+    }
+
+    /**
+     * Get the index file for a bib file.
+     * 
+     * @param file the bib file
+     * @param directory the directory for the index files
+     * 
+     * @return the index file
+     */
+    private static File getIndexFile(File file, File directory) {
+
+        String name = file.getName();
+        if (name.endsWith(".bib")) {
+            name = name.substring(0, name.length() - 4);
+        }
+        return new File(directory, name + "-"
+                + Integer.toHexString(file.getAbsolutePath().hashCode())
+                + EXTENSION);
+    }
+
+    /**
+     * Getter for the number of entries in the index.
+     * 
+     * @return the number of entries
+     */
+    public int getSize() {
+
+        return size;
+    }
+
+    /**
+     * Check whether a character is part of a key.
+     * 
+     * @param c the character
+     * 
+     * @return <code>true</code> iff the character is allowed in a key
+     * 
+     * @see BibReader099Impl#parseKey()
+     */
+    private static boolean isKey(int c) {
+
+        switch (c) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\r':
+            case '\f':
+            case '\b':
+            case ',':
+            case '(':
+            case ')':
+            case '{':
+            case '}':
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Check whether a character is part of the name of a record.
+     * 
+     * @param c the character
+     * 
+     * @return <code>true</code> iff the character is allowed in the name of a
+     *         record
+     */
+    private static boolean isRecord(int c) {
+
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0'
+                && c <= '9' || c == '_' || c == '.' || c == ':' || c == '-';
+    }
+
+    /**
+     * Load some entries into a database. The entries are parsed in the order
+     * of the bib file. Keys not contained in the index are ignored.
+     * 
+     * @param db the database
+     * @param keys the keys of the entries
+     * 
+     * @throws ExBibException in case of a syntax error
+     * @throws ConfigurationException in case of a configuration error
+     */
+    public void load(DB db, Collection<String> keys)
+            throws ExBibException,
+                ConfigurationException {
+
+        List<Record> records = new ArrayList<Record>();
+        for (String key : keys) {
+            Record r = find(key.toLowerCase(Locale.ENGLISH));
+            if (r != null) {
+                records.add(r);
+            }
+        }
+        Collections.sort(records, new Comparator<Record>() {
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see java.util.Comparator#compare(java.lang.Object,
+             *      java.lang.Object)
+             */
+            public int compare(Record a, Record b) {
+
+                return a.offset < b.offset ? -1 : a.offset > b.offset ? 1 : 0;
+            }
+        });
+        for (Record r : records) {
+            parse(db, factory, name, charset, bib, r);
+        }
+    }
+
+    /**
+     * Store the strings and the preambles into a database. They are stored in
+     * the order of the bib file.
+     * 
+     * @param db the database
+     */
+    public void loadStrings(DB db) {
+
+        for (int i = 0; i < names.size(); i++) {
+            String s = names.get(i);
+            if (s == null) {
+                db.storePreamble(values.get(i));
+            } else {
+                db.storeString(s, values.get(i));
+            }
+        }
+    }
+
+    /**
+     * Acquire the index for a bib file. The index is read from the index file
+     * if it is valid. Otherwise it is built and written to the index file.
+     * The directory is created if needed. Errors writing the index file are
+     * ignored.
+     * 
+     * @param factory the factory for the readers
+     * @param stream the stream for the bib file; it is closed afterwards
+     * @param encoding the encoding or <code>null</code> for the platform
+     *        default
+     * @param directory the directory for the index files
+     * 
+     * @return the index or <code>null</code> if the file can not be indexed
+     * 
+     * @throws ConfigurationException in case of a configuration error
+     */
+    static BibIndex open(BibReaderFactory factory, NamedInputStream stream,
+            String encoding, File directory) throws ConfigurationException {
+
+        try {
+            Charset charset = getCharset(encoding);
+            FileChannel channel = stream.getChannel();
+            if (charset == null || channel == null
+                    || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            File file = new File(stream.getName());
+            ByteBuffer bib =
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel
+                        .size());
+            String reader = factory.newReader().getClass().getName();
+            File indexFile = getIndexFile(file, directory);
+            long mtime = file.lastModified();
+            byte[] hash = null;
+
+            ByteBuffer index = read(indexFile);
+            if (index != null) {
+                try {
+                    if (index.getInt() == MAGIC && index.getInt() == VERSION
+                            && index.getLong() == bib.limit()) {
+                        long t = index.getLong();
+                        byte[] h = new byte[20];
+                        index.get(h);
+                        if (reader.equals(readString(index))
+                                && charset.name().equals(readString(index))) {
+                            if (t != mtime) {
+                                hash = digest(bib);
+                            }
+                            if (t == mtime || Arrays.equals(h, hash)) {
+                                if (t != mtime) {
+                                    touch(indexFile, mtime);
+                                }
+                                return index.get() == 0
+                                        ? null
+                                        : new BibIndex(factory, stream
+                                            .getName(), charset, bib, index);
+                            }
+                        }
+                    }
+                } catch (BufferUnderflowException e) {
+                    // the index file is corrupt
+                }
+            }
+
+            if (hash == null) {
+                hash = digest(bib);
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(bib.limit());
+            out.writeLong(mtime);
+            out.write(hash);
+            writeString(out, reader);
+            writeString(out, charset.name());
+            int start = buffer.size();
+            boolean usable =
+                    write(out, factory, stream.getName(), charset, bib, scan(
+                        bib, charset));
+            out.close();
+            byte[] data = buffer.toByteArray();
+            directory.mkdirs();
+            write(indexFile, data);
+            if (!usable) {
+                return null;
+            }
+            index = ByteBuffer.wrap(data);
+            index.position(start + 1);
+            return new BibIndex(factory, stream.getName(), charset, bib, index);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // ignored
+            }
+        }
+    }
+
+    /**
+     * Parse a record of a bib file into a database.
+     * 
+     * @param db the database
+     * @param factory the factory for the readers
+     * @param name the name of the bib file
+     * @param charset the charset
+     * @param bib the contents of the bib file
+     * @param r the record
+     * 
+     * @throws ExBibException in case of a syntax error
+     * @throws ConfigurationException in case of a configuration error
+     */
+    private static void parse(DB db, BibReaderFactory factory, String name,
+            Charset charset, ByteBuffer bib, Record r)
+            throws ExBibException,
+                ConfigurationException {
+
+        BibReader reader = factory.newReader();
+        try {
+            reader.open(name,
+                new StringReader(string(bib, r.offset, r.offset + r.length,
+                    charset) + "\n")).setLineNumber(r.line - 1);
+        } catch (FileNotFoundException e) {
+            throw new ExBibIoException(e);
+        }
+        reader.load(db);
+    }
+
+    /**
+     * Map an index file into memory.
+     * 
+     * @param file the index file
+     * 
+     * @return the contents or <code>null</code> if the file can not be read
+     */
+    private static ByteBuffer read(File file) {
+
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel
+                    .size());
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read a string from a buffer.
+     * 
+     * @param buffer the buffer
+     * 
+     * @return the string
+     */
+    private static String readString(ByteBuffer buffer) {
+
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        try {
+            return new String(bytes, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Read a value from a buffer.
+     * 
+     * @param buffer the buffer
+     * 
+     * @return the value
+     */
+    private static Value readValue(ByteBuffer buffer) {
+
+        Value value = new Value();
+        for (int n = buffer.getInt(); n > 0; n--) {
+            byte tag = buffer.get();
+            switch (tag) {
+                case BLOCK:
+                    value.add(new VBlock(readString(buffer)));
+                    break;
+                case MACRO:
+                    value.add(new VMacro(readString(buffer)));
+                    break;
+                case NUMBER:
+                    int v = buffer.getInt();
+                    value.add(new VNumber(v, readString(buffer)));
+                    break;
+                case STRING:
+                    value.add(new VString(readString(buffer)));
+                    break;
+                default:
+                    throw new BufferUnderflowException();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Find the records of a bib file. The syntax is checked as far as needed
+     * to find the beginning and the end of the records. This follows the
+     * reader skipping the entries not needed in a streaming load.
+     * 
+     * @param bib the contents of the bib file
+     * @param charset the charset
+     * 
+     * @return the records in the order of the file or <code>null</code> if
+     *         the file can not be indexed
+     */
+    private static List<Record> scan(ByteBuffer bib, Charset charset) {
+
+        List<Record> records = new ArrayList<Record>();
+        int n = bib.limit();
+        int line = 1;
+        int counted = 0;
+        int p = 0;
+
+        for (;;) {
+            int at = p;
+            while (at < n && bib.get(at) != '@') {
+                at++;
+            }
+            if (at >= n) {
+                return records;
+            }
+            for (; counted < at; counted++) {
+                byte c = bib.get(counted);
+                if (c == '\n' || c == '\r'
+                        && (counted + 1 >= n || bib.get(counted + 1) != '\n')) {
+                    line++;
+                }
+            }
+
+            p = skipSpace(bib, at + 1);
+            if (p < 0) {
+                return null;
+            } else if (p >= n) {
+                return records;
+            }
+            int q = p;
+            while (q < n && isRecord(bib.get(q))) {
+                q++;
+            }
+            if (q == p) {
+                return null;
+            }
+            String tag = string(bib, p, q, charset).toLowerCase(Locale.ENGLISH);
+            int r = skipSpace(bib, q);
+            if (r < 0) {
+                return null;
+            }
+
+            if ("comment".equals(tag)) {
+                p = q;
+                if (r < n && bib.get(r) == '{') {
+                    int depth = 0;
+                    do {
+                        if (r >= n) {
+                            return null;
+                        }
+                        byte c = bib.get(r++);
+                        if (c == '{') {
+                            depth++;
+                        } else if (c == '}') {
+                            depth--;
+                        } else if (c == '@') {
+                            return null;
+                        }
+                    } while (depth > 0);
+                    p = r;
+                }
+                continue;
+            } else if (r >= n) {
+                return null;
+            }
+
+            byte brace = bib.get(r);
+            if (brace == '{') {
+                brace = '}';
+            } else if (brace == '(') {
+                brace = ')';
+            } else {
+                return null;
+            }
+
+            if ("string".equals(tag) || "preamble".equals(tag)) {
+                p = skipFields(bib, r + 1, brace);
+                if (p < 0) {
+                    return null;
+                }
+                records.add(new Record(null, at, p - at, line));
+                continue;
+            } else if ("alias".equals(tag) || "include".equals(tag)
+                    || "modify".equals(tag)) {
+                return null;
+            }
+
+            int k = skipSpace(bib, r + 1);
+            if (k < 0 || k >= n) {
+                return null;
+            }
+            int e = k;
+            while (e < n && isKey(bib.get(e))) {
+                e++;
+            }
+            if (e == k) {
+                return null;
+            }
+            p = skipFields(bib, e, brace);
+            if (p < 0) {
+                return null;
+            }
+            records.add(new Record(string(bib, k, e, charset).toLowerCase(
+                Locale.ENGLISH), at, p - at, line));
+        }
+    }
+
+    /**
+     * Skip the fields of a record up to the terminating brace.
+     * 
+     * @param bib the contents of the bib file
+     * @param start the start position
+     * @param brace the terminating brace
+     * 
+     * @return the position after the terminating brace or -1 at the end of
+     *         the file
+     * 
+     * @see BibReader099Impl#skipFields(String)
+     */
+    private static int skipFields(ByteBuffer bib, int start, byte brace) {
+
+        int n = bib.limit();
+        int depth = 0;
+        boolean quoted = false;
+
+        for (int i = start; i < n; i++) {
+            byte c = bib.get(i);
+
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth > 0) {
+                depth--;
+            } else if (depth > 0) {
+                // ignored
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == brace && !quoted) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skip white-space.
+     * 
+     * @param bib the contents of the bib file
+     * @param start the start position
+     * 
+     * @return the position of the next character which is not white-space or
+     *         -1 if it is not an ASCII character
+     */
+    private static int skipSpace(ByteBuffer bib, int start) {
+
+        int n = bib.limit();
+        int i = start;
+        while (i < n) {
+            byte c = bib.get(i);
+            if (c < 0) {
+                return -1;
+            } else if (!Character.isWhitespace((char) c)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Decode a part of a buffer.
+     * 
+     * @param buffer the buffer
+     * @param from the start position
+     * @param to the end position
+     * @param charset the charset
+     * 
+     * @return the string
+     */
+    private static String string(ByteBuffer buffer, int from, int to,
+            Charset charset) {
+
+        byte[] bytes = new byte[to - from];
+        ByteBuffer b = buffer.duplicate();
+        b.position(from);
+        b.get(bytes);
+        try {
+            return new String(bytes, charset.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Store a new modification time in an index file.
+     * 
+     * @param file the index file
+     * @param mtime the modification time
+     */
+    private static void touch(File file, long mtime) {
+
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.seek(MTIME_POSITION);
+                raf.writeLong(mtime);
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            // ignored
+        }
+    }
+
+    /**
+     * Write the records of a bib file to the index. The <tt>@string</tt>
+     * and <tt>@preamble</tt> instructions are parsed first.
+     * 
+     * @param out the output stream
+     * @param factory the factory for the readers
+     * @param name the name of the bib file
+     * @param charset the charset
+     * @param bib the contents of the bib file
+     * @param records the records or <code>null</code>
+     * 
+     * @return <code>true</code> iff the index is usable
+     * 
+     * @throws IOException in case of an I/O error
+     * @throws ConfigurationException in case of a configuration error
+     */
+    private static boolean write(DataOutputStream out,
+            BibReaderFactory factory, String name, Charset charset,
+            ByteBuffer bib, List<Record> records)
+            throws IOException,
+                ConfigurationException {
+
+        Recorder recorder = new Recorder();
+        Map<String, Record> entries = new TreeMap<String, Record>();
+        boolean usable = (records != null);
+        try {
+            for (int i = 0; usable && i < records.size(); i++) {
+                Record r = records.get(i);
+                if (r.key == null) {
+                    parse(recorder, factory, name, charset, bib, r);
+                } else {
+                    entries.put(r.key, r);
+                }
+            }
+        } catch (ExBibException e) {
+            usable = false;
+        }
+        if (!usable) {
+            out.writeByte(0);
+            return false;
+        }
+
+        out.writeByte(1);
+        int size = recorder.names.size();
+        out.writeInt(size);
+        ValueWriter writer = new ValueWriter(out);
+        for (int i = 0; i < size; i++) {
+            String s = recorder.names.get(i);
+            out.writeBoolean(s != null);
+            if (s != null) {
+                writeString(out, s);
+            }
+            recorder.values.get(i).visit(writer, recorder);
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(buffer);
+        int[] table = new int[entries.size()];
+        int base = out.size() + 4 + 4 * table.length;
+        int i = 0;
+        for (Record r : entries.values()) {
+            table[i++] = base + data.size();
+            writeString(data, r.key);
+            data.writeInt(r.offset);
+            data.writeInt(r.length);
+            data.writeInt(r.line);
+        }
+        data.close();
+        out.writeInt(table.length);
+        for (int t : table) {
+            out.writeInt(t);
+        }
+        buffer.writeTo(out);
+        return true;
+    }
+
+    /**
+     * Write an index file. The file is written under a temporary name and
+     * renamed afterwards. Errors are ignored.
+     * 
+     * @param file the index file
+     * @param data the contents
+     */
+    private static void write(File file, byte[] data) {
+
+        File tmp = null;
+        try {
+            tmp = File.createTempFile("exbib", ".tmp", file.getParentFile());
+            FileOutputStream out = new FileOutputStream(tmp);
+            try {
+                out.write(data);
+            } finally {
+                out.close();
+            }
+            if (!tmp.renameTo(file)) {
+                file.delete();
+                if (!tmp.renameTo(file)) {
+                    tmp.delete();
+                }
+            }
+        } catch (IOException e) {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Write a string to an output stream.
+     * 
+     * @param out the output stream
+     * @param s the string
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+
+        byte[] bytes = s.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+}
@@ -20,7 +20,9 @@ package org.extex.exbib.core.io.bibio;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -96,6 +98,12 @@ public class BibReader099Impl extends AbstractFileReader implements BibReader {
     private static final Pattern KEY_PATTERN = Pattern
         .compile("[^ \t\n\r\f\b,(){}]*");
 
+    /**
+     * The field <tt>skipped</tt> contains the normalized keys of the entries
+     * which the database has refused to store.
+     */
+    private Set<String> skipped = new HashSet<String>();
+
     /**
      * Creates a new object.
      * 
@@ -230,7 +238,22 @@ public class BibReader099Impl extends AbstractFileReader implements BibReader {
     }
 
     /**
-     * Parse the given file and store the result into the database.
+     * Check whether the database has refused to store an entry with a given
+     * key. In this case the entry has been skipped.
+     * 
+     * @param key the key of the entry
+     * 
+     * @return <code>true</code> iff an entry with this key has been skipped
+     */
+    protected boolean isSkipped(String key) {
+
+        return skipped.contains(key.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Parse the given file and store the result into the database. Entries
+     * which are not accepted by the database are skipped without parsing
+     * their fields.
      * 
      * @param db the database to store the records in
      * @throws ExBibException in case of an error, especially<br />
@@ -266,6 +289,12 @@ public class BibReader099Impl extends AbstractFileReader implements BibReader {
                     }
 
                     Entry entry = db.makeEntry(s, key, getLocator());
+                    if (entry == null) {
+                        skipped.add(key.toLowerCase(Locale.ENGLISH));
+                        skipFields(brace);
+                        tag = skipToAtTag(comment);
+                        continue;
+                    }
                     char c;
 
                     for (c = parseNextNonSpace(false); c == ','; c =
@@ -553,6 +582,56 @@ public class BibReader099Impl extends AbstractFileReader implements BibReader {
         return null;
     }
 
+    /**
+     * Skip the fields of an entry up to the terminating brace. The values are
+     * not parsed. Only the braces and quotes are taken into account to find
+     * the end.
+     * 
+     * @param brace the String expected as terminating brace, i.e. ')' or '}'
+     * 
+     * @throws ExBibUnexpectedEofException in case of an unexpected end of
+     *         file
+     */
+    protected void skipFields(String brace)
+            throws ExBibUnexpectedEofException {
+
+        char end = brace.charAt(0);
+        StringBuilder buffer = getBuffer();
+        int depth = 0;
+        boolean quoted = false;
+        int i = 0;
+
+        for (;;) {
+            if (buffer == null || i >= buffer.length()) {
+                if (buffer != null) {
+                    buffer.delete(0, i);
+                    i = 0;
+                }
+                buffer = read();
+                if (buffer == null) {
+                    throw new ExBibUnexpectedEofException(brace, null,
+                        getLocator());
+                }
+                continue;
+            }
+
+            char c = buffer.charAt(i++);
+
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth > 0) {
+                depth--;
+            } else if (depth > 0) {
+                // ignored
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == end && !quoted) {
+                buffer.delete(0, i);
+                return;
+            }
+        }
+    }
+
     /**
      * Collect all characters up to the next at character (@) and the tag
      * following. The characters before the @ are stored in the StringBuilder
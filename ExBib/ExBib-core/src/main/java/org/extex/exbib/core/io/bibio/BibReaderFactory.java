@@ -19,12 +19,14 @@
 
 package org.extex.exbib.core.io.bibio;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 
 import org.extex.framework.AbstractFactory;
 import org.extex.framework.configuration.Configuration;
 import org.extex.framework.configuration.exception.ConfigurationException;
 import org.extex.resource.ResourceFinder;
+import org.extex.resource.io.NamedInputStream;
 
 /**
  * This factory class can be used to get an implementation for the interface
@@ -46,6 +48,12 @@ import org.extex.resource.ResourceFinder;
  */
 public class BibReaderFactory extends AbstractFactory<BibReader> {
 
+    /**
+     * The field <tt>cache</tt> contains the cache for parsed files or
+     * <code>null</code> if each file is parsed when it is read.
+     */
+    private BibCache cache = null;
+
     /**
      * The field <tt>encoding</tt> contains the encoding the encoding for
      * reading or <code>null</code> for the platform default.
@@ -74,6 +82,16 @@ public class BibReaderFactory extends AbstractFactory<BibReader> {
         }
     }
 
+    /**
+     * Getter for the cache.
+     * 
+     * @return the cache or <code>null</code>
+     */
+    public BibCache getCache() {
+
+        return cache;
+    }
+
     /**
      * Getter for encoding.
      * 
@@ -84,12 +102,46 @@ public class BibReaderFactory extends AbstractFactory<BibReader> {
         return encoding;
     }
 
+    /**
+     * Get the index for a bib file. The index is read from the index file in
+     * the given directory or built if needed.
+     * 
+     * @param file the file name
+     * @param directory the directory for the index files
+     * 
+     * @return the index or <code>null</code> if the file can not be indexed
+     * 
+     * @throws ConfigurationException in case of a configuration error
+     * @throws FileNotFoundException in case the file could not be opened for
+     *         reading
+     * 
+     * @see BibIndex
+     */
+    public BibIndex newIndex(String file, File directory)
+            throws ConfigurationException,
+                FileNotFoundException {
+
+        ResourceFinder finder = getResourceFinder();
+        if (finder == null) {
+            return null;
+        }
+        NamedInputStream stream = finder.findResource(file, "bib");
+        if (stream == null) {
+            throw new FileNotFoundException(file);
+        }
+        return BibIndex.open(this, stream, encoding, directory);
+    }
+
     /**
      * Get a new instance of a BibReader.
      * <p>
      * The encoding used for reading is taken from the configuration or given
      * explicitly to the factory.
      * </p>
+     * <p>
+     * If a cache is present then the reader delivers the database cached for
+     * the file.
+     * </p>
      * 
      * @param file the file name
      * 
@@ -103,13 +155,40 @@ public class BibReaderFactory extends AbstractFactory<BibReader> {
             throws ConfigurationException,
                 FileNotFoundException {
 
-        BibReader bibReader = super.createInstance(BibReader.class);
-        bibReader.setResourceFinder(getResourceFinder());
+        BibReader bibReader = newReader();
+        if (cache != null) {
+            return cache.open(bibReader, this, file, encoding);
+        }
         bibReader.open(file, encoding);
 
         return bibReader;
     }
 
+    /**
+     * Get a new instance of a BibReader which has not been opened yet.
+     * 
+     * @return a new instance of the desired class
+     * 
+     * @throws ConfigurationException in case of a configuration error
+     */
+    BibReader newReader() throws ConfigurationException {
+
+        BibReader bibReader = super.createInstance(BibReader.class);
+        bibReader.setResourceFinder(getResourceFinder());
+        return bibReader;
+    }
+
+    /**
+     * Setter for the cache.
+     * 
+     * @param cache the cache or <code>null</code> to parse each file when it
+     *        is read
+     */
+    public void setCache(BibCache cache) {
+
+        this.cache = cache;
+    }
+
     /**
      * Setter for encoding.
      * 
@@ -180,7 +180,11 @@ public class BibReaderImpl extends BibReader099Impl {
             }
 
             Entry entry = db.getEntry(key);
-            if (entry == null) {
+            if (entry == null && isSkipped(key)) {
+                // the entry has been skipped
+                skipFields(brace);
+                return true;
+            } else if (entry == null) {
                 throw new ExBibMissingEntryException(key, getLocator());
             }
 
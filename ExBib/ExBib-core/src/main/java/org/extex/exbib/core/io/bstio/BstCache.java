@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ * 
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package org.extex.exbib.core.io.bstio;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.extex.exbib.core.bst.BstProcessor;
+import org.extex.exbib.core.bst.code.MacroCode;
+import org.extex.exbib.core.bst.command.Command;
+import org.extex.exbib.core.bst.command.impl.BstExecute;
+import org.extex.exbib.core.bst.command.impl.BstIterate;
+import org.extex.exbib.core.bst.command.impl.BstReverse;
+import org.extex.exbib.core.bst.exception.ExBibBstNotFoundException;
+import org.extex.exbib.core.bst.token.Token;
+import org.extex.exbib.core.bst.token.impl.TBlock;
+import org.extex.exbib.core.bst.token.impl.TLiteral;
+import org.extex.exbib.core.bst.token.impl.TokenList;
+import org.extex.exbib.core.exceptions.ExBibException;
+import org.extex.exbib.core.exceptions.ExBibImpossibleException;
+import org.extex.exbib.core.exceptions.ExBibIoException;
+import org.extex.exbib.core.io.ContentCache;
+import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.resource.ResourceFinder;
+import org.extex.resource.io.NamedInputStream;
+
+/**
+ * This class contains a cache of parsed bst files. It can be shared by the
+ * processors of several runs.
+ * <p>
+ * The result of parsing a bst file is the sequence of calls of the methods
+ * <tt>add*</tt> and <tt>set*</tt> the reader performs on the processor, e.g.
+ * {@link BstProcessor#addFunction(String, org.extex.exbib.core.bst.code.Code, org.extex.exbib.core.io.Locator)
+ * addFunction()} or
+ * {@link BstProcessor#setIntegers(org.extex.exbib.core.bst.token.impl.TokenList, org.extex.exbib.core.io.Locator)
+ * setIntegers()}. Those calls are recorded while the file is parsed for the
+ * first time. Afterwards they are replayed on each processor which needs the
+ * same file. Thus each processor builds up its own state.
+ * </p>
+ * <p>
+ * The literals are {@link TLiteral#link(org.extex.exbib.core.bst.FunctionBinding)
+ * linked} to the functions of the processor executing them. Thus the
+ * functions, the commands and the lists containing literals are copied for
+ * each processor. Tokens without such a state are shared.
+ * </p>
+ * <p>
+ * The reader is part of the key of a file. Nevertheless the cache assumes that
+ * all readers of the same class are configured alike.
+ * </p>
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class BstCache extends ContentCache<BstCache.Recording> {
+
+    /**
+     * This class contains the calls recorded for a bst file.
+     */
+    static final class Recording implements InvocationHandler {
+
+        /**
+         * Copy an argument of a recorded call. Functions, commands and lists
+         * are copied if they can contain literals. Other arguments are shared.
+         * 
+         * @param arg the argument
+         * 
+         * @return the copy or the argument itself
+         * 
+         * @throws ExBibException in case of an error
+         */
+        private static Object copy(Object arg) throws ExBibException {
+
+            if (arg instanceof Token) {
+                return copy((Token) arg);
+            } else if (arg instanceof MacroCode) {
+                MacroCode code = (MacroCode) arg;
+                return new MacroCode(code.getName(), copy(code.getToken()));
+            } else if (arg instanceof BstExecute) {
+                Command command = (Command) arg;
+                return new BstExecute(copy(command.getValue()), //
+                    command.getLocator());
+            } else if (arg instanceof BstIterate) {
+                Command command = (Command) arg;
+                return new BstIterate(copy(command.getValue()), //
+                    command.getLocator());
+            } else if (arg instanceof BstReverse) {
+                Command command = (Command) arg;
+                return new BstReverse(copy(command.getValue()), //
+                    command.getLocator());
+            }
+            return arg;
+        }
+
+        /**
+         * Copy a token. Literals and the lists which can contain literals are
+         * copied. Other tokens are shared.
+         * 
+         * @param token the token or <code>null</code>
+         * 
+         * @return the copy or the token itself
+         * 
+         * @throws ExBibException in case of an error
+         */
+        private static Token copy(Token token) throws ExBibException {
+
+            if (token instanceof TLiteral) {
+                return new TLiteral(token.getValue(), token.getLocator());
+            } else if (token instanceof TBlock) {
+                TBlock block = new TBlock(token.getLocator());
+                for (Token t : (TBlock) token) {
+                    block.add(copy(t));
+                }
+                return block;
+            } else if (token instanceof TokenList) {
+                TokenList list = new TokenList(token.getLocator());
+                for (Token t : (TokenList) token) {
+                    list.add(copy(t));
+                }
+                return list;
+            }
+            return token;
+        }
+
+        /**
+         * The field <tt>args</tt> contains the arguments of the calls.
+         */
+        private List<Object[]> args = new ArrayList<Object[]>();
+
+        /**
+         * The field <tt>methods</tt> contains the methods called.
+         */
+        private List<Method> methods = new ArrayList<Method>();
+
+        /**
+         * The field <tt>processor</tt> contains the processor the calls are
+         * passed on to while recording.
+         */
+        private BstProcessor processor;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param processor the processor the calls are passed on to
+         */
+        public Recording(BstProcessor processor) {
+
+            this.processor = processor;
+        }
+
+        /**
+         * Pass a call on to the processor. The call is recorded if it is a
+         * call of a method <tt>add*</tt> or <tt>set*</tt>.
+         * 
+         * @param proxy the proxy
+         * @param method the method
+         * @param a the arguments
+         * 
+         * @return the result
+         * 
+         * @throws Throwable in case of an error
+         * 
+         * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object,
+         *      java.lang.reflect.Method, java.lang.Object[])
+         */
+        public Object invoke(Object proxy, Method method, Object[] a)
+                throws Throwable {
+
+            String name = method.getName();
+            if (name.startsWith("add") || name.startsWith("set")) {
+                methods.add(method);
+                args.add(a);
+            }
+            try {
+                return method.invoke(processor, a);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Replay the recorded calls on a processor. The arguments are copied
+         * for the processor.
+         * 
+         * @param target the processor
+         * 
+         * @throws ExBibException in case of an error
+         */
+        public void replay(BstProcessor target) throws ExBibException {
+
+            int size = methods.size();
+            for (int i = 0; i < size; i++) {
+                Object[] a = args.get(i);
+                Object[] c = null;
+                if (a != null) {
+                    c = new Object[a.length];
+                    for (int j = 0; j < a.length; j++) {
+                        c[j] = copy(a[j]);
+                    }
+                }
+                try {
+                    methods.get(i).invoke(target, c);
+                } catch (InvocationTargetException e) {
+                    Throwable t = e.getCause();
+                    if (t instanceof ExBibException) {
+                        throw (ExBibException) t;
+                    } else if (t instanceof RuntimeException) {
+                        throw (RuntimeException) t;
+                    } else if (t instanceof Error) {
+                        throw (Error) t;
+                    }
+                    throw new ExBibException(t);
+                } catch (IllegalAccessException e) {
+                    throw new ExBibImpossibleException(e.toString());
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Creates a new object with the default number of slots.
+     */
+    public BstCache() {
+
+        super();
+    }
+
+    /**
+     * Creates a new object.
+     * 
+     * @param limit the maximal number of files kept; it must be positive
+     */
+    public BstCache(int limit) {
+
+        super(limit);
+    }
+
+    /**
+     * Parse the bibliography styles of a processor. Styles found in the cache
+     * are not parsed again.
+     * 
+     * @param reader the reader for styles not found in the cache
+     * @param processor the processor
+     * @param finder the resource finder
+     * 
+     * @throws ExBibException in case of an error
+     * @throws ConfigurationException in case of a configuration error
+     */
+    public void parse(BstReader reader, BstProcessor processor,
+            ResourceFinder finder)
+            throws ExBibException,
+                ConfigurationException {
+
+        for (String bst : processor.getBibliographyStyles()) {
+            NamedInputStream stream = finder.findResource(bst, "bst");
+            if (stream == null) {
+                throw new ExBibBstNotFoundException(bst, null);
+            }
+            byte[] hash;
+            try {
+                hash = digest(stream);
+            } catch (IOException e) {
+                throw new ExBibIoException(e);
+            }
+            Slot<Recording> slot =
+                    getSlot(reader.getClass().getName() + ":"
+                            + stream.getName());
+            Recording recording;
+            synchronized (slot) {
+                recording = slot.get(hash);
+                if (recording == null) {
+                    recording = new Recording(processor);
+                    try {
+                        reader.parse((BstProcessor) Proxy.newProxyInstance(
+                            BstProcessor.class.getClassLoader(),
+                            new Class<?>[]{BstProcessor.class}, recording),
+                            bst);
+                    } catch (FileNotFoundException e) {
+                        throw new ExBibBstNotFoundException(bst, null);
+                    }
+                    recording.processor = null;
+                    slot.set(hash, recording);
+                    continue;
+                }
+            }
+            recording.replay(processor);
+        }
+    }
+
+}
@@ -54,6 +54,16 @@ public class ObserverList implements Observer {
         list.add(observer);
     }
 
+    /**
+     * Test whether the list contains no observers.
+     * 
+     * @return <code>true</code> iff no observer is contained
+     */
+    public boolean isEmpty() {
+
+        return list.isEmpty();
+    }
+
     /**
      * The update methods of all contained observers are invoked in turn with
      * the same arguments.
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ * 
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package org.extex.exbib.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This is a test suite for {@link ExBibBatch}.
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class ExBibBatchTest {
+
+    /**
+     * The field <tt>FILES</tt> contains the names of the files created.
+     */
+    private static final String[] FILES =
+            {"target/batch1.aux", "target/batch1.bbl", "target/batch2.aux",
+                    "target/batch2.bbl", "target/batch.bib",
+                    "target/batch1.blg", "target/batch2.blg"};
+
+    /**
+     * Read a file into a string.
+     * 
+     * @param name the name of the file
+     * 
+     * @return the contents
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    private static String read(String name) throws IOException {
+
+        StringBuilder sb = new StringBuilder();
+        InputStream in = new FileInputStream(name);
+        try {
+            for (int c = in.read(); c >= 0; c = in.read()) {
+                sb.append((char) c);
+            }
+        } finally {
+            in.close();
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Remove the files created.
+     */
+    @After
+    public void cleanup() {
+
+        for (String f : FILES) {
+            new File(f).delete();
+        }
+    }
+
+    /**
+     * Make a quiet logger.
+     * 
+     * @return the logger
+     */
+    private Logger makeLogger() {
+
+        Logger logger = Logger.getLogger(getClass().getName());
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.SEVERE);
+        return logger;
+    }
+
+    /**
+     * Make a test instance.
+     * 
+     * @return the test instance
+     */
+    private ExBibBatch makeTestInstance() {
+
+        ExBibBatch batch = new ExBibBatch(new Properties());
+        batch.setLogger(makeLogger());
+        batch.setThreads(2);
+        return batch;
+    }
+
+    /**
+     * Process an aux file with a single instance of {@link ExBib}.
+     * 
+     * @param aux the name of the aux file
+     * 
+     * @return the contents of the bbl file
+     * 
+     * @throws Exception in case of an error
+     */
+    private String runSingle(String aux) throws Exception {
+
+        Properties p = new Properties();
+        p.setProperty(ExBib.PROP_FILE, aux);
+        ExBib exBib = new ExBib(p);
+        exBib.setLogger(makeLogger());
+        assertTrue(exBib.run());
+        return read(aux.replaceAll(".aux$", ".bbl"));
+    }
+
+    /**
+     * <testcase> Two aux files sharing style and database produce the same
+     * output as separate runs. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test1() throws Exception {
+
+        ExBibTest.makeFile(FILES[0], "\\citation{*}\n"
+                + "\\bibstyle{src/test/resources/bibtex/base/plain}\n"
+                + "\\bibdata{src/test/resources/bibtex/base/xampl}\n");
+        ExBibTest.makeFile(FILES[2], "\\citation{article-full}\n"
+                + "\\citation{whole-set}\n"
+                + "\\bibstyle{src/test/resources/bibtex/base/plain}\n"
+                + "\\bibdata{src/test/resources/bibtex/base/xampl}\n");
+        String bbl1 = runSingle(FILES[0]);
+        String bbl2 = runSingle(FILES[2]);
+
+        ExBibBatch batch = makeTestInstance();
+        for (int i = 0; i < 2; i++) {
+            new File(FILES[1]).delete();
+            new File(FILES[3]).delete();
+            assertTrue(batch.run(Arrays.asList(FILES[0], FILES[2])));
+            assertEquals(bbl1, read(FILES[1]));
+            assertEquals(bbl2, read(FILES[3]));
+        }
+    }
+
+    /**
+     * <testcase> A modified database is read again. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test2() throws Exception {
+
+        ExBibTest.makeFile(FILES[0], "\\citation{*}\n"
+                + "\\bibstyle{src/test/resources/bibtex/base/plain}\n"
+                + "\\bibdata{target/batch}\n");
+        ExBibTest.makeFile(FILES[4], "@misc{a, title={One}}\n");
+
+        ExBibBatch batch = makeTestInstance();
+        assertTrue(batch.run(Arrays.asList(FILES[0])));
+        assertTrue(read(FILES[1]).contains("One"));
+
+        ExBibTest.makeFile(FILES[4], "@misc{a, title={Two}}\n");
+        assertTrue(batch.run(Arrays.asList(FILES[0])));
+        assertTrue(read(FILES[1]).contains("Two"));
+    }
+
+    /**
+     * <testcase> Each job writes a log file of its own. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test4() throws Exception {
+
+        ExBibTest.makeFile(FILES[0], "\\citation{*}\n"
+                + "\\bibstyle{src/test/resources/bibtex/base/plain}\n"
+                + "\\bibdata{src/test/resources/bibtex/base/xampl}\n");
+        ExBibTest.makeFile(FILES[2], "\\citation{*}\n"
+                + "\\bibstyle{src/test/resources/bibtex/base/plain}\n"
+                + "\\bibdata{target/batch}\n");
+        ExBibTest.makeFile(FILES[4], "@misc{a, title={One}}\n");
+        new File(FILES[5]).delete();
+        new File(FILES[6]).delete();
+
+        ExBibBatch batch = makeTestInstance();
+        Logger logger = Logger.getLogger(getClass().getName() + ".log");
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.INFO);
+        batch.setLogger(logger);
+        assertTrue(batch.run(Arrays.asList(FILES[0], FILES[2])));
+        String blg1 = read(FILES[5]);
+        String blg2 = read(FILES[6]);
+        assertTrue(blg1, blg1.contains("batch1.aux"));
+        assertFalse(blg1, blg1.contains("batch2.aux"));
+        assertTrue(blg2, blg2.contains("batch2.aux"));
+        assertFalse(blg2, blg2.contains("batch1.aux"));
+    }
+
+    /**
+     * <testcase> A missing aux file leads to a failure. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test3() throws Exception {
+
+        new File(FILES[0]).delete();
+        assertFalse(makeTestInstance().run(Arrays.asList(FILES[0])));
+    }
+
+    /**
+     * <testcase> The number of threads must be positive. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testThreads() throws Exception {
+
+        makeTestInstance().setThreads(0);
+    }
+
+}
@@ -24,6 +24,7 @@ import static org.junit.Assert.assertTrue;
 
 import org.extex.exbib.core.bst.BstInterpreter099c;
 import org.extex.exbib.core.bst.BstProcessor;
+import org.extex.exbib.core.bst.code.MacroCode;
 import org.extex.exbib.core.bst.exception.ExBibEmptyFunctionNameException;
 import org.extex.exbib.core.bst.token.Token;
 import org.extex.exbib.core.bst.token.TokenFactory;
@@ -122,6 +123,32 @@ public class TLiteralTest {
         assertEquals("1", x.getValue());
     }
 
+    /**
+     * <testcase> A linked Literal executes the function defined after the
+     * linking and follows changes of the function. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testExecute3() throws Exception {
+
+        BstInterpreter099c q =
+                new BstInterpreter099c(new DBImpl(), new NullWriter(), null);
+        TokenList list = new TokenList(null);
+        list.add(new TLiteral("xyz", null));
+        q.addFunction("f", new MacroCode("f", list), null);
+        q.link();
+        q.addFunction("xyz", TokenFactory.T_ONE, null);
+
+        list.execute(q, null, null);
+        assertEquals("1", q.pop(null).getValue());
+
+        q.changeFunction("xyz", new TInteger(42, null), null);
+        list.execute(q, null, null);
+        assertEquals("42", q.pop(null).getValue());
+        assertNull(q.popUnchecked());
+    }
+
     /**
      * <testcase> A Literal for an undefined macro expands to the empty string.
      * </testcase>
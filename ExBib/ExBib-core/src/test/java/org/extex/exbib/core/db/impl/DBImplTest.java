@@ -23,7 +23,16 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.extex.exbib.core.bst.exception.ExBibEntryUndefinedException;
+import org.extex.exbib.core.bst.exception.ExBibMissingEntryException;
+import org.extex.exbib.core.db.Entry;
+import org.extex.exbib.core.io.bibio.BibReader;
+import org.extex.exbib.core.io.bibio.BibReaderFactory;
+import org.extex.exbib.core.io.bibio.BibReaderImpl;
 import org.extex.exbib.core.util.NotObservableException;
 import org.extex.framework.configuration.exception.ConfigurationException;
 import org.junit.Test;
@@ -36,6 +45,175 @@ import org.junit.Test;
  */
 public class DBImplTest {
 
+    /**
+     * The constant <tt>BIB</tt> contains the database for the tests of the
+     * streaming load.
+     */
+    private static final String BIB = "@book{x, title={X}}\n"
+            + "@article{a, crossref={x}, author={A}}\n"
+            + "@string{s = \"S\"}\n"
+            + "@article{b, author={B \"} # s}\n"
+            + "@modify{b, title={B}}\n"
+            + "@misc(c, note=\"a {\"} ) b\", crossref = \"y\")\n"
+            + "@book{y, title=s}\n";
+
+    /**
+     * The constant <tt>DUPLICATES</tt> contains a database with repeated
+     * keys. The entry z is referenced only after it has been seen.
+     */
+    private static final String DUPLICATES = "@book{z, title={Z1}}\n"
+            + "@book{x, title={X1}}\n"
+            + "@article{a, crossref={x}, author={A1}}\n"
+            + "@book{z, title={Z2}}\n"
+            + "@misc{c, crossref={z}}\n"
+            + "@article{a, crossref={x}, author={A2}}\n"
+            + "@book{x, title={X2}}\n";
+
+    /**
+     * Describe the entries of a database.
+     * 
+     * @param db the database
+     * 
+     * @return the keys of the entries followed by a star for a crossref and
+     *         the title of y
+     * 
+     * @throws Exception in case of an error
+     */
+    private static String describe(DBImpl db) throws Exception {
+
+        StringBuilder sb = new StringBuilder();
+        for (Entry e : db) {
+            sb.append(e.getKey());
+            sb.append(e.get("crossref") == null ? " " : "* ");
+        }
+        sb.append(db.getEntry("y").get("title").expand(db));
+        return sb.toString();
+    }
+
+    /**
+     * Load the database {@link #BIB BIB} with the citations a and c.
+     * 
+     * @param streaming the streaming indicator
+     * 
+     * @return the database
+     * 
+     * @throws Exception in case of an error
+     */
+    private static DBImpl load(boolean streaming) throws Exception {
+
+        return load(BIB, streaming);
+    }
+
+    /**
+     * Load a database with the citations a and c.
+     * 
+     * @param bib the contents of the database
+     * @param streaming the streaming indicator
+     * 
+     * @return the database
+     * 
+     * @throws Exception in case of an error
+     */
+    private static DBImpl load(final String bib, boolean streaming)
+            throws Exception {
+
+        DBImpl db = new DBImpl();
+        db.setStreaming(streaming);
+        db.setMinCrossrefs(1);
+        db.setBibReaderFactory(new BibReaderFactory(null, null, "UTF-8", null) {
+
+            @Override
+            public BibReader newInstance(String file) {
+
+                try {
+                    BibReaderImpl reader = new BibReaderImpl();
+                    reader.open(file, new StringReader(bib));
+                    return reader;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        Map<String, String> citation = new HashMap<String, String>();
+        citation.put("a", "a");
+        citation.put("c", "c");
+        assertEquals(0, db.load("test", citation).size());
+        return db;
+    }
+
+    /**
+     * <testcase> Check that a streaming load stores the cited entries and
+     * their cross-references only. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void testStreaming() throws Exception {
+
+        DBImpl db = load(true);
+        assertEquals("a* c* x y S", describe(db));
+        assertNull(db.getEntry("b"));
+    }
+
+    /**
+     * <testcase> Check that a streaming load leads to the same result as a
+     * normal load. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void testStreaming2() throws Exception {
+
+        assertEquals(describe(load(false)), describe(load(true)));
+    }
+
+    /**
+     * <testcase> Check that the last entry with a given key wins in a
+     * streaming load as in a normal load; even if the database has to be read
+     * again. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void testStreaming3() throws Exception {
+
+        for (int i = 0; i < 2; i++) {
+            DBImpl db = load(DUPLICATES, i == 0);
+            assertEquals("A2", db.getEntry("a").get("author").expand(db));
+            assertEquals("X2", db.getEntry("x").get("title").expand(db));
+            assertEquals("Z2", db.getEntry("z").get("title").expand(db));
+        }
+    }
+
+    /**
+     * <testcase> Check that a modification of an undefined entry is reported
+     * in a streaming load; even if another entry has been skipped before.
+     * </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test(expected = ExBibMissingEntryException.class)
+    public final void testStreaming4() throws Exception {
+
+        load("@book{b, title={B}}\n@modify{q, title={Q}}\n", true);
+    }
+
+    /**
+     * <testcase> Check that a modification of an entry skipped in a
+     * streaming load is skipped as well. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void testStreaming5() throws Exception {
+
+        DBImpl db =
+                load("@misc{a, note={A}}\n@book{b, title={B}}\n"
+                        + "@modify{B, note={Q}}\n@misc{c, note={C}}\n", true);
+        assertNull(db.getEntry("b"));
+        assertNotNull(db.getEntry("c"));
+    }
+
     /**
      * <testcase> Check the initial settings. </testcase>
      * 
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.extex.exbib.core.db.Entry;
@@ -157,6 +158,33 @@ public class Sorter099Test {
         assertEquals(c, list.get(2));
     }
 
+    /**
+     * <testcase> Sorting a large list results in the same order as sorting
+     * with the comparator. Equal keys keep their order. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testLarge() throws Exception {
+
+        String chars = "aAbB\u00e4\u00c4\u00ff\u00b5 {}";
+        List<Entry> list = new ArrayList<Entry>();
+        for (int i = 0; i < 50000; i++) {
+            Entry e = new Entry(null);
+            e.setKey("k" + i);
+            StringBuilder sb = new StringBuilder();
+            for (int j = i % 7; j > 0; j -= 2) {
+                sb.append(chars.charAt((i * 31 + j * 7) % chars.length()));
+            }
+            e.setSortKey(sb.toString());
+            list.add(e);
+        }
+        List<Entry> expected = new ArrayList<Entry>(list);
+        Collections.sort(expected, s);
+        s.sort(list);
+        assertEquals(expected, list);
+    }
+
     /**
      * <testcase> Identical elements compare to equal if the sort key is not
      * set. </testcase>
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.exbib.core.io.bibio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+
+import org.extex.exbib.core.db.impl.DBImpl;
+import org.extex.framework.configuration.ConfigurationFactory;
+import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.resource.ResourceFinder;
+import org.extex.resource.io.NamedInputStream;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This is a test suite for {@link BibCache}.
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class BibCacheTest {
+
+    /**
+     * This resource finder counts the files opened.
+     */
+    private static class CountingFinder implements ResourceFinder {
+
+        /**
+         * The field <tt>count</tt> contains the number of files opened.
+         */
+        private int count = 0;
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.resource.ResourceFinder#enableTracing(boolean)
+         */
+        public void enableTracing(boolean flag) {
+
+            //
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.resource.ResourceFinder#findResource(java.lang.String,
+         *      java.lang.String)
+         */
+        public NamedInputStream findResource(String name, String type)
+                throws ConfigurationException {
+
+            try {
+                NamedInputStream stream =
+                        new NamedInputStream(new FileInputStream(name), name);
+                count++;
+                return stream;
+            } catch (FileNotFoundException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The constant <tt>BIB</tt> contains the name of the first bib file.
+     */
+    private static final String BIB = "target/cache1.bib";
+
+    /**
+     * The constant <tt>BIB2</tt> contains the name of the second bib file.
+     */
+    private static final String BIB2 = "target/cache2.bib";
+
+    /**
+     * Write a file.
+     * 
+     * @param name the name of the file
+     * @param contents the contents
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    private static void write(String name, String contents)
+            throws IOException {
+
+        OutputStream out = new FileOutputStream(name);
+        try {
+            out.write(contents.getBytes("ISO-8859-1"));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Remove the files created.
+     */
+    @After
+    public void cleanup() {
+
+        new File(BIB).delete();
+        new File(BIB2).delete();
+    }
+
+    /**
+     * Load a bib file through a cache.
+     * 
+     * @param factory the factory
+     * @param file the name of the file
+     * 
+     * @return the database
+     * 
+     * @throws Exception in case of an error
+     */
+    private static DBImpl load(BibReaderFactory factory, String file)
+            throws Exception {
+
+        DBImpl db = new DBImpl();
+        db.setBibReaderFactory(factory);
+        factory.newInstance(file).load(db);
+        return db;
+    }
+
+    /**
+     * Make a factory for the readers which is connected to a cache.
+     * 
+     * @param finder the resource finder
+     * @param cache the cache
+     * 
+     * @return the factory
+     * 
+     * @throws Exception in case of an error
+     */
+    private static BibReaderFactory makeFactory(ResourceFinder finder,
+            BibCache cache) throws Exception {
+
+        BibReaderFactory factory =
+                new BibReaderFactory(ConfigurationFactory.newInstance(
+                    "exbib/exbib").getConfiguration("BibReader"), finder,
+                    "ISO-8859-1", null);
+        factory.setCache(cache);
+        return factory;
+    }
+
+    /**
+     * <testcase> A file is parsed once for the same resource finder and
+     * factory. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test1() throws Exception {
+
+        write(BIB, "@misc{a, title={A}}\n");
+        CountingFinder finder = new CountingFinder();
+        BibReaderFactory factory = makeFactory(finder, new BibCache());
+        assertEquals("A", load(factory, BIB).getEntry("a").get("title")
+            .expand(null));
+        int parsed = finder.count;
+        assertEquals("A", load(factory, BIB).getEntry("a").get("title")
+            .expand(null));
+        assertEquals(1, finder.count - parsed);
+    }
+
+    /**
+     * <testcase> A file is parsed again for another resource finder.
+     * </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test2() throws Exception {
+
+        write(BIB, "@misc{a, title={A}}\n");
+        BibCache cache = new BibCache();
+        CountingFinder finder1 = new CountingFinder();
+        load(makeFactory(finder1, cache), BIB);
+        CountingFinder finder2 = new CountingFinder();
+        load(makeFactory(finder2, cache), BIB);
+        assertEquals(finder1.count, finder2.count);
+        assertEquals(2, cache.getSize());
+    }
+
+    /**
+     * <testcase> The number of files kept is limited. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test3() throws Exception {
+
+        write(BIB, "@misc{a, title={A}}\n");
+        write(BIB2, "@misc{b, title={B}}\n");
+        BibCache cache = new BibCache(1);
+        BibReaderFactory factory = makeFactory(new CountingFinder(), cache);
+        load(factory, BIB);
+        assertNotNull(load(factory, BIB2).getEntry("b"));
+        assertEquals(1, cache.getSize());
+    }
+
+    /**
+     * <testcase> A reader of the cache can be opened for another reader.
+     * The input is parsed directly. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test4() throws Exception {
+
+        write(BIB, "@misc{a, title={A}}\n");
+        BibCache cache = new BibCache();
+        BibReaderFactory factory = makeFactory(new CountingFinder(), cache);
+        BibReader reader = factory.newInstance(BIB);
+        reader.open("x", new StringReader("@misc{c, title={C}}\n"));
+        DBImpl db = new DBImpl();
+        reader.load(db);
+        reader.close();
+        assertEquals("C", db.getEntry("c").get("title").expand(null));
+        assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * <testcase> A reader of the cache can be opened for another file.
+     * </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test5() throws Exception {
+
+        write(BIB, "@misc{a, title={A}}\n");
+        write(BIB2, "@misc{b, title={B}}\n");
+        BibReaderFactory factory =
+                makeFactory(new CountingFinder(), new BibCache());
+        BibReader reader = factory.newInstance(BIB);
+        reader.open(BIB2, "ISO-8859-1");
+        DBImpl db = new DBImpl();
+        reader.load(db);
+        assertNotNull(db.getEntry("b"));
+        assertNull(db.getEntry("a"));
+    }
+
+}
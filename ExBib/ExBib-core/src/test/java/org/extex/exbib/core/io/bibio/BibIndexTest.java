@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.exbib.core.io.bibio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.extex.exbib.core.db.Entry;
+import org.extex.exbib.core.db.impl.DBImpl;
+import org.extex.framework.configuration.ConfigurationFactory;
+import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.resource.ResourceFinder;
+import org.extex.resource.io.NamedInputStream;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This is a test suite for {@link BibIndex}.
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class BibIndexTest {
+
+    /**
+     * The constant <tt>BIB</tt> contains the name of the bib file.
+     */
+    private static final String BIB = "target/index.bib";
+
+    /**
+     * The constant <tt>DIR</tt> contains the directory for the index files.
+     */
+    private static final File DIR = new File("target/bix");
+
+    /**
+     * The constant <tt>CONTENTS</tt> contains the contents of the bib file.
+     */
+    private static final String CONTENTS = "% test database\r\n"
+            + "@preamble{\"pre\"}\r\n"
+            + "@string{s = \"S\"}\r\n"
+            + "@comment{ignored}\r\n"
+            + "@book{x, title={X}}\r\n"
+            + "@article{a,\r\n  crossref={x},\r\n  author={A}}\r\n"
+            + "@comment text\r\n"
+            + "@STRING(t = {T} # s)\r\n"
+            + "@article{b, author={B \"} # s}\r\n"
+            + "@misc(c, note=\"a {\"} ) b\", crossref = \"y\")\r\n"
+            + "@book\r\n{\r\ny, title=t # s}"
+            + "@book{x, title={X2}}\r\n";
+
+    /**
+     * The constant <tt>DUPLICATES</tt> contains the contents of a bib file
+     * with repeated keys. The keys are used in crossrefs as well.
+     */
+    private static final String DUPLICATES = "@book{z, title={Z1}}\r\n"
+            + "@book{x, title={X1}}\r\n"
+            + "@article{a, crossref={x}, author={A1}}\r\n"
+            + "@book{Z, title={Z2}}\r\n"
+            + "@misc{c, crossref={z}}\r\n"
+            + "@article{A, crossref={x}, author={A2}}\r\n"
+            + "@book{x, title={X2}}\r\n"
+            + "@misc{c, crossref={z}, note={C2}}\r\n";
+
+    /**
+     * The field <tt>finder</tt> contains the resource finder for the bib
+     * file.
+     */
+    private ResourceFinder finder = new ResourceFinder() {
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.resource.ResourceFinder#enableTracing(boolean)
+         */
+        public void enableTracing(boolean flag) {
+
+            //
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.resource.ResourceFinder#findResource(java.lang.String,
+         *      java.lang.String)
+         */
+        public NamedInputStream findResource(String name, String type)
+                throws ConfigurationException {
+
+            try {
+                return new NamedInputStream(new FileInputStream(name), name);
+            } catch (FileNotFoundException e) {
+                return null;
+            }
+        }
+    };
+
+    /**
+     * Describe the entries of a database.
+     * 
+     * @param db the database
+     * 
+     * @return the keys, types, lines, and fields of the entries followed by
+     *         the preamble
+     * 
+     * @throws Exception in case of an error
+     */
+    private static String describe(DBImpl db) throws Exception {
+
+        StringBuilder sb = new StringBuilder();
+        for (Entry e : db) {
+            sb.append(e.getKey());
+            sb.append(':');
+            sb.append(e.getType());
+            sb.append(':');
+            sb.append(e.getLocator().getLineNumber());
+            for (String f : e.getKeys()) {
+                sb.append(' ');
+                sb.append(f);
+                sb.append('=');
+                sb.append(e.getExpanded(f, db));
+            }
+            sb.append('\n');
+        }
+        sb.append(db.getPreambleExpanded());
+        return sb.toString();
+    }
+
+    /**
+     * Write the bib file.
+     * 
+     * @param contents the contents
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    private static void write(String contents) throws IOException {
+
+        OutputStream out = new FileOutputStream(BIB);
+        try {
+            out.write(contents.getBytes("ISO-8859-1"));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Get the index file.
+     * 
+     * @return the only file in the directory for the index files
+     */
+    private static File getIndexFile() {
+
+        File[] files = DIR.listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        return files[0];
+    }
+
+    /**
+     * Remove the files created.
+     */
+    @After
+    public void cleanup() {
+
+        new File(BIB).delete();
+        File[] files = DIR.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        DIR.delete();
+    }
+
+    /**
+     * Load the bib file with the citations a and c in a streaming load.
+     * 
+     * @param indexed the index indicator
+     * 
+     * @return the database
+     * 
+     * @throws Exception in case of an error
+     */
+    private DBImpl load(boolean indexed) throws Exception {
+
+        return load(true, indexed);
+    }
+
+    /**
+     * Load the bib file with the citations a and c.
+     * 
+     * @param streaming the streaming indicator
+     * @param indexed the index indicator
+     * 
+     * @return the database
+     * 
+     * @throws Exception in case of an error
+     */
+    private DBImpl load(boolean streaming, boolean indexed) throws Exception {
+
+        DBImpl db = new DBImpl();
+        db.setStreaming(streaming);
+        db.setIndexDirectory(indexed ? DIR : null);
+        db.setMinCrossrefs(1);
+        db.setBibReaderFactory(makeFactory());
+        Map<String, String> citation = new HashMap<String, String>();
+        citation.put("a", "a");
+        citation.put("c", "c");
+        assertEquals(0, db.load(BIB, citation).size());
+        return db;
+    }
+
+    /**
+     * Make a factory for the readers.
+     * 
+     * @return the factory
+     * 
+     * @throws Exception in case of an error
+     */
+    private BibReaderFactory makeFactory() throws Exception {
+
+        return new BibReaderFactory(ConfigurationFactory.newInstance(
+            "exbib/exbib").getConfiguration("BibReader"), finder,
+            "ISO-8859-1", null);
+    }
+
+    /**
+     * <testcase> Check that a load with an index leads to the same result as
+     * a streaming load without an index. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void test1() throws Exception {
+
+        write(CONTENTS);
+        String expected = describe(load(false));
+        assertTrue(expected, expected.startsWith("a:article:6"));
+        assertEquals(expected, describe(load(true)));
+        assertTrue(getIndexFile().isFile());
+        assertFalse(new File("target/index.bix").exists());
+        assertEquals(expected, describe(load(true)));
+    }
+
+    /**
+     * <testcase> Check that the index contains one entry for each key.
+     * </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void test2() throws Exception {
+
+        write(CONTENTS);
+        BibIndex index = makeFactory().newIndex(BIB, DIR);
+        assertNotNull(index);
+        assertEquals(5, index.getSize());
+    }
+
+    /**
+     * <testcase> Check that a modified bib file leads to a new index.
+     * </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void test3() throws Exception {
+
+        write(CONTENTS);
+        load(true);
+        write(CONTENTS.replace("author={A}", "author={AAA}"));
+        String expected = describe(load(false));
+        assertTrue(expected, expected.indexOf("author=AAA") > 0);
+        assertEquals(expected, describe(load(true)));
+    }
+
+    /**
+     * <testcase> Check that an index is valid after the bib file has been
+     * touched. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void test4() throws Exception {
+
+        write(CONTENTS);
+        String expected = describe(load(true));
+        long time = getIndexFile().lastModified();
+        assertTrue(new File(BIB).setLastModified(time - 10000));
+        assertEquals(expected, describe(load(true)));
+        assertEquals(5, makeFactory().newIndex(BIB, DIR).getSize());
+    }
+
+    /**
+     * <testcase> Check that a bib file with a <tt>@modify</tt> is not indexed.
+     * </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void testModify() throws Exception {
+
+        write(CONTENTS + "@modify{b, title={B}}\r\n");
+        assertNull(makeFactory().newIndex(BIB, DIR));
+        assertTrue(getIndexFile().isFile());
+        assertEquals(describe(load(false)), describe(load(true)));
+    }
+
+    /**
+     * <testcase> Check that a bib file with a syntax error in a string is not
+     * indexed. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void testString() throws Exception {
+
+        write("@string{s = {S} junk}\r\n" + CONTENTS);
+        assertNull(makeFactory().newIndex(BIB, DIR));
+    }
+
+    /**
+     * <testcase> Check that a load with an index leads to the same result as
+     * a complete load if keys are repeated and used in crossrefs. The last
+     * entry with a key wins. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public final void testDuplicates() throws Exception {
+
+        write(DUPLICATES);
+        String expected = describe(load(false, false));
+        assertTrue(expected, expected.indexOf("author=A2") > 0);
+        assertTrue(expected, expected.indexOf("note=C2") > 0);
+        assertTrue(expected, expected.indexOf("title=X2") > 0);
+        assertTrue(expected, expected.indexOf("title=Z2") > 0);
+        assertEquals(expected, describe(load(true, false)));
+        assertEquals(expected, describe(load(true, true)));
+        assertEquals(expected, describe(load(true, true)));
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.exbib.core.io.bstio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+
+import org.extex.exbib.core.bst.BstInterpreter099c;
+import org.extex.exbib.core.bst.code.MacroCode;
+import org.extex.exbib.core.bst.token.impl.TokenList;
+import org.extex.exbib.core.db.impl.DBImpl;
+import org.extex.exbib.core.io.NullWriter;
+import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.resource.ResourceFinder;
+import org.extex.resource.io.NamedInputStream;
+import org.junit.Test;
+
+/**
+ * This is a test suite for {@link BstCache}.
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class BstCacheTest {
+
+    /**
+     * The field <tt>count</tt> contains the number of files opened.
+     */
+    private int count = 0;
+
+    /**
+     * The field <tt>finder</tt> contains the resource finder which delivers
+     * the style plain for any name.
+     */
+    private ResourceFinder finder = new ResourceFinder() {
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.resource.ResourceFinder#enableTracing(boolean)
+         */
+        public void enableTracing(boolean flag) {
+
+            //
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.resource.ResourceFinder#findResource(java.lang.String,
+         *      java.lang.String)
+         */
+        public NamedInputStream findResource(String name, String type)
+                throws ConfigurationException {
+
+            count++;
+            try {
+                return new NamedInputStream(new FileInputStream(
+                    "src/test/resources/bibtex/base/plain.bst"), "plain.bst");
+            } catch (FileNotFoundException e) {
+                return null;
+            }
+        }
+    };
+
+    /**
+     * Parse the style plain for a new processor.
+     * 
+     * @param cache the cache
+     * 
+     * @return the processor
+     * 
+     * @throws Exception in case of an error
+     */
+    private BstInterpreter099c parse(BstCache cache) throws Exception {
+
+        BstInterpreter099c p =
+                new BstInterpreter099c(new DBImpl(), new NullWriter(), null);
+        p.addBibliographyStyle("plain");
+        BstReader reader = new BstReaderImpl();
+        reader.setResourceFinder(finder);
+        cache.parse(reader, p, finder);
+        return p;
+    }
+
+    /**
+     * <testcase> A style is parsed once. The second processor gets the same
+     * functions. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test1() throws Exception {
+
+        BstCache cache = new BstCache();
+        BstInterpreter099c p1 = parse(cache);
+        int parsed = count;
+        BstInterpreter099c p2 = parse(cache);
+        assertEquals(1, count - parsed);
+        assertEquals(p1.getFunctionNames(), p2.getFunctionNames());
+        assertEquals(p1.getFunction("output.bibitem").toString(), p2
+            .getFunction("output.bibitem").toString());
+    }
+
+    /**
+     * <testcase> The processors do not share the literals. Thus each
+     * processor can link them to its own functions. </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void test2() throws Exception {
+
+        BstCache cache = new BstCache();
+        BstInterpreter099c p1 = parse(cache);
+        BstInterpreter099c p2 = parse(cache);
+        p1.link();
+        p2.link();
+        TokenList t1 =
+                (TokenList) ((MacroCode) p1.getFunction("output.bibitem"))
+                    .getToken();
+        TokenList t2 =
+                (TokenList) ((MacroCode) p2.getFunction("output.bibitem"))
+                    .getToken();
+        assertNotSame(t1, t2);
+        assertEquals("newline$", t2.get(0).getValue());
+        assertNotSame(t1.get(0), t2.get(0));
+    }
+
+}
@@ -19,8 +19,10 @@
 
 package org.extex.resource.io;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 /**
  * This input stream carries a name to transport the information where the input
@@ -86,6 +88,21 @@ public class NamedInputStream extends InputStream {
         return stream.equals(obj);
     }
 
+    /**
+     * Getter for the channel of the underlying stream. This can be used to map
+     * the contents of a file into memory.
+     * 
+     * @return the channel or <code>null</code> if the stream is not reading
+     *         from a file
+     */
+    public FileChannel getChannel() {
+
+        if (stream instanceof FileInputStream) {
+            return ((FileInputStream) stream).getChannel();
+        }
+        return null;
+    }
+
     /**
      * Getter for name.
      * 
@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307 USA
+ *
+ */
+
+package org.extex.backend.documentWriter.dvi;
+
+import org.extex.core.exception.GeneralException;
+
+/**
+ * This class contains the movements in one direction written on the current
+ * page. It is used to reuse the registers <i>w</i> and <i>x</i> resp.
+ * <i>y</i> and <i>z</i> of the dvi file.
+ *
+ * <p>
+ * The movements are kept in the order they have been written. When a new
+ * movement is written the older ones are inspected. If one of them has the
+ * same width and a register can hold it up to now then the old command is
+ * changed to set the register and the new movement uses the register. Since
+ * the commands have to be changed afterwards the page has to be kept in the
+ * buffer of the {@link DviOutputStream DviOutputStream} until it is complete.
+ * </p>
+ *
+ * @author <a href="mailto:sebastian.waschik@gmx.de">Sebastian Waschik</a>
+ * @version $Revision$
+ * @see "TeX -- The Program [607]"
+ */
+public class DviMovements {
+
+    /**
+     * The movement has been changed to set <i>y</i> (resp. <i>w</i>).
+     *
+     * @see "TeX -- The Program [608]"
+     */
+    private static final int Y_HERE = 1;
+
+    /**
+     * The movement has been changed to set <i>z</i> (resp. <i>x</i>).
+     *
+     */
+    private static final int Z_HERE = 2;
+
+    /**
+     * The movement can still be changed to set <i>y</i> or <i>z</i>.
+     *
+     */
+    private static final int YZ_OK = 3;
+
+    /**
+     * The movement can still be changed to set <i>y</i>.
+     *
+     */
+    private static final int Y_OK = 4;
+
+    /**
+     * The movement can still be changed to set <i>z</i>.
+     *
+     */
+    private static final int Z_OK = 5;
+
+    /**
+     * The movement can not be changed any more.
+     *
+     */
+    private static final int D_FIXED = 6;
+
+    /**
+     * No register has been set between the movements inspected.
+     *
+     * @see "TeX -- The Program [611]"
+     */
+    private static final int NONE_SEEN = 0;
+
+    /**
+     * <i>y</i> has been set between the movements inspected.
+     *
+     */
+    private static final int Y_SEEN = 1;
+
+    /**
+     * <i>z</i> has been set between the movements inspected.
+     *
+     */
+    private static final int Z_SEEN = 2;
+
+    /**
+     * Initial size of the arrays.
+     *
+     */
+    private static final int INITIAL_SIZE = 64;
+
+    /**
+     * dvi-codes for the plain movement.
+     *
+     */
+    private int[] codes;
+
+    /**
+     * dvi-code for moving by <i>y</i> (resp. <i>w</i>).
+     *
+     */
+    private int y0;
+
+    /**
+     * dvi-code for moving by <i>z</i> (resp. <i>x</i>).
+     *
+     */
+    private int z0;
+
+    /**
+     * Difference between the codes for setting <i>y</i> (resp. <i>w</i>)
+     * and the codes of the plain movement.
+     *
+     */
+    private int yOffset;
+
+    /**
+     * Difference between the codes for setting <i>z</i> (resp. <i>x</i>)
+     * and the codes of the plain movement.
+     *
+     */
+    private int zOffset;
+
+    /**
+     * The widths of the movements.
+     *
+     */
+    private int[] width = new int[INITIAL_SIZE];
+
+    /**
+     * The positions of the movements in the dvi stream.
+     *
+     */
+    private int[] location = new int[INITIAL_SIZE];
+
+    /**
+     * The states of the movements.
+     *
+     */
+    private int[] info = new int[INITIAL_SIZE];
+
+    /**
+     * Number of movements.
+     *
+     */
+    private int size = 0;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param codes codes for the plain movement with one, two, ... bytes
+     * @param y0 code for moving by <i>y</i> (resp. <i>w</i>)
+     * @param y codes for setting <i>y</i> (resp. <i>w</i>)
+     * @param z0 code for moving by <i>z</i> (resp. <i>x</i>)
+     * @param z codes for setting <i>z</i> (resp. <i>x</i>)
+     */
+    public DviMovements(int[] codes, int y0, int[] y, int z0, int[] z) {
+
+        this.codes = codes;
+        this.y0 = y0;
+        this.z0 = z0;
+        this.yOffset = y[0] - codes[0];
+        this.zOffset = z[0] - codes[0];
+    }
+
+    /**
+     * Forget all movements.
+     *
+     */
+    public void clear() {
+
+        size = 0;
+    }
+
+    /**
+     * Forget the movements at or after a position. This is used when the
+     * registers are restored with a <i>pop</i>.
+     *
+     * @param position the position in the dvi stream
+     *
+     * @see "TeX -- The Program [615]"
+     */
+    public void prune(int position) {
+
+        while (size > 0 && location[size - 1] >= position) {
+            size--;
+        }
+    }
+
+    /**
+     * Write a movement to the output stream. A register is used if
+     * possible.
+     *
+     * @param w the width of the movement
+     * @param out the output stream
+     *
+     * @exception GeneralException if an error occurs
+     *
+     * @see "TeX -- The Program [607]"
+     */
+    public void write(int w, DviOutputStream out) throws GeneralException {
+
+        if (size == width.length) {
+            int n = 2 * size;
+            int[] a = new int[n];
+            System.arraycopy(width, 0, a, 0, size);
+            width = a;
+            a = new int[n];
+            System.arraycopy(location, 0, a, 0, size);
+            location = a;
+            a = new int[n];
+            System.arraycopy(info, 0, a, 0, size);
+            info = a;
+        }
+        int q = size++;
+        width[q] = w;
+        location[q] = out.getStreamPosition();
+
+        int mstate = NONE_SEEN;
+        for (int p = q - 1; p >= 0; p--) {
+            int i = info[p];
+            if (width[p] != w) {
+                if (i == Y_HERE) {
+                    if (mstate == Z_SEEN) {
+                        break;
+                    }
+                    mstate = Y_SEEN;
+                } else if (i == Z_HERE) {
+                    if (mstate == Y_SEEN) {
+                        break;
+                    }
+                    mstate = Z_SEEN;
+                }
+            } else if (mstate != Y_SEEN && (i == YZ_OK || i == Y_OK)) {
+                out.changeByte(location[p], yOffset);
+                info[p] = Y_HERE;
+                reuse(p, q, out);
+                return;
+            } else if (mstate != Z_SEEN && (i == YZ_OK || i == Z_OK)) {
+                out.changeByte(location[p], zOffset);
+                info[p] = Z_HERE;
+                reuse(p, q, out);
+                return;
+            } else if (i == Y_HERE && mstate != Y_SEEN || i == Z_HERE
+                    && mstate != Z_SEEN) {
+                reuse(p, q, out);
+                return;
+            }
+        }
+
+        info[q] = YZ_OK;
+        if (w >= 0x800000 || w <= -0x800000) {
+            out.writeByte(codes[3]);
+            out.writeNumber(w, 4);
+        } else if (w >= 0x8000 || w <= -0x8000) {
+            out.writeByte(codes[2]);
+            out.writeNumber(w, 3);
+        } else if (w >= 0x80 || w <= -0x80) {
+            out.writeByte(codes[1]);
+            out.writeNumber(w, 2);
+        } else {
+            out.writeByte(codes[0]);
+            out.writeNumber(w, 1);
+        }
+    }
+
+    /**
+     * Write a movement which reuses the register set by an earlier
+     * movement. The movements in between can not use this register any
+     * more.
+     *
+     * @param p the index of the earlier movement
+     * @param q the index of the current movement
+     * @param out the output stream
+     *
+     * @exception GeneralException if an error occurs
+     *
+     * @see "TeX -- The Program [614]"
+     */
+    private void reuse(int p, int q, DviOutputStream out)
+            throws GeneralException {
+
+        info[q] = info[p];
+        if (info[q] == Y_HERE) {
+            out.writeByte(y0);
+            for (int r = q - 1; r > p; r--) {
+                if (info[r] == YZ_OK) {
+                    info[r] = Z_OK;
+                } else if (info[r] == Y_OK) {
+                    info[r] = D_FIXED;
+                }
+            }
+        } else {
+            out.writeByte(z0);
+            for (int r = q - 1; r > p; r--) {
+                if (info[r] == YZ_OK) {
+                    info[r] = Y_OK;
+                } else if (info[r] == Z_OK) {
+                    info[r] = D_FIXED;
+                }
+            }
+        }
+    }
+
+}
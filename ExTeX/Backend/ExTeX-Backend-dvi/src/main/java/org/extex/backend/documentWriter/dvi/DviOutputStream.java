@@ -29,6 +29,13 @@ import org.extex.core.exception.GeneralException;
 /**
  * This class provides the methods to write to the dvi-Stream.
  *
+ * <p>
+ * The bytes are collected in a buffer and written to the underlying output
+ * stream with {@link #flush() flush()}. Until then bytes in the buffer can be
+ * changed with {@link #changeByte(int, int) changeByte()}. The buffer is
+ * reused afterwards.
+ * </p>
+ *
  * @author <a href="mailto:sebastian.waschik@gmx.de">Sebastian Waschik</a>
  * @version $Revision:4704 $
  */
@@ -57,6 +64,24 @@ public class DviOutputStream {
      */
     private static final int BYTE_BITMASK = 255;
 
+    /**
+     * Initial size of the buffer.
+     *
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The bytes not yet written to the OutputStream.
+     *
+     */
+    private byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * Number of bytes in the buffer.
+     *
+     */
+    private int bufferLength = 0;
+
     /**
      * The OutputStream for output of this class.
      */
@@ -68,6 +93,24 @@ public class DviOutputStream {
      */
     private int streamPosition = 0;
 
+    /**
+     * Change a byte which is still in the buffer.
+     *
+     * @param position the position of the byte in the stream
+     * @param increment the value to add to the byte
+     * @exception GeneralException if the byte has already been written
+     */
+    public void changeByte(int position, int increment)
+            throws GeneralException {
+
+        int index = position - streamPosition + bufferLength;
+        if (index < 0 || index >= bufferLength) {
+            throw new GeneralException("position " + position
+                    + " is not in the buffer");
+        }
+        buffer[index] += increment;
+    }
+
     /**
      * ...
      *
@@ -76,10 +119,26 @@ public class DviOutputStream {
      */
     public void close() throws GeneralException, IOException {
 
+        flush();
         outputStream.close();
         outputStream = null;
     }
 
+    /**
+     * Write the bytes in the buffer to the output stream.
+     *
+     * @exception GeneralException if an error occurs
+     */
+    public void flush() throws GeneralException {
+
+        try {
+            outputStream.write(buffer, 0, bufferLength);
+            bufferLength = 0;
+        } catch (IOException e) {
+            throw new GeneralException(e);
+        }
+    }
+
     /**
      * Get the StreamPosition value.
      * @return the StreamPosition value.
@@ -100,19 +159,20 @@ public class DviOutputStream {
     }
 
     /**
-     * Writes a single byte to the output stream.
+     * Writes a single byte to the buffer.
      *
      * @param theByte the output
      * @exception GeneralException if an error occurs
      */
     public void writeByte(int theByte) throws GeneralException {
 
-        try {
-            outputStream.write(theByte);
-            streamPosition++;
-        } catch (IOException e) {
-            throw new GeneralException(e);
+        if (bufferLength == buffer.length) {
+            byte[] b = new byte[2 * bufferLength];
+            System.arraycopy(buffer, 0, b, 0, bufferLength);
+            buffer = b;
         }
+        buffer[bufferLength++] = (byte) theByte;
+        streamPosition++;
     }
 
     /**
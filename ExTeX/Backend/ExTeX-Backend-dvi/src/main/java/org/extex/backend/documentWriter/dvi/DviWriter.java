@@ -134,35 +134,25 @@ public class DviWriter {
      * dvi-code for "move right by w".
      * 
      */
-    /*
-     * TODO: not used, yet (TE) private static final int DVI_W0 = 147;
-     */
+    private static final int DVI_W0 = 147;
 
     /**
      * dvi-codes for "move right, update w".
      * 
      */
-    /*
-     * TODO: not used, yet (TE) private static final int[] DVI_W = {148, 149,
-     * 150, 151};
-     */
+    private static final int[] DVI_W = {148, 149, 150, 151};
 
     /**
      * dvi-code for "move right by x".
      * 
      */
-    /*
-     * TODO: not used, yet (TE) private static final int DVI_X0 = 152;
-     */
+    private static final int DVI_X0 = 152;
 
     /**
      * dvi-codes for "move right, update x".
      * 
      */
-    /*
-     * TODO: not used, yet (TE) private static final int[] DVI_X = {153, 154,
-     * 155, 156};
-     */
+    private static final int[] DVI_X = {153, 154, 155, 156};
 
     /**
      * dvi-codes for "move down".
@@ -174,35 +164,25 @@ public class DviWriter {
      * dvi-code for "move down by y".
      * 
      */
-    /*
-     * TODO: not used, yet (TE) private static final int DVI_Y0 = 161;
-     */
+    private static final int DVI_Y0 = 161;
 
     /**
      * dvi-codes for "move down, update y".
      * 
      */
-    /*
-     * TODO: not used, yet (TE) private static final int[] DVI_Y = {162, 163,
-     * 164, 165};
-     */
+    private static final int[] DVI_Y = {162, 163, 164, 165};
 
     /**
      * dvi-code for "move down by z".
      * 
      */
-    /*
-     * TODO: not used, yet (TE) private static final int DVI_Z0 = 166;
-     */
+    private static final int DVI_Z0 = 166;
 
     /**
      * dvi-codes for "move down, udpate z".
      * 
      */
-    /*
-     * TODO: not used, yet (TE) private static final int[] DVI_Z = {167, 168,
-     * 169, 170};
-     */
+    private static final int[] DVI_Z = {167, 168, 169, 170};
 
     /**
      * dvi-codes for "set current font". Codes for font numbers less 64.
@@ -427,6 +407,27 @@ public class DviWriter {
      */
     private Stack<DviPositions> savedPositions = new Stack<DviPositions>();
 
+    /**
+     * Positions in the dvi file after the push commands of the saved
+     * positions.
+     * 
+     */
+    private Stack<Integer> savedLocations = new Stack<Integer>();
+
+    /**
+     * Horizontal movements on the current page.
+     * 
+     */
+    private DviMovements rightMovements =
+            new DviMovements(DVI_RIGHT, DVI_W0, DVI_W, DVI_X0, DVI_X);
+
+    /**
+     * Vertical movements on the current page.
+     * 
+     */
+    private DviMovements downMovements =
+            new DviMovements(DVI_DOWN, DVI_Y0, DVI_Y, DVI_Z0, DVI_Z);
+
     /**
      * Variable for remembering errors. If an error occurs this variable is set
      * to the error. Until the error this variable has the value null.
@@ -603,7 +604,8 @@ public class DviWriter {
     /**
      * <code>endPage</code> terminates the current page. The page have to be
      * started with <code>{@link #beginPage()
-     * beginPage()}</code>.
+     * beginPage()}</code>. The page is written to the output stream in one
+     * chunk.
      * 
      * @exception GeneralException if an error occurs
      */
@@ -613,6 +615,11 @@ public class DviWriter {
 
         // empty the stack
         savedPositions.clear();
+        savedLocations.clear();
+        rightMovements.clear();
+        downMovements.clear();
+
+        dviOutputStream.flush();
     }
 
     /*
@@ -804,6 +811,8 @@ public class DviWriter {
         int stackDepth;
 
         savedPositions.push(currentPositions.clone());
+        savedLocations.push(Integer.valueOf(dviOutputStream
+            .getStreamPosition()));
 
         stackDepth = savedPositions.size();
 
@@ -824,6 +833,10 @@ public class DviWriter {
 
         try {
             currentPositions = savedPositions.pop();
+            // the registers set after the push are not valid any more
+            int location = savedLocations.pop().intValue();
+            rightMovements.prune(location);
+            downMovements.prune(location);
         } catch (EmptyStackException e) {
             throw new GeneralException(e);
         }
@@ -852,7 +865,8 @@ public class DviWriter {
     }
 
     /**
-     * Move right current position.
+     * Move down current position. The registers <i>y</i> and <i>z</i> are
+     * used if possible.
      * 
      * @param units distance (in sp)
      * @exception GeneralException if an error occurs
@@ -860,14 +874,15 @@ public class DviWriter {
     private void writeDown(int units) throws GeneralException {
 
         if (units != 0) {
-            dviOutputStream.writeCodeNumberAndArg(DVI_DOWN, units);
+            downMovements.write(units, dviOutputStream);
             currentPositions.addToV(units);
             updateMaximumPageHeight();
         }
     }
 
     /**
-     * Move right current position.
+     * Move right current position. The registers <i>w</i> and <i>x</i> are
+     * used if possible.
      * 
      * @param units distance (in sp)
      * @exception GeneralException if an error occurs
@@ -875,7 +890,7 @@ public class DviWriter {
     private void writeRight(int units) throws GeneralException {
 
         if (units != 0) {
-            dviOutputStream.writeCodeNumberAndArg(DVI_RIGHT, units);
+            rightMovements.write(units, dviOutputStream);
             currentPositions.addToH(units);
             updateMaximumPageWidth();
         }
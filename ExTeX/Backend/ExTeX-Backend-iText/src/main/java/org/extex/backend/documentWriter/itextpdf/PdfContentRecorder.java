@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.backend.documentWriter.itextpdf;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfContentByte;
+
+/**
+ * Content byte which records the operations of the node visitor instead of
+ * writing them to the pdf writer.
+ * <p>
+ * iText registers the fonts and the glyphs used in the writer for each text
+ * operator. Thus the content of a page can not be created without the writer.
+ * The recorder does not need the writer. It can be filled in a thread of its
+ * own and is replayed into the direct content of the writer afterwards.
+ * </p>
+ * 
+ * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
+ * @version $Revision$
+ */
+class PdfContentRecorder extends PdfContentByte {
+
+    /**
+     * The operation <tt>BT</tt>.
+     */
+    private static final byte BEGIN_TEXT = 0;
+
+    /**
+     * The operation <tt>ET</tt>.
+     */
+    private static final byte END_TEXT = 1;
+
+    /**
+     * The operation <tt>l</tt>.
+     */
+    private static final byte LINE_TO = 2;
+
+    /**
+     * The operation <tt>m</tt>.
+     */
+    private static final byte MOVE_TO = 3;
+
+    /**
+     * The operation <tt>RG</tt>.
+     */
+    private static final byte SET_COLOR_STROKE = 4;
+
+    /**
+     * The operation <tt>Tf</tt>.
+     */
+    private static final byte SET_FONT_AND_SIZE = 5;
+
+    /**
+     * The operation <tt>w</tt>.
+     */
+    private static final byte SET_LINE_WIDTH = 6;
+
+    /**
+     * The operation <tt>Tm</tt>.
+     */
+    private static final byte SET_TEXT_MATRIX = 7;
+
+    /**
+     * The operation <tt>Tj</tt>.
+     */
+    private static final byte SHOW_TEXT = 8;
+
+    /**
+     * The operation <tt>S</tt>.
+     */
+    private static final byte STROKE = 9;
+
+    /**
+     * The float arguments of the operations.
+     */
+    private float[] args = new float[256];
+
+    /**
+     * The number of float arguments.
+     */
+    private int nargs = 0;
+
+    /**
+     * The number of operations.
+     */
+    private int nops = 0;
+
+    /**
+     * The object arguments of the operations.
+     */
+    private List<Object> objs = new ArrayList<Object>();
+
+    /**
+     * The operations.
+     */
+    private byte[] ops = new byte[256];
+
+    /**
+     * Creates a new object.
+     */
+    public PdfContentRecorder() {
+
+        super(null);
+    }
+
+    /**
+     * Record a float argument.
+     * 
+     * @param f the argument
+     */
+    private void arg(float f) {
+
+        if (nargs == args.length) {
+            float[] a = new float[2 * nargs];
+            System.arraycopy(args, 0, a, 0, nargs);
+            args = a;
+        }
+        args[nargs++] = f;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see com.lowagie.text.pdf.PdfContentByte#beginText()
+     */
+    @Override
+    public void beginText() {
+
+        op(BEGIN_TEXT);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see com.lowagie.text.pdf.PdfContentByte#endText()
+     */
+    @Override
+    public void endText() {
+
+        op(END_TEXT);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see com.lowagie.text.pdf.PdfContentByte#lineTo(float, float)
+     */
+    @Override
+    public void lineTo(float x, float y) {
+
+        op(LINE_TO);
+        arg(x);
+        arg(y);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see com.lowagie.text.pdf.PdfContentByte#moveTo(float, float)
+     */
+    @Override
+    public void moveTo(float x, float y) {
+
+        op(MOVE_TO);
+        arg(x);
+        arg(y);
+    }
+
+    /**
+     * Record an operation.
+     * 
+     * @param op the operation
+     */
+    private void op(byte op) {
+
+        if (nops == ops.length) {
+            byte[] a = new byte[2 * nops];
+            System.arraycopy(ops, 0, a, 0, nops);
+            ops = a;
+        }
+        ops[nops++] = op;
+    }
+
+    /**
+     * Replay the recorded operations into another content byte.
+     * 
+     * @param cb the target
+     */
+    public void replay(PdfContentByte cb) {
+
+        int a = 0;
+        int o = 0;
+        for (int i = 0; i < nops; i++) {
+            switch (ops[i]) {
+                case BEGIN_TEXT:
+                    cb.beginText();
+                    break;
+                case END_TEXT:
+                    cb.endText();
+                    break;
+                case LINE_TO:
+                    cb.lineTo(args[a], args[a + 1]);
+                    a += 2;
+                    break;
+                case MOVE_TO:
+                    cb.moveTo(args[a], args[a + 1]);
+                    a += 2;
+                    break;
+                case SET_COLOR_STROKE:
+                    cb.setColorStroke((Color) objs.get(o++));
+                    break;
+                case SET_FONT_AND_SIZE:
+                    cb.setFontAndSize((BaseFont) objs.get(o++), args[a++]);
+                    break;
+                case SET_LINE_WIDTH:
+                    cb.setLineWidth(args[a++]);
+                    break;
+                case SET_TEXT_MATRIX:
+                    cb.setTextMatrix(args[a], args[a + 1]);
+                    a += 2;
+                    break;
+                case SHOW_TEXT:
+                    cb.showText((String) objs.get(o++));
+                    break;
+                case STROKE:
+                    cb.stroke();
+                    break;
+                default:
+                    throw new IllegalStateException(Byte.toString(ops[i]));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see com.lowagie.text.pdf.PdfContentByte#setColorStroke(java.awt.Color)
+     */
+    @Override
+    public void setColorStroke(Color color) {
+
+        op(SET_COLOR_STROKE);
+        objs.add(color);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see com.lowagie.text.pdf.PdfContentByte#setFontAndSize(com.lowagie.text.pdf.BaseFont,
+     *      float)
+     */
+    @Override
+    public void setFontAndSize(BaseFont bf, float size) {
+
+        op(SET_FONT_AND_SIZE);
+        objs.add(bf);
+        arg(size);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see com.lowagie.text.pdf.PdfContentByte#setLineWidth(float)
+     */
+    @Override
+    public void setLineWidth(float w) {
+
+        op(SET_LINE_WIDTH);
+        arg(w);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see com.lowagie.text.pdf.PdfContentByte#setTextMatrix(float, float)
+     */
+    @Override
+    public void setTextMatrix(float x, float y) {
+
+        op(SET_TEXT_MATRIX);
+        arg(x);
+        arg(y);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see com.lowagie.text.pdf.PdfContentByte#showText(java.lang.String)
+     */
+    @Override
+    public void showText(String text) {
+
+        op(SHOW_TEXT);
+        objs.add(text);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see com.lowagie.text.pdf.PdfContentByte#stroke()
+     */
+    @Override
+    public void stroke() {
+
+        op(STROKE);
+    }
+
+}
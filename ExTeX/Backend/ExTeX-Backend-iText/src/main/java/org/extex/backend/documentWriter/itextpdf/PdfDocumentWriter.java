@@ -25,8 +25,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 
+import org.extex.backend.PageSnapshot;
 import org.extex.backend.documentWriter.DocumentWriter;
 import org.extex.backend.documentWriter.DocumentWriterOptions;
 import org.extex.backend.documentWriter.SingleDocumentStream;
@@ -40,6 +47,7 @@ import org.extex.font.FontAware;
 import org.extex.framework.configuration.Configurable;
 import org.extex.framework.configuration.Configuration;
 import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.framework.configuration.exception.ConfigurationSyntaxException;
 import org.extex.framework.i18n.Localizer;
 import org.extex.framework.i18n.LocalizerFactory;
 import org.extex.framework.logger.LogEnabled;
@@ -53,6 +61,19 @@ import com.lowagie.text.pdf.PdfWriter;
 
 /**
  * Implementation of a pdf document writer with iText.
+ * <p>
+ * The attribute <tt>threads</tt> of the configuration contains the number of
+ * threads used to create the contents of the pages. If it is greater than 0
+ * then the contents of several pages are recorded in parallel. iText needs
+ * the writer for each text operator. Thus the recorded contents are replayed
+ * into the document in the order of the pages. The default is <tt>0</tt>;
+ * i.e. the pages are written one after the other.
+ * </p>
+ * 
+ * <pre>
+ *  &lt;DocumentWriter class="org.extex.backend.documentWriter.itextpdf.PdfDocumentWriter"
+ *                  threads="4"/&gt;
+ * </pre>
  * 
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
  * @version $Revision$
@@ -122,6 +143,23 @@ public class PdfDocumentWriter
      */
     private Logger logger;
 
+    /**
+     * The number of threads for creating the contents of pages; 0 for none.
+     */
+    private int threads = 0;
+
+    /**
+     * The executor for creating the contents of pages. It is created when
+     * needed.
+     */
+    private ExecutorService executor = null;
+
+    /**
+     * The contents of pages which are not yet written to the document.
+     */
+    private List<Future<PdfContentRecorder>> pending =
+            new ArrayList<Future<PdfContentRecorder>>();
+
     /**
      * Creates a new object.
      * 
@@ -143,6 +181,14 @@ public class PdfDocumentWriter
     public void close() throws GeneralException, IOException {
 
         if (out != null) {
+            try {
+                replay(0);
+            } finally {
+                if (executor != null) {
+                    executor.shutdownNow();
+                    executor = null;
+                }
+            }
             if (document != null) {
                 document.close();
             }
@@ -164,6 +210,15 @@ public class PdfDocumentWriter
 
         if (config != null) {
             // TODO mgn: incomplete
+            String s = config.getAttribute("threads");
+            if (s != null && !s.equals("")) {
+                try {
+                    threads = Integer.parseInt(s);
+                } catch (NumberFormatException e) {
+                    throw new ConfigurationSyntaxException(s, config
+                        .toString());
+                }
+            }
         }
 
     }
@@ -180,6 +235,34 @@ public class PdfDocumentWriter
 
     }
 
+    /**
+     * Getter for the executor for creating the contents of pages. The
+     * executor is created if needed.
+     * 
+     * @return the executor
+     */
+    private ExecutorService getExecutor() {
+
+        if (executor == null) {
+            executor =
+                    Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                        /**
+                         * {@inheritDoc}
+                         * 
+                         * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+                         */
+                        public Thread newThread(Runnable r) {
+
+                            Thread t = new Thread(r, "PdfPageRecorder");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+        }
+        return executor;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -199,7 +282,42 @@ public class PdfDocumentWriter
         // TODO mgn: set the right page size.
         document.setPageSize(PageSize.A4);
 
-        nodevisitor.setPageSize(PageSize.A4);
+        if (nodevisitor != null) {
+            nodevisitor.setPageSize(PageSize.A4);
+        }
+    }
+
+    /**
+     * Write the recorded contents to the document until at most the given
+     * number of pages are pending. The pages are written in their order.
+     * 
+     * @param max the maximal number of pending pages
+     * 
+     * @throws GeneralException in case of an error
+     * @throws IOException in case of an I/O error
+     */
+    private void replay(int max) throws GeneralException, IOException {
+
+        while (pending.size() > max) {
+            PdfContentRecorder contents;
+            try {
+                contents = pending.remove(0).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DocumentWriterException(e.getMessage());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof GeneralException) {
+                    throw (GeneralException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new DocumentWriterException(cause.toString());
+            }
+            pageSize();
+            document.newPage();
+            contents.replay(writer.getDirectContent());
+        }
     }
 
     /**
@@ -259,9 +377,43 @@ public class PdfDocumentWriter
                 document.open();
 
                 PdfFontFactory.setLogger(logger);
-                nodevisitor =
-                        new PdfNodeVisitor(document, writer, manager, logger,
-                            localizer);
+                if (threads <= 0) {
+                    nodevisitor =
+                            new PdfNodeVisitor(document, writer, manager,
+                                logger, localizer);
+                }
+            }
+            if (threads > 0) {
+                shippedPages++;
+                // the page might be modified in the meantime
+                final NodeList nodes =
+                        (page instanceof PageSnapshot
+                                ? page.getNodes()
+                                : new PageSnapshot(page).getNodes());
+                pending.add(getExecutor().submit(
+                    new Callable<PdfContentRecorder>() {
+
+                        /**
+                         * {@inheritDoc}
+                         * 
+                         * @see java.util.concurrent.Callable#call()
+                         */
+                        public PdfContentRecorder call() throws Exception {
+
+                            PdfContentRecorder contents =
+                                    new PdfContentRecorder();
+                            PdfNodeVisitor visitor =
+                                    new PdfNodeVisitor(contents, manager,
+                                        logger, localizer);
+                            visitor.setPageSize(PageSize.A4);
+                            visitor.setX(Dimen.ONE_INCH);
+                            visitor.setY(Dimen.ONE_INCH);
+                            nodes.visit(visitor, nodes);
+                            return contents;
+                        }
+                    }));
+                replay(4 * threads);
+                return shippedPages;
             }
             pageSize();
             document.newPage();
@@ -60,7 +60,8 @@ public class PdfFontFactory {
     private static Logger logger;
 
     /**
-     * Returns the font for the pdf backend.
+     * Returns the font for the pdf backend. The fonts are shared by the
+     * threads creating the contents of pages.
      * 
      * @param backendfont The backend font.
      * @param uc The unicode character.
@@ -68,9 +69,8 @@ public class PdfFontFactory {
      * @throws DocumentException if a document error occurred.
      * @throws IOException if a io-error occurred.
      */
-    public static BaseFont getFont(BackendFont backendfont, UnicodeChar uc)
-            throws DocumentException,
-                IOException {
+    public static synchronized BaseFont getFont(BackendFont backendfont,
+            UnicodeChar uc) throws DocumentException, IOException {
 
         if (backendfont == null) {
             throw new IllegalArgumentException("backendfont");
@@ -143,6 +143,24 @@ public class PdfNodeVisitor implements NodeVisitor<Object, Object> {
         cb = writer.getDirectContent();
     }
 
+    /**
+     * Creates a new object which writes into the given content. This is used
+     * to create the contents of several pages in parallel.
+     * 
+     * @param cb The content of the pdf page.
+     * @param manager The backend font manager
+     * @param logger The logger.
+     * @param localizer The localizer
+     */
+    public PdfNodeVisitor(PdfContentByte cb, BackendFontManager manager,
+            Logger logger, Localizer localizer) {
+
+        this.manager = manager;
+        this.logger = logger;
+        this.localizer = localizer;
+        this.cb = cb;
+    }
+
     /**
      * The localizer.
      */
@@ -306,13 +324,21 @@ public class PdfNodeVisitor implements NodeVisitor<Object, Object> {
             org.extex.color.Color newcolor =
                     node.getTypesettingContext().getColor();
 
-            boolean aviable = manager.recognize(font.getFontKey(), uc);
-            if (!aviable) {
+            // the manager is shared by the visitors of all pages
+            BaseFont recognized = null;
+            synchronized (manager) {
+                if (manager.recognize(font.getFontKey(), uc)) {
+                    recognized =
+                            PdfFontFactory.getFont(manager.getRecognizedFont(),
+                                uc);
+                }
+            }
+            if (recognized == null) {
                 logger.severe(localizer.format("Pdf.incompatiblefont", font
                     .getFontKey(), uc.toString()));
             } else {
 
-                bf = PdfFontFactory.getFont(manager.getRecognizedFont(), uc);
+                bf = recognized;
 
                 // the same color?
                 if (!newcolor.equals(oldcolor)) {
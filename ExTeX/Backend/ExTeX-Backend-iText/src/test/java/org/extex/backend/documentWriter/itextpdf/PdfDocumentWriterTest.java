@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.backend.documentWriter.itextpdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.extex.core.dimen.Dimen;
+import org.extex.engine.typesetter.page.PageImpl;
+import org.extex.framework.configuration.Configuration;
+import org.extex.framework.configuration.exception.ConfigurationSyntaxException;
+import org.extex.framework.configuration.impl.XmlConfiguration;
+import org.extex.typesetter.type.NodeList;
+import org.extex.typesetter.type.node.HorizontalListNode;
+import org.extex.typesetter.type.node.VerticalListNode;
+import org.extex.typesetter.type.page.Page;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+import com.lowagie.text.pdf.PdfReader;
+
+/**
+ * This class contains test cases for the {@link PdfDocumentWriter}.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class PdfDocumentWriterTest {
+
+    /**
+     * Command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(PdfDocumentWriterTest.class);
+    }
+
+    /**
+     * Create a configuration for the document writer.
+     *
+     * @param threads the value of the attribute <tt>threads</tt>
+     *
+     * @return the new configuration
+     *
+     * @throws Exception in case of an error
+     */
+    private static Configuration makeConfiguration(String threads)
+            throws Exception {
+
+        return new XmlConfiguration(new ByteArrayInputStream(
+            ("<DocumentWriter threads=\"" + threads + "\"/>").getBytes()),
+            "dw");
+    }
+
+    /**
+     * Create a page containing a vertical list with a horizontal list of the
+     * width 1in.
+     *
+     * @return the new page
+     */
+    private static Page makePage() {
+
+        HorizontalListNode hlist = new HorizontalListNode();
+        hlist.setWidth(Dimen.ONE_INCH);
+        return new PageImpl(new VerticalListNode(hlist), null);
+    }
+
+    /**
+     * Ship some pages and return the document. The widths of the nested lists
+     * are modified after the pages have been shipped.
+     *
+     * @param threads the value of the attribute <tt>threads</tt>
+     * @param n the number of pages
+     *
+     * @return the document
+     *
+     * @throws Exception in case of an error
+     */
+    private static PdfReader ship(String threads, int n) throws Exception {
+
+        PdfDocumentWriter writer =
+                new PdfDocumentWriter(makeConfiguration(threads), null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.setOutputStream(out);
+        for (int i = 0; i < n; i++) {
+            Page page = makePage();
+            writer.shipout(page);
+            ((NodeList) page.getNodes().get(0)).setWidth(Dimen.ONE_PT);
+        }
+        writer.close();
+        return new PdfReader(out.toByteArray());
+    }
+
+    /**
+     * <testcase class="PdfDocumentWriter"> Test case checking that the number
+     * of threads has to be a number. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testThreads1() throws Exception {
+
+        try {
+            new PdfDocumentWriter(makeConfiguration("many"), null);
+            fail("exception expected");
+        } catch (ConfigurationSyntaxException e) {
+            // expected
+        }
+    }
+
+    /**
+     * <testcase class="PdfDocumentWriter"> Test case checking that the pages
+     * recorded in parallel are the same as the pages written one after the
+     * other; even if the pages are modified after they have been shipped.
+     * </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testThreads2() throws Exception {
+
+        byte[] expected = ship("0", 1).getPageContent(1);
+        PdfReader reader = ship("2", 12);
+
+        assertEquals(12, reader.getNumberOfPages());
+        for (int i = 1; i <= reader.getNumberOfPages(); i++) {
+            assertArrayEquals(expected, reader.getPageContent(i));
+        }
+    }
+
+}
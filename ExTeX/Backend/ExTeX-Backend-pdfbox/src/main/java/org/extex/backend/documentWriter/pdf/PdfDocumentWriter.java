@@ -21,9 +21,17 @@ package org.extex.backend.documentWriter.pdf;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
+import org.extex.backend.PageSnapshot;
 import org.extex.backend.documentWriter.DocumentWriter;
 import org.extex.backend.documentWriter.DocumentWriterOptions;
 import org.extex.backend.documentWriter.SingleDocumentStream;
@@ -36,6 +44,7 @@ import org.extex.core.dimen.FixedDimen;
 import org.extex.core.exception.GeneralException;
 import org.extex.core.exception.helping.HelpingException;
 import org.extex.framework.configuration.Configuration;
+import org.extex.framework.configuration.exception.ConfigurationSyntaxException;
 import org.extex.pdf.api.PdftexSupport;
 import org.extex.pdf.api.action.ActionSpec;
 import org.extex.pdf.api.node.PdfAnnotation;
@@ -55,6 +64,19 @@ import org.pdfbox.pdmodel.edit.PDPageContentStream;
 
 /**
  * Implementation of a pdf document writer.
+ * <p>
+ * The attribute <tt>threads</tt> of the configuration contains the number of
+ * threads used to render the contents of the pages. If it is greater than 0
+ * then the content streams of several pages are rendered and compressed in
+ * parallel. They are attached to the pages of the document in the order of
+ * the pages. The default is <tt>0</tt>; i.e. the pages are rendered one after
+ * the other.
+ * </p>
+ * 
+ * <pre>
+ *  &lt;DocumentWriter class="org.extex.backend.documentWriter.pdf.PdfDocumentWriter"
+ *                  threads="4"/&gt;
+ * </pre>
  * 
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
  * @author <a href="mailto:Rolf.Niepraschk@ptb.de">Rolf Niepraschk</a>
@@ -131,16 +153,47 @@ public class PdfDocumentWriter
      */
     private PdfNodeVisitor nodeVisitor;
 
+    /**
+     * the number of threads for rendering pages; 0 for none.
+     */
+    private int threads = 0;
+
+    /**
+     * the executor for rendering pages. It is created when needed.
+     */
+    private ExecutorService executor = null;
+
+    /**
+     * the pages which are rendered and not yet attached to the document.
+     */
+    private List<Future<PdfPageContents>> pending =
+            new ArrayList<Future<PdfPageContents>>();
+
     /**
      * Creates a new object.
      * 
      * @param cfg the configuration
      * @param options the options
+     * 
+     * @throws ConfigurationSyntaxException in case that the number of threads
+     *         is not a number
      */
-    public PdfDocumentWriter(Configuration cfg, DocumentWriterOptions options) {
+    public PdfDocumentWriter(Configuration cfg, DocumentWriterOptions options)
+            throws ConfigurationSyntaxException {
 
         docoptions = options;
 
+        if (cfg != null) {
+            String tmp = cfg.getAttribute("threads");
+            if (tmp != null && !tmp.equals("")) {
+                try {
+                    threads = Integer.parseInt(tmp);
+                } catch (NumberFormatException e) {
+                    throw new ConfigurationSyntaxException(tmp, cfg.toString());
+                }
+            }
+        }
+
         // if (cfg != null) {
         // String tmp = cfg.getAttribute("encoding");
         // if (tmp != null && !tmp.equals("")) {
@@ -149,6 +202,35 @@ public class PdfDocumentWriter
         // }
     }
 
+    /**
+     * Attach the rendered contents to the pages of the document until at
+     * most the given number of pages are pending. The pages are attached in
+     * the order of the pages.
+     * 
+     * @param max the maximal number of pending pages
+     * 
+     * @throws DocumentWriterException in case of an error
+     */
+    private void attach(int max) throws DocumentWriterException {
+
+        while (pending.size() > max) {
+            try {
+                pending.remove(0).get().attach(document);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DocumentWriterException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw new DocumentWriterIOException(cause);
+                }
+                throw new DocumentWriterException(cause);
+            } catch (IOException e) {
+                throw new DocumentWriterIOException(e);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -158,6 +240,14 @@ public class PdfDocumentWriter
     public void close() throws DocumentWriterException {
 
         if (out != null) {
+            try {
+                attach(0);
+            } finally {
+                if (executor != null) {
+                    executor.shutdownNow();
+                    executor = null;
+                }
+            }
             try {
                 if (document != null) {
                     System.err.println("\nSAVE\n");
@@ -190,6 +280,34 @@ public class PdfDocumentWriter
         return null;
     }
 
+    /**
+     * Getter for the executor for rendering pages. The executor is created if
+     * needed.
+     * 
+     * @return the executor
+     */
+    private ExecutorService getExecutor() {
+
+        if (executor == null) {
+            executor =
+                    Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                        /**
+                         * {@inheritDoc}
+                         * 
+                         * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+                         */
+                        public Thread newThread(Runnable r) {
+
+                            Thread t = new Thread(r, "PdfPageRenderer");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+        }
+        return executor;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -418,12 +536,13 @@ public class PdfDocumentWriter
             }
             PDPage page = new PDPage();
             PDPageContentStream contentStream =
-                    new PDPageContentStream(document, page);
+                    (threads > 0 ? null : new PDPageContentStream(document,
+                        page));
 
             document.addPage(page);
             nodeVisitor =
-                    new PdfNodeVisitor(document, contentStream, currentX,
-                        currentY);
+                    (contentStream == null ? null : new PdfNodeVisitor(
+                        document, contentStream, currentX, currentY));
 
             shippedPages++;
             // System.err.print("[" + shippedPages + "]");
@@ -432,6 +551,7 @@ public class PdfDocumentWriter
             // o \paperwidth / \paperheight,
             // o \pdfpagewidth / \pdfpageheight <-- pdfTeX
             // o \mediawidth / \mediaheight <-- VTeX
+            Dimen ph = null;
             Unit.setDimenFromCM(paperwidth, WIDTH_A4_BP);
             Unit.setDimenFromCM(paperheight, HEIGHT_A4_BP);
             if (docoptions != null) {
@@ -441,6 +561,7 @@ public class PdfDocumentWriter
                     paperheight.set(h);
                     paperwidth.set(w);
                     phBP = Unit.getDimenAsBP(paperheight);
+                    ph = new Dimen(paperheight);
                     if (nodeVisitor != null) {
                         nodeVisitor.setPaperheight(paperheight);
                     }
@@ -453,6 +574,18 @@ public class PdfDocumentWriter
                         Unit.getDimenAsBP(paperheight));
             page.setMediaBox(pagesize);
 
+            if (contentStream == null) {
+                // the nodes are rendered in parallel; they are copied since
+                // they might be modified in the meantime
+                NodeList list =
+                        (p instanceof PageSnapshot ? nodes : new PageSnapshot(
+                            p).getNodes());
+                pending.add(getExecutor().submit(
+                    new PdfPageContents(page, list, ph)));
+                attach(4 * threads);
+                return 1;
+            }
+
             // set start point
             currentX.set(Dimen.ONE_INCH);
             currentY.set(Dimen.ONE_INCH);
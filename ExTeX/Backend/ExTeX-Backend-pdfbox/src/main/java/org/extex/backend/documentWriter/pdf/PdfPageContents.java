@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.backend.documentWriter.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+
+import org.extex.core.dimen.Dimen;
+import org.extex.typesetter.type.NodeList;
+import org.pdfbox.cos.COSBase;
+import org.pdfbox.cos.COSStream;
+import org.pdfbox.pdmodel.PDDocument;
+import org.pdfbox.pdmodel.PDPage;
+import org.pdfbox.pdmodel.PDResources;
+import org.pdfbox.pdmodel.common.PDStream;
+import org.pdfbox.pdmodel.edit.PDPageContentStream;
+
+/**
+ * This class renders the contents of a page independently of the document.
+ * It is used to render several pages in parallel.
+ * <p>
+ * The content stream is rendered and compressed into a scratch document of
+ * its own. Afterwards the compressed bytes and the resources are attached to
+ * the page of the document with {@link #attach(PDDocument) attach()}. This
+ * happens in the order of the pages.
+ * </p>
+ * 
+ * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
+ * @version $Revision$
+ */
+class PdfPageContents implements Callable<PdfPageContents> {
+
+    /**
+     * the compressed content stream.
+     */
+    private byte[] data;
+
+    /**
+     * the filters of the content stream.
+     */
+    private COSBase filters;
+
+    /**
+     * the nodes to render.
+     */
+    private NodeList nodes;
+
+    /**
+     * the page in the document.
+     */
+    private PDPage page;
+
+    /**
+     * the paper height or <code>null</code> for the default.
+     */
+    private Dimen paperheight;
+
+    /**
+     * the resources used by the content stream.
+     */
+    private PDResources resources;
+
+    /**
+     * Creates a new object.
+     * 
+     * @param page the page in the document
+     * @param nodes the nodes to render
+     * @param paperheight the paper height or <code>null</code> for the
+     *        default
+     */
+    public PdfPageContents(PDPage page, NodeList nodes, Dimen paperheight) {
+
+        this.page = page;
+        this.nodes = nodes;
+        this.paperheight = paperheight;
+    }
+
+    /**
+     * Attach the rendered contents to the page.
+     * 
+     * @param document the document containing the page
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    public void attach(PDDocument document) throws IOException {
+
+        COSStream stream =
+                new COSStream(document.getDocument().getScratchFile());
+        stream.setFilters(filters);
+        OutputStream out = stream.createFilteredStream();
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        page.setContents(new PDStream(stream));
+        page.setResources(resources);
+        data = null;
+    }
+
+    /**
+     * Render the contents of the page.
+     * 
+     * @return this object
+     * 
+     * @throws Exception in case of an error
+     * 
+     * @see java.util.concurrent.Callable#call()
+     */
+    public PdfPageContents call() throws Exception {
+
+        PDDocument scratch = new PDDocument();
+        try {
+            PDPage p = new PDPage();
+            PDPageContentStream contentStream =
+                    new PDPageContentStream(scratch, p);
+            PdfNodeVisitor nodeVisitor =
+                    new PdfNodeVisitor(scratch, contentStream, new Dimen(
+                        Dimen.ONE_INCH), new Dimen(Dimen.ONE_INCH));
+            if (paperheight != null) {
+                nodeVisitor.setPaperheight(paperheight);
+            }
+            nodes.visit(nodeVisitor, nodes);
+            contentStream.close();
+            nodes = null;
+
+            COSStream stream = p.getContents().getStream();
+            filters = stream.getFilters();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            InputStream in = stream.getFilteredStream();
+            try {
+                byte[] b = new byte[4096];
+                for (int n = in.read(b); n >= 0; n = in.read(b)) {
+                    buffer.write(b, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+            data = buffer.toByteArray();
+            resources = p.getResources();
+        } finally {
+            scratch.close();
+        }
+        return this;
+    }
+
+}
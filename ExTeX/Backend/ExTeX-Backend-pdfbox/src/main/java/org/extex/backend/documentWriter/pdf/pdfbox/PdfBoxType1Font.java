@@ -43,13 +43,14 @@ public final class PdfBoxType1Font extends PDType1Font {
 
     /**
      * Returns a instance for the font.
+     * The instances are shared by the threads rendering pages in parallel.
      *
      * @param doc   the PDDocument.
      * @param font  the extex font.
      * @return Returns the instance for the font.
      * @throws IOException if an IO-error occurred.
      */
-    public static PDFont getInstance(PDDocument doc, Font font)
+    public static synchronized PDFont getInstance(PDDocument doc, Font font)
             throws IOException {
 
         FontKey key = font.getFontKey();
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.main.tex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.extex.framework.i18n.LocalizerFactory;
+
+/**
+ * This class provides a thin client for the {@link TeXServer TeXServer}.
+ * <p>
+ * The client passes the secret of the server, the home directory, the current
+ * directory, and the command line arguments to the server and copies the
+ * output of the job to the standard streams. The exit status of the job is
+ * the exit status of the client. If no server is running for the current user
+ * then the job is run in the current virtual machine.
+ * </p>
+ * <p>
+ * The port is taken from the system property <tt>extex.server.port</tt>. The
+ * secret is read from the directory given by the system property
+ * <tt>extex.server.dir</tt>.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class TeXClient {
+
+    /**
+     * This is the command line interface of the client.
+     *
+     * @param args the list of command line arguments
+     */
+    public static void main(String[] args) {
+
+        System.exit(mainProgram(args));
+    }
+
+    /**
+     * This is the main method of the client. It submits the job to the server.
+     * If no server is listening then the job is run locally.
+     *
+     * @param args the list of command line arguments
+     *
+     * @return the exit status
+     */
+    public static int mainProgram(String[] args) {
+
+        TeXClient client =
+                new TeXClient(Integer.getInteger(TeXServer.PROP_PORT,
+                    TeXServer.DEFAULT_PORT).intValue(), TeXServer
+                    .getSecretDirectory(System.getProperties()));
+        try {
+            return client.run(args, System.getProperty("user.dir"),
+                System.out, System.err);
+        } catch (ConnectException e) {
+            return TeX.mainProgram(args);
+        } catch (FileNotFoundException e) {
+            // no server has been started by the current user
+            return TeX.mainProgram(args);
+        } catch (IOException e) {
+            System.err.println(LocalizerFactory.getLocalizer(TeXServer.class)
+                .format("Failed", e.toString()));
+            return TeX.EXIT_INTERNAL_ERROR;
+        }
+    }
+
+    /**
+     * The field <tt>port</tt> contains the port of the server.
+     */
+    private final int port;
+
+    /**
+     * The field <tt>secretFile</tt> contains the file containing the secret of
+     * the server.
+     */
+    private final File secretFile;
+
+    /**
+     * Creates a new object.
+     *
+     * @param port the port of the server on the local host
+     * @param directory the directory containing the secrets of the servers
+     */
+    public TeXClient(int port, File directory) {
+
+        this.port = port;
+        this.secretFile = new File(directory, Integer.toString(port));
+    }
+
+    /**
+     * Read the secret of the server.
+     *
+     * @return the secret
+     *
+     * @throws FileNotFoundException in case that no secret is available
+     * @throws IOException in case of an I/O error
+     */
+    private String readSecret() throws FileNotFoundException, IOException {
+
+        InputStream stream = new FileInputStream(secretFile);
+        try {
+            byte[] buffer = new byte[(int) secretFile.length()];
+            int n = 0;
+            while (n < buffer.length) {
+                int len = stream.read(buffer, n, buffer.length - n);
+                if (len < 0) {
+                    break;
+                }
+                n += len;
+            }
+            return new String(buffer, 0, n, "UTF-8").trim();
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Submit a job to the server and wait for its completion.
+     *
+     * @param args the command line arguments
+     * @param directory the working directory for the job
+     * @param out the target for the standard output of the job
+     * @param err the target for the error output of the job
+     *
+     * @return the exit status of the job
+     *
+     * @throws FileNotFoundException in case that the secret of the server
+     *         can not be found
+     * @throws IOException in case of an I/O error
+     */
+    public int run(String[] args, String directory, OutputStream out,
+            OutputStream err) throws FileNotFoundException, IOException {
+
+        String secret = readSecret();
+        Socket socket = new Socket(InetAddress.getByName(null), port);
+        try {
+            DataOutputStream request =
+                    new DataOutputStream(new BufferedOutputStream(socket
+                        .getOutputStream()));
+            request.writeUTF(secret);
+            request.writeUTF(System.getProperty("user.home"));
+            request.writeUTF(directory);
+            request.writeInt(args.length);
+            for (String arg : args) {
+                request.writeUTF(arg);
+            }
+            request.flush();
+
+            DataInputStream response =
+                    new DataInputStream(new BufferedInputStream(socket
+                        .getInputStream()));
+            byte[] buffer = new byte[0x1000];
+            for (int channel = response.readInt(); //
+            channel != TeXServer.CHANNEL_EXIT; channel = response.readInt()) {
+                OutputStream target =
+                        (channel == TeXServer.CHANNEL_OUT ? out : err);
+                for (int len = response.readInt(); len > 0;) {
+                    int n = Math.min(len, buffer.length);
+                    response.readFully(buffer, 0, n);
+                    target.write(buffer, 0, n);
+                    len -= n;
+                }
+                target.flush();
+            }
+            return response.readInt();
+        } finally {
+            socket.close();
+        }
+    }
+
+}
@@ -0,0 +1,911 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.main.tex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import org.extex.core.exception.helping.HelpingException;
+import org.extex.framework.Registrar;
+import org.extex.framework.RegistrarObserver;
+import org.extex.framework.configuration.Configuration;
+import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.framework.i18n.Localizer;
+import org.extex.framework.i18n.LocalizerFactory;
+import org.extex.interpreter.Interpreter;
+import org.extex.interpreter.context.Context;
+import org.extex.interpreter.loader.LoaderException;
+import org.extex.interpreter.max.context.ContextImpl;
+import org.extex.resource.InteractionIndicator;
+import org.extex.resource.ResourceFinder;
+import org.extex.resource.ResourceFinderFactory;
+import org.extex.typesetter.tc.font.impl.NullFont;
+
+/**
+ * This class provides a server which runs <logo>&epsilon;&chi;T<span style=
+ * "text-transform:uppercase;font-size:90%;vertical-align:-0.4ex;margin-left:-0.2em;margin-right:-0.1em;line-height: 0;"
+ * >e</span>X</logo> jobs in a long running virtual machine.
+ * <p>
+ * The server listens on a socket of the local host. The jobs are submitted by
+ * the {@link TeXClient TeXClient} with the same command line arguments as for
+ * {@link TeX TeX}. The output to the terminal is sent back to the client
+ * together with the exit status.
+ * </p>
+ * <p>
+ * The server accepts jobs from the user running it only. At start-up it
+ * writes a random secret to a file which can be read by this user only. The
+ * client has to send this secret with each job. Thus the jobs run with the
+ * privileges of the user who submitted them.
+ * </p>
+ * <p>
+ * The server avoids the start-up costs of the virtual machine. Additionally
+ * the configurations are parsed only once and the format files are read only
+ * once. Each job gets a fork of the context loaded from the format. Thus jobs
+ * can not influence each other through the context. The fonts contained in
+ * the format are shared; the values modified by assignments are restored
+ * after each job. The caches are bounded; the least recently used entries
+ * are dropped.
+ * </p>
+ * <p>
+ * The jobs are processed one after the other since the engine makes use of
+ * global state like the standard streams and the default locale. The
+ * directory of the client is used as output directory and it is prepended to
+ * the path for input files. Other relative paths in the arguments are
+ * resolved against the working directory of the server. The user properties
+ * are read from the home directory of the client and from the directory of
+ * the client. A job has no terminal; the interaction mode defaults to
+ * <tt>nonstopmode</tt>.
+ * </p>
+ * <p>
+ * A format is loaded once for each directory and configuration. It is not
+ * reloaded when the format file changes. Thus the server has to be restarted
+ * when a format has been rebuilt. The jobs with the same directory and
+ * configuration share the resource finder as well. Thus they share the fonts
+ * loaded through it.
+ * </p>
+ *
+ * <doc name="extex.server.port" type="property">
+ * <h3>The Property <tt>extex.server.port</tt></h3>
+ * <p>
+ * The system property <tt>extex.server.port</tt> contains the number of the
+ * port the server listens on and the client connects to. The default is
+ * 7077.
+ * </p>
+ * </doc>
+ *
+ * <doc name="extex.server.dir" type="property">
+ * <h3>The Property <tt>extex.server.dir</tt></h3>
+ * <p>
+ * The system property <tt>extex.server.dir</tt> contains the name of the
+ * directory for the secrets of the server. The secret for a port is stored
+ * in a file named like the port number. The directory and the file can be
+ * read by the owner only. The default is the directory
+ * <tt>.extex-server</tt> in the home directory of the user.
+ * </p>
+ * </doc>
+ *
+ * <doc name="extex.server.cache" type="property">
+ * <h3>The Property <tt>extex.server.cache</tt></h3>
+ * <p>
+ * The system property <tt>extex.server.cache</tt> contains the number of
+ * formats, configurations, and resource finders kept in memory by the server.
+ * The default is 4.
+ * </p>
+ * </doc>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class TeXServer {
+
+    /**
+     * This output stream sends the data as frames tagged with a channel
+     * number to the client.
+     */
+    private static final class ChannelOutputStream extends OutputStream {
+
+        /**
+         * The field <tt>channel</tt> contains the channel number.
+         */
+        private final int channel;
+
+        /**
+         * The field <tt>out</tt> contains the target stream. It is shared by
+         * all channels.
+         */
+        private final DataOutputStream out;
+
+        /**
+         * Creates a new object.
+         *
+         * @param out the target stream
+         * @param channel the channel number
+         */
+        public ChannelOutputStream(DataOutputStream out, int channel) {
+
+            this.out = out;
+            this.channel = channel;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.io.OutputStream#flush()
+         */
+        @Override
+        public void flush() throws IOException {
+
+            synchronized (out) {
+                out.flush();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.io.OutputStream#write(byte[], int, int)
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeInt(channel);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.io.OutputStream#write(int)
+         */
+        @Override
+        public void write(int b) throws IOException {
+
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+    }
+
+    /**
+     * This class provides a map which keeps a limited number of entries. The
+     * least recently used entry is dropped when the limit is exceeded.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    private static final class Cache<K, V> extends LinkedHashMap<K, V> {
+
+        /**
+         * The constant <tt>serialVersionUID</tt> contains the id for
+         * serialization.
+         */
+        private static final long serialVersionUID = 2011L;
+
+        /**
+         * The field <tt>limit</tt> contains the maximal number of entries.
+         */
+        private final int limit;
+
+        /**
+         * Creates a new object.
+         *
+         * @param limit the maximal number of entries
+         */
+        public Cache(int limit) {
+
+            super(16, 0.75f, true);
+            this.limit = limit;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+
+            return size() > limit;
+        }
+    }
+
+    /**
+     * This class represents a format loaded by the server. It contains the
+     * pristine context and the fonts preloaded in the format together with
+     * their initial values.
+     */
+    private static final class Format {
+
+        /**
+         * The field <tt>context</tt> contains the pristine context. It is
+         * never used by a job directly.
+         */
+        private final ContextImpl context;
+
+        /**
+         * The field <tt>fonts</tt> contains the fonts read with the format.
+         */
+        private final List<NullFont> fonts;
+
+        /**
+         * The field <tt>parameters</tt> contains the initial values of the
+         * fonts.
+         */
+        private final List<Object> parameters;
+
+        /**
+         * Creates a new object.
+         *
+         * @param context the context freshly loaded from the format
+         * @param fonts the fonts read with the format
+         */
+        public Format(ContextImpl context, List<NullFont> fonts) {
+
+            this.context = context.fork();
+            this.fonts = fonts;
+            this.parameters = new ArrayList<Object>(fonts.size());
+            for (NullFont font : fonts) {
+                parameters.add(font.saveParameters());
+            }
+        }
+
+        /**
+         * Create a new context for a job.
+         *
+         * @return the new context
+         */
+        public Context fork() {
+
+            return context.fork();
+        }
+
+        /**
+         * Undo the modifications of the fonts made by a job.
+         */
+        public void restore() {
+
+            int size = fonts.size();
+            for (int i = 0; i < size; i++) {
+                fonts.get(i).restoreParameters(parameters.get(i));
+            }
+        }
+    }
+
+    /**
+     * This class represents a resource finder shared by the jobs with the
+     * same configuration and directory. The finder reads the properties of the
+     * job currently running; they are copied when a job takes the finder. A
+     * job has no terminal; thus the finder never asks the user for a file.
+     */
+    private static final class SharedFinder implements InteractionIndicator {
+
+        /**
+         * The field <tt>finder</tt> contains the resource finder.
+         */
+        private final ResourceFinder finder;
+
+        /**
+         * The field <tt>properties</tt> contains the properties of the job
+         * currently running.
+         */
+        private final Properties properties = new Properties();
+
+        /**
+         * Creates a new object.
+         *
+         * @param config the configuration of the resource finder
+         * @param logger the logger
+         *
+         * @throws ConfigurationException in case of a configuration error
+         */
+        public SharedFinder(Configuration config, Logger logger)
+                throws ConfigurationException {
+
+            finder =
+                    new ResourceFinderFactory().createResourceFinder(config,
+                        logger, properties, this);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.resource.InteractionIndicator#isInteractive()
+         */
+        public boolean isInteractive() {
+
+            return false;
+        }
+
+        /**
+         * Take the resource finder for a job.
+         *
+         * @param jobProperties the properties of the job
+         * @param trace the indicator for tracing the file lookups
+         *
+         * @return the resource finder
+         */
+        public ResourceFinder take(Properties jobProperties, boolean trace) {
+
+            properties.clear();
+            properties.putAll(jobProperties);
+            finder.enableTracing(trace);
+            return finder;
+        }
+    }
+
+    /**
+     * This class represents a single job. It takes the configurations,
+     * formats, and resource finders from the caches of the server.
+     */
+    private final class Job extends TeX {
+
+        /**
+         * The constant <tt>INTERACTION_NONSTOP</tt> contains the name of the
+         * interaction mode for jobs.
+         */
+        private static final String INTERACTION_NONSTOP = "1";
+
+        /**
+         * The field <tt>directory</tt> contains the working directory of the
+         * client.
+         */
+        private final String directory;
+
+        /**
+         * The field <tt>format</tt> contains the format used by the job or
+         * <code>null</code> if none has been used yet.
+         */
+        private Format format = null;
+
+        /**
+         * Creates a new object.
+         *
+         * @param properties the properties to consider
+         * @param home the home directory of the client
+         * @param directory the working directory of the client
+         *
+         * @throws HelpingException in case of an invalid interaction mode
+         * @throws IOException in case of an IO Error during the reading of
+         *         the properties file
+         */
+        public Job(Properties properties, String home, String directory)
+                throws HelpingException,
+                    IOException {
+
+            super(properties, null);
+            this.directory = directory;
+            loadUserProperties(new File(home, DOT_EXTEX));
+            loadUserProperties(new File(directory, DOT_EXTEX));
+            applyLanguage();
+
+            setProperty(PROP_OUTPUT_DIRS, directory);
+            String path = getProperty(PROP_TEXINPUTS);
+            setProperty(PROP_TEXINPUTS, path == null || "".equals(path)
+                    ? directory
+                    : directory + File.pathSeparator + path);
+            setProperty(PROP_INTERACTION, INTERACTION_NONSTOP);
+            applyInteraction();
+        }
+
+        /**
+         * Undo the modifications of the shared fonts made by this job.
+         */
+        public void cleanup() {
+
+            if (format != null) {
+                format.restore();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.ExTeX#makeConfiguration(java.lang.String)
+         */
+        @Override
+        protected Configuration makeConfiguration(String name)
+                throws ConfigurationException {
+
+            synchronized (configurations) {
+                Configuration config = configurations.get(name);
+                if (config == null) {
+                    config = super.makeConfiguration(name);
+                    configurations.put(name, config);
+                }
+                return config;
+            }
+        }
+
+        /**
+         * Take the resource finder from the cache of resource finders if
+         * possible. Otherwise a new resource finder is stored in the cache.
+         *
+         * @param config the configuration
+         *
+         * @return the resource finder
+         *
+         * @see org.extex.ExTeX#makeResourceFinder(
+         *      org.extex.framework.configuration.Configuration)
+         */
+        @Override
+        protected ResourceFinder makeResourceFinder(Configuration config) {
+
+            // the finder searches the directory first
+            String key = getProperty(PROP_CONFIG) + '\n' + directory;
+            synchronized (finders) {
+                SharedFinder finder = finders.get(key);
+                if (finder == null) {
+                    finder = new SharedFinder(config, getLogger());
+                    finders.put(key, finder);
+                }
+                return finder.take(getProperties(),
+                    getBooleanProperty(PROP_TRACE_INPUT_FILES));
+            }
+        }
+
+        /**
+         * Take the context from the cache of formats if possible. Otherwise
+         * the format is read and a fork of the context is stored in the cache.
+         * The fonts read with the format are collected for the restoring of
+         * their values after the job.
+         *
+         * @param stream the stream to read from
+         * @param name the name of the format
+         * @param interpreter the interpreter
+         * @param finder the resource finder
+         *
+         * @throws IOException in case of an I/O error
+         * @throws HelpingException in case of an error in the format
+         *
+         * @see org.extex.ExTeX#readFormat(java.io.InputStream,
+         *      java.lang.String, org.extex.interpreter.Interpreter,
+         *      org.extex.resource.ResourceFinder)
+         */
+        @Override
+        protected void readFormat(InputStream stream, String name,
+                Interpreter interpreter, ResourceFinder finder)
+                throws IOException,
+                    HelpingException {
+
+            // the fonts and resources are resolved relative to the directory
+            String key =
+                    name + '\n' + getProperty(PROP_CONFIG) + '\n' + directory;
+            synchronized (formats) {
+                format = formats.get(key);
+            }
+            if (format != null) {
+                stream.close();
+                try {
+                    interpreter.loadFormat(format.fork());
+                } catch (LoaderException e) {
+                    throw new HelpingException(getLocalizer(),
+                        "TTP.FormatFileError", name);
+                }
+                return;
+            }
+
+            final List<NullFont> fonts = new ArrayList<NullFont>();
+            Object ref = Registrar.register(new RegistrarObserver() {
+
+                /**
+                 * {@inheritDoc}
+                 *
+                 * @see org.extex.framework.RegistrarObserver#reconnect(java.lang.Object)
+                 */
+                public Object reconnect(Object object) {
+
+                    fonts.add((NullFont) object);
+                    return object;
+                }
+            }, NullFont.class);
+            try {
+                super.readFormat(stream, name, interpreter, finder);
+            } finally {
+                Registrar.unregister(ref);
+            }
+
+            Context context = interpreter.getContext();
+            if (context instanceof ContextImpl) {
+                format = new Format((ContextImpl) context, fonts);
+                synchronized (formats) {
+                    formats.put(key, format);
+                }
+            }
+        }
+    }
+
+    /**
+     * The constant <tt>CHANNEL_ERR</tt> contains the channel number for the
+     * standard error stream.
+     */
+    static final int CHANNEL_ERR = 2;
+
+    /**
+     * The constant <tt>CHANNEL_EXIT</tt> contains the channel number for the
+     * exit status. It terminates the response.
+     */
+    static final int CHANNEL_EXIT = 0;
+
+    /**
+     * The constant <tt>CHANNEL_OUT</tt> contains the channel number for the
+     * standard output stream.
+     */
+    static final int CHANNEL_OUT = 1;
+
+    /**
+     * The constant <tt>DEFAULT_CACHE</tt> contains the default number of
+     * formats, configurations, and resource finders kept in memory.
+     */
+    private static final int DEFAULT_CACHE = 4;
+
+    /**
+     * The constant <tt>DEFAULT_PORT</tt> contains the default port number.
+     */
+    public static final int DEFAULT_PORT = 7077;
+
+    /**
+     * The constant <tt>DOT_EXTEX</tt> contains the name of the user properties
+     * file.
+     */
+    private static final String DOT_EXTEX = ".extex";
+
+    /**
+     * The constant <tt>DOT_EXTEX_SERVER</tt> contains the name of the default
+     * directory for the secrets in the home directory of the user.
+     */
+    private static final String DOT_EXTEX_SERVER = ".extex-server";
+
+    /**
+     * The constant <tt>PROP_CACHE</tt> contains the name of the property for
+     * the number of formats, configurations, and resource finders kept in
+     * memory.
+     */
+    public static final String PROP_CACHE = "extex.server.cache";
+
+    /**
+     * The constant <tt>PROP_DIR</tt> contains the name of the property for the
+     * directory of the secrets.
+     */
+    public static final String PROP_DIR = "extex.server.dir";
+
+    /**
+     * The constant <tt>PROP_PORT</tt> contains the name of the system property
+     * for the port number.
+     */
+    public static final String PROP_PORT = "extex.server.port";
+
+    /**
+     * The constant <tt>SECRET_LENGTH</tt> contains the number of random bytes
+     * in a secret.
+     */
+    private static final int SECRET_LENGTH = 32;
+
+    /**
+     * Determine the directory for the secrets.
+     *
+     * @param properties the properties to consider
+     *
+     * @return the directory
+     */
+    static File getSecretDirectory(Properties properties) {
+
+        String dir = properties.getProperty(PROP_DIR);
+        return (dir != null && !"".equals(dir) ? new File(dir) : new File(
+            System.getProperty("user.home"), DOT_EXTEX_SERVER));
+    }
+
+    /**
+     * This is the command line interface to start the server. The port is
+     * taken from the system property <tt>extex.server.port</tt>.
+     *
+     * @param args the list of command line arguments; they are ignored
+     */
+    public static void main(String[] args) {
+
+        Localizer localizer = LocalizerFactory.getLocalizer(TeXServer.class);
+        try {
+            TeXServer server =
+                    new TeXServer(System.getProperties(), Integer.getInteger(
+                        PROP_PORT, DEFAULT_PORT).intValue());
+            System.err.println(localizer.format("Listening", Integer
+                .toString(server.getPort())));
+            server.run();
+        } catch (IOException e) {
+            System.err.println(localizer.format("Failed", e.toString()));
+            System.exit(TeX.EXIT_INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Restrict the access to a file or directory to its owner.
+     *
+     * @param file the file or directory
+     *
+     * @throws IOException in case that the permissions can not be set
+     */
+    private static void restrict(File file) throws IOException {
+
+        boolean ok =
+                file.setReadable(false, false)
+                        && file.setWritable(false, false)
+                        && file.setExecutable(false, false)
+                        && file.setReadable(true, true)
+                        && file.setWritable(true, true);
+        if (ok && file.isDirectory()) {
+            ok = file.setExecutable(true, true);
+        }
+        if (!ok) {
+            throw new IOException(file.toString());
+        }
+    }
+
+    /**
+     * The field <tt>configurations</tt> contains the configurations parsed so
+     * far. The key is the name of the configuration resource.
+     */
+    private final Map<String, Configuration> configurations;
+
+    /**
+     * The field <tt>finders</tt> contains the resource finders created so
+     * far. The key is made up of the name of the configuration and the
+     * directory of the client.
+     */
+    private final Map<String, SharedFinder> finders;
+
+    /**
+     * The field <tt>formats</tt> contains the formats loaded so far. The key
+     * is made up of the name of the format, the name of the configuration,
+     * and the directory of the client.
+     */
+    private final Map<String, Format> formats;
+
+    /**
+     * The field <tt>localizer</tt> contains the localizer.
+     */
+    private final Localizer localizer = LocalizerFactory
+        .getLocalizer(TeXServer.class);
+
+    /**
+     * The field <tt>properties</tt> contains the properties each job starts
+     * with.
+     */
+    private final Properties properties;
+
+    /**
+     * The field <tt>secret</tt> contains the secret a client has to send.
+     */
+    private final byte[] secret;
+
+    /**
+     * The field <tt>secretFile</tt> contains the file containing the secret.
+     */
+    private final File secretFile;
+
+    /**
+     * The field <tt>serverSocket</tt> contains the socket to listen on.
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * Creates a new object. The server listens on the loopback interface
+     * only. The secret is written to a file in the directory given by the
+     * property <tt>extex.server.dir</tt>.
+     *
+     * @param properties the properties each job starts with
+     * @param port the port number; the value 0 selects a free port
+     *
+     * @throws IOException in case that the socket can not be opened or the
+     *         secret can not be stored
+     */
+    public TeXServer(Properties properties, int port) throws IOException {
+
+        this.properties = properties;
+        int size = DEFAULT_CACHE;
+        String cache = properties.getProperty(PROP_CACHE);
+        if (cache != null) {
+            try {
+                size = Math.max(1, Integer.parseInt(cache.trim()));
+            } catch (NumberFormatException e) {
+                throw new IOException(PROP_CACHE + "=" + cache);
+            }
+        }
+        this.configurations = new Cache<String, Configuration>(size);
+        this.finders = new Cache<String, SharedFinder>(size);
+        this.formats = new Cache<String, Format>(size);
+        this.serverSocket =
+                new ServerSocket(port, 0, InetAddress.getByName(null));
+
+        byte[] random = new byte[SECRET_LENGTH];
+        new SecureRandom().nextBytes(random);
+        StringBuilder sb = new StringBuilder();
+        for (byte b : random) {
+            sb.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+        }
+        this.secret = sb.toString().getBytes("UTF-8");
+
+        File dir = getSecretDirectory(properties);
+        this.secretFile = new File(dir, Integer.toString(getPort()));
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException(dir.toString());
+            }
+            // the directory protects the file before it has been restricted
+            restrict(dir);
+            secretFile.delete();
+            OutputStream out = new FileOutputStream(secretFile);
+            try {
+                restrict(secretFile);
+                out.write(secret);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Close the server. A job currently running is completed. The file
+     * containing the secret is removed.
+     *
+     * @throws IOException in case of an I/O error
+     */
+    public void close() throws IOException {
+
+        secretFile.delete();
+        serverSocket.close();
+    }
+
+    /**
+     * Getter for the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accept and process jobs until the server is closed.
+     *
+     * @throws IOException in case of an I/O error
+     */
+    public void run() throws IOException {
+
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            try {
+                serve(socket);
+            } catch (IOException e) {
+                System.err.println(localizer.format("Failed", e.toString()));
+            } finally {
+                socket.close();
+            }
+        }
+    }
+
+    /**
+     * Process a single job. The request consists of the secret, the home
+     * directory and the working directory of the client, and the command line
+     * arguments. The response consists of the frames for the standard streams
+     * followed by the exit status. A request with a wrong secret is rejected.
+     *
+     * @param socket the connection to the client
+     *
+     * @throws IOException in case of an I/O error
+     */
+    protected void serve(Socket socket) throws IOException {
+
+        DataInputStream in =
+                new DataInputStream(new BufferedInputStream(socket
+                    .getInputStream()));
+        DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(socket
+                    .getOutputStream()));
+        PrintStream jobOut =
+                new PrintStream(new ChannelOutputStream(out, CHANNEL_OUT),
+                    true);
+        PrintStream jobErr =
+                new PrintStream(new ChannelOutputStream(out, CHANNEL_ERR),
+                    true);
+
+        if (!MessageDigest.isEqual(secret, in.readUTF().getBytes("UTF-8"))) {
+            jobErr.println(localizer.format("Rejected"));
+            out.writeInt(CHANNEL_EXIT);
+            out.writeInt(TeX.EXIT_INTERNAL_ERROR);
+            out.flush();
+            return;
+        }
+        String home = in.readUTF();
+        String directory = in.readUTF();
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        InputStream stdin = System.in;
+        int status = TeX.EXIT_INTERNAL_ERROR;
+        try {
+            System.setOut(jobOut);
+            System.setErr(jobErr);
+            System.setIn(new ByteArrayInputStream(new byte[0]));
+
+            Properties props = new Properties();
+            props.putAll(properties);
+            Job job = new Job(props, home, directory);
+            try {
+                status = job.run(args);
+            } finally {
+                job.close();
+                job.cleanup();
+            }
+        } catch (Exception e) {
+            jobErr.println(localizer.format("Failed", e.toString()));
+        } finally {
+            jobOut.flush();
+            jobErr.flush();
+            System.setOut(stdout);
+            System.setErr(stderr);
+            System.setIn(stdin);
+        }
+
+        out.writeInt(CHANNEL_EXIT);
+        out.writeInt(status);
+        out.flush();
+    }
+
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.main.tex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.extex.font.FontCache;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This class contains test cases for the server and the client.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class TeXServerTest {
+
+    /**
+     * The constant <tt>DEFAULT_TEST_PORT</tt> contains a port number for a
+     * client without a server.
+     */
+    private static final int DEFAULT_TEST_PORT = 7078;
+
+    /**
+     * The command line interface.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(TeXServerTest.class);
+    }
+
+    /**
+     * Create a new empty directory.
+     *
+     * @return the new directory
+     *
+     * @throws IOException in case of an I/O error
+     */
+    private static File makeDirectory() throws IOException {
+
+        File dir = File.createTempFile("extex", "");
+        dir.delete();
+        dir.mkdir();
+        return dir;
+    }
+
+    /**
+     * Remove a directory and its contents.
+     *
+     * @param dir the directory
+     */
+    private static void remove(File dir) {
+
+        for (File f : dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * Start a server in a thread of its own.
+     *
+     * @param secrets the directory for the secrets
+     *
+     * @return the server
+     *
+     * @throws IOException in case of an I/O error
+     */
+    private static TeXServer startServer(File secrets) throws IOException {
+
+        Locale.setDefault(new Locale("en"));
+        Properties properties = new Properties();
+        properties.put("java.version", System.getProperty("java.version"));
+        properties.setProperty("extex.config", "tex.xml");
+        properties.setProperty(TeXServer.PROP_DIR, secrets.getPath());
+
+        final TeXServer server = new TeXServer(properties, 0);
+        new Thread() {
+
+            /**
+             * {@inheritDoc}
+             *
+             * @see java.lang.Thread#run()
+             */
+            @Override
+            public void run() {
+
+                try {
+                    server.run();
+                } catch (IOException e) {
+                    // ignored
+                }
+            }
+        }.start();
+        return server;
+    }
+
+    /**
+     * Run a job twice through a server. The directory is removed afterwards.
+     *
+     * @param dir the working directory of the client
+     * @param args the command line arguments for each job
+     * @param expect the expected output on the error stream for each job
+     * @param exit the expected exit code
+     *
+     * @throws Exception in case of an error
+     */
+    private void runJobs(File dir, String[] args, String expect, int exit)
+            throws Exception {
+
+        File secrets = makeDirectory();
+        TeXServer server = startServer(secrets);
+        try {
+            TeXClient client = new TeXClient(server.getPort(), secrets);
+            for (int i = 0; i < 2; i++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ByteArrayOutputStream err = new ByteArrayOutputStream();
+                int status = client.run(args, dir.getPath(), out, err);
+                assertEquals(expect, err.toString());
+                assertEquals("", out.toString());
+                assertEquals("Exit status", exit, status);
+            }
+        } finally {
+            server.close();
+            remove(dir);
+            remove(secrets);
+        }
+    }
+
+    /**
+     * <testcase> Test that the server writes its secret to a file which is
+     * removed when the server is closed. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testSecret() throws Exception {
+
+        File secrets = makeDirectory();
+        TeXServer server = startServer(secrets);
+        File file = new File(secrets, Integer.toString(server.getPort()));
+        try {
+            assertTrue(file.canRead());
+            assertEquals(64, file.length());
+        } finally {
+            server.close();
+            remove(secrets);
+        }
+        assertFalse(file.exists());
+    }
+
+    /**
+     * <testcase> Test that a job with a wrong secret is rejected. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testRejected() throws Exception {
+
+        File secrets = makeDirectory();
+        File wrong = makeDirectory();
+        TeXServer server = startServer(secrets);
+        try {
+            FileOutputStream stream =
+                    new FileOutputStream(new File(wrong, Integer
+                        .toString(server.getPort())));
+            stream.write("0123456789".getBytes());
+            stream.close();
+            TeXClient client = new TeXClient(server.getPort(), wrong);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            int status =
+                    client.run(new String[]{"-version"}, wrong.getPath(), out,
+                        err);
+            assertEquals("ExTeX server: job rejected; "
+                    + "the secret does not match\n", err.toString());
+            assertEquals("", out.toString());
+            assertEquals("Exit status", TeX.EXIT_INTERNAL_ERROR, status);
+        } finally {
+            server.close();
+            remove(secrets);
+            remove(wrong);
+        }
+    }
+
+    /**
+     * <testcase> Test that a client does not find a secret if no server has
+     * been started. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test(expected = FileNotFoundException.class)
+    public void testNoSecret() throws Exception {
+
+        File secrets = makeDirectory();
+        try {
+            new TeXClient(DEFAULT_TEST_PORT, secrets).run(
+                new String[]{"-version"}, secrets.getPath(),
+                new ByteArrayOutputStream(), new ByteArrayOutputStream());
+        } finally {
+            remove(secrets);
+        }
+    }
+
+    /**
+     * <testcase> Test that a job run through the server reports the banner
+     * like a job run directly. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testVersion() throws Exception {
+
+        runJobs(makeDirectory(), new String[]{"-version"}, TeXTest.BANNER,
+            TeXTest.EXIT_OK);
+    }
+
+    /**
+     * <testcase> Test that a job run through the server writes the transcript
+     * to the directory of the client. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testEnd() throws Exception {
+
+        File dir = makeDirectory();
+        runJobs(dir, new String[]{"-ini", "--extex.nobanner=true", "\\end"},
+            "Transcript written on " + new File(dir, "texput.log") + ".\n",
+            TeXTest.EXIT_OK);
+    }
+
+    /**
+     * <testcase> Test that the marks of a job are not seen by the next job.
+     * </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testMarks() throws Exception {
+
+        File dir = makeDirectory();
+        File secrets = makeDirectory();
+        TeXServer server = startServer(secrets);
+        try {
+            TeXClient client = new TeXClient(server.getPort(), secrets);
+            String[] args =
+                    {"-ini", "--extex.nobanner=true",
+                            "\\catcode`\\{=1 \\catcode`\\}=2 "
+                                    + "\\message{[\\topmark:\\firstmark]}"
+                                    + "\\mark{x}\\hbox{}\\penalty-10000\\par "
+                                    + "\\message{[\\topmark:\\firstmark]}"
+                                    + "\\end"};
+            for (int i = 0; i < 2; i++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ByteArrayOutputStream err = new ByteArrayOutputStream();
+                int status = client.run(args, dir.getPath(), out, err);
+                assertEquals("[:] [:x]Transcript written on "
+                        + new File(dir, "texput.log") + ".\n", err.toString());
+                assertEquals("Exit status", TeXTest.EXIT_OK, status);
+            }
+        } finally {
+            server.close();
+            remove(dir);
+            remove(secrets);
+        }
+    }
+
+    /**
+     * <testcase> Test that the second job run through the server takes the
+     * font loaded by the first job from the font cache. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testFonts() throws Exception {
+
+        File dir = makeDirectory();
+        File secrets = makeDirectory();
+        TeXServer server = startServer(secrets);
+        try {
+            TeXClient client = new TeXClient(server.getPort(), secrets);
+            String[] args =
+                    {"-ini", "--extex.nobanner=true",
+                            "--extex.fonts=../../texmf/src/texmf/fonts/tfm/public/cm",
+                            "\\font\\x=cmr10 \\x \\end"};
+            FontCache cache = FontCache.getShared();
+            long loads = 0;
+            for (int i = 0; i < 2; i++) {
+                ByteArrayOutputStream err = new ByteArrayOutputStream();
+                int status =
+                        client.run(args, dir.getPath(),
+                            new ByteArrayOutputStream(), err);
+                assertEquals("Transcript written on "
+                        + new File(dir, "texput.log") + ".\n", err.toString());
+                assertEquals("Exit status", TeXTest.EXIT_OK, status);
+                if (i == 0) {
+                    loads = cache.getLoads();
+                    assertTrue(loads > 0);
+                }
+            }
+            assertEquals(loads, cache.getLoads());
+        } finally {
+            server.close();
+            remove(dir);
+            remove(secrets);
+        }
+    }
+
+}
@@ -252,6 +252,16 @@ public class MockContext implements Context, TypesetterOptions {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+     */
+    public Catcode getCatcode(int codePoint) {
+
+        return getCatcode(UnicodeChar.get(codePoint));
+    }
+
     /**
      * {@inheritDoc}
      * 
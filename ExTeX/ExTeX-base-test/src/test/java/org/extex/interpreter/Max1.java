@@ -296,6 +296,16 @@ public class Max1 {
             return false;
         }
 
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.typesetter.Typesetter#joinParagraphs()
+         */
+        public void joinParagraphs() {
+
+            // nothing to do
+        }
+
         /**
          * {@inheritDoc}
          * 
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.language.hyphenation.liang;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.extex.core.UnicodeChar;
+import org.extex.scanner.type.Catcode;
+import org.extex.scanner.type.Namespace;
+import org.extex.scanner.type.token.TokenFactory;
+import org.extex.scanner.type.token.TokenFactoryImpl;
+import org.extex.scanner.type.tokens.Tokens;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This is a test suite for the packed trie of hyphenation patterns.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class PackedHyphenTrieTest {
+
+    /**
+     * The constant <tt>PATTERNS</tt> contains some patterns taken from the
+     * hyphenation patterns for English.
+     */
+    private static final String[] PATTERNS = {"0a0c0h4", "0a0d4d0", "0a2b0",
+            "0a0d0e0r5", "0a0b0l4", "0h0y0p3h0", "0s0u4b3", "1t0y0",
+            "0t0y0p0e3", "4p0e0", "0e0n1t0", "0m0e0n0t5", "0t2i0o0n0",
+            "0i0o0n1", "0c0o0m1p0", "0p0u0t3", "0e1r0", "0r1s0", "0a1t0",
+            "0u0t2", "0p2h0", "0n0a2", "0e0s3s0"};
+
+    /**
+     * The constant <tt>WORDS</tt> contains some words to look up.
+     */
+    private static final String[] WORDS = {"hyphenation", "subtype",
+            "computer", "mentation", "ladder", "achievement", "paragraph",
+            "typesetting", "xyz", "", "a", "pattern"};
+
+    /**
+     * Command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(PackedHyphenTrieTest.class);
+    }
+
+    /**
+     * Add some patterns to a table.
+     *
+     * @param table the table
+     * @param patterns the patterns
+     *
+     * @return the table
+     *
+     * @throws Exception in case of an error
+     */
+    private static LiangsHyphenationTable addPatterns(
+            LiangsHyphenationTable table, String... patterns) throws Exception {
+
+        TokenFactory factory = new TokenFactoryImpl();
+        for (String p : patterns) {
+            Tokens tokens = new Tokens();
+            for (int i = 0; i < p.length(); i++) {
+                char c = p.charAt(i);
+                tokens.add(factory.createToken(Character.isLetter(c)
+                        ? Catcode.LETTER
+                        : Catcode.OTHER, c, Namespace.DEFAULT_NAMESPACE));
+            }
+            table.addPattern(tokens);
+        }
+        return table;
+    }
+
+    /**
+     * Create the characters of a word surrounded by word boundaries.
+     *
+     * @param word the word
+     *
+     * @return the characters
+     */
+    private static UnicodeChar[] chars(String word) {
+
+        UnicodeChar[] chars = new UnicodeChar[word.length() + 2];
+        for (int i = 0; i < word.length(); i++) {
+            chars[i + 1] = UnicodeChar.get(word.charAt(i));
+        }
+        return chars;
+    }
+
+    /**
+     * Check that the trie and the tree deliver the same codes.
+     *
+     * @param tree the tree
+     * @param trie the trie
+     */
+    private static void assertSame(HyphenTree tree, PackedHyphenTrie trie) {
+
+        for (String w : WORDS) {
+            UnicodeChar[] chars = chars(w);
+            int[] symbols = trie.symbols(chars);
+            for (int i = 0; i < chars.length; i++) {
+                char[] expected = tree.get(chars, i);
+                char[] actual = trie.get(symbols, i);
+                if (expected == null) {
+                    assertNull(w + " at " + i, actual);
+                } else {
+                    assertEquals(w + " at " + i, new String(expected),
+                        new String(actual));
+                }
+            }
+        }
+    }
+
+    /**
+     * <testcase> The packed trie delivers the same codes as the hyphen tree it
+     * has been built from. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testGet() throws Exception {
+
+        HyphenTree tree = addPatterns(new LiangsHyphenationTable(), PATTERNS).getPatterns();
+        assertSame(tree, new PackedHyphenTrie(tree));
+    }
+
+    /**
+     * <testcase> An empty tree leads to a trie without transitions.
+     * </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testEmpty() throws Exception {
+
+        HyphenTree tree = new HyphenTree(new char[0]);
+        PackedHyphenTrie trie = new PackedHyphenTrie(tree);
+        assertEquals(1, trie.size());
+        assertSame(tree, trie);
+    }
+
+    /**
+     * <testcase> A tree restored from the trie delivers the same codes.
+     * </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testUnpack() throws Exception {
+
+        HyphenTree tree = addPatterns(new LiangsHyphenationTable(), PATTERNS).getPatterns();
+        PackedHyphenTrie trie = new PackedHyphenTrie(tree);
+        HyphenTree unpacked = trie.unpack();
+        assertSame(unpacked, trie);
+        assertSame(unpacked, new PackedHyphenTrie(unpacked));
+    }
+
+    /**
+     * <testcase> The patterns survive the serialization and further patterns
+     * can be added afterwards. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testSerialization() throws Exception {
+
+        LiangsHyphenationTable table =
+                addPatterns(new LiangsHyphenationTable(), "0a3b0", "0a0b4c0");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(table);
+        out.close();
+        ObjectInputStream in =
+                new ObjectInputStream(new ByteArrayInputStream(bytes
+                    .toByteArray()));
+        LiangsHyphenationTable t = (LiangsHyphenationTable) in.readObject();
+        in.close();
+
+        assertEquals(table.getPatterns().toString(), t.getPatterns()
+            .toString());
+        addPatterns(t, "0a2b0c0d0e0f4");
+        assertEquals("'a' nil\n" //
+                + "  'b' (030)\n" //
+                + "    'c' (0340)\n" //
+                + "      'd' nil\n" //
+                + "        'e' nil\n" //
+                + "          'f' (0340004)\n", //
+            t.getPatterns().toString());
+    }
+
+    /**
+     * <testcase> A pattern tree survives the serialization. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testSerialization2() throws Exception {
+
+        HyphenTree tree =
+                addPatterns(new LiangsHyphenationTable(), "0a3b0", "0a0b4c0",
+                    "0x1y0").getPatterns();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(tree);
+        out.close();
+        ObjectInputStream in =
+                new ObjectInputStream(new ByteArrayInputStream(bytes
+                    .toByteArray()));
+        HyphenTree t = (HyphenTree) in.readObject();
+        in.close();
+
+        assertEquals(tree.toString(), t.toString());
+    }
+
+}
@@ -937,6 +937,27 @@ public class ExTeX {
         return new File(jobname).getName();
     }
 
+    /**
+     * Find the format file with the given name.
+     * <p>
+     * This method can be overwritten in derived classes to provide the format
+     * from another source, e.g. a cache of formats already read.
+     * </p>
+     * 
+     * @param name the name of the format
+     * @param finder the resource finder to use
+     * 
+     * @return the input stream for the format or <code>null</code> if none
+     *         could be found
+     * 
+     * @throws ConfigurationException in case of a configuration error
+     */
+    protected InputStream findFormat(String name, ResourceFinder finder)
+            throws ConfigurationException {
+
+        return finder.findResource(name, FORMAT_TYPE);
+    }
+
     /**
      * Getter for a named property as boolean.
      * 
@@ -1082,39 +1103,18 @@ public class ExTeX {
         }
 
         if (!format.equals("")) {
-            InputStream stream = finder.findResource(fmt, FORMAT_TYPE);
+            InputStream stream = findFormat(fmt, finder);
 
             if (stream == null && !format.equals(FORMAT_FALLBACK)) {
                 logger.warning(localizer.format("FormatSubstituted", format,
                     FORMAT_FALLBACK));
                 format = FORMAT_FALLBACK;
-                stream = finder.findResource(FORMAT_FALLBACK, FORMAT_TYPE);
+                stream = findFormat(FORMAT_FALLBACK, finder);
             }
             if (stream == null) {
                 throw new HelpingException(localizer, "FormatNotFound", format);
             }
-            Object ref1 =
-                    Registrar.register(new ResourceFinderInjector(finder),
-                        ResourceAware.class);
-            Object ref2 =
-                    Registrar.register(
-                        new FontInjector(context.getFontFactory()),
-                        ModifiableFont.class);
-            try {
-                // TODO gene: provide adequate configuration names
-                interpreter.loadFormat(stream, format, "ExTeX", "ExTeX");
-
-            } catch (LoaderException e) {
-                logger.throwing(this.getClass().getName(), "loadFormat()", e);
-                throw new HelpingException(localizer, "TTP.FormatFileError",
-                    format);
-            } catch (RegistrarFontNotFoundException e) {
-                throw new HelpingException(localizer, "FontNotFound", e
-                    .getKey().getName());
-            } finally {
-                Registrar.unregister(ref1);
-                Registrar.unregister(ref2);
-            }
+            readFormat(stream, format, interpreter, finder);
             context = interpreter.getContext();
             logger.fine(localizer.format("ExTeX.FormatDate", context.getId(),
                 time));
@@ -1314,6 +1314,26 @@ public class ExTeX {
             properties.getProperty(PROP_COLOR_CONVERTER));
     }
 
+    /**
+     * Create the configuration with the given name.
+     * <p>
+     * This method can be overwritten in derived classes to provide the
+     * configuration from another source, e.g. a cache of configurations
+     * already parsed.
+     * </p>
+     * 
+     * @param name the name of the configuration resource
+     * 
+     * @return the configuration
+     * 
+     * @throws ConfigurationException in case of a configuration error
+     */
+    protected Configuration makeConfiguration(String name)
+            throws ConfigurationException {
+
+        return ConfigurationFactory.newInstance(name);
+    }
+
     /**
      * Prepare the context according to its configuration.
      * 
@@ -1881,6 +1901,47 @@ public class ExTeX {
         }
     }
 
+    /**
+     * Read a format from a stream and attach the context to the interpreter.
+     * The resource finder and the font factory of the current context are
+     * injected into the objects read.
+     * 
+     * @param stream the stream to read from
+     * @param format the name of the format
+     * @param interpreter the interpreter
+     * @param finder the resource finder
+     * 
+     * @throws IOException in case of an I/O error
+     * @throws HelpingException in case of an error in the format
+     */
+    protected void readFormat(InputStream stream, String format,
+            Interpreter interpreter, ResourceFinder finder)
+            throws IOException,
+                HelpingException {
+
+        Object ref1 =
+                Registrar.register(new ResourceFinderInjector(finder),
+                    ResourceAware.class);
+        Object ref2 =
+                Registrar.register(new FontInjector(interpreter.getContext()
+                    .getFontFactory()), ModifiableFont.class);
+        try {
+            // TODO gene: provide adequate configuration names
+            interpreter.loadFormat(stream, format, "ExTeX", "ExTeX");
+
+        } catch (LoaderException e) {
+            logger.throwing(this.getClass().getName(), "loadFormat()", e);
+            throw new HelpingException(localizer, "TTP.FormatFileError",
+                format);
+        } catch (RegistrarFontNotFoundException e) {
+            throw new HelpingException(localizer, "FontNotFound", e.getKey()
+                .getName());
+        } finally {
+            Registrar.unregister(ref1);
+            Registrar.unregister(ref2);
+        }
+    }
+
     /**
      * Run the program with the parameters already stored in the properties.
      * <p>
@@ -1893,6 +1954,7 @@ public class ExTeX {
      * <pre>
      * {@link #makeLogFile(String) makeLogFile()}
      * {@link #makeLogHandler(File) makeLogHandler()}
+     * {@link #makeConfiguration(String) makeConfiguration()}
      * {@link #showBanner(Configuration, Level) showBanner()}
      * {@link #makeOutputFactory(String, Configuration) makeOutputFactory()}
      * {@link #makeResourceFinder(Configuration) makeResourceFinder()}
@@ -1904,6 +1966,7 @@ public class ExTeX {
      *     {@link #makeDefaultFont(Configuration, CoreFontFactory) makeDefaultFont()}
      *     {@link #makeLanguageManager(Configuration, OutputStreamFactory, ResourceFinder) makeLanguageManager()}
      *     {@link #loadFormat(String, Interpreter, ResourceFinder, String, Configuration, OutputStreamFactory, TokenFactory) loadFormat()}
+     *       {@link #findFormat(String, ResourceFinder) findFormat()}
      *     {@link #makePageSize(Context) makePageSize()}
      *   {@link #initializeStreams(Interpreter, Properties) initializeStreams()}
      *   {@link #makeTypesetter(Interpreter, Configuration, OutputStreamFactory, ResourceFinder, CoreFontFactory) makeTypesetter()}
@@ -1933,8 +1996,7 @@ public class ExTeX {
             logHandler = makeLogHandler(logFile);
 
             Configuration config =
-                    ConfigurationFactory.newInstance(properties
-                        .getProperty(PROP_CONFIG));
+                    makeConfiguration(properties.getProperty(PROP_CONFIG));
             showBanner(config, (showBanner ? Level.INFO : Level.FINE));
 
             Interpreter interpreter =
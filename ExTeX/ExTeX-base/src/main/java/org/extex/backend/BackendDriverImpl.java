@@ -24,6 +24,12 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.extex.backend.documentWriter.DocumentWriter;
 import org.extex.backend.documentWriter.DocumentWriterFactory;
@@ -39,6 +45,10 @@ import org.extex.color.ColorConverter;
 import org.extex.core.exception.GeneralException;
 import org.extex.font.CoreFontFactory;
 import org.extex.font.FontAware;
+import org.extex.framework.configuration.Configurable;
+import org.extex.framework.configuration.Configuration;
+import org.extex.framework.configuration.exception.ConfigurationException;
+import org.extex.framework.configuration.exception.ConfigurationSyntaxException;
 import org.extex.resource.PropertyAware;
 import org.extex.resource.ResourceAware;
 import org.extex.resource.ResourceFinder;
@@ -47,6 +57,27 @@ import org.extex.typesetter.type.page.Page;
 /**
  * This back-end driver can be used to combine several components.
  * 
+ * <h3>Configuration</h3>
+ * <p>
+ * The back-end driver can be configured with the attribute <tt>queue</tt>.
+ * It contains the number of pages which may wait for the document writer. If
+ * it is greater than 0 then the document writer runs in a thread of its own.
+ * The pages leaving the page pipe are copied and the copies are handed over
+ * to this thread. Thus the interpreter can continue while the pages are
+ * written. The interpreter is blocked only if the given number of pages are
+ * waiting already.
+ * </p>
+ * <p>
+ * An error of the document writer is reported upon the next shipping of a
+ * page. An error of the last pages is reported when the back-end driver is
+ * closed, even if closing fails otherwise. The default is <tt>0</tt>; i.e.
+ * the pages are written immediately.
+ * </p>
+ * 
+ * <pre>
+ *  &lt;Backend class="org.extex.backend.BackendDriverImpl" queue="4"&gt;
+ * </pre>
+ * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @version $Revision: 4728 $
  */
@@ -54,6 +85,7 @@ public class BackendDriverImpl
         implements
             BackendDriver,
             MultipleDocumentStream,
+            Configurable,
             PropertyAware,
             ColorAware,
             ResourceAware,
@@ -75,6 +107,7 @@ public class BackendDriverImpl
          */
         public void close() throws BackendException {
 
+            drain();
             if (documentWriter == null) {
                 return;
             }
@@ -118,14 +151,10 @@ public class BackendDriverImpl
          */
         public void shipout(Page nodes) throws BackendException {
 
-            try {
-                documentWriter.shipout(nodes);
-            } catch (DocumentWriterException e) {
-                throw e;
-            } catch (GeneralException e) {
-                throw new DocumentWriterException(e);
-            } catch (IOException e) {
-                throw new DocumentWriterException(e);
+            if (queue > 0) {
+                enqueue(new PageSnapshot(nodes));
+            } else {
+                write(nodes);
             }
             pages++;
         }
@@ -160,6 +189,19 @@ public class BackendDriverImpl
      */
     private String documentWriterType = "?";
 
+    /**
+     * The field <tt>executor</tt> contains the executor for the document
+     * writer. It is created when needed.
+     */
+    private ExecutorService executor = null;
+
+    /**
+     * The field <tt>failure</tt> contains the first error of the document
+     * writer which has not been reported yet.
+     */
+    private AtomicReference<BackendException> failure =
+            new AtomicReference<BackendException>();
+
     /**
      * The field <tt>finder</tt> contains the resource finder.
      */
@@ -199,6 +241,18 @@ public class BackendDriverImpl
      */
     private Properties properties;
 
+    /**
+     * The field <tt>queue</tt> contains the number of pages which may wait for
+     * the document writer. If it is 0 then the pages are written immediately.
+     */
+    private int queue = 0;
+
+    /**
+     * The field <tt>slots</tt> contains the free places in the queue of
+     * waiting pages.
+     */
+    private Semaphore slots = null;
+
     /**
      * The field <tt>streamFactory</tt> contains the output stream factory.
      */
@@ -237,20 +291,113 @@ public class BackendDriverImpl
      */
     public void close() throws BackendException {
 
-        pipeFirst.close();
+        try {
+            pipeFirst.close();
+            drain();
+
+            if (documentWriter != null) {
+                try {
+                    documentWriter.close();
+                } catch (GeneralException e) {
+                    throw new BackendException(e);
+                } catch (IOException e) {
+                    throw new BackendException(e);
+                }
+                documentWriter = null;
+            }
+        } catch (BackendException e) {
+            // an error of the document writer is the cause and comes first
+            drain();
+            report();
+            throw e;
+        }
+        report();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.framework.configuration.Configurable#configure(
+     *      org.extex.framework.configuration.Configuration)
+     */
+    public void configure(Configuration config) throws ConfigurationException {
 
-        if (documentWriter != null) {
-            try {
-                documentWriter.close();
-            } catch (GeneralException e) {
-                throw new BackendException(e);
-            } catch (IOException e) {
-                throw new BackendException(e);
+        String s = config.getAttribute("queue");
+        if (s == null) {
+            return;
+        }
+        try {
+            queue = Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new ConfigurationSyntaxException(s, config.toString());
+        }
+        slots = (queue > 0 ? new Semaphore(queue) : null);
+    }
+
+    /**
+     * Wait until all pages handed over to the document writer have been
+     * written. Errors of the document writer are not reported here.
+     * 
+     * @throws BackendException in case of an interrupt
+     */
+    private void drain() throws BackendException {
+
+        if (executor == null) {
+            return;
+        }
+        ExecutorService ex = executor;
+        executor = null;
+        ex.shutdown();
+        try {
+            while (!ex.awaitTermination(1, TimeUnit.SECONDS)) {
+                // wait for the document writer
             }
-            documentWriter = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackendException(e);
         }
     }
 
+    /**
+     * Hand a page over to the document writer thread. If the queue of waiting
+     * pages is full then the current thread is blocked until a place becomes
+     * available. A pending error of the document writer is reported first.
+     * 
+     * @param page the page
+     * 
+     * @throws BackendException in case of an error
+     */
+    private void enqueue(final Page page) throws BackendException {
+
+        report();
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackendException(e);
+        }
+        getExecutor().execute(new Runnable() {
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see java.lang.Runnable#run()
+             */
+            public void run() {
+
+                try {
+                    write(page);
+                } catch (BackendException e) {
+                    failure.compareAndSet(null, e);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, new BackendException(e));
+                } finally {
+                    slots.release();
+                }
+            }
+        });
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -299,6 +446,33 @@ public class BackendDriverImpl
         return documentWriterType;
     }
 
+    /**
+     * Getter for the executor of the document writer. The executor is created
+     * if needed.
+     * 
+     * @return the executor
+     */
+    private ExecutorService getExecutor() {
+
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                /**
+                 * {@inheritDoc}
+                 * 
+                 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+                 */
+                public Thread newThread(Runnable r) {
+
+                    Thread t = new Thread(r, "DocumentWriter");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return executor;
+    }
+
     /**
      * Getter for the extension associated with this kind of output. For
      * instance <tt>pdf</tt> is the expected value for PDF files and
@@ -325,6 +499,20 @@ public class BackendDriverImpl
         return pages;
     }
 
+    /**
+     * Report the first error of the document writer which has not been
+     * reported yet.
+     * 
+     * @throws BackendException the error of the document writer
+     */
+    private void report() throws BackendException {
+
+        BackendException e = failure.getAndSet(null);
+        if (e != null) {
+            throw e;
+        }
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -401,7 +589,9 @@ public class BackendDriverImpl
      * <p>
      * If the document writer is in use already then the parameter is passed to
      * the document writer. Otherwise the parameter is stored until a document
-     * writer is created. Then the parameter is passed on.
+     * writer is created. Then the parameter is passed on. If the document
+     * writer runs in a thread of its own then the parameter is passed on after
+     * the pages waiting have been written.
      * </p>
      * 
      * @param name the name of the parameter
@@ -410,9 +600,23 @@ public class BackendDriverImpl
      * @see org.extex.backend.documentWriter.DocumentWriter#setParameter(
      *      java.lang.String, java.lang.String)
      */
-    public void setParameter(String name, String value) {
-
-        if (documentWriter != null) {
+    public void setParameter(final String name, final String value) {
+
+        if (executor != null) {
+            final DocumentWriter writer = documentWriter;
+            executor.execute(new Runnable() {
+
+                /**
+                 * {@inheritDoc}
+                 * 
+                 * @see java.lang.Runnable#run()
+                 */
+                public void run() {
+
+                    writer.setParameter(name, value);
+                }
+            });
+        } else if (documentWriter != null) {
             documentWriter.setParameter(name, value);
         } else {
             params.put(name, value);
@@ -477,4 +681,24 @@ public class BackendDriverImpl
         return documentWriterType;
     }
 
+    /**
+     * Send a page to the document writer.
+     * 
+     * @param page the page
+     * 
+     * @throws BackendException in case of an error
+     */
+    private void write(Page page) throws BackendException {
+
+        try {
+            documentWriter.shipout(page);
+        } catch (DocumentWriterException e) {
+            throw e;
+        } catch (GeneralException e) {
+            throw new DocumentWriterException(e);
+        } catch (IOException e) {
+            throw new DocumentWriterException(e);
+        }
+    }
+
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.backend;
+
+import org.extex.color.Color;
+import org.extex.core.count.FixedCount;
+import org.extex.core.dimen.Dimen;
+import org.extex.typesetter.type.NodeList;
+import org.extex.typesetter.type.page.Page;
+
+/**
+ * This class contains a copy of a page which is not affected by later
+ * modifications of the original page. It is used to hand a page over to the
+ * document writer running in a thread of its own.
+ * <p>
+ * The nodes contained in the page are copied recursively since they are
+ * shared with box registers and the main vertical list and their dimensions
+ * are modified in place, e.g. by <tt>\wd</tt>. The dimensions of the page are
+ * copied as well. Thus the snapshot does not share any modifiable object with
+ * the original page.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public final class PageSnapshot implements Page {
+
+    /**
+     * The field <tt>color</tt> contains the background color.
+     */
+    private Color color;
+
+    /**
+     * The field <tt>mediaHeight</tt> contains the height of the media.
+     */
+    private Dimen mediaHeight;
+
+    /**
+     * The field <tt>mediaHOffset</tt> contains the horizontal offset of the
+     * media.
+     */
+    private Dimen mediaHOffset;
+
+    /**
+     * The field <tt>mediaVOffset</tt> contains the vertical offset of the
+     * media.
+     */
+    private Dimen mediaVOffset;
+
+    /**
+     * The field <tt>mediaWidth</tt> contains the width of the media.
+     */
+    private Dimen mediaWidth;
+
+    /**
+     * The field <tt>nodes</tt> contains the copy of the nodes.
+     */
+    private final NodeList nodes;
+
+    /**
+     * The field <tt>pageNo</tt> contains the page numbers.
+     */
+    private final FixedCount[] pageNo;
+
+    /**
+     * Creates a new object.
+     *
+     * @param page the page to copy
+     */
+    public PageSnapshot(Page page) {
+
+        color = page.getColor();
+        mediaHeight = copy(page.getMediaHeight());
+        mediaHOffset = copy(page.getMediaHOffset());
+        mediaVOffset = copy(page.getMediaVOffset());
+        mediaWidth = copy(page.getMediaWidth());
+        NodeList list = page.getNodes();
+        nodes = (list == null ? null : list.deepCopy());
+        FixedCount[] no = page.getPageNo();
+        pageNo = (no == null ? null : no.clone());
+    }
+
+    /**
+     * Make a copy of a dimen.
+     *
+     * @param d the dimen or <code>null</code>
+     *
+     * @return the copy or <code>null</code>
+     */
+    private static Dimen copy(Dimen d) {
+
+        return d == null ? null : new Dimen(d);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#getColor()
+     */
+    public Color getColor() {
+
+        return color;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#getMediaHeight()
+     */
+    public Dimen getMediaHeight() {
+
+        return mediaHeight;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#getMediaHOffset()
+     */
+    public Dimen getMediaHOffset() {
+
+        return mediaHOffset;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#getMediaVOffset()
+     */
+    public Dimen getMediaVOffset() {
+
+        return mediaVOffset;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#getMediaWidth()
+     */
+    public Dimen getMediaWidth() {
+
+        return mediaWidth;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#getNodes()
+     */
+    public NodeList getNodes() {
+
+        return nodes;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#getPageNo()
+     */
+    public FixedCount[] getPageNo() {
+
+        return pageNo;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#setColor(org.extex.color.Color)
+     */
+    public void setColor(Color background) {
+
+        color = background;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#setMediaHeight(org.extex.core.dimen.Dimen)
+     */
+    public void setMediaHeight(Dimen height) {
+
+        mediaHeight = copy(height);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#setMediaHOffset(org.extex.core.dimen.Dimen)
+     */
+    public void setMediaHOffset(Dimen offset) {
+
+        mediaHOffset = copy(offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#setMediaVOffset(org.extex.core.dimen.Dimen)
+     */
+    public void setMediaVOffset(Dimen offset) {
+
+        mediaVOffset = copy(offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.type.page.Page#setMediaWidth(org.extex.core.dimen.Dimen)
+     */
+    public void setMediaWidth(Dimen width) {
+
+        mediaWidth = copy(width);
+    }
+
+}
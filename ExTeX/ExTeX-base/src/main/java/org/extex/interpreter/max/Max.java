@@ -1251,6 +1251,24 @@ public abstract class Max
             throw new LoaderException(e);
         }
 
+        loadFormat(newContext);
+    }
+
+    /**
+     * Use a context which has been loaded from a format already. The
+     * factories and the standard token stream of the current context are
+     * passed on to the new context. Afterwards the units and the observers
+     * are notified about the loading.
+     * 
+     * @param newContext the context to use
+     * 
+     * @throws LoaderException in case of an error during loading
+     * 
+     * @see org.extex.interpreter.Interpreter#loadFormat(org.extex.interpreter.context.Context)
+     */
+    @Override
+    public void loadFormat(Context newContext) throws LoaderException {
+
         if (context != null) {
             newContext.setFontFactory(context.getFontFactory());
             newContext.setTokenFactory(context.getTokenFactory());
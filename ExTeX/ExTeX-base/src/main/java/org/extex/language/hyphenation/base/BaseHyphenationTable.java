@@ -150,7 +150,10 @@ public class BaseHyphenationTable implements ModifiableLanguage, Serializable {
 
         UnicodeCharList key = new UnicodeCharList();
         boolean[] vec = createHyphenation(word, options, key);
-        exceptionMap.put(wordTokenizer.normalize(key, options), vec);
+        UnicodeCharList normalized = wordTokenizer.normalize(key, options);
+        synchronized (this) {
+            exceptionMap.put(normalized, vec);
+        }
     }
 
     /**
@@ -283,7 +286,10 @@ public class BaseHyphenationTable implements ModifiableLanguage, Serializable {
             UnicodeCharList word, CharNode hyphenNode)
             throws HyphenationException {
 
-        boolean[] w = exceptionMap.get(word);
+        boolean[] w;
+        synchronized (this) {
+            w = exceptionMap.get(word);
+        }
         if (w == null) {
             return false;
         }
@@ -21,13 +21,16 @@ package org.extex.language.hyphenation.liang;
 
 import java.io.IOException;
 import java.io.ObjectOutputStream;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * This class implements Liang's algorithm for hyphenation with a compressed
  * hyphenation tree. Th hyphenation tree is compressed when the object is
  * serialized. Afterwards no more patterns can be added.
+ * <p>
+ * The compression itself is performed by the base class: the patterns are
+ * packed into a {@link PackedHyphenTrie PackedHyphenTrie} which stores equal
+ * hyphenation codes only once.
+ * </p>
  * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @version $Revision$
@@ -40,31 +43,8 @@ public class CompressedLiangsHyphenationTable extends LiangsHyphenationTable {
     protected static final long serialVersionUID = 2011L;
 
     /**
-     * This compression method traverses the hyphenation tree and makes
-     * provisions to use common instances for equal hyphenation codes.
-     * 
-     * @param tree the tree to traverse
-     * @param map the map of common codes
-     */
-    private void compress(HyphenTree tree, Map<char[], char[]> map) {
-
-        char[] hc = tree.getHyphenationCode();
-        char[] code = map.get(hc);
-        if (code == null) {
-            map.put(hc, hc);
-        } else {
-            tree.setCode(code);
-        }
-
-        for (HyphenTree t : tree) {
-            compress(t, map);
-        }
-
-    }
-
-    /**
-     * This method compresses the table upon dumping. It is one of the magic
-     * methods invoked during serialization.
+     * This method marks the table as compressed upon dumping. It is one of the
+     * magic methods invoked during serialization.
      * 
      * @param out the output stream
      * 
@@ -72,10 +52,7 @@ public class CompressedLiangsHyphenationTable extends LiangsHyphenationTable {
      */
     private void writeObject(ObjectOutputStream out) throws IOException {
 
-        if (!isCompressed()) {
-            compress(getPatterns(), new HashMap<char[], char[]>());
-            setCompressed();
-        }
+        setCompressed();
         out.defaultWriteObject();
     }
 
@@ -19,6 +19,9 @@
 
 package org.extex.language.hyphenation.liang;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -104,8 +107,13 @@ class HyphenTree implements Iterable<HyphenTree>, Serializable {
 
     /**
      * The field <tt>nextTree</tt> contains the map for the next characters.
+     * The map is not serialized directly. Instead the whole tree below this
+     * node is written as a flat sequence of code points and hyphenation codes
+     * (see {@link #writeObject(ObjectOutputStream) writeObject()}). This
+     * avoids the overhead of storing a map and a node object for each
+     * character of each pattern in a format.
      */
-    private Map<UnicodeChar, HyphenTree> nextTree = null;
+    private transient Map<UnicodeChar, HyphenTree> nextTree = null;
 
     /**
      * Creates a new object.
@@ -186,6 +194,16 @@ class HyphenTree implements Iterable<HyphenTree>, Serializable {
                 : null);
     }
 
+    /**
+     * Getter for the map of the next characters.
+     * 
+     * @return the map or <code>null</code> if there are no next characters
+     */
+    Map<UnicodeChar, HyphenTree> getNextTree() {
+
+        return this.nextTree;
+    }
+
     /**
      * Create a new branch in the HyphenTree for a given character. The
      * hyphenation code is stored if the branch is new. If the branch exists
@@ -217,6 +235,60 @@ class HyphenTree implements Iterable<HyphenTree>, Serializable {
         return tree;
     }
 
+    /**
+     * Read the children of this node from an object stream. This is the
+     * counterpart to {@link #writeChildren(ObjectOutputStream)
+     * writeChildren()}.
+     * 
+     * @param in the stream to read from
+     * 
+     * @throws IOException in case of an I/O error
+     * @throws ClassNotFoundException in case of a class not found
+     */
+    private void readChildren(ObjectInputStream in)
+            throws IOException,
+                ClassNotFoundException {
+
+        int size = in.readInt();
+        if (size < 0) {
+            return;
+        }
+        nextTree =
+                new HashMap<UnicodeChar, HyphenTree>(Math.max(5, 2 * size));
+        for (int i = 0; i < size; i++) {
+            UnicodeChar uc = UnicodeChar.get(in.readInt());
+            HyphenTree tree = new HyphenTree((char[]) in.readObject());
+            tree.readChildren(in);
+            nextTree.put(uc, tree);
+        }
+    }
+
+    /**
+     * Restore the tree from an object stream. Formats of version 1.0 contain
+     * the map of the next characters as a field. In this case it is taken
+     * from there. Otherwise the children follow the fields.
+     * 
+     * @param in the stream to read from
+     * 
+     * @throws IOException in case of an I/O error
+     * @throws ClassNotFoundException in case of a class not found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in)
+            throws IOException,
+                ClassNotFoundException {
+
+        ObjectInputStream.GetField fields = in.readFields();
+        hc = (char[]) fields.get("hc", null);
+        if (fields.getObjectStreamClass().getField("nextTree") != null) {
+            nextTree =
+                    (Map<UnicodeChar, HyphenTree>) fields.get("nextTree",
+                        null);
+        } else {
+            readChildren(in);
+        }
+    }
+
     /**
      * Getter for the iterator for the children.
      * 
@@ -322,4 +394,41 @@ class HyphenTree implements Iterable<HyphenTree>, Serializable {
         }
     }
 
+    /**
+     * Write the children of this node to an object stream. For each child the
+     * code point, the hyphenation code, and the children are written. The
+     * hyphenation codes are written as objects to preserve shared arrays.
+     * 
+     * @param out the stream to write to
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    private void writeChildren(ObjectOutputStream out) throws IOException {
+
+        if (nextTree == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(nextTree.size());
+        for (Map.Entry<UnicodeChar, HyphenTree> e : nextTree.entrySet()) {
+            HyphenTree tree = e.getValue();
+            out.writeInt(e.getKey().getCodePoint());
+            out.writeObject(tree.hc);
+            tree.writeChildren(out);
+        }
+    }
+
+    /**
+     * Write the tree to an object stream.
+     * 
+     * @param out the stream to write to
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+
+        out.defaultWriteObject();
+        writeChildren(out);
+    }
+
 }
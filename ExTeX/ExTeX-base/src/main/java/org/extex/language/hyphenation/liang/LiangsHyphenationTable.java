@@ -19,6 +19,11 @@
 
 package org.extex.language.hyphenation.liang;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import org.extex.core.UnicodeChar;
@@ -146,6 +151,25 @@ import org.extex.typesetter.type.node.factory.NodeFactory;
  * >e</span>X</logo>. Thus the final hyphen is not considered.
  * </p>
  * 
+ * <h2>Implementation</h2>
+ * 
+ * <p>
+ * The patterns are collected in a {@link HyphenTree HyphenTree}. When the
+ * first word is hyphenated or the table is written to a format the tree is
+ * packed into a {@link PackedHyphenTrie PackedHyphenTrie}. Only the packed
+ * trie is stored in the format. If another pattern is added afterwards then
+ * the tree is restored and packed again when needed.
+ * </p>
+ * <p>
+ * The codes computed from the patterns are kept for the most recently
+ * hyphenated words. Thus the words of a paragraph considered again in the
+ * second pass of the paragraph builder are not looked up another time.
+ * </p>
+ * <p>
+ * The paragraph builder may hyphenate words in a thread of its own while the
+ * interpreter adds patterns or exceptions. Thus modifications and lookups
+ * hold the lock of the table.
+ * </p>
  * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @version $Revision: 4784 $
@@ -158,11 +182,23 @@ public class LiangsHyphenationTable extends BaseHyphenationTable {
      */
     private static final UnicodeChar BORDER = null;
 
+    /**
+     * The constant <tt>CACHE_SIZE</tt> contains the number of words for which
+     * the hyphenation codes are kept.
+     */
+    private static final int CACHE_SIZE = 2048;
+
     /**
      * The constant <tt>serialVersionUID</tt> contains the id for serialization.
      */
     protected static final long serialVersionUID = 20060305L;
 
+    /**
+     * The field <tt>cache</tt> contains the hyphenation codes of the most
+     * recently hyphenated words. It is created when needed.
+     */
+    private transient Map<String, char[]> cache = null;
+
     /**
      * The field <tt>compressed</tt> contains the indicator that the hyphenation
      * table has been compressed. A compressed table can not be modified any
@@ -172,8 +208,15 @@ public class LiangsHyphenationTable extends BaseHyphenationTable {
 
     /**
      * The field <tt>patterns</tt> contains the tree of hyphenation patterns.
+     * It is <code>null</code> if the patterns have been loaded from a format.
      */
-    private HyphenTree patterns = new HyphenTree(new char[0]);
+    private transient HyphenTree patterns = new HyphenTree(new char[0]);
+
+    /**
+     * The field <tt>trie</tt> contains the packed hyphenation patterns or
+     * <code>null</code> if they have not been packed yet.
+     */
+    private PackedHyphenTrie trie = null;
 
     /**
      * Creates a new object.
@@ -219,34 +262,42 @@ public class LiangsHyphenationTable extends BaseHyphenationTable {
 
         char[] code = new char[(length + 1) / 2];
         int codeIndex = 0;
-        HyphenTree tree = patterns;
         boolean expectLetter = false;
 
-        for (int i = 0; i < length; i++) {
-            Token t = pattern.get(i);
-            UnicodeChar c = t.getChar();
-            if (t instanceof OtherToken) {
-                int hyphenCode = c.getCodePoint();
-                if (expectLetter) {
-                    throw new IllegalTokenHyphenationException(t.toString());
-                } else if (hyphenCode < '0' || hyphenCode > '9') {
-                    throw new IllegalValueHyphenationException(t.toString());
-                }
-                code[codeIndex++] = (char) hyphenCode;
-                expectLetter = true;
-            } else if (t instanceof LetterToken) {
-                if (!expectLetter) {
+        synchronized (this) {
+            HyphenTree tree = getPatterns();
+            trie = null;
+            cache = null;
+
+            for (int i = 0; i < length; i++) {
+                Token t = pattern.get(i);
+                UnicodeChar c = t.getChar();
+                if (t instanceof OtherToken) {
+                    int hyphenCode = c.getCodePoint();
+                    if (expectLetter) {
+                        throw new IllegalTokenHyphenationException(t
+                            .toString());
+                    } else if (hyphenCode < '0' || hyphenCode > '9') {
+                        throw new IllegalValueHyphenationException(t
+                            .toString());
+                    }
+                    code[codeIndex++] = (char) hyphenCode;
+                    expectLetter = true;
+                } else if (t instanceof LetterToken) {
+                    if (!expectLetter) {
+                        throw new IllegalTokenHyphenationException(t
+                            .toString());
+                    }
+                    tree = tree.insert(c, null);
+                    HyphenTree.superimpose(code, 0, tree.getHyphenationCode());
+                    expectLetter = false;
+                } else {
                     throw new IllegalTokenHyphenationException(t.toString());
                 }
-                tree = tree.insert(c, null);
-                HyphenTree.superimpose(code, 0, tree.getHyphenationCode());
-                expectLetter = false;
-            } else {
-                throw new IllegalTokenHyphenationException(t.toString());
             }
+            tree.setHyphenationCode(code);
+            tree.superimposeAll(code);
         }
-        tree.setHyphenationCode(code);
-        tree.superimposeAll(code);
     }
 
     /**
@@ -256,7 +307,7 @@ public class LiangsHyphenationTable extends BaseHyphenationTable {
      */
     public void dump(Logger logger) {
 
-        patterns.dump(logger, "");
+        getPatterns().dump(logger, "");
     }
 
     /**
@@ -264,11 +315,82 @@ public class LiangsHyphenationTable extends BaseHyphenationTable {
      * 
      * @return the patterns
      */
-    protected HyphenTree getPatterns() {
+    protected synchronized HyphenTree getPatterns() {
 
+        if (patterns == null) {
+            patterns = trie.unpack();
+        }
         return this.patterns;
     }
 
+    /**
+     * Compute the hyphenation code of a word from the patterns. The result
+     * is the superposition of the codes of all patterns matching somewhere
+     * in the word surrounded by word boundaries. The array returned is shared
+     * and must not be modified.
+     * 
+     * @param word the word
+     * 
+     * @return the hyphenation code with two elements more than the word has
+     *         characters
+     */
+    private synchronized char[] getPatternCode(UnicodeCharList word) {
+
+        int len = word.size();
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            sb.appendCodePoint(word.get(i).getCodePoint());
+        }
+        String key = sb.toString();
+
+        if (cache == null) {
+            cache = new LinkedHashMap<String, char[]>(64, 0.75f, true) {
+
+                /**
+                 * The constant <tt>serialVersionUID</tt> contains the id for
+                 * serialization.
+                 */
+                private static final long serialVersionUID = 2011L;
+
+                /**
+                 * {@inheritDoc}
+                 * 
+                 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+                 */
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, char[]> eldest) {
+
+                    return size() > CACHE_SIZE;
+                }
+            };
+        } else {
+            char[] hyph = cache.get(key);
+            if (hyph != null) {
+                return hyph;
+            }
+        }
+
+        if (trie == null) {
+            trie = new PackedHyphenTrie(patterns);
+        }
+        UnicodeChar[] chars = new UnicodeChar[len + 2];
+        int idx = 0; // pointer into hyph; in sync with the current char
+        chars[idx++] = BORDER;
+        for (int i = 0; i < len; i++) {
+            chars[idx++] = word.get(i);
+        }
+        chars[idx] = BORDER;
+        int[] symbols = trie.symbols(chars);
+
+        char[] hyph = new char[len + 2];
+        for (int i = 0; i < len; i++) {
+            HyphenTree.superimpose(hyph, i, trie.get(symbols, i));
+        }
+        cache.put(key, hyph);
+        return hyph;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -337,18 +459,7 @@ public class LiangsHyphenationTable extends BaseHyphenationTable {
             return false;
         }
 
-        char[] hyph = new char[len + 2];
-        UnicodeChar[] chars = new UnicodeChar[len + 2];
-        int idx = 0; // pointer into hyph; in sync with the current char
-        chars[idx++] = BORDER;
-        for (int i = 0; i < len; i++) {
-            chars[idx++] = word.get(i);
-        }
-        chars[idx] = BORDER;
-
-        for (int i = 0; i < len; i++) {
-            HyphenTree.superimpose(hyph, i, patterns.get(chars, i));
-        }
+        char[] hyph = getPatternCode(word).clone();
 
         for (int i = 0; i < leftHyphenMin; i++) {
             hyph[i] = '0';
@@ -395,4 +506,43 @@ public class LiangsHyphenationTable extends BaseHyphenationTable {
         this.compressed = true;
     }
 
+    /**
+     * Restore the table from an object stream. Formats of version 1.0 contain
+     * the tree of patterns instead of the packed trie. In this case the tree
+     * is taken and packed when needed.
+     * 
+     * @param in the stream to read from
+     * 
+     * @throws IOException in case of an I/O error
+     * @throws ClassNotFoundException in case of a class not found
+     */
+    private void readObject(ObjectInputStream in)
+            throws IOException,
+                ClassNotFoundException {
+
+        ObjectInputStream.GetField fields = in.readFields();
+        compressed = fields.get("compressed", false);
+        trie = (PackedHyphenTrie) fields.get("trie", null);
+        if (fields.getObjectStreamClass().getField("patterns") != null) {
+            patterns = (HyphenTree) fields.get("patterns", null);
+        }
+    }
+
+    /**
+     * Write the table to an object stream. The patterns are packed first
+     * since only the packed trie is stored.
+     * 
+     * @param out the stream to write to
+     * 
+     * @throws IOException in case of an I/O error
+     */
+    private synchronized void writeObject(ObjectOutputStream out)
+            throws IOException {
+
+        if (trie == null) {
+            trie = new PackedHyphenTrie(patterns);
+        }
+        out.defaultWriteObject();
+    }
+
 }
@@ -0,0 +1,403 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.language.hyphenation.liang;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.extex.core.UnicodeChar;
+import org.extex.core.exception.ImpossibleException;
+import org.extex.language.hyphenation.exception.DuplicateHyphenationException;
+
+/**
+ * This class contains the hyphenation patterns packed into a double-array
+ * trie. It is built from a {@link HyphenTree HyphenTree} once the patterns
+ * are complete and answers the same queries without creating any objects.
+ * <p>
+ * The characters of the patterns are mapped to symbols 1 to <i>n</i> with the
+ * help of the sorted array <tt>alphabet</tt>. Each node of the tree occupies
+ * a slot in the arrays <tt>base</tt>, <tt>check</tt>, and <tt>value</tt>;
+ * the root is in slot 0. The child of the node in slot <i>s</i> for the
+ * symbol <i>c</i> is found in slot <i>t</i> = <tt>base</tt>[<i>s</i>] +
+ * <i>c</i> if <tt>check</tt>[<i>t</i>] = <i>s</i>. The hyphenation code of
+ * the node in slot <i>s</i> is <tt>codes</tt>[<tt>value</tt>[<i>s</i>]] or
+ * <code>null</code> if <tt>value</tt>[<i>s</i>] is negative. Equal
+ * hyphenation codes are stored only once.
+ * </p>
+ * <p>
+ * This is the same technique as the packed trie of <logo>T<span style=
+ * "text-transform:uppercase;font-size:90%;vertical-align:-0.4ex;margin-left:-0.2em;margin-right:-0.1em;line-height: 0;"
+ * >e</span>X</logo> (&sect;920&ndash;&sect;966). The arrays are written as
+ * they are when the trie is serialized into a format.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+class PackedHyphenTrie implements Serializable {
+
+    /**
+     * The constant <tt>FREE</tt> contains the check value of an unused slot.
+     */
+    private static final int FREE = -1;
+
+    /**
+     * The constant <tt>serialVersionUID</tt> contains the id for serialization.
+     */
+    protected static final long serialVersionUID = 2011L;
+
+    /**
+     * The field <tt>alphabet</tt> contains the sorted code points of the
+     * characters used in the patterns. The symbol of a character is its index
+     * plus 1.
+     */
+    private int[] alphabet;
+
+    /**
+     * The field <tt>base</tt> contains the offsets of the children of each
+     * slot.
+     */
+    private int[] base;
+
+    /**
+     * The field <tt>check</tt> contains the parent slot of each slot or
+     * {@link #FREE FREE} for unused slots.
+     */
+    private int[] check;
+
+    /**
+     * The field <tt>codes</tt> contains the distinct hyphenation codes.
+     */
+    private char[][] codes;
+
+    /**
+     * The field <tt>value</tt> contains the index of the hyphenation code of
+     * each slot or -1.
+     */
+    private int[] value;
+
+    /**
+     * Creates a new object.
+     *
+     * @param tree the tree of hyphenation patterns to pack
+     */
+    public PackedHyphenTrie(HyphenTree tree) {
+
+        SortedSet<Integer> cps = new TreeSet<Integer>();
+        collect(tree, cps);
+        alphabet = new int[cps.size()];
+        int i = 0;
+        for (Integer cp : cps) {
+            alphabet[i++] = cp.intValue();
+        }
+
+        int size = 64;
+        base = new int[size];
+        check = new int[size];
+        value = new int[size];
+        Arrays.fill(check, FREE);
+        Arrays.fill(value, -1);
+
+        Map<String, Integer> codeMap = new HashMap<String, Integer>();
+        List<char[]> codeList = new ArrayList<char[]>();
+        List<HyphenTree> nodes = new ArrayList<HyphenTree>();
+        List<Integer> slots = new ArrayList<Integer>();
+        nodes.add(tree);
+        slots.add(Integer.valueOf(0));
+        check[0] = -2;
+        value[0] = intern(tree.getHyphenationCode(), codeMap, codeList);
+        int used = 1;
+        int firstFree = 1;
+
+        for (int n = 0; n < nodes.size(); n++) {
+            Map<UnicodeChar, HyphenTree> next = nodes.get(n).getNextTree();
+            if (next == null || next.isEmpty()) {
+                continue;
+            }
+            int s = slots.get(n).intValue();
+            int[] symbols = new int[next.size()];
+            HyphenTree[] children = new HyphenTree[symbols.length];
+            i = 0;
+            for (Map.Entry<UnicodeChar, HyphenTree> e : next.entrySet()) {
+                symbols[i++] = symbol(e.getKey());
+            }
+            Arrays.sort(symbols);
+            for (Map.Entry<UnicodeChar, HyphenTree> e : next.entrySet()) {
+                children[Arrays.binarySearch(symbols, symbol(e.getKey()))] =
+                        e.getValue();
+            }
+
+            while (firstFree < check.length && check[firstFree] != FREE) {
+                firstFree++;
+            }
+            int b = findBase(symbols, firstFree);
+            int last = b + symbols[symbols.length - 1];
+            if (last >= check.length) {
+                grow(Math.max(2 * check.length, last + 1));
+            }
+            base[s] = b;
+            for (int j = 0; j < symbols.length; j++) {
+                int t = b + symbols[j];
+                check[t] = s;
+                value[t] =
+                        intern(children[j].getHyphenationCode(), codeMap,
+                            codeList);
+                nodes.add(children[j]);
+                slots.add(Integer.valueOf(t));
+            }
+            if (last + 1 > used) {
+                used = last + 1;
+            }
+        }
+
+        base = Arrays.copyOf(base, used);
+        check = Arrays.copyOf(check, used);
+        value = Arrays.copyOf(value, used);
+        codes = codeList.toArray(new char[codeList.size()][]);
+    }
+
+    /**
+     * Collect the code points of all characters in a tree.
+     *
+     * @param tree the tree
+     * @param cps the target set
+     */
+    private static void collect(HyphenTree tree, SortedSet<Integer> cps) {
+
+        Map<UnicodeChar, HyphenTree> next = tree.getNextTree();
+        if (next == null) {
+            return;
+        }
+        for (Map.Entry<UnicodeChar, HyphenTree> e : next.entrySet()) {
+            if (e.getKey() != null) {
+                cps.add(Integer.valueOf(e.getKey().getCodePoint()));
+            }
+            collect(e.getValue(), cps);
+        }
+    }
+
+    /**
+     * Store a hyphenation code in the list of distinct codes. The code is
+     * copied since the codes of a hyphen tree may still be modified.
+     *
+     * @param code the hyphenation code or <code>null</code>
+     * @param map the map from the codes to their indices
+     * @param list the list of codes
+     *
+     * @return the index of the code or -1 for <code>null</code>
+     */
+    private static int intern(char[] code, Map<String, Integer> map,
+            List<char[]> list) {
+
+        if (code == null) {
+            return -1;
+        }
+        String key = new String(code);
+        Integer index = map.get(key);
+        if (index == null) {
+            index = Integer.valueOf(list.size());
+            map.put(key, index);
+            list.add(code.clone());
+        }
+        return index.intValue();
+    }
+
+    /**
+     * Find the smallest base such that the slots for all symbols are free.
+     * Slots beyond the end of the arrays are considered free.
+     *
+     * @param symbols the sorted symbols
+     * @param firstFree the index of the first free slot
+     *
+     * @return the base
+     */
+    private int findBase(int[] symbols, int firstFree) {
+
+        for (int p = firstFree;; p++) {
+            if (p < check.length && check[p] != FREE) {
+                continue;
+            }
+            int b = p - symbols[0];
+            if (b < 1) {
+                continue;
+            }
+            boolean fits = true;
+            for (int j = 1; fits && j < symbols.length; j++) {
+                int t = b + symbols[j];
+                fits = t >= check.length || check[t] == FREE;
+            }
+            if (fits) {
+                return b;
+            }
+        }
+    }
+
+    /**
+     * Traverse the trie and return the appropriate hyphenation code vector.
+     * This method yields the same result as
+     * {@link HyphenTree#get(UnicodeChar[], int) HyphenTree.get()} for the
+     * tree the trie has been built from.
+     *
+     * @param symbols the symbols of the characters to analyze as returned by
+     *        {@link #symbols(UnicodeChar[]) symbols()}
+     * @param start the start index in symbols to begin with
+     *
+     * @return the hyphenation code found or <code>null</code>
+     */
+    public char[] get(int[] symbols, int start) {
+
+        if (symbols.length == 0) {
+            return value[0] < 0 ? null : codes[value[0]];
+        }
+        char[] hyph = null;
+        int s = 0;
+
+        for (int i = start; i < symbols.length; i++) {
+            int v = value[s];
+            if (v >= 0) {
+                hyph = codes[v];
+            }
+            int c = symbols[i];
+            if (c <= 0) {
+                return hyph;
+            }
+            int t = base[s] + c;
+            if (t >= check.length || check[t] != s) {
+                return hyph;
+            }
+            s = t;
+        }
+
+        return hyph;
+    }
+
+    /**
+     * Enlarge the arrays.
+     *
+     * @param size the new size
+     */
+    private void grow(int size) {
+
+        int old = check.length;
+        base = Arrays.copyOf(base, size);
+        check = Arrays.copyOf(check, size);
+        value = Arrays.copyOf(value, size);
+        Arrays.fill(check, old, size, FREE);
+        Arrays.fill(value, old, size, -1);
+    }
+
+    /**
+     * Getter for the number of slots.
+     *
+     * @return the number of slots
+     */
+    public int size() {
+
+        return check.length;
+    }
+
+    /**
+     * Map a character to its symbol.
+     *
+     * @param uc the character
+     *
+     * @return the symbol or 0 if the character does not occur in any pattern
+     */
+    private int symbol(UnicodeChar uc) {
+
+        if (uc == null) {
+            return 0;
+        }
+        int i = Arrays.binarySearch(alphabet, uc.getCodePoint());
+        return i < 0 ? 0 : i + 1;
+    }
+
+    /**
+     * Map characters to their symbols.
+     *
+     * @param chars the characters
+     *
+     * @return the symbols; 0 denotes a character not occurring in any pattern
+     */
+    public int[] symbols(UnicodeChar[] chars) {
+
+        int[] symbols = new int[chars.length];
+        for (int i = 0; i < chars.length; i++) {
+            symbols[i] = symbol(chars[i]);
+        }
+        return symbols;
+    }
+
+    /**
+     * Rebuild the hyphen tree from the trie. This is needed when further
+     * patterns are added after the trie has been loaded from a format.
+     *
+     * @return the new hyphen tree
+     */
+    public HyphenTree unpack() {
+
+        HyphenTree root = new HyphenTree(code(0));
+        unpack(0, root);
+        return root;
+    }
+
+    /**
+     * Rebuild the children of a node of the hyphen tree.
+     *
+     * @param s the slot of the node
+     * @param tree the node
+     */
+    private void unpack(int s, HyphenTree tree) {
+
+        for (int c = 1; c <= alphabet.length; c++) {
+            int t = base[s] + c;
+            if (base[s] > 0 && t < check.length && check[t] == s) {
+                try {
+                    HyphenTree child =
+                            tree.insert(UnicodeChar.get(alphabet[c - 1]),
+                                code(t));
+                    unpack(t, child);
+                } catch (DuplicateHyphenationException e) {
+                    // each child is inserted exactly once
+                    throw new ImpossibleException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get a copy of the hyphenation code of a slot.
+     *
+     * @param s the slot
+     *
+     * @return the copy of the code or <code>null</code>
+     */
+    private char[] code(int s) {
+
+        return value[s] < 0 ? null : codes[value[s]].clone();
+    }
+
+}
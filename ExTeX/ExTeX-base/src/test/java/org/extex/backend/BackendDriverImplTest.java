@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.extex.backend.documentWriter.DocumentWriter;
+import org.extex.backend.documentWriter.DocumentWriterFactory;
+import org.extex.backend.exception.BackendException;
+import org.extex.backend.outputStream.OutputStreamFactory;
+import org.extex.core.dimen.Dimen;
+import org.extex.core.dimen.FixedDimen;
+import org.extex.engine.typesetter.page.PageImpl;
+import org.extex.framework.configuration.impl.XmlConfiguration;
+import org.extex.typesetter.type.node.ExplicitKernNode;
+import org.extex.typesetter.type.node.VerticalListNode;
+import org.extex.typesetter.type.page.Page;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This class contains test cases for the {@link BackendDriverImpl} with a
+ * document writer running in a thread of its own.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class BackendDriverImplTest {
+
+    /**
+     * This document writer records the pages written. It fails for the page
+     * with a given number.
+     */
+    private static class TestWriter implements DocumentWriter {
+
+        /**
+         * The field <tt>fail</tt> contains the number of the page to fail
+         * for.
+         */
+        private final int fail;
+
+        /**
+         * The field <tt>widths</tt> contains the widths of the pages written.
+         */
+        private final List<Long> widths = new ArrayList<Long>();
+
+        /**
+         * Creates a new object.
+         *
+         * @param fail the number of the page to fail for
+         */
+        public TestWriter(int fail) {
+
+            this.fail = fail;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.backend.documentWriter.DocumentWriter#close()
+         */
+        public void close() throws IOException {
+
+            throw new IOException("close");
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.backend.documentWriter.DocumentWriter#getExtension()
+         */
+        public String getExtension() {
+
+            return "test";
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.backend.documentWriter.DocumentWriter#setParameter(
+         *      java.lang.String, java.lang.String)
+         */
+        public void setParameter(String name, String value) {
+
+            // not needed
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.backend.documentWriter.DocumentWriter#shipout(
+         *      org.extex.typesetter.type.page.Page)
+         */
+        public int shipout(Page page) throws IOException {
+
+            widths.add(Long.valueOf(page.getNodes().getWidth().getValue()));
+            if (widths.size() == fail) {
+                throw new IOException("page " + fail);
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * Command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(BackendDriverImplTest.class);
+    }
+
+    /**
+     * Create a back-end driver with a queue of two pages.
+     *
+     * @param writer the document writer to use
+     *
+     * @return the new back-end driver
+     *
+     * @throws Exception in case of an error
+     */
+    private static BackendDriverImpl makeDriver(final DocumentWriter writer)
+            throws Exception {
+
+        BackendDriverImpl driver = new BackendDriverImpl();
+        driver.configure(new XmlConfiguration(new ByteArrayInputStream(
+            "<Backend queue=\"2\"/>".getBytes()), "backend"));
+        driver.setDocumentWriterFactory(new DocumentWriterFactory(
+            new XmlConfiguration(new ByteArrayInputStream(
+                "<DocumentWriter default=\"test\"/>".getBytes()), "dw"),
+            null) {
+
+            /**
+             * {@inheritDoc}
+             *
+             * @see org.extex.backend.documentWriter.DocumentWriterFactory#newInstance(
+             *      java.lang.String,
+             *      org.extex.backend.outputStream.OutputStreamFactory)
+             */
+            @Override
+            public DocumentWriter newInstance(String type,
+                    OutputStreamFactory outFactory) {
+
+                return writer;
+            }
+        });
+        return driver;
+    }
+
+    /**
+     * Create a page with a given width.
+     *
+     * @param width the width
+     *
+     * @return the new page
+     */
+    private static Page makePage(FixedDimen width) {
+
+        VerticalListNode list =
+                new VerticalListNode(new ExplicitKernNode(width, false));
+        list.setWidth(width);
+        return new PageImpl(list, null);
+    }
+
+    /**
+     * <testcase class="BackendDriverImpl"> Test case checking that a page
+     * modified after the shipping is written as it has been shipped.
+     * </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testSnapshot1() throws Exception {
+
+        TestWriter writer = new TestWriter(0);
+        BackendDriverImpl driver = makeDriver(writer);
+        Page page = makePage(Dimen.ONE_PT);
+        driver.shipout(page);
+        page.getNodes().setWidth(Dimen.ZERO_PT);
+        driver.shipout(makePage(Dimen.ONE_INCH));
+        try {
+            driver.close();
+        } catch (BackendException e) {
+            // the test writer can not be closed
+        }
+        assertEquals(2, writer.widths.size());
+        assertEquals(Dimen.ONE_PT.getValue(), writer.widths.get(0)
+            .longValue());
+        assertEquals(Dimen.ONE_INCH.getValue(), writer.widths.get(1)
+            .longValue());
+    }
+
+    /**
+     * <testcase class="BackendDriverImpl"> Test case checking that an error of
+     * the document writer for the last page is reported when the driver is
+     * closed; even if the closing of the document writer fails.
+     * </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testError1() throws Exception {
+
+        BackendDriverImpl driver = makeDriver(new TestWriter(1));
+        driver.shipout(makePage(Dimen.ONE_PT));
+        try {
+            driver.close();
+            fail("exception expected");
+        } catch (BackendException e) {
+            assertTrue(e.getCause().getMessage(), //
+                e.getCause().getMessage().endsWith("page 1"));
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import org.extex.core.dimen.Dimen;
+import org.extex.engine.typesetter.page.PageImpl;
+import org.extex.typesetter.type.NodeList;
+import org.extex.typesetter.type.node.ExplicitKernNode;
+import org.extex.typesetter.type.node.HorizontalListNode;
+import org.extex.typesetter.type.node.VerticalListNode;
+import org.extex.typesetter.type.page.Page;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This class contains test cases for the {@link PageSnapshot}.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class PageSnapshotTest {
+
+    /**
+     * Command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(PageSnapshotTest.class);
+    }
+
+    /**
+     * Create a page containing a vertical list with a horizontal list with a
+     * kern of 1pt.
+     *
+     * @return the new page
+     */
+    private static Page makePage() {
+
+        HorizontalListNode hlist =
+                new HorizontalListNode(new ExplicitKernNode(Dimen.ONE_PT,
+                    true));
+        hlist.setWidth(Dimen.ONE_PT);
+        return new PageImpl(new VerticalListNode(hlist), null);
+    }
+
+    /**
+     * <testcase class="PageSnapshot"> Test case checking that a change of the
+     * width of a nested list does not affect the snapshot. </testcase>
+     */
+    @Test
+    public void testNestedList1() {
+
+        Page page = makePage();
+        PageSnapshot snapshot = new PageSnapshot(page);
+        NodeList hlist = (NodeList) page.getNodes().get(0);
+        hlist.setWidth(Dimen.ZERO_PT);
+
+        NodeList copy = (NodeList) snapshot.getNodes().get(0);
+        assertNotSame(hlist, copy);
+        assertEquals(Dimen.ONE_PT.getValue(), copy.getWidth().getValue());
+    }
+
+    /**
+     * <testcase class="PageSnapshot"> Test case checking that a change of the
+     * width of a leaf node does not affect the snapshot. </testcase>
+     */
+    @Test
+    public void testLeaf1() {
+
+        Page page = makePage();
+        PageSnapshot snapshot = new PageSnapshot(page);
+        NodeList hlist = (NodeList) page.getNodes().get(0);
+        hlist.get(0).setWidth(Dimen.ZERO_PT);
+
+        NodeList copy = (NodeList) snapshot.getNodes().get(0);
+        assertNotSame(hlist.get(0), copy.get(0));
+        assertEquals(Dimen.ONE_PT.getValue(), copy.get(0).getWidth()
+            .getValue());
+    }
+
+    /**
+     * <testcase class="PageSnapshot"> Test case checking that adding a node
+     * to a nested list does not affect the snapshot. </testcase>
+     */
+    @Test
+    public void testNestedList2() {
+
+        Page page = makePage();
+        PageSnapshot snapshot = new PageSnapshot(page);
+        NodeList hlist = (NodeList) page.getNodes().get(0);
+        hlist.add(new ExplicitKernNode(Dimen.ONE_PT, true));
+
+        assertEquals(1, ((NodeList) snapshot.getNodes().get(0)).size());
+    }
+
+    /**
+     * <testcase class="PageSnapshot"> Test case checking that a change of the
+     * media dimensions of the page does not affect the snapshot.
+     * </testcase>
+     */
+    @Test
+    public void testMedia1() {
+
+        Page page = makePage();
+        PageSnapshot snapshot = new PageSnapshot(page);
+        long width = page.getMediaWidth().getValue();
+        page.getMediaWidth().set(Dimen.ONE_PT);
+
+        assertEquals(width, snapshot.getMediaWidth().getValue());
+    }
+
+    /**
+     * <testcase class="PageSnapshot"> Test case checking that the media
+     * dimensions of a snapshot can be set. </testcase>
+     */
+    @Test
+    public void testSetMedia1() {
+
+        PageSnapshot snapshot = new PageSnapshot(makePage());
+        Dimen width = new Dimen(Dimen.ONE_PT);
+        snapshot.setMediaWidth(width);
+        width.set(Dimen.ZERO_PT);
+        snapshot.setMediaHeight(new Dimen(Dimen.ONE_INCH));
+
+        assertEquals(Dimen.ONE_PT.getValue(), snapshot.getMediaWidth()
+            .getValue());
+        assertEquals(Dimen.ONE_INCH.getValue(), snapshot.getMediaHeight()
+            .getValue());
+    }
+
+}
@@ -265,6 +265,17 @@ public class MockContext implements Context, TypesetterOptions {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+     */
+    @Override
+    public Catcode getCatcode(int codePoint) {
+
+        return getCatcode(UnicodeChar.get(codePoint));
+    }
+
     /**
      * {@inheritDoc}
      * 
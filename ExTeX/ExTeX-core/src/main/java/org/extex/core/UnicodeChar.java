@@ -19,8 +19,10 @@
 
 package org.extex.core;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.ibm.icu.lang.UCharacter;
 
@@ -50,21 +52,43 @@ public class UnicodeChar implements Serializable {
     public static final int MIN_VALUE = UCharacter.MIN_VALUE;
 
     /**
-     * The field <tt>CACHE_SIZE</tt> contains the size of lower cache segment.
+     * The constant <tt>PAGE_BITS</tt> contains the number of bits of the code
+     * point which are used as index into a page of the cache.
      */
-    private static final int CACHE_SIZE = 256;
+    private static final int PAGE_BITS = 8;
 
     /**
-     * The field <tt>cache</tt> contains the cache for Unicode characters.
+     * The constant <tt>PAGE_SIZE</tt> contains the number of characters in a
+     * page of the cache.
      */
-    private static UnicodeChar[] cache = new UnicodeChar[CACHE_SIZE];
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    /**
+     * The constant <tt>BMP_LIMIT</tt> contains the first code point not
+     * stored in the pages of the cache.
+     */
+    private static final int BMP_LIMIT = 0x10000;
+
+    /**
+     * The field <tt>cache</tt> contains the cache for Unicode characters of
+     * the basic multilingual plane. It is organized in pages of 256
+     * characters which are allocated on demand.
+     * <p>
+     * The cache is read and written without locking. Since the instances are
+     * immutable a thread might at worst see an empty slot and create a second
+     * instance for the same code point. This is harmless since the characters
+     * are compared by their code point.
+     * </p>
+     */
+    private static final UnicodeChar[][] cache =
+            new UnicodeChar[BMP_LIMIT >> PAGE_BITS][];
 
     /**
      * The field <tt>cacheMap</tt> contains the cache for Unicode characters
-     * with higher code points.
+     * with code points outside the basic multilingual plane.
      */
-    private static WeakHashMap<Integer, UnicodeChar> cacheMap =
-            new WeakHashMap<Integer, UnicodeChar>();
+    private static final ConcurrentMap<Integer, UnicodeChar> cacheMap =
+            new ConcurrentHashMap<Integer, UnicodeChar>();
 
     /**
      * The constant <tt>serialVersionUID</tt> contains the id for serialization.
@@ -116,24 +140,45 @@ public class UnicodeChar implements Serializable {
         if (code < UCharacter.MIN_VALUE || code > UCharacter.MAX_VALUE) {
             return null;
         }
-        UnicodeChar uc;
-        if (0 <= code && code < CACHE_SIZE) {
-            uc = cache[code];
-            if (uc == null) {
-                uc = new UnicodeChar(code);
-                cache[code] = uc;
+        if (0 <= code && code < BMP_LIMIT) {
+            UnicodeChar[] page = cache[code >> PAGE_BITS];
+            if (page == null) {
+                page = new UnicodeChar[PAGE_SIZE];
+                cache[code >> PAGE_BITS] = page;
             }
-        } else {
-            Integer cp = Integer.valueOf(code);
-            uc = cacheMap.get(cp);
+            UnicodeChar uc = page[code & (PAGE_SIZE - 1)];
             if (uc == null) {
                 uc = new UnicodeChar(code);
-                cacheMap.put(cp, uc);
+                page[code & (PAGE_SIZE - 1)] = uc;
+            }
+            return uc;
+        }
+        Integer cp = Integer.valueOf(code);
+        UnicodeChar uc = cacheMap.get(cp);
+        if (uc == null) {
+            uc = new UnicodeChar(code);
+            UnicodeChar other = cacheMap.putIfAbsent(cp, uc);
+            if (other != null) {
+                uc = other;
             }
         }
         return uc;
     }
 
+    /**
+     * Test, if a code point denotes a letter. This method can be used instead
+     * of {@link #isLetter() isLetter()} when no instance is at hand.
+     * 
+     * @param code the code point
+     * 
+     * @return <code>true</code>, if the code is a letter, otherwise
+     *         <code>false</code>
+     */
+    public static boolean isLetter(int code) {
+
+        return UCharacter.isLetter(code);
+    }
+
     /**
      * Creates a new object from a Unicode name. Factory method for Unicode
      * characters.
@@ -152,7 +197,7 @@ public class UnicodeChar implements Serializable {
      * The field <tt>code</tt> contains the code point of the Unicode character
      * (32 bit).
      */
-    private int code;
+    private final int code;
 
     /**
      * Creates a new object from an integer code point.
@@ -284,6 +329,21 @@ public class UnicodeChar implements Serializable {
         return (lc == code ? this : UnicodeChar.get(lc));
     }
 
+    /**
+     * Return the cached instance for the code point after deserialization.
+     * Thus characters read from a format share the instances created by
+     * {@link #get(int) get()}. Subclasses are not affected since this method
+     * is private.
+     * 
+     * @return the cached instance for the code point
+     * 
+     * @throws ObjectStreamException in case of an error
+     */
+    private Object readResolve() throws ObjectStreamException {
+
+        return UnicodeChar.get(code);
+    }
+
     /**
      * Returns a String of this object.
      * 
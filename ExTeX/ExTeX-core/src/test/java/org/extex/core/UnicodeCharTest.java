@@ -76,6 +76,40 @@ public class UnicodeCharTest {
         assertSame(uc, UnicodeChar.get(512));
     }
 
+    /**
+     * Test method for {@link org.extex.core.UnicodeChar#get(int)}.
+     */
+    @Test
+    public final void testGet5() {
+
+        UnicodeChar uc = UnicodeChar.get(0xffff);
+        assertNotNull(uc);
+        assertEquals(0xffff, uc.getCodePoint());
+        assertSame(uc, UnicodeChar.get(0xffff));
+    }
+
+    /**
+     * Test method for {@link org.extex.core.UnicodeChar#get(int)}.
+     */
+    @Test
+    public final void testGet6() {
+
+        UnicodeChar uc = UnicodeChar.get(0x1d400);
+        assertNotNull(uc);
+        assertEquals(0x1d400, uc.getCodePoint());
+        assertSame(uc, UnicodeChar.get(0x1d400));
+    }
+
+    /**
+     * Test method for {@link org.extex.core.UnicodeChar#isLetter(int)}.
+     */
+    @Test
+    public final void testIsLetterInt() {
+
+        assertTrue(UnicodeChar.isLetter('a'));
+        assertFalse(UnicodeChar.isLetter('1'));
+    }
+
     /**
      * Test method for {@link org.extex.core.UnicodeChar#get(String)}.
      */
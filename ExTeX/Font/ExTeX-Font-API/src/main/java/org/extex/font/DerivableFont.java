@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.font;
+
+import org.extex.font.exception.CorruptFontException;
+import org.extex.framework.configuration.exception.ConfigurationException;
+
+/**
+ * This interface describes a loadable font which can provide instances for
+ * other font keys of the same font file without reading the file again. The
+ * derived instances share the unscaled data with the original font.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public interface DerivableFont extends LoadableFont {
+
+    /**
+     * Create a font for another font key with the same name.
+     *
+     * @param factory the font factory
+     * @param fontKey the font key of the new font
+     *
+     * @return the new font
+     *
+     * @throws CorruptFontException if the font is corrupt
+     * @throws ConfigurationException from the configuration system
+     */
+    LoadableFont deriveFont(CoreFontFactory factory, FontKey fontKey)
+            throws CorruptFontException,
+                ConfigurationException;
+
+}
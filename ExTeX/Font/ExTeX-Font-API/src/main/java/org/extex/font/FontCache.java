@@ -0,0 +1,360 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.font;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.extex.font.exception.FontException;
+import org.extex.framework.configuration.exception.ConfigurationException;
+
+/**
+ * This class provides a thread-safe cache for loaded fonts. It can be shared
+ * among several font factories and thus among several jobs.
+ * <p>
+ * The cache is bounded by the number of fonts and by the sum of their
+ * weights. The weight of a font is the number of bytes read when it was
+ * loaded. If one of the limits is exceeded then the least recently used fonts
+ * are evicted.
+ * </p>
+ * <p>
+ * A font is loaded at most once at a time: If several threads ask for the
+ * same key then the first one loads the font and the others wait for the
+ * result.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class FontCache {
+
+    /**
+     * This interface describes the callback to load a font into the cache.
+     */
+    public interface Loader {
+
+        /**
+         * Load the font.
+         *
+         * @return the font or <code>null</code> if none could be found
+         *
+         * @throws ConfigurationException from the configuration system
+         * @throws FontException if a font error occurred
+         */
+        LoadableFont load() throws ConfigurationException, FontException;
+
+        /**
+         * Getter for the weight of the font loaded.
+         *
+         * @return the weight
+         */
+        long getWeight();
+    }
+
+    /**
+     * This class contains an entry of the cache. The font is
+     * <code>null</code> as long as it is being loaded.
+     */
+    private static final class Entry {
+
+        /**
+         * The field <tt>font</tt> contains the font.
+         */
+        private LoadableFont font = null;
+
+        /**
+         * The field <tt>weight</tt> contains the weight of the font.
+         */
+        private long weight = 0;
+    }
+
+    /**
+     * The constant <tt>DEFAULT_SIZE</tt> contains the default for the maximal
+     * number of fonts in the cache.
+     */
+    public static final int DEFAULT_SIZE = 512;
+
+    /**
+     * The constant <tt>DEFAULT_WEIGHT</tt> contains the default for the
+     * maximal weight of the fonts in the cache.
+     */
+    public static final long DEFAULT_WEIGHT = 0x4000000;
+
+    /**
+     * The constant <tt>SHARED</tt> contains the cache shared by all font
+     * factories which do not use a cache of their own.
+     */
+    private static final FontCache SHARED = new FontCache(DEFAULT_SIZE,
+        DEFAULT_WEIGHT);
+
+    /**
+     * Getter for the shared cache.
+     *
+     * @return the shared cache
+     */
+    public static FontCache getShared() {
+
+        return SHARED;
+    }
+
+    /**
+     * The field <tt>evictions</tt> contains the number of fonts evicted.
+     */
+    private long evictions = 0;
+
+    /**
+     * The field <tt>hits</tt> contains the number of requests answered from
+     * the cache.
+     */
+    private long hits = 0;
+
+    /**
+     * The field <tt>loads</tt> contains the number of loads.
+     */
+    private long loads = 0;
+
+    /**
+     * The field <tt>loadTime</tt> contains the time spent loading in
+     * nanoseconds.
+     */
+    private long loadTime = 0;
+
+    /**
+     * The field <tt>map</tt> contains the entries in access order.
+     */
+    private final Map<Object, Entry> map = new LinkedHashMap<Object, Entry>(
+        64, 0.75f, true);
+
+    /**
+     * The field <tt>maxSize</tt> contains the maximal number of fonts.
+     */
+    private final int maxSize;
+
+    /**
+     * The field <tt>maxWeight</tt> contains the maximal weight.
+     */
+    private final long maxWeight;
+
+    /**
+     * The field <tt>misses</tt> contains the number of requests not found in
+     * the cache.
+     */
+    private long misses = 0;
+
+    /**
+     * The field <tt>weight</tt> contains the weight of the fonts in the cache.
+     */
+    private long weight = 0;
+
+    /**
+     * Creates a new object.
+     *
+     * @param maxSize the maximal number of fonts
+     * @param maxWeight the maximal weight of all fonts
+     */
+    public FontCache(int maxSize, long maxWeight) {
+
+        this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Remove all fonts from the cache. Loads in progress are not affected.
+     */
+    public synchronized void clear() {
+
+        Iterator<Entry> iterator = map.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.font != null) {
+                weight -= entry.weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Evict the least recently used fonts until the limits are met.
+     */
+    private void evict() {
+
+        Iterator<Entry> iterator = map.values().iterator();
+        while ((map.size() > maxSize || weight > maxWeight)
+                && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.font != null) {
+                weight -= entry.weight;
+                iterator.remove();
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * Get a font from the cache. If it is not present then it is loaded with
+     * the loader given and stored in the cache.
+     *
+     * @param key the key
+     * @param loader the loader
+     *
+     * @return the font or <code>null</code> if none could be loaded
+     *
+     * @throws ConfigurationException from the configuration system
+     * @throws FontException if a font error occurred
+     */
+    public LoadableFont get(Object key, Loader loader)
+            throws ConfigurationException,
+                FontException {
+
+        Entry entry;
+        synchronized (this) {
+            entry = map.get(key);
+            try {
+                while (entry != null && entry.font == null) {
+                    wait();
+                    entry = map.get(key);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (entry != null && entry.font != null) {
+                hits++;
+                return entry.font;
+            }
+            misses++;
+            if (entry == null) {
+                entry = new Entry();
+                map.put(key, entry);
+            } else {
+                // interrupted while waiting: load without the cache
+                entry = null;
+            }
+        }
+
+        LoadableFont font = null;
+        long start = System.nanoTime();
+        try {
+            font = loader.load();
+        } finally {
+            synchronized (this) {
+                loads++;
+                loadTime += System.nanoTime() - start;
+                if (entry != null && map.get(key) == entry) {
+                    if (font == null) {
+                        map.remove(key);
+                    } else {
+                        entry.font = font;
+                        entry.weight = loader.getWeight();
+                        weight += entry.weight;
+                        evict();
+                    }
+                }
+                notifyAll();
+            }
+        }
+        return font;
+    }
+
+    /**
+     * Getter for the number of fonts evicted.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+
+        return evictions;
+    }
+
+    /**
+     * Getter for the number of requests answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+
+        return hits;
+    }
+
+    /**
+     * Getter for the number of fonts loaded.
+     *
+     * @return the number of loads
+     */
+    public synchronized long getLoads() {
+
+        return loads;
+    }
+
+    /**
+     * Getter for the time spent loading fonts.
+     *
+     * @return the load time in nanoseconds
+     */
+    public synchronized long getLoadTime() {
+
+        return loadTime;
+    }
+
+    /**
+     * Getter for the number of requests not answered from the cache.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+
+        return misses;
+    }
+
+    /**
+     * Getter for the number of fonts in the cache.
+     *
+     * @return the size
+     */
+    public synchronized int getSize() {
+
+        return map.size();
+    }
+
+    /**
+     * Getter for the weight of the fonts in the cache.
+     *
+     * @return the weight
+     */
+    public synchronized long getWeight() {
+
+        return weight;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+
+        return "FontCache[size=" + map.size() + ", weight=" + weight
+                + ", hits=" + hits + ", misses=" + misses + ", loads="
+                + loads + ", loadTime=" + (loadTime / 1000000) + "ms"
+                + ", evictions=" + evictions + "]";
+    }
+
+}
@@ -18,12 +18,13 @@
 
 package org.extex.font;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.WeakHashMap;
 
 import org.extex.core.dimen.FixedDimen;
 import org.extex.font.exception.FontException;
@@ -42,7 +43,17 @@ import org.extex.resource.io.NamedInputStream;
 /**
  * Factory to load a font.
  * 
- * The factory uses a cache (a weak map) to increase the speed.
+ * The factory uses a {@link FontCache FontCache} to increase the speed. By
+ * default the cache is shared by all factories. The fonts are cached per
+ * configuration and resource finder of the factory since a font keeps the
+ * resource finder for later requests and the finder determines which file is
+ * found. The configuration is compared by its location since a new instance
+ * is created whenever it is requested. Thus factories sharing a resource
+ * finder share the fonts as well. The cache is bounded by the number of fonts and by the number of
+ * bytes read for them; the least recently used fonts of finished jobs are
+ * evicted first. Fonts which are {@link DerivableFont derivable} are read
+ * once per font file; the instances for other sizes are derived from the
+ * instance at the design size.
  * 
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
@@ -57,6 +68,243 @@ public class FontFactoryImpl extends AbstractFactory<Object>
             BackendFontFactory,
             LogEnabled {
 
+    /**
+     * This class provides the key for the font cache. It combines the
+     * printable representations of the configuration of the factory and of
+     * the font key with the resource finder of the factory, since neither the
+     * configuration nor the font key has a notion of equality.
+     */
+    private static final class CacheKey {
+
+        /**
+         * The field <tt>configuration</tt> contains the printable
+         * representation of the configuration of the factory.
+         */
+        private final String configuration;
+
+        /**
+         * The field <tt>finder</tt> contains the resource finder of the
+         * factory.
+         */
+        private final ResourceFinder finder;
+
+        /**
+         * The field <tt>key</tt> contains the printable representation of the
+         * font key.
+         */
+        private final String key;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param configuration the configuration
+         * @param finder the resource finder
+         * @param key the font key
+         */
+        public CacheKey(Configuration configuration, ResourceFinder finder,
+                FontKey key) {
+
+            this.configuration = configuration.toString();
+            this.finder = finder;
+            this.key = key.toString();
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey k = (CacheKey) obj;
+            return finder == k.finder && configuration.equals(k.configuration)
+                    && key.equals(k.key);
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+
+            return configuration.hashCode()
+                    ^ 31 * System.identityHashCode(finder) ^ key.hashCode();
+        }
+    }
+
+    /**
+     * This class counts the bytes read from a stream.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        /**
+         * The field <tt>count</tt> contains the number of bytes read.
+         */
+        private long count = 0;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param in the stream to read from
+         */
+        public CountingInputStream(InputStream in) {
+
+            super(in);
+        }
+
+        /**
+         * Getter for the number of bytes read.
+         * 
+         * @return the number of bytes read
+         */
+        public long getCount() {
+
+            return count;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see java.io.FilterInputStream#read()
+         */
+        @Override
+        public int read() throws IOException {
+
+            int c = super.read();
+            if (c >= 0) {
+                count++;
+            }
+            return c;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see java.io.FilterInputStream#read(byte[], int, int)
+         */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see java.io.FilterInputStream#skip(long)
+         */
+        @Override
+        public long skip(long n) throws IOException {
+
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * This class loads a font for the cache.
+     */
+    private class FontLoader implements FontCache.Loader {
+
+        /**
+         * The field <tt>key</tt> contains the font key.
+         */
+        private final FontKey key;
+
+        /**
+         * The field <tt>weight</tt> contains the number of bytes read from the
+         * font file.
+         */
+        private long weight = 0;
+
+        /**
+         * Creates a new object.
+         * 
+         * @param key the font key
+         */
+        public FontLoader(FontKey key) {
+
+            this.key = key;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.font.FontCache.Loader#getWeight()
+         */
+        @Override
+        public long getWeight() {
+
+            return weight;
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.font.FontCache.Loader#load()
+         */
+        @Override
+        public LoadableFont load()
+                throws ConfigurationException,
+                    FontException {
+
+            Iterator<Configuration> it = getConfiguration().iterator("Font");
+            while (it.hasNext()) {
+                Configuration subcfg = it.next();
+
+                String attType = subcfg.getAttribute("type");
+
+                InputStream in = finder.findResource(key.getName(), attType);
+
+                if (in != null) {
+
+                    LoadableFont font = new Loader().getInstance(subcfg);
+
+                    if (font instanceof DerivableFont) {
+                        FontKey base = keyFactory.newInstance(key.getName());
+                        if (!base.toString().equals(key.toString())) {
+                            ExtexFont f = getInstance(base);
+                            if (f instanceof DerivableFont) {
+                                close(in);
+                                return ((DerivableFont) f).deriveFont(
+                                    FontFactoryImpl.this, key);
+                            }
+                        }
+                    }
+
+                    if (font instanceof ResourceAware) {
+                        ((ResourceAware) font).setResourceFinder(finder);
+                    }
+                    if (font instanceof LogEnabled) {
+                        ((LogEnabled) font).enableLogging(getLogger());
+                    }
+                    if (font instanceof FontAware) {
+                        ((FontAware) font).setFontFactory(FontFactoryImpl.this);
+                    }
+                    CountingInputStream counter = new CountingInputStream(in);
+                    font.loadFont(counter, FontFactoryImpl.this, key);
+                    weight = counter.getCount();
+
+                    return font;
+                }
+
+            }
+
+            return null;
+        }
+    }
+
     /**
      * Loader for the abstract factory.
      */
@@ -108,15 +356,28 @@ public class FontFactoryImpl extends AbstractFactory<Object>
     private static final NullExtexFont NULLFONT = new NullExtexFont();
 
     /**
-     * the file finder
+     * Close a stream and ignore any error.
+     * 
+     * @param in the stream
      */
-    private ResourceFinder finder;
+    private static void close(InputStream in) {
+
+        try {
+            in.close();
+        } catch (IOException e) {
+            // ignored
+        }
+    }
 
     /**
-     * Font map.
+     * The font cache.
      */
-    private Map<FontKey, LoadableFont> fontMap =
-            new WeakHashMap<FontKey, LoadableFont>();
+    private FontCache cache = FontCache.getShared();
+
+    /**
+     * the file finder
+     */
+    private ResourceFinder finder;
 
     /**
      * The font key factory.
@@ -202,10 +463,6 @@ public class FontFactoryImpl extends AbstractFactory<Object>
             return null;
         }
 
-        LoadableFont font = fontMap.get(key);
-        if (font != null && font instanceof BackendFont) {
-            return (BackendFont) font;
-        }
         ExtexFont f = getInstance(key);
         if (f != null && f instanceof BackendFont) {
             return (BackendFont) f;
@@ -286,7 +543,8 @@ public class FontFactoryImpl extends AbstractFactory<Object>
      * returned.
      * 
      * If the font is found in the cache, the cached object is returned,
-     * otherwise, the font is loaded from a file.
+     * otherwise, the font is loaded from a file or derived from the font at
+     * the design size.
      * 
      * @param key the fount key
      * 
@@ -304,44 +562,18 @@ public class FontFactoryImpl extends AbstractFactory<Object>
             return NULLFONT;
         }
 
-        // in the cache
-        LoadableFont font = fontMap.get(key);
-        if (font != null) {
-            return font;
-        }
-
-        Iterator<Configuration> it = getConfiguration().iterator("Font");
-        while (it.hasNext()) {
-            Configuration subcfg = it.next();
-
-            String attType = subcfg.getAttribute("type");
-
-            InputStream in = finder.findResource(key.getName(), attType);
-
-            if (in != null) {
-
-                font = new Loader().getInstance(subcfg);
-                if (font instanceof ResourceAware) {
-                    ((ResourceAware) font).setResourceFinder(finder);
-                }
-                if (font instanceof LogEnabled) {
-                    ((LogEnabled) font).enableLogging(getLogger());
-                }
-                if (font instanceof FontAware) {
-                    ((FontAware) font).setFontFactory(this);
-                }
-
-                font.loadFont(in, this, key);
-
-                // store in the cache
-                fontMap.put(key, font);
-
-                return font;
-            }
+        return cache.get(new CacheKey(getConfiguration(), finder, key),
+            new FontLoader(key));
+    }
 
-        }
+    /**
+     * Getter for the font cache.
+     * 
+     * @return the font cache
+     */
+    public FontCache getFontCache() {
 
-        return null;
+        return cache;
     }
 
     /**
@@ -354,6 +586,17 @@ public class FontFactoryImpl extends AbstractFactory<Object>
         return prop;
     }
 
+    /**
+     * Setter for the font cache. This can be used to separate the fonts of
+     * this factory from the fonts of other factories.
+     * 
+     * @param cache the font cache
+     */
+    public void setFontCache(FontCache cache) {
+
+        this.cache = cache;
+    }
+
     /**
      * @see org.extex.resource.PropertyAware#setProperties(java.util.Properties)
      */
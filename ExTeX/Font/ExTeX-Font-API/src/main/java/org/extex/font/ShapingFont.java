@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.font;
+
+import org.extex.core.UnicodeChar;
+
+/**
+ * This interface describes a font which can apply its ligatures and kerning
+ * to a whole run of characters at once. This is an alternative to asking the
+ * font for each pair of characters with
+ * {@link ExtexFont#getLigature(UnicodeChar, UnicodeChar) getLigature()} and
+ * {@link ExtexFont#getKerning(UnicodeChar, UnicodeChar) getKerning()}.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public interface ShapingFont {
+
+    /**
+     * Shape a run of characters. The ligatures are applied in place; i.e.
+     * the characters replaced by a ligature are removed from the run and the
+     * remaining characters are moved to the front. The kerning between the
+     * resulting characters is stored in the array <tt>kerning</tt>: the
+     * element at index <i>i</i> contains the kern in scaled points to be
+     * inserted after the character at index <i>i</i>.
+     *
+     * @param run the characters; they are overwritten with the result
+     * @param length the number of characters in the run
+     * @param kerning the array for the kerning; it must be at least as long
+     *        as the run. It can be <code>null</code> if the kerning is not
+     *        needed
+     *
+     * @return the number of characters in the run after the ligatures have
+     *         been applied
+     */
+    int shape(UnicodeChar[] run, int length, long[] kerning);
+
+}
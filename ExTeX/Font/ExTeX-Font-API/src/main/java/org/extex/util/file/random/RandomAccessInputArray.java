@@ -210,12 +210,11 @@ public class RandomAccessInputArray implements RandomAccessR {
      */
     private void readBytes(byte[] b, int off, int len) {
 
-        for (int i = 0; i < len; i++) {
-            b[off + i] = buffer[pointer++];
-            if (pointer >= buffer.length) {
-                throw new IndexOutOfBoundsException();
-            }
+        if (len > buffer.length - pointer) {
+            throw new IndexOutOfBoundsException();
         }
+        System.arraycopy(buffer, pointer, b, off, len);
+        pointer += len;
     }
 
     /**
@@ -0,0 +1,594 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.util.file.random;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.extex.resource.io.NamedInputStream;
+
+/**
+ * RandomAccess for a file mapped into memory.
+ * <p>
+ * The data is held in a read-only byte buffer. Larger files are mapped into
+ * memory; small files are read into the heap with a single read operation.
+ * The values are decoded from the buffer directly. Thus no system call is
+ * needed per field as for {@link RandomAccessInputFile RandomAccessInputFile}
+ * and the file is not copied as for {@link RandomAccessInputStream
+ * RandomAccessInputStream}.
+ * </p>
+ * <p>
+ * A part of the data, e.g. a table of a font, can be accessed via
+ * {@link #slice(long, int) slice()} without copying it.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class RandomAccessInputMapped implements RandomAccessR {
+
+    /**
+     * The constant <tt>MAP_THRESHOLD</tt> contains the minimal size of a file
+     * to be mapped into memory. Smaller files are read into the heap.
+     */
+    private static final long MAP_THRESHOLD = 0x4000;
+
+    /**
+     * The constant <tt>XFF</tt> contains the mask for a byte.
+     */
+    private static final int XFF = 0xff;
+
+    /**
+     * Read a part of a channel into a byte buffer. Larger parts are mapped
+     * into memory.
+     *
+     * @param channel the channel
+     * @param position the start position
+     * @param size the number of bytes
+     *
+     * @return the buffer
+     *
+     * @throws IOException in case of an I/O error
+     */
+    private static ByteBuffer map(FileChannel channel, long position,
+            long size) throws IOException {
+
+        if (size >= MAP_THRESHOLD) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Map a file into memory.
+     *
+     * @param file the file
+     *
+     * @return the buffer
+     *
+     * @throws IOException in case of an I/O error
+     */
+    private static ByteBuffer map(File file) throws IOException {
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            return map(channel, 0, channel.size());
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Create a random access for the remaining contents of a stream. If the
+     * stream is reading from a file then the file is mapped into memory.
+     * Otherwise the stream is read into an array. In both cases the stream is
+     * closed afterwards.
+     *
+     * @param stream the stream
+     *
+     * @return the random access
+     *
+     * @throws IOException if an IO-error occurred
+     */
+    public static RandomAccessR open(InputStream stream) throws IOException {
+
+        FileChannel channel = null;
+        if (stream instanceof NamedInputStream) {
+            channel = ((NamedInputStream) stream).getChannel();
+        } else if (stream instanceof FileInputStream) {
+            channel = ((FileInputStream) stream).getChannel();
+        }
+        if (channel != null) {
+            long position = channel.position();
+            long size = channel.size() - position;
+            if (size < Integer.MAX_VALUE) {
+                try {
+                    return new RandomAccessInputMapped(map(channel, position,
+                        size));
+                } finally {
+                    stream.close();
+                }
+            }
+        }
+        return new RandomAccessInputStream(stream);
+    }
+
+    /**
+     * The field <tt>buffer</tt> contains the data. The position of the buffer
+     * is the pointer.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Create a new object.
+     *
+     * @param buffer the buffer; the data between its position and its limit is
+     *        used
+     */
+    public RandomAccessInputMapped(ByteBuffer buffer) {
+
+        this.buffer = buffer.slice();
+    }
+
+    /**
+     * Create a new object.
+     *
+     * @param file file for reading
+     *
+     * @throws IOException if an IO-error occurred
+     */
+    public RandomAccessInputMapped(File file) throws IOException {
+
+        this(map(file));
+    }
+
+    /**
+     * Create a new object.
+     *
+     * @param filename file name for reading
+     *
+     * @throws IOException if an IO-error occurred
+     */
+    public RandomAccessInputMapped(String filename) throws IOException {
+
+        this(new File(filename));
+    }
+
+    /**
+     * Check that the given number of bytes can be read.
+     *
+     * @param n the number of bytes
+     *
+     * @throws EOFException if less bytes are left
+     */
+    private void check(int n) throws EOFException {
+
+        if (buffer.remaining() < n) {
+            throw new EOFException();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.util.file.random.RandomAccessR#close()
+     */
+    @Override
+    public void close() {
+
+        buffer = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The data is copied unless it is backed by an array of the same size.
+     * </p>
+     *
+     * @see org.extex.util.file.random.RandomAccessR#getData()
+     */
+    @Override
+    public byte[] getData() {
+
+        if (buffer.hasArray() && buffer.arrayOffset() == 0
+                && buffer.array().length == buffer.limit()) {
+            return buffer.array();
+        }
+        byte[] data = new byte[buffer.limit()];
+        ByteBuffer b = buffer.duplicate();
+        b.clear();
+        b.get(data);
+        return data;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.util.file.random.RandomAccessR#getPointer()
+     */
+    @Override
+    public long getPointer() {
+
+        return buffer.position();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.util.file.random.RandomAccessR#isEOF()
+     */
+    @Override
+    public boolean isEOF() {
+
+        return !buffer.hasRemaining();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.util.file.random.RandomAccessR#length()
+     */
+    @Override
+    public long length() {
+
+        if (buffer != null) {
+            return buffer.limit();
+        }
+        return -1;
+    }
+
+    /**
+     * Reads a byte of data. The byte is returned as an integer in the range 0
+     * to 255 (<code>0x00-0xff</code>).
+     *
+     * @return the next byte of data, or <code>-1</code> if the end of the data
+     *         has been reached.
+     */
+    public int read() {
+
+        if (buffer.hasRemaining()) {
+            return buffer.get() & XFF;
+        }
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readBoolean()
+     */
+    @Override
+    public boolean readBoolean() throws IOException {
+
+        check(1);
+        return buffer.get() != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readByte()
+     */
+    @Override
+    public byte readByte() throws IOException {
+
+        check(1);
+        return buffer.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.util.file.random.RandomAccessR#readByteAsInt()
+     */
+    @Override
+    public int readByteAsInt() throws IOException {
+
+        check(1);
+        return buffer.get() & XFF;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readChar()
+     */
+    @Override
+    public char readChar() throws IOException {
+
+        check(2);
+        return buffer.getChar();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readDouble()
+     */
+    @Override
+    public double readDouble() throws IOException {
+
+        check(8);
+        return buffer.getDouble();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readFloat()
+     */
+    @Override
+    public float readFloat() throws IOException {
+
+        check(4);
+        return buffer.getFloat();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readFully(byte[])
+     */
+    @Override
+    public void readFully(byte[] b) throws IOException {
+
+        readFully(b, 0, b.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readFully(byte[], int, int)
+     */
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+
+        check(len);
+        buffer.get(b, off, len);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readInt()
+     */
+    @Override
+    public int readInt() throws IOException {
+
+        check(4);
+        return buffer.getInt();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.util.file.random.RandomAccessR#readInt16()
+     */
+    @Override
+    public int readInt16() throws IOException {
+
+        check(2);
+        return buffer.getShort() & 0xffff;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.util.file.random.RandomAccessR#readInt24()
+     */
+    @Override
+    public int readInt24() throws IOException {
+
+        check(3);
+        int ch1 = buffer.get() & XFF;
+        return (ch1 << 16) | (buffer.getShort() & 0xffff);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.util.file.random.RandomAccessR#readInt8()
+     */
+    @Override
+    public int readInt8() {
+
+        return read();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readLine()
+     */
+    @Override
+    public String readLine() {
+
+        StringBuilder input = new StringBuilder();
+        int c = -1;
+        boolean eol = false;
+
+        while (!eol) {
+            c = read();
+            switch (c) {
+                case -1:
+                case '\n':
+                    eol = true;
+                    break;
+                case '\r':
+                    eol = true;
+                    if (buffer.hasRemaining()
+                            && buffer.get(buffer.position()) == '\n') {
+                        buffer.get();
+                    }
+                    break;
+                default:
+                    input.append((char) c);
+                    break;
+            }
+        }
+
+        if ((c == -1) && (input.length() == 0)) {
+            return null;
+        }
+        return input.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readLong()
+     */
+    @Override
+    public long readLong() throws IOException {
+
+        check(8);
+        return buffer.getLong();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readShort()
+     */
+    @Override
+    public short readShort() throws IOException {
+
+        check(2);
+        return buffer.getShort();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.util.file.random.RandomAccessR#readSignInt24()
+     */
+    @Override
+    public int readSignInt24() throws IOException {
+
+        int v = readInt24();
+        if ((v & X24) > 0) {
+            v = -((~(v | KILL32)) + 1);
+        }
+        return v;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readUnsignedByte()
+     */
+    @Override
+    public int readUnsignedByte() throws IOException {
+
+        return readByteAsInt();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readUnsignedShort()
+     */
+    @Override
+    public int readUnsignedShort() throws IOException {
+
+        return readInt16();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#readUTF()
+     */
+    @Override
+    public String readUTF() throws IOException {
+
+        return DataInputStream.readUTF(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.util.file.random.RandomAccessR#seek(long)
+     */
+    @Override
+    public void seek(long pos) throws IOException {
+
+        if (buffer == null || pos < 0 || pos >= buffer.limit()) {
+            throw new EOFException();
+        }
+        buffer.position((int) pos);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.DataInput#skipBytes(int)
+     */
+    @Override
+    public int skipBytes(int n) {
+
+        if (n <= 0) {
+            return 0;
+        }
+        int skip = Math.min(n, buffer.remaining());
+        buffer.position(buffer.position() + skip);
+        return skip;
+    }
+
+    /**
+     * Create a random access for a part of the data. The data is shared and
+     * not copied. The pointer of the new instance is 0 and corresponds to the
+     * offset in this instance.
+     *
+     * @param offset the start of the part
+     * @param length the length of the part
+     *
+     * @return the random access for the part
+     *
+     * @throws IOException if the part is not contained in the data
+     */
+    public RandomAccessInputMapped slice(long offset, int length)
+            throws IOException {
+
+        if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+            throw new EOFException();
+        }
+        ByteBuffer b = buffer.duplicate();
+        b.limit((int) offset + length);
+        b.position((int) offset);
+        return new RandomAccessInputMapped(b);
+    }
+
+}
@@ -19,7 +19,6 @@
 
 package org.extex.util.file.random;
 
-import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
@@ -218,12 +217,11 @@ public class RandomAccessInputStream implements RandomAccessR {
      */
     private void readBytes(byte[] b, int off, int len) {
 
-        for (int i = 0; i < len; i++) {
-            b[off + i] = buffer[pointer++];
-            if (pointer >= buffer.length) {
-                throw new IndexOutOfBoundsException();
-            }
+        if (len > buffer.length - pointer) {
+            throw new IndexOutOfBoundsException();
         }
+        System.arraycopy(buffer, pointer, b, off, len);
+        pointer += len;
     }
 
     /**
@@ -526,25 +524,19 @@ public class RandomAccessInputStream implements RandomAccessR {
      */
     private byte[] readStream(InputStream iostream) throws IOException {
 
-        BufferedInputStream bufin =
-                new BufferedInputStream(iostream, BLOCKSIZE);
-
         int count = 0;
-        byte[] buf = new byte[BLOCKSIZE];
+        byte[] buf = new byte[Math.max(BLOCKSIZE, iostream.available() + 1)];
 
         int read;
-        while ((read = bufin.read()) != -1) {
+        while ((read = iostream.read(buf, count, buf.length - count)) >= 0) {
 
-            int newcount = count + 1;
-            if (newcount > buf.length) {
-                byte[] newbuf = new byte[buf.length + BLOCKSIZE];
+            count += read;
+            if (count == buf.length) {
+                byte[] newbuf = new byte[2 * buf.length];
                 System.arraycopy(buf, 0, newbuf, 0, count);
                 buf = newbuf;
             }
-            buf[count] = (byte) read;
-            count = newcount;
         }
-        bufin.close();
         iostream.close();
 
         byte[] newbuf = new byte[count];
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.font;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.InputStream;
+
+import org.extex.font.format.NullExtexFont;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This is a test suite for the {@link FontCache FontCache}.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class FontCacheTest {
+
+    /**
+     * This class provides a loader which counts its invocations.
+     */
+    private static class CountingLoader implements FontCache.Loader {
+
+        /**
+         * The field <tt>count</tt> contains the number of loads.
+         */
+        private int count = 0;
+
+        /**
+         * The field <tt>font</tt> contains the font to deliver.
+         */
+        private final LoadableFont font;
+
+        /**
+         * The field <tt>weight</tt> contains the weight.
+         */
+        private final long weight;
+
+        /**
+         * Creates a new object.
+         *
+         * @param font the font to deliver
+         * @param weight the weight
+         */
+        public CountingLoader(LoadableFont font, long weight) {
+
+            this.font = font;
+            this.weight = weight;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.font.FontCache.Loader#getWeight()
+         */
+        @Override
+        public long getWeight() {
+
+            return weight;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.font.FontCache.Loader#load()
+         */
+        @Override
+        public synchronized LoadableFont load() {
+
+            count++;
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return font;
+        }
+    }
+
+    /**
+     * This class provides a loadable font without characters.
+     */
+    private static class TestFont extends NullExtexFont
+            implements
+                LoadableFont {
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.font.LoadableFont#loadFont(java.io.InputStream,
+         *      org.extex.font.CoreFontFactory, org.extex.font.FontKey)
+         */
+        @Override
+        public void loadFont(InputStream in, CoreFontFactory factory,
+                FontKey fontKey) {
+
+            // nothing to load
+        }
+    }
+
+    /**
+     * The command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(FontCacheTest.class);
+    }
+
+    /**
+     * <testcase> Test that a font is loaded once and then answered from the
+     * cache. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testGet1() throws Exception {
+
+        FontCache cache = new FontCache(10, 1000);
+        LoadableFont font = new TestFont();
+        CountingLoader loader = new CountingLoader(font, 1);
+        assertSame(font, cache.get("a", loader));
+        assertSame(font, cache.get("a", loader));
+        assertEquals(1, loader.count);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getLoads());
+    }
+
+    /**
+     * <testcase> Test that a font which can not be found is not cached.
+     * </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testGet2() throws Exception {
+
+        FontCache cache = new FontCache(10, 1000);
+        CountingLoader loader = new CountingLoader(null, 1);
+        assertNull(cache.get("a", loader));
+        assertNull(cache.get("a", loader));
+        assertEquals(2, loader.count);
+        assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * <testcase> Test that concurrent requests for the same key load the font
+     * once only. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testGet3() throws Exception {
+
+        final FontCache cache = new FontCache(10, 1000);
+        final LoadableFont font = new TestFont();
+        final CountingLoader loader = new CountingLoader(font, 1);
+        final LoadableFont[] result = new LoadableFont[8];
+        Thread[] threads = new Thread[result.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+
+                /**
+                 * {@inheritDoc}
+                 *
+                 * @see java.lang.Thread#run()
+                 */
+                @Override
+                public void run() {
+
+                    try {
+                        result[index] = cache.get("a", loader);
+                    } catch (Exception e) {
+                        // leave the result empty
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(1, loader.count);
+        for (LoadableFont f : result) {
+            assertSame(font, f);
+        }
+    }
+
+    /**
+     * <testcase> Test that the least recently used font is evicted when the
+     * number of fonts exceeds the limit. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testEvictSize() throws Exception {
+
+        FontCache cache = new FontCache(2, 1000);
+        CountingLoader a = new CountingLoader(new TestFont(), 1);
+        CountingLoader b = new CountingLoader(new TestFont(), 1);
+        CountingLoader c = new CountingLoader(new TestFont(), 1);
+        cache.get("a", a);
+        cache.get("b", b);
+        cache.get("a", a);
+        cache.get("c", c);
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+        cache.get("a", a);
+        assertEquals(1, a.count);
+        cache.get("b", b);
+        assertEquals(2, b.count);
+    }
+
+    /**
+     * <testcase> Test that fonts are evicted when the weight exceeds the
+     * limit. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testEvictWeight() throws Exception {
+
+        FontCache cache = new FontCache(10, 100);
+        cache.get("a", new CountingLoader(new TestFont(), 60));
+        cache.get("b", new CountingLoader(new TestFont(), 30));
+        assertEquals(90, cache.getWeight());
+        cache.get("c", new CountingLoader(new TestFont(), 20));
+        assertEquals(2, cache.getSize());
+        assertEquals(50, cache.getWeight());
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.util.file.random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.extex.resource.io.NamedInputStream;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This is a test suite for the {@link RandomAccessInputMapped
+ * RandomAccessInputMapped}.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class RandomAccessInputMappedTest {
+
+    /**
+     * The field <tt>DATA</tt> contains the test data.
+     */
+    private static final byte[] DATA = {1, 2, 3, (byte) 0xff, (byte) 0xfe,
+            'a', '\r', '\n', 'b'};
+
+    /**
+     * The command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(RandomAccessInputMappedTest.class);
+    }
+
+    /**
+     * Write data to a temporary file.
+     *
+     * @param data the data
+     *
+     * @return the file
+     *
+     * @throws IOException in case of an error
+     */
+    private static File makeFile(byte[] data) throws IOException {
+
+        File file = File.createTempFile("extex", ".bin");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /**
+     * <testcase> Test that the numbers are decoded big-endian.
+     * </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testRead1() throws Exception {
+
+        RandomAccessR r = new RandomAccessInputMapped(ByteBuffer.wrap(DATA));
+        assertEquals(9, r.length());
+        assertEquals(0x0102, r.readInt16());
+        assertEquals(0x03fffe, r.readInt24());
+        r.seek(2);
+        assertEquals(0x03fffe61, r.readInt());
+        r.seek(3);
+        assertEquals(-2, r.readSignInt24() >> 8);
+        r.seek(3);
+        assertEquals(-1, r.readByte());
+        assertEquals(0xfe, r.readUnsignedByte());
+        assertEquals(5, r.getPointer());
+    }
+
+    /**
+     * <testcase> Test that lines are split at CR LF and that the end of the
+     * data is reported. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testReadLine1() throws Exception {
+
+        RandomAccessR r = new RandomAccessInputMapped(ByteBuffer.wrap(DATA));
+        r.seek(5);
+        assertEquals("a", r.readLine());
+        assertEquals("b", r.readLine());
+        assertTrue(r.isEOF());
+        assertNull(r.readLine());
+    }
+
+    /**
+     * <testcase> Test that reading the last bytes succeeds and reading beyond
+     * the end fails. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testReadFully1() throws Exception {
+
+        RandomAccessR r = new RandomAccessInputMapped(ByteBuffer.wrap(DATA));
+        byte[] b = new byte[DATA.length];
+        r.readFully(b);
+        assertArrayEquals(DATA, b);
+        assertEquals(-1, r.readInt8());
+        try {
+            r.readInt16();
+            assertFalse(true);
+        } catch (EOFException e) {
+            assertTrue(true);
+        }
+    }
+
+    /**
+     * <testcase> Test that a slice starts at its offset and ends at its
+     * length. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testSlice1() throws Exception {
+
+        RandomAccessInputMapped r =
+                new RandomAccessInputMapped(ByteBuffer.wrap(DATA));
+        RandomAccessInputMapped s = r.slice(3, 2);
+        assertEquals(2, s.length());
+        assertEquals(0xfffe, s.readInt16());
+        assertTrue(s.isEOF());
+        assertArrayEquals(new byte[]{(byte) 0xff, (byte) 0xfe}, s.getData());
+        assertEquals(0, r.getPointer());
+    }
+
+    /**
+     * <testcase> Test that a file is read completely. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testFile1() throws Exception {
+
+        File file = makeFile(DATA);
+        RandomAccessR r = new RandomAccessInputMapped(file);
+        assertArrayEquals(DATA, r.getData());
+        r.close();
+        file.delete();
+    }
+
+    /**
+     * <testcase> Test that a large file is mapped and read from the current
+     * position of a stream. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testOpen1() throws Exception {
+
+        byte[] data = new byte[0x10000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        File file = makeFile(data);
+        FileInputStream in = new FileInputStream(file);
+        in.skip(0x100);
+        RandomAccessR r =
+                RandomAccessInputMapped.open(new NamedInputStream(in, file
+                    .toString()));
+        assertTrue(r instanceof RandomAccessInputMapped);
+        assertEquals(0x10000 - 0x100, r.length());
+        r.seek(0xfe00);
+        assertEquals(0x00010203, r.readInt());
+        r.close();
+        file.delete();
+    }
+
+    /**
+     * <testcase> Test that other streams are read into memory. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testOpen2() throws Exception {
+
+        RandomAccessR r =
+                RandomAccessInputMapped.open(new ByteArrayInputStream(DATA));
+        assertArrayEquals(DATA, r.getData());
+    }
+
+}
@@ -33,8 +33,7 @@ import java.util.List;
 
 import org.extex.font.exception.FontException;
 import org.extex.util.file.random.RandomAccessInputArray;
-import org.extex.util.file.random.RandomAccessInputFile;
-import org.extex.util.file.random.RandomAccessInputStream;
+import org.extex.util.file.random.RandomAccessInputMapped;
 import org.extex.util.file.random.RandomAccessR;
 import org.extex.util.xml.XMLStreamWriter;
 import org.extex.util.xml.XMLWriterConvertible;
@@ -232,7 +231,7 @@ public class PfbParser implements XMLWriterConvertible, Serializable {
     public PfbParser(File file) throws FontException {
 
         try {
-            parsePfb(new RandomAccessInputFile(file));
+            parsePfb(new RandomAccessInputMapped(file));
         } catch (IOException e) {
             throw new FontException(e.getMessage());
         }
@@ -247,7 +246,7 @@ public class PfbParser implements XMLWriterConvertible, Serializable {
     public PfbParser(InputStream in) throws FontException {
 
         try {
-            parsePfb(new RandomAccessInputStream(in));
+            parsePfb(RandomAccessInputMapped.open(in));
         } catch (IOException e) {
             throw new FontException(e.getMessage());
         }
@@ -262,7 +261,7 @@ public class PfbParser implements XMLWriterConvertible, Serializable {
     public PfbParser(String filename) throws FontException {
 
         try {
-            parsePfb(new RandomAccessInputFile(filename));
+            parsePfb(new RandomAccessInputMapped(filename));
         } catch (IOException e) {
             throw new FontException(e.getMessage());
         }
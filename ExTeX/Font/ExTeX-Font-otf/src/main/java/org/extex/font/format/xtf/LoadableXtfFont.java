@@ -21,6 +21,7 @@ package org.extex.font.format.xtf;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -36,9 +37,12 @@ import org.extex.font.BackendFont;
 import org.extex.font.CoreFontFactory;
 import org.extex.font.FontKey;
 import org.extex.font.LoadableFont;
+import org.extex.font.ShapingFont;
 import org.extex.font.exception.CorruptFontException;
 import org.extex.font.format.XtfMetricFont;
 import org.extex.font.format.xtf.tables.XtfBoundingBox;
+import org.extex.font.format.xtf.tables.tag.FeatureTag;
+import org.extex.font.format.xtf.tables.tag.ScriptTag;
 import org.extex.font.unicode.GlyphName;
 import org.extex.framework.configuration.exception.ConfigurationException;
 import org.extex.framework.logger.LogEnabled;
@@ -58,6 +62,7 @@ public class LoadableXtfFont
             LoadableFont,
             XtfMetricFont,
             BackendFont,
+            ShapingFont,
             LogEnabled {
 
     /**
@@ -90,6 +95,11 @@ public class LoadableXtfFont
      */
     private XtfReader reader;
 
+    /**
+     * The shaper with the compiled features; it is created on demand.
+     */
+    private XtfShaper shaper = null;
+
     /**
      * {@inheritDoc}
      * 
@@ -302,14 +312,13 @@ public class LoadableXtfFont
      */
     public FixedDimen getKerning(UnicodeChar uc1, UnicodeChar uc2) {
 
-        // TODO mgn: nokerning beachten
-
         int size = 0;
 
         if (uc1 != null && uc2 != null) {
+            XtfShaper s = getShaper();
             size =
-                    reader.mapCharCodetoKerning(uc1.getCodePoint(), uc2
-                        .getCodePoint(), fontnumber, (short) 3, (short) 1);
+                    s.getKerning(s.getGlyph(uc1.getCodePoint()), s
+                        .getGlyph(uc2.getCodePoint()));
         }
 
         return intToDimen(size);
@@ -323,8 +332,51 @@ public class LoadableXtfFont
      */
     public UnicodeChar getLigature(UnicodeChar uc1, UnicodeChar uc2) {
 
-        // TODO mgn: getLigature unimplemented
-        return null;
+        if (uc1 == null || uc2 == null) {
+            return null;
+        }
+        XtfShaper s = getShaper();
+        int lig =
+                s.getLigature(s.getGlyph(uc1.getCodePoint()), s.getGlyph(uc2
+                    .getCodePoint()));
+        return (lig < 0 ? null : UnicodeChar.get(s.getCodePoint(lig)));
+    }
+
+    /**
+     * Getter for the shaper. The ligatures and the kerning are always used
+     * unless they are switched off in the font key. The features named in
+     * the tags of the font key are used in addition.
+     * 
+     * @return the shaper
+     */
+    private synchronized XtfShaper getShaper() {
+
+        if (shaper == null) {
+            ScriptTag script = ScriptTag.getInstance("latn");
+            List<FeatureTag> features = new ArrayList<FeatureTag>();
+            features.add(FeatureTag.getInstance("liga"));
+            features.add(FeatureTag.getInstance("kern"));
+            for (String tag : actualFontKey.getTags()) {
+                if (ScriptTag.isInList(tag)) {
+                    script = ScriptTag.getInstance(tag);
+                } else if (FeatureTag.isInList(tag)) {
+                    FeatureTag feature = FeatureTag.getInstance(tag);
+                    if (!features.contains(feature)) {
+                        features.add(feature);
+                    }
+                }
+            }
+            if (actualFontKey.hasBoolean(FontKey.LIGATURES)
+                    && !actualFontKey.getBoolean(FontKey.LIGATURES)) {
+                features.remove(FeatureTag.getInstance("liga"));
+            }
+            if (actualFontKey.hasBoolean(FontKey.KERNING)
+                    && !actualFontKey.getBoolean(FontKey.KERNING)) {
+                features.remove(FeatureTag.getInstance("kern"));
+            }
+            shaper = new XtfShaper(reader, script, null, features, true);
+        }
+        return shaper;
     }
 
     /**
@@ -451,10 +503,19 @@ public class LoadableXtfFont
      */
     private FixedDimen intToDimen(int val) {
 
-        int i = val * 1000 / reader.getUnitsPerEm();
-        long l = getActualSize().getValue() * i / 1000;
+        return new Dimen(intToScaled(val));
+    }
 
-        return new Dimen(l);
+    /**
+     * Convert a int value to scaled points.
+     * 
+     * @param val the value in font design units
+     * @return the value in scaled points
+     */
+    private long intToScaled(int val) {
+
+        int i = val * 1000 / reader.getUnitsPerEm();
+        return getActualSize().getValue() * i / 1000;
     }
 
     /**
@@ -515,6 +576,39 @@ public class LoadableXtfFont
 
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.font.ShapingFont#shape(org.extex.core.UnicodeChar[],
+     *      int, long[])
+     */
+    public int shape(UnicodeChar[] run, int length, long[] kerning) {
+
+        XtfShaper s = getShaper();
+        int[] glyphs = new int[length];
+        int[] source = new int[length];
+        int[] kern = (kerning == null ? null : new int[length]);
+        for (int i = 0; i < length; i++) {
+            glyphs[i] = s.getGlyph(run[i].getCodePoint());
+        }
+        int n = s.shape(glyphs, length, kern, source);
+        for (int i = 0; i < n; i++) {
+            int from = source[i];
+            int to = (i + 1 < n ? source[i + 1] : length);
+            // characters passed unchanged keep their identity
+            if (to != from + 1
+                    || glyphs[i] != s.getGlyph(run[from].getCodePoint())) {
+                run[i] = UnicodeChar.get(s.getCodePoint(glyphs[i]));
+            } else {
+                run[i] = run[from];
+            }
+            if (kerning != null) {
+                kerning[i] = (kern[i] == 0 ? 0 : intToScaled(kern[i]));
+            }
+        }
+        return n;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -22,8 +22,7 @@ package org.extex.font.format.xtf;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.nio.ByteBuffer;
 import java.util.Date;
 import java.util.List;
 import java.util.logging.Logger;
@@ -89,8 +88,7 @@ import org.extex.font.format.xtf.tables.gps.OtfTableGSUB;
 import org.extex.font.format.xtf.tables.gps.XtfScriptList.LangSys;
 import org.extex.font.format.xtf.tables.tag.LanguageSystemTag;
 import org.extex.font.format.xtf.tables.tag.ScriptTag;
-import org.extex.util.file.random.RandomAccessInputFile;
-import org.extex.util.file.random.RandomAccessInputStream;
+import org.extex.util.file.random.RandomAccessInputMapped;
 import org.extex.util.file.random.RandomAccessR;
 import org.extex.util.xml.XMLStreamWriter;
 import org.extex.util.xml.XMLWriterConvertible;
@@ -487,6 +485,11 @@ public class XtfReader implements XMLWriterConvertible {
      */
     private byte[] fontdata;
 
+    /**
+     * The input. Each table is created from a view of its own.
+     */
+    private RandomAccessInputMapped input;
+
     /**
      * Table glyf (required).
      */
@@ -565,7 +568,7 @@ public class XtfReader implements XMLWriterConvertible {
      */
     public XtfReader(File file) throws IOException {
 
-        this(new RandomAccessInputFile(file), null);
+        this(new RandomAccessInputMapped(file), null);
     }
 
     /**
@@ -577,7 +580,7 @@ public class XtfReader implements XMLWriterConvertible {
      */
     public XtfReader(File file, Logger logger) throws IOException {
 
-        this(new RandomAccessInputFile(file), logger);
+        this(new RandomAccessInputMapped(file), logger);
     }
 
     /**
@@ -588,7 +591,7 @@ public class XtfReader implements XMLWriterConvertible {
      */
     public XtfReader(InputStream iostream) throws IOException {
 
-        this(new RandomAccessInputStream(iostream), null);
+        this(RandomAccessInputMapped.open(iostream), null);
     }
 
     /**
@@ -600,7 +603,7 @@ public class XtfReader implements XMLWriterConvertible {
      */
     public XtfReader(InputStream iostream, Logger logger) throws IOException {
 
-        this(new RandomAccessInputStream(iostream), logger);
+        this(RandomAccessInputMapped.open(iostream), logger);
     }
 
     /**
@@ -631,7 +634,21 @@ public class XtfReader implements XMLWriterConvertible {
 
         }
         type = TTF;
-        tablemap = new XtfTableMap();
+        tablemap = new XtfTableMap(new XtfTableMap.TableFactory() {
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.font.format.xtf.tables.XtfTableMap.TableFactory#create(org.extex.font.format.xtf.tables.XtfTableDirectory.Entry)
+             */
+            @Override
+            public XtfTable create(XtfTableDirectory.Entry entry)
+                    throws IOException {
+
+                return XtfReader.this.create(entry, input.slice(0,
+                    (int) input.length()));
+            }
+        });
         read(rar);
     }
 
@@ -643,7 +660,7 @@ public class XtfReader implements XMLWriterConvertible {
      */
     public XtfReader(String filename) throws IOException {
 
-        this(new RandomAccessInputFile(filename), null);
+        this(new RandomAccessInputMapped(filename), null);
     }
 
     /**
@@ -655,7 +672,7 @@ public class XtfReader implements XMLWriterConvertible {
      */
     public XtfReader(String filename, Logger logger) throws IOException {
 
-        this(new RandomAccessInputFile(filename), logger);
+        this(new RandomAccessInputMapped(filename), logger);
     }
 
     /**
@@ -674,11 +691,9 @@ public class XtfReader implements XMLWriterConvertible {
         switch (de.getTag()) {
             case GPOS:
                 t = new OtfTableGPOS(tablemap, de, rar);
-                type = OTF;
                 break;
             case GSUB:
                 t = new OtfTableGSUB(tablemap, de, rar);
-                type = OTF;
                 break;
             case OS_2:
                 t = new TtfTableOS2(tablemap, de, rar);
@@ -739,43 +754,33 @@ public class XtfReader implements XMLWriterConvertible {
                 break;
             case TYP1:
                 t = new OtfTableTYP1(tablemap, de, rar);
-                type = OTF;
                 break;
             case BSLN:
                 t = new OtfTableBSLN(tablemap, de, rar);
-                type = OTF;
                 break;
             case DSIG:
                 t = new OtfTableDSIG(tablemap, de, rar);
-                type = OTF;
                 break;
             case FVAR:
                 t = new OtfTableFVAR(tablemap, de, rar);
-                type = OTF;
                 break;
             case GVAR:
                 t = new OtfTableGVAR(tablemap, de, rar);
-                type = OTF;
                 break;
             case CFF:
                 t = new OtfTableCFF(tablemap, de, rar);
-                type = OTF;
                 break;
             case MMSD:
                 t = new OtfTableMMSD(tablemap, de, rar);
-                type = OTF;
                 break;
             case MMFX:
                 t = new OtfTableMMFX(tablemap, de, rar);
-                type = OTF;
                 break;
             case GDEF:
                 t = new OtfTableGDEF(tablemap, de, rar);
-                type = OTF;
                 break;
             case JSTF:
                 t = new OtfTableJSTF(tablemap, de, rar);
-                type = OTF;
                 break;
             case EBDT:
                 t = new TtfTableEBDT(tablemap, de, rar);
@@ -794,61 +799,48 @@ public class XtfReader implements XMLWriterConvertible {
                 break;
             case ACNT:
                 t = new OtfTableACNT(tablemap, de, rar);
-                type = OTF;
                 break;
             case AVAR:
                 t = new OtfTableAVAR(tablemap, de, rar);
                 break;
             case BDAT:
                 t = new OtfTableBDAT(tablemap, de, rar);
-                type = OTF;
                 break;
             case BLOC:
                 t = new OtfTableBLOC(tablemap, de, rar);
-                type = OTF;
                 break;
             case CVAR:
                 t = new OtfTableCVAR(tablemap, de, rar);
-                type = OTF;
                 break;
             case FEAT:
                 t = new OtfTableFEAT(tablemap, de, rar);
-                type = OTF;
                 break;
             case FDSC:
                 t = new OtfTableFDSC(tablemap, de, rar);
-                type = OTF;
                 break;
             case FMTX:
                 t = new OtfTableFMTX(tablemap, de, rar);
-                type = OTF;
                 break;
             case JUST:
                 t = new OtfTableJUST(tablemap, de, rar);
-                type = OTF;
                 break;
             case LCAR:
                 t = new OtfTableLCAR(tablemap, de, rar);
-                type = OTF;
                 break;
             case MORT:
                 t = new OtfTableMORT(tablemap, de, rar);
-                type = OTF;
                 break;
             // case OPBD :
             // t = new TTFTableOPBD(de, rar);
             // break;
             case PROP:
                 t = new OtfTablePROP(tablemap, de, rar);
-                type = OTF;
                 break;
             case TRAK:
                 t = new OtfTableTRAK(tablemap, de, rar);
-                type = OTF;
                 break;
             case BASE:
                 t = new OtfTableBASE(tablemap, de, rar);
-                type = OTF;
                 break;
             default:
                 t = null;
@@ -918,8 +910,11 @@ public class XtfReader implements XMLWriterConvertible {
      * 
      * @return the data of the font.
      */
-    public byte[] getFontData() {
+    public synchronized byte[] getFontData() {
 
+        if (fontdata == null) {
+            fontdata = input.getData();
+        }
         return fontdata;
     }
 
@@ -1354,6 +1349,46 @@ public class XtfReader implements XMLWriterConvertible {
         return 0;
     }
 
+    /**
+     * Check whether a table tag belongs to a table only present in OTF fonts.
+     * 
+     * @param tag the tag of the table
+     * @return Returns <code>true</code> for an OTF table
+     */
+    private static boolean isOpenTypeTable(int tag) {
+
+        switch (tag) {
+            case GPOS:
+            case GSUB:
+            case TYP1:
+            case BSLN:
+            case DSIG:
+            case FVAR:
+            case GVAR:
+            case CFF:
+            case MMSD:
+            case MMFX:
+            case GDEF:
+            case JSTF:
+            case ACNT:
+            case BDAT:
+            case BLOC:
+            case CVAR:
+            case FEAT:
+            case FDSC:
+            case FMTX:
+            case JUST:
+            case LCAR:
+            case MORT:
+            case PROP:
+            case TRAK:
+            case BASE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Read the TTF.
      * 
@@ -1363,58 +1398,37 @@ public class XtfReader implements XMLWriterConvertible {
     private void read(RandomAccessR rar) throws IOException {
 
         trace("read xtf");
+        if (rar instanceof RandomAccessInputMapped) {
+            input = (RandomAccessInputMapped) rar;
+        } else {
+            input = new RandomAccessInputMapped(ByteBuffer.wrap(rar.getData()));
+            rar.close();
+        }
 
         trace("read directory");
-        tableDirectory = new XtfTableDirectory(rar);
+        tableDirectory =
+                new XtfTableDirectory(input.slice(0, (int) input.length()));
 
-        // Load each of the tables
+        // Register each of the tables; they are created on demand
         for (int i = 0; i < tableDirectory.getNumTables(); i++) {
-            XtfTable t = create(tableDirectory.getEntry(i), rar);
-            if (t != null) {
-                tablemap.put(t.getType(), t);
+            XtfTableDirectory.Entry entry = tableDirectory.getEntry(i);
+            tablemap.register(entry.getTag(), entry);
+            if (isOpenTypeTable(entry.getTag())) {
+                type = OTF;
             }
         }
 
         // Get references to required tables
-        os2 = (TtfTableOS2) getTable(OS_2);
-        cmap = (TtfTableCMAP) getTable(CMAP);
-        glyf = (TtfTableGLYF) getTable(GLYF);
-        head = (TtfTableHEAD) getTable(HEAD);
-        hhea = (TtfTableHHEA) getTable(HHEA);
-        hmtx = (TtfTableHMTX) getTable(HMTX);
-        loca = (TtfTableLOCA) getTable(LOCA);
-        maxp = (TtfTableMAXP) getTable(MAXP);
-        name = (TtfTableNAME) getTable(NAME);
-        post = (TtfTablePOST) getTable(POST);
-
-        // sort tables for init
-        XtfTable[] tabs = tablemap.getTables();
-
-        Arrays.sort(tabs, new Comparator<XtfTable>() {
-
-            /**
-             * @see java.util.Comparator#compare(java.lang.Object,
-             *      java.lang.Object)
-             */
-            @Override
-            public int compare(XtfTable arg0, XtfTable arg1) {
-
-                if (arg0.getInitOrder() > arg1.getInitOrder()) {
-                    return 1;
-                }
-                return 0;
-            }
-        });
-
-        // Initialize tables
-        for (int i = 0; i < tabs.length; i++) {
-            tabs[i].init();
-        }
-
-        fontdata = rar.getData();
-
-        // close
-        rar.close();
+        os2 = (TtfTableOS2) tablemap.load(OS_2);
+        cmap = (TtfTableCMAP) tablemap.load(CMAP);
+        glyf = (TtfTableGLYF) tablemap.load(GLYF);
+        head = (TtfTableHEAD) tablemap.load(HEAD);
+        hhea = (TtfTableHHEA) tablemap.load(HHEA);
+        hmtx = (TtfTableHMTX) tablemap.load(HMTX);
+        loca = (TtfTableLOCA) tablemap.load(LOCA);
+        maxp = (TtfTableMAXP) tablemap.load(MAXP);
+        name = (TtfTableNAME) tablemap.load(NAME);
+        post = (TtfTablePOST) tablemap.load(POST);
     }
 
     /**
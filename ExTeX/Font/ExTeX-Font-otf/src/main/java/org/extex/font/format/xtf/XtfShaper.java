@@ -0,0 +1,931 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.font.format.xtf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.extex.font.format.xtf.tables.TtfTableCMAP.Format;
+import org.extex.font.format.xtf.tables.TtfTableKERN;
+import org.extex.font.format.xtf.tables.TtfTableKERN.KernSubtable;
+import org.extex.font.format.xtf.tables.TtfTableKERN.KerningPair;
+import org.extex.font.format.xtf.tables.XtfTable;
+import org.extex.font.format.xtf.tables.gps.AbstractXtfSFLTable;
+import org.extex.font.format.xtf.tables.gps.Class1Record;
+import org.extex.font.format.xtf.tables.gps.Class2Record;
+import org.extex.font.format.xtf.tables.gps.ClassDefTable;
+import org.extex.font.format.xtf.tables.gps.PairSetTable;
+import org.extex.font.format.xtf.tables.gps.PairValueRecord;
+import org.extex.font.format.xtf.tables.gps.XtfFeatureList.Feature;
+import org.extex.font.format.xtf.tables.gps.XtfGPOSPairTable;
+import org.extex.font.format.xtf.tables.gps.XtfGSUBLigatureTable.Ligature;
+import org.extex.font.format.xtf.tables.gps.XtfGSUBLigatureTable.LigatureSet;
+import org.extex.font.format.xtf.tables.gps.XtfGSUBLigatureTable.LigatureTableFormat1;
+import org.extex.font.format.xtf.tables.gps.XtfGSUBSingleTable;
+import org.extex.font.format.xtf.tables.gps.XtfLookup;
+import org.extex.font.format.xtf.tables.gps.XtfLookupList;
+import org.extex.font.format.xtf.tables.gps.XtfLookupTable;
+import org.extex.font.format.xtf.tables.gps.XtfScriptList.LangSys;
+import org.extex.font.format.xtf.tables.tag.FeatureTag;
+import org.extex.font.format.xtf.tables.tag.LanguageSystemTag;
+import org.extex.font.format.xtf.tables.tag.ScriptTag;
+
+/**
+ * This class contains the substitutions and positionings of an OpenType font
+ * compiled into flat arrays indexed by the glyph number. The lookups of the
+ * selected features are taken from the tables <tt>GSUB</tt> and
+ * <tt>GPOS</tt> once; afterwards a run of glyphs can be shaped in a single
+ * pass without walking the object trees of these tables.
+ * <p>
+ * The following lookups are compiled:
+ * </p>
+ * <ul>
+ * <li>Single substitutions are composed into one array mapping a glyph to
+ * its substitute.</li>
+ * <li>Ligature substitutions are compiled into a trie. The trie is stored in
+ * arrays with the edges of each node sorted by glyph. The longest ligature
+ * matching at a position is taken.</li>
+ * <li>Pair positionings are compiled into a coverage bit set per subtable and
+ * either a matrix indexed by the classes of the two glyphs or a sorted list
+ * of second glyphs per first glyph. If the font has no table <tt>GPOS</tt>
+ * then the pairs of the table <tt>kern</tt> are used instead.</li>
+ * </ul>
+ * <p>
+ * Other lookup types &ndash; in particular the contextual ones &ndash; are
+ * not taken into account. Lookup flags are ignored as well. The single
+ * substitutions are applied before the ligatures.
+ * </p>
+ * <p>
+ * An instance is immutable after its creation and can be used by several
+ * threads at once.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class XtfShaper {
+
+    /**
+     * This class contains a compiled pair positioning subtable.
+     */
+    private static final class PairTable {
+
+        /**
+         * The field <tt>columns</tt> contains the number of columns of the
+         * class matrix.
+         */
+        private final int columns;
+
+        /**
+         * The field <tt>coverage</tt> contains the first glyphs covered.
+         */
+        private final BitSet coverage;
+
+        /**
+         * The field <tt>first</tt> contains the row for each first glyph. The
+         * row is the class or the index of the pair set.
+         */
+        private final int[] first;
+
+        /**
+         * The field <tt>second</tt> contains the class of each second glyph
+         * or <code>null</code> for a table with pair sets. The class is -1 for
+         * glyphs not assigned to a class.
+         */
+        private final int[] second;
+
+        /**
+         * The field <tt>seconds</tt> contains the sorted second glyphs of the
+         * pair sets or <code>null</code> for a class matrix.
+         */
+        private final int[] seconds;
+
+        /**
+         * The field <tt>start</tt> contains the start index in
+         * <tt>seconds</tt> for each pair set and the end as last element or
+         * <code>null</code> for a class matrix.
+         */
+        private final int[] start;
+
+        /**
+         * The field <tt>values</tt> contains the values. These are the
+         * elements of the class matrix row by row or the values parallel to
+         * <tt>seconds</tt>.
+         */
+        private final int[] values;
+
+        /**
+         * Creates a new object.
+         *
+         * @param coverage the first glyphs covered
+         * @param first the row for each first glyph
+         * @param second the class of each second glyph or <code>null</code>
+         * @param columns the number of columns
+         * @param start the start of the pair sets or <code>null</code>
+         * @param seconds the second glyphs or <code>null</code>
+         * @param values the values
+         */
+        PairTable(BitSet coverage, int[] first, int[] second, int columns,
+                int[] start, int[] seconds, int[] values) {
+
+            this.coverage = coverage;
+            this.first = first;
+            this.second = second;
+            this.columns = columns;
+            this.start = start;
+            this.seconds = seconds;
+            this.values = values;
+        }
+
+        /**
+         * Get the value for a pair of glyphs.
+         *
+         * @param left the first glyph
+         * @param right the second glyph
+         *
+         * @return the value or {@link XtfShaper#NONE NONE} if the pair is not
+         *         covered
+         */
+        int get(int left, int right) {
+
+            if (left < 0 || !coverage.get(left)) {
+                return NONE;
+            }
+            int row = first[left];
+            if (start == null) {
+                int column =
+                        (right >= 0 && right < second.length
+                                ? second[right]
+                                : -1);
+                return (column < 0 ? NONE : values[row * columns + column]);
+            }
+            int i = Arrays.binarySearch(seconds, start[row], start[row + 1],
+                right);
+            return (i < 0 ? NONE : values[i]);
+        }
+    }
+
+    /**
+     * The constant <tt>NONE</tt> contains the value for a pair not covered
+     * by a pair table.
+     */
+    private static final int NONE = Integer.MIN_VALUE;
+
+    /**
+     * The constant <tt>NO_TABLES</tt> contains the empty list of pair tables.
+     */
+    private static final PairTable[] NO_TABLES = new PairTable[0];
+
+    /**
+     * Collect the indices of the lookups of the selected features in the
+     * order of the lookup list.
+     *
+     * @param table the table <tt>GSUB</tt> or <tt>GPOS</tt>
+     * @param script the script
+     * @param language the language or <code>null</code> for the default
+     * @param features the features
+     *
+     * @return the indices of the lookups
+     */
+    private static int[] findLookups(AbstractXtfSFLTable table,
+            ScriptTag script, LanguageSystemTag language,
+            List<FeatureTag> features) {
+
+        LangSys langSys = table.findLangSys(script, language);
+        if (langSys == null) {
+            return new int[0];
+        }
+        Feature[] list = table.getFeatureList().getFeatures();
+        TreeSet<Integer> lookups = new TreeSet<Integer>();
+        int req = langSys.getReqFeatureIndex();
+        if (req >= 0 && req < list.length) {
+            addLookups(lookups, list[req]);
+        }
+        for (int i = 0; i < langSys.getFeatureCount(); i++) {
+            int index = langSys.getFeatureIndex(i);
+            if (index < 0 || index >= list.length) {
+                continue;
+            }
+            for (FeatureTag tag : features) {
+                if (tag.getTag().equals(list[index].getTag())) {
+                    addLookups(lookups, list[index]);
+                    break;
+                }
+            }
+        }
+        int[] result = new int[lookups.size()];
+        int i = 0;
+        for (Integer index : lookups) {
+            result[i++] = index.intValue();
+        }
+        return result;
+    }
+
+    /**
+     * Add the indices of the lookups of a feature to a set.
+     *
+     * @param lookups the set
+     * @param feature the feature
+     */
+    private static void addLookups(TreeSet<Integer> lookups, Feature feature) {
+
+        for (int i = 0; i < feature.getLookupCount(); i++) {
+            lookups.add(Integer.valueOf(feature.getLookupListIndex(i)));
+        }
+    }
+
+    /**
+     * Compile a pair table with lists of pairs. The arrays are parallel.
+     *
+     * @param lefts the first glyphs
+     * @param rights the second glyphs
+     * @param values the values
+     * @param n the number of pairs
+     * @param numberOfGlyphs the number of glyphs
+     *
+     * @return the pair table or <code>null</code> if there are no pairs
+     */
+    private static PairTable compilePairs(int[] lefts, int[] rights,
+            int[] values, int n, int numberOfGlyphs) {
+
+        // the pair in the upper half and the index in the lower half keep
+        // the first occurrence of a pair first after sorting
+        long[] keys = new long[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (lefts[i] >= 0 && lefts[i] < numberOfGlyphs && rights[i] >= 0
+                    && rights[i] < 0x10000) {
+                keys[size++] = ((long) lefts[i] << 48)
+                        | ((long) rights[i] << 32) | i;
+            }
+        }
+        if (size == 0) {
+            return null;
+        }
+        Arrays.sort(keys, 0, size);
+
+        BitSet coverage = new BitSet(numberOfGlyphs);
+        int[] first = new int[numberOfGlyphs];
+        int[] rows = new int[size + 1];
+        int[] seconds = new int[size];
+        int[] vals = new int[size];
+        int row = -1;
+        int count = 0;
+        long last = -1;
+        for (int i = 0; i < size; i++) {
+            long pair = keys[i] >>> 32;
+            if (pair == last) {
+                continue;
+            }
+            last = pair;
+            int left = (int) (pair >>> 16);
+            if (!coverage.get(left)) {
+                coverage.set(left);
+                first[left] = ++row;
+                rows[row] = count;
+            }
+            seconds[count] = (int) (pair & 0xffff);
+            vals[count++] = values[(int) keys[i]];
+        }
+        int[] start = new int[row + 2];
+        System.arraycopy(rows, 0, start, 0, row + 1);
+        start[row + 1] = count;
+        return new PairTable(coverage, first, null, 0, start, seconds, vals);
+    }
+
+    /**
+     * The field <tt>charToGlyph</tt> contains the glyph for each character
+     * in the Basic Multilingual Plane.
+     */
+    private final char[] charToGlyph;
+
+    /**
+     * The field <tt>edgeGlyph</tt> contains the glyph of each edge of the
+     * ligature trie. The edges of a node are sorted by glyph.
+     */
+    private int[] edgeGlyph;
+
+    /**
+     * The field <tt>edgeNode</tt> contains the target node of each edge of
+     * the ligature trie.
+     */
+    private int[] edgeNode;
+
+    /**
+     * The field <tt>edgeStart</tt> contains the index of the first edge of
+     * each node and the number of edges as last element.
+     */
+    private int[] edgeStart;
+
+    /**
+     * The field <tt>format</tt> contains the Unicode cmap.
+     */
+    private final Format format;
+
+    /**
+     * The field <tt>glyphToChar</tt> contains the code point for each glyph
+     * or -1 if none is known.
+     */
+    private final int[] glyphToChar;
+
+    /**
+     * The field <tt>kernEnd</tt> contains the end index in
+     * <tt>kernTables</tt> for each lookup.
+     */
+    private int[] kernEnd = new int[0];
+
+    /**
+     * The field <tt>kernTables</tt> contains the compiled pair tables of all
+     * lookups.
+     */
+    private PairTable[] kernTables = NO_TABLES;
+
+    /**
+     * The field <tt>ligatureRoot</tt> contains the root node in the ligature
+     * trie for each glyph or <code>null</code> if there are no ligatures.
+     * The root is -1 if no ligature starts with the glyph.
+     */
+    private int[] ligatureRoot = null;
+
+    /**
+     * The field <tt>nodeLigature</tt> contains the ligature glyph for each
+     * node of the trie or -1 if the path to the node is no ligature.
+     */
+    private int[] nodeLigature;
+
+    /**
+     * The field <tt>numberOfGlyphs</tt> contains the number of glyphs.
+     */
+    private final int numberOfGlyphs;
+
+    /**
+     * The field <tt>single</tt> contains the single substitution for each
+     * glyph or <code>null</code> if there are none.
+     */
+    private int[] single = null;
+
+    /**
+     * The field <tt>unicodeOnly</tt> contains the indicator that only
+     * substitutions resulting in glyphs with a Unicode code point are
+     * compiled.
+     */
+    private final boolean unicodeOnly;
+
+    /**
+     * Creates a new object.
+     *
+     * @param reader the reader for the font
+     * @param script the script
+     * @param language the language or <code>null</code> for the default
+     * @param features the features to compile
+     * @param unicodeOnly the indicator that only substitutions resulting in
+     *        glyphs with a Unicode code point should be compiled
+     */
+    public XtfShaper(XtfReader reader, ScriptTag script,
+            LanguageSystemTag language, List<FeatureTag> features,
+            boolean unicodeOnly) {
+
+        this.unicodeOnly = unicodeOnly;
+        numberOfGlyphs = reader.getNumberOfGlyphs();
+        format = reader.getCmapTable().getFormat((short) 3, (short) 1);
+        charToGlyph = new char[0x10000];
+        glyphToChar = new int[numberOfGlyphs];
+        Arrays.fill(glyphToChar, -1);
+        if (format != null) {
+            for (int c = 0xffff; c > 0; c--) {
+                int g = format.mapCharCode(c);
+                if (g > 0 && g < numberOfGlyphs) {
+                    charToGlyph[c] = (char) g;
+                    glyphToChar[g] = c;
+                }
+            }
+        }
+
+        XtfTable gsub = reader.getTable(XtfReader.GSUB);
+        if (gsub instanceof AbstractXtfSFLTable) {
+            AbstractXtfSFLTable t = (AbstractXtfSFLTable) gsub;
+            compileSubstitutions(t.getLookupList(), findLookups(t, script,
+                language, features));
+        }
+        XtfTable gpos = reader.getTable(XtfReader.GPOS);
+        if (gpos instanceof AbstractXtfSFLTable) {
+            AbstractXtfSFLTable t = (AbstractXtfSFLTable) gpos;
+            compilePositionings(t.getLookupList(), findLookups(t, script,
+                language, features));
+        } else if (features.contains(FeatureTag.getInstance("kern"))) {
+            XtfTable kern = reader.getTable(XtfReader.KERN);
+            if (kern instanceof TtfTableKERN) {
+                compileKern((TtfTableKERN) kern);
+            }
+        }
+    }
+
+    /**
+     * Check whether a glyph is acceptable as result of a substitution.
+     *
+     * @param glyph the glyph
+     *
+     * @return <code>true</code> iff the glyph can be used
+     */
+    private boolean accept(int glyph) {
+
+        return glyph >= 0 && glyph < numberOfGlyphs
+                && (!unicodeOnly || glyphToChar[glyph] >= 0);
+    }
+
+    /**
+     * Find the child of a node in the ligature trie.
+     *
+     * @param node the node
+     * @param glyph the glyph of the edge
+     *
+     * @return the child or -1 if none exists
+     */
+    private int child(int node, int glyph) {
+
+        int i = Arrays.binarySearch(edgeGlyph, edgeStart[node],
+            edgeStart[node + 1], glyph);
+        return (i < 0 ? -1 : edgeNode[i]);
+    }
+
+    /**
+     * Compile the table <tt>kern</tt>.
+     *
+     * @param kern the table
+     */
+    private void compileKern(TtfTableKERN kern) {
+
+        List<KerningPair> pairs = new ArrayList<KerningPair>();
+        for (int i = kern.getNumberOfTables() - 1; i >= 0; i--) {
+            KernSubtable table = kern.getTable(i);
+            for (int j = 0; j < table.getKerningCount(); j++) {
+                KerningPair pair = table.getKerning(j);
+                if (pair != null) {
+                    pairs.add(pair);
+                }
+            }
+        }
+        int n = pairs.size();
+        int[] lefts = new int[n];
+        int[] rights = new int[n];
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            KerningPair pair = pairs.get(i);
+            lefts[i] = pair.getLeft();
+            rights[i] = pair.getRight();
+            values[i] = pair.getValue();
+        }
+        PairTable table = compilePairs(lefts, rights, values, n,
+            numberOfGlyphs);
+        if (table != null) {
+            kernTables = new PairTable[]{table};
+            kernEnd = new int[]{1};
+        }
+    }
+
+    /**
+     * Compile a pair positioning subtable.
+     *
+     * @param table the subtable
+     *
+     * @return the compiled table or <code>null</code> if it is empty
+     */
+    private PairTable compilePair(XtfGPOSPairTable table) {
+
+        int[] glyphs = table.getCoverage().getGlyphs();
+        if (table instanceof XtfGPOSPairTable.PairTableFormat1) {
+            PairSetTable[] sets =
+                    ((XtfGPOSPairTable.PairTableFormat1) table)
+                        .getPairSetTables();
+            List<PairValueRecord> records = new ArrayList<PairValueRecord>();
+            List<Integer> lefts = new ArrayList<Integer>();
+            for (int i = 0; sets != null && i < glyphs.length
+                    && i < sets.length; i++) {
+                for (PairValueRecord r : sets[i].getPairValueRecords()) {
+                    records.add(r);
+                    lefts.add(Integer.valueOf(glyphs[i]));
+                }
+            }
+            int n = records.size();
+            int[] l = new int[n];
+            int[] r = new int[n];
+            int[] v = new int[n];
+            for (int i = 0; i < n; i++) {
+                PairValueRecord record = records.get(i);
+                l[i] = lefts.get(i).intValue();
+                r[i] = record.getSecondGlyph();
+                v[i] = record.getPairValue().getValue1().getXAdvance();
+            }
+            return compilePairs(l, r, v, n, numberOfGlyphs);
+        }
+
+        XtfGPOSPairTable.PairTableFormat2 t =
+                (XtfGPOSPairTable.PairTableFormat2) table;
+        Class1Record[] class1 = t.getClass1RecordArray();
+        if (class1 == null || class1.length == 0) {
+            return null;
+        }
+        ClassDefTable classDef1 = t.getClassDef1();
+        ClassDefTable classDef2 = t.getClassDef2();
+        BitSet coverage = new BitSet(numberOfGlyphs);
+        int[] first = new int[numberOfGlyphs];
+        for (int g : glyphs) {
+            int c = classDef1.getClass(g);
+            if (g >= 0 && g < numberOfGlyphs && c >= 0 && c < class1.length) {
+                coverage.set(g);
+                first[g] = c;
+            }
+        }
+        int columns = 0;
+        for (Class1Record r : class1) {
+            columns = Math.max(columns, r.getClass2RecordArray().length);
+        }
+        int[] values = new int[class1.length * columns];
+        Arrays.fill(values, NONE);
+        for (int i = 0; i < class1.length; i++) {
+            Class2Record[] class2 = class1[i].getClass2RecordArray();
+            for (int j = 0; j < class2.length; j++) {
+                if (class2[j] != null) {
+                    values[i * columns + j] =
+                            class2[j].getPairValue().getValue1()
+                                .getXAdvance();
+                }
+            }
+        }
+        int[] second = new int[numberOfGlyphs];
+        for (int g = 0; g < numberOfGlyphs; g++) {
+            second[g] = classDef2.getClass(g);
+        }
+        return new PairTable(coverage, first, second, columns, null, null,
+            values);
+    }
+
+    /**
+     * Compile the pair positionings of the lookups given.
+     *
+     * @param list the lookup list of the table <tt>GPOS</tt>
+     * @param lookups the indices of the lookups
+     */
+    private void compilePositionings(XtfLookupList list, int[] lookups) {
+
+        List<PairTable> tables = new ArrayList<PairTable>();
+        List<Integer> ends = new ArrayList<Integer>();
+        for (int index : lookups) {
+            XtfLookup lookup = list.getLookup(index);
+            if (lookup == null || lookup.getType() != XtfLookup.GPOS_2_PAIR) {
+                continue;
+            }
+            int size = tables.size();
+            for (int i = 0; i < lookup.getSubtableCount(); i++) {
+                XtfLookupTable sub = lookup.getSubtable(i);
+                if (sub instanceof XtfGPOSPairTable) {
+                    PairTable t = compilePair((XtfGPOSPairTable) sub);
+                    if (t != null) {
+                        tables.add(t);
+                    }
+                }
+            }
+            if (tables.size() > size) {
+                ends.add(Integer.valueOf(tables.size()));
+            }
+        }
+        kernTables = tables.toArray(new PairTable[tables.size()]);
+        kernEnd = new int[ends.size()];
+        for (int i = 0; i < kernEnd.length; i++) {
+            kernEnd[i] = ends.get(i).intValue();
+        }
+    }
+
+    /**
+     * Compile the single and ligature substitutions of the lookups given.
+     *
+     * @param list the lookup list of the table <tt>GSUB</tt>
+     * @param lookups the indices of the lookups
+     */
+    private void compileSubstitutions(XtfLookupList list, int[] lookups) {
+
+        List<Map<Integer, Integer>> edges =
+                new ArrayList<Map<Integer, Integer>>();
+        List<Integer> ligatures = new ArrayList<Integer>();
+        int[] roots = null;
+
+        for (int index : lookups) {
+            XtfLookup lookup = list.getLookup(index);
+            if (lookup == null) {
+                continue;
+            }
+            int type = lookup.getType();
+            if (type == XtfLookup.GSUB_1_SINGLE) {
+                int[] map = new int[numberOfGlyphs];
+                Arrays.fill(map, -1);
+                boolean found = false;
+                for (int i = 0; i < lookup.getSubtableCount(); i++) {
+                    XtfLookupTable sub = lookup.getSubtable(i);
+                    if (!(sub instanceof XtfGSUBSingleTable)) {
+                        continue;
+                    }
+                    XtfGSUBSingleTable t = (XtfGSUBSingleTable) sub;
+                    for (int g : t.getCoverage().getGlyphs()) {
+                        if (g >= 0 && g < numberOfGlyphs && map[g] < 0) {
+                            int s = t.substitute(g);
+                            if (accept(s)) {
+                                map[g] = s;
+                                found = true;
+                            }
+                        }
+                    }
+                }
+                if (found) {
+                    if (single == null) {
+                        single = new int[numberOfGlyphs];
+                        for (int g = 0; g < numberOfGlyphs; g++) {
+                            single[g] = g;
+                        }
+                    }
+                    for (int g = 0; g < numberOfGlyphs; g++) {
+                        int s = map[single[g]];
+                        if (s >= 0) {
+                            single[g] = s;
+                        }
+                    }
+                }
+            } else if (type == XtfLookup.GSUB_4_LIGATURE) {
+                for (int i = 0; i < lookup.getSubtableCount(); i++) {
+                    XtfLookupTable sub = lookup.getSubtable(i);
+                    if (!(sub instanceof LigatureTableFormat1)) {
+                        continue;
+                    }
+                    if (roots == null) {
+                        roots = new int[numberOfGlyphs];
+                        Arrays.fill(roots, -1);
+                    }
+                    LigatureTableFormat1 t = (LigatureTableFormat1) sub;
+                    int[] glyphs = t.getCoverage().getGlyphs();
+                    LigatureSet[] sets = t.getLigatureSets();
+                    for (int j = 0; j < glyphs.length && j < sets.length; j++) {
+                        if (sets[j] != null) {
+                            insertLigatures(glyphs[j], sets[j], roots, edges,
+                                ligatures);
+                        }
+                    }
+                }
+            }
+        }
+        if (roots != null && !ligatures.isEmpty()) {
+            flattenTrie(roots, edges, ligatures);
+        }
+    }
+
+    /**
+     * Store the ligature trie in arrays.
+     *
+     * @param roots the root node for each glyph
+     * @param edges the edges of each node
+     * @param ligatures the ligature of each node
+     */
+    private void flattenTrie(int[] roots, List<Map<Integer, Integer>> edges,
+            List<Integer> ligatures) {
+
+        int nodes = ligatures.size();
+        int n = 0;
+        for (Map<Integer, Integer> map : edges) {
+            n += map.size();
+        }
+        ligatureRoot = roots;
+        nodeLigature = new int[nodes];
+        edgeStart = new int[nodes + 1];
+        edgeGlyph = new int[n];
+        edgeNode = new int[n];
+        int e = 0;
+        for (int node = 0; node < nodes; node++) {
+            nodeLigature[node] = ligatures.get(node).intValue();
+            edgeStart[node] = e;
+            for (Map.Entry<Integer, Integer> edge : edges.get(node).entrySet()) {
+                edgeGlyph[e] = edge.getKey().intValue();
+                edgeNode[e++] = edge.getValue().intValue();
+            }
+        }
+        edgeStart[nodes] = e;
+    }
+
+    /**
+     * Map a Unicode code point to a glyph.
+     *
+     * @param codePoint the code point
+     *
+     * @return the glyph or 0 if the font has no glyph for it
+     */
+    public int getGlyph(int codePoint) {
+
+        if (codePoint >= 0 && codePoint < 0x10000) {
+            return charToGlyph[codePoint];
+        }
+        if (format == null) {
+            return 0;
+        }
+        int g = format.mapCharCode(codePoint);
+        return (g > 0 && g < numberOfGlyphs ? g : 0);
+    }
+
+    /**
+     * Get the kerning between two glyphs. The values of all lookups are
+     * added. Within a lookup the first subtable covering the pair is used.
+     *
+     * @param left the first glyph
+     * @param right the second glyph
+     *
+     * @return the kerning in font design units
+     */
+    public int getKerning(int left, int right) {
+
+        int kern = 0;
+        int i = 0;
+        for (int end : kernEnd) {
+            for (; i < end; i++) {
+                int v = kernTables[i].get(left, right);
+                if (v != NONE) {
+                    kern += v;
+                    break;
+                }
+            }
+            i = end;
+        }
+        return kern;
+    }
+
+    /**
+     * Get the ligature of two glyphs.
+     *
+     * @param left the first glyph
+     * @param right the second glyph
+     *
+     * @return the ligature glyph or -1 if there is none
+     */
+    public int getLigature(int left, int right) {
+
+        if (ligatureRoot == null || left < 0 || left >= numberOfGlyphs) {
+            return -1;
+        }
+        int node = ligatureRoot[left];
+        if (node < 0) {
+            return -1;
+        }
+        node = child(node, right);
+        return (node < 0 ? -1 : nodeLigature[node]);
+    }
+
+    /**
+     * Getter for the number of glyphs.
+     *
+     * @return the number of glyphs
+     */
+    public int getNumberOfGlyphs() {
+
+        return numberOfGlyphs;
+    }
+
+    /**
+     * Map a glyph to a Unicode code point.
+     *
+     * @param glyph the glyph
+     *
+     * @return the code point or -1 if none is known
+     */
+    public int getCodePoint(int glyph) {
+
+        return (glyph >= 0 && glyph < numberOfGlyphs
+                ? glyphToChar[glyph]
+                : -1);
+    }
+
+    /**
+     * Insert the ligatures of a ligature set into the trie.
+     *
+     * @param glyph the first glyph
+     * @param set the ligature set
+     * @param roots the root node for each glyph
+     * @param edges the edges of each node
+     * @param ligatures the ligature of each node
+     */
+    private void insertLigatures(int glyph, LigatureSet set, int[] roots,
+            List<Map<Integer, Integer>> edges, List<Integer> ligatures) {
+
+        if (glyph < 0 || glyph >= numberOfGlyphs) {
+            return;
+        }
+        for (Ligature ligature : set.getLigatures()) {
+            int lig = ligature.getLigGlyph();
+            if (!accept(lig)) {
+                continue;
+            }
+            int node = roots[glyph];
+            if (node < 0) {
+                node = ligatures.size();
+                roots[glyph] = node;
+                edges.add(new TreeMap<Integer, Integer>());
+                ligatures.add(Integer.valueOf(-1));
+            }
+            for (int c : ligature.getComponents()) {
+                Integer key = Integer.valueOf(c);
+                Integer next = edges.get(node).get(key);
+                if (next == null) {
+                    next = Integer.valueOf(ligatures.size());
+                    edges.get(node).put(key, next);
+                    edges.add(new TreeMap<Integer, Integer>());
+                    ligatures.add(Integer.valueOf(-1));
+                }
+                node = next.intValue();
+            }
+            if (ligatures.get(node).intValue() < 0) {
+                ligatures.set(node, Integer.valueOf(lig));
+            }
+        }
+    }
+
+    /**
+     * Shape a run of glyphs in place. In a single pass over the run the
+     * single substitutions are applied, the longest ligatures are formed,
+     * and the kerning between the resulting glyphs is determined.
+     *
+     * @param glyphs the glyphs; they are overwritten with the result
+     * @param length the number of glyphs in the run
+     * @param kerning the array to store the kerning after each resulting
+     *        glyph in font design units or <code>null</code>
+     * @param source the array to store the index of the first input glyph of
+     *        each resulting glyph or <code>null</code>
+     *
+     * @return the number of resulting glyphs
+     */
+    public int shape(int[] glyphs, int length, int[] kerning, int[] source) {
+
+        int out = 0;
+        int i = 0;
+        while (i < length) {
+            int g = substitute(glyphs[i]);
+            int end = i + 1;
+            int node = (ligatureRoot == null || g < 0 || g >= numberOfGlyphs
+                    ? -1
+                    : ligatureRoot[g]);
+            for (int j = i + 1; node >= 0; j++) {
+                if (nodeLigature[node] >= 0) {
+                    g = nodeLigature[node];
+                    end = j;
+                }
+                if (j >= length) {
+                    break;
+                }
+                node = child(node, substitute(glyphs[j]));
+            }
+            glyphs[out] = g;
+            if (source != null) {
+                source[out] = i;
+            }
+            out++;
+            i = end;
+        }
+        if (kerning != null && out > 0) {
+            for (int k = 0; k < out - 1; k++) {
+                kerning[k] = getKerning(glyphs[k], glyphs[k + 1]);
+            }
+            kerning[out - 1] = 0;
+        }
+        return out;
+    }
+
+    /**
+     * Apply the single substitutions to a glyph.
+     *
+     * @param glyph the glyph
+     *
+     * @return the substitute
+     */
+    private int substitute(int glyph) {
+
+        return (single == null || glyph < 0 || glyph >= numberOfGlyphs
+                ? glyph
+                : single[glyph]);
+    }
+
+}
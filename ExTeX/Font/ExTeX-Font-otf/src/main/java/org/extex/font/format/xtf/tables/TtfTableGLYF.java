@@ -21,9 +21,12 @@ package org.extex.font.format.xtf.tables;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Vector;
 
 import org.extex.font.format.xtf.XtfReader;
+import org.extex.util.file.random.RandomAccessInputArray;
+import org.extex.util.file.random.RandomAccessInputMapped;
 import org.extex.util.file.random.RandomAccessR;
 import org.extex.util.xml.XMLStreamWriter;
 import org.extex.util.xml.XMLWriterConvertible;
@@ -1458,15 +1461,27 @@ public class TtfTableGLYF extends AbstractXtfTable
     }
 
     /**
-     * buf
+     * The field <tt>data</tt> contains the data of the table. The glyphs are
+     * decoded from it when they are requested for the first time.
      */
-    private byte[] buf = null;
+    private RandomAccessR data;
+
+    /**
+     * The field <tt>decoded</tt> contains the indices of the glyphs already
+     * decoded.
+     */
+    private BitSet decoded;
 
     /**
      * descript
      */
     private Descript[] descript;
 
+    /**
+     * The field <tt>loca</tt> contains the index to location table.
+     */
+    private TtfTableLOCA loca;
+
     /**
      * Create a new object.
      * 
@@ -1479,20 +1494,64 @@ public class TtfTableGLYF extends AbstractXtfTable
             RandomAccessR rar) throws IOException {
 
         super(tablemap);
-        rar.seek(de.getOffset());
-        buf = new byte[de.getLength()];
-        rar.readFully(buf);
+        if (rar instanceof RandomAccessInputMapped) {
+            data =
+                    ((RandomAccessInputMapped) rar).slice(de.getOffset(), de
+                        .getLength());
+        } else {
+            rar.seek(de.getOffset());
+            byte[] buf = new byte[de.getLength()];
+            rar.readFully(buf);
+            data = new RandomAccessInputArray(buf);
+        }
+    }
 
+    /**
+     * Decode the description of a glyph.
+     * 
+     * @param i index
+     * @return Returns the description or <code>null</code> if the glyph has
+     *         no outline
+     */
+    private Descript decode(int i) {
+
+        int offset = loca.getOffset(i);
+        int len = loca.getOffset(i + 1) - offset;
+        if (len <= 0) {
+            return null;
+        }
+        byte[] buf = new byte[len];
+        try {
+            data.seek(offset);
+            data.readFully(buf);
+        } catch (IOException e) {
+            return null;
+        }
+        ByteArrayInputStream bais = new ByteArrayInputStream(buf);
+        short numberOfContours =
+                (short) (bais.read() << XtfConstants.SHIFT8 | bais.read());
+        if (numberOfContours >= 0) {
+            return new SimpleDescript(this, numberOfContours, bais);
+        }
+        return new CompositeDescript(this, bais);
     }
 
     /**
-     * Returns the description
+     * Returns the description. The glyph is decoded on the first request.
      * 
      * @param i index
      * @return Returns the description
      */
-    public Descript getDescription(int i) {
+    public synchronized Descript getDescription(int i) {
 
+        if (descript == null || i < 0 || i >= descript.length) {
+            return null;
+        }
+        if (!decoded.get(i)) {
+            // mark first to stop cyclic composites
+            decoded.set(i);
+            descript[i] = decode(i);
+        }
         return descript[i];
     }
 
@@ -1538,52 +1597,17 @@ public class TtfTableGLYF extends AbstractXtfTable
      * @see org.extex.font.format.xtf.tables.AbstractXtfTable#init()
      */
     @Override
-    public void init() {
+    public synchronized void init() {
 
-        TtfTableLOCA loca = (TtfTableLOCA) getTableMap().get(XtfReader.LOCA);
+        loca = (TtfTableLOCA) getTableMap().get(XtfReader.LOCA);
         TtfTableMAXP maxp = (TtfTableMAXP) getTableMap().get(XtfReader.MAXP);
         if (loca == null || maxp == null) {
             return;
         }
         int numGlyphs = maxp.getNumGlyphs();
 
-        if (buf == null) {
-            return;
-        }
-
         descript = new Descript[numGlyphs];
-        ByteArrayInputStream bais = new ByteArrayInputStream(buf);
-        for (int i = 0; i < numGlyphs; i++) {
-            int len = loca.getOffset((short) (i + 1)) - loca.getOffset(i);
-            if (len > 0) {
-                bais.reset();
-                bais.skip(loca.getOffset(i));
-                short numberOfContours =
-                        (short) (bais.read() << XtfConstants.SHIFT8 | bais
-                            .read());
-                if (numberOfContours >= 0) {
-                    descript[i] =
-                            new SimpleDescript(this, numberOfContours, bais);
-                }
-            } else {
-                descript[i] = null;
-            }
-        }
-
-        for (int i = 0; i < numGlyphs; i++) {
-            int len = loca.getOffset((short) (i + 1)) - loca.getOffset(i);
-            if (len > 0) {
-                bais.reset();
-                bais.skip(loca.getOffset(i));
-                short numberOfContours =
-                        (short) (bais.read() << XtfConstants.SHIFT8 | bais
-                            .read());
-                if (numberOfContours < 0) {
-                    descript[i] = new CompositeDescript(this, bais);
-                }
-            }
-        }
-        buf = null;
+        decoded = new BitSet(numGlyphs);
     }
 
     /**
@@ -1594,10 +1618,11 @@ public class TtfTableGLYF extends AbstractXtfTable
     public void writeXML(XMLStreamWriter writer) throws IOException {
 
         writeStartElement(writer);
-        for (int i = 0; i < descript.length; i++) {
+        int n = descript == null ? 0 : descript.length;
+        for (int i = 0; i < n; i++) {
             writer.writeStartElement("description");
             writer.writeAttribute("id", String.valueOf(i));
-            Descript d = descript[i];
+            Descript d = getDescription(i);
             if (d != null) {
                 d.writeXML(writer);
             }
@@ -629,7 +629,8 @@ public class TtfTableKERN extends AbstractXtfTable
      */
     private String createKey(int l, int r) {
 
-        return new StringBuilder(l).append(' ').append(r).toString();
+        return new StringBuilder().append(l).append(' ').append(r)
+            .toString();
     }
 
     /**
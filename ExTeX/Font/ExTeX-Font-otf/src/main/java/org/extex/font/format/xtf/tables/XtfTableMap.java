@@ -19,12 +19,20 @@
 
 package org.extex.font.format.xtf.tables;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Map for a TTF/OTF table.
+ * <p>
+ * A table can be registered with its directory entry only. Such a table is
+ * created and initialized by the factory when it is requested for the first
+ * time. Thus the tables not used are never parsed.
+ * </p>
  * 
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
  * @version $Revision$
@@ -32,12 +40,40 @@ import java.util.Set;
 
 public class XtfTableMap {
 
+    /**
+     * Factory for the tables registered with their directory entry only.
+     */
+    public interface TableFactory {
+
+        /**
+         * Create the table for a directory entry.
+         * 
+         * @param entry The directory entry.
+         * @return Returns the table or <code>null</code>, if the table type is
+         *         not supported.
+         * @throws IOException if an IO-error occurs.
+         */
+        XtfTable create(XtfTableDirectory.Entry entry) throws IOException;
+    }
+
     /**
      * Create a new object.
      */
     public XtfTableMap() {
 
+        this(null);
+    }
+
+    /**
+     * Create a new object.
+     * 
+     * @param factory The factory for the registered tables.
+     */
+    public XtfTableMap(TableFactory factory) {
+
         data = new HashMap<Integer, XtfTable>();
+        entries = new HashMap<Integer, XtfTableDirectory.Entry>();
+        this.factory = factory;
     }
 
     /**
@@ -45,12 +81,23 @@ public class XtfTableMap {
      */
     private Map<Integer, XtfTable> data;
 
+    /**
+     * The map for the directory entries of the tables not created yet.
+     */
+    private Map<Integer, XtfTableDirectory.Entry> entries;
+
+    /**
+     * The factory for the registered tables.
+     */
+    private TableFactory factory;
+
     /**
      * Clear the table.
      */
-    public void clear() {
+    public synchronized void clear() {
 
         data.clear();
+        entries.clear();
     }
 
     /**
@@ -58,9 +105,9 @@ public class XtfTableMap {
      * 
      * @return Returns the size of the table.
      */
-    public int size() {
+    public synchronized int size() {
 
-        return data.size();
+        return data.size() + entries.size();
     }
 
     /**
@@ -72,18 +119,57 @@ public class XtfTableMap {
      */
     public boolean containsKey(int key) {
 
-        return data.containsKey(new Integer(key));
+        return get(key) != null;
     }
 
     /**
-     * Returns the table.
+     * Returns the table. A registered table is created on the first request.
+     * If this fails then the table is treated as missing.
      * 
      * @param key The key of the table.
      * @return Returns the table.
      */
     public XtfTable get(int key) {
 
-        return data.get(new Integer(key));
+        try {
+            return load(key);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the table. A registered table is created and initialized on the
+     * first request. The table is stored before it is initialized; thus the
+     * initialization may ask for other tables.
+     * 
+     * @param key The key of the table.
+     * @return Returns the table or <code>null</code>, if the table does not
+     *         exist.
+     * @throws IOException if an IO-error occurs.
+     */
+    public synchronized XtfTable load(int key) throws IOException {
+
+        Integer k = Integer.valueOf(key);
+        XtfTable table = data.get(k);
+        if (table != null || factory == null) {
+            return table;
+        }
+        XtfTableDirectory.Entry entry = entries.remove(k);
+        if (entry == null) {
+            return null;
+        }
+        table = factory.create(entry);
+        if (table != null) {
+            data.put(k, table);
+            try {
+                table.init();
+            } catch (IOException e) {
+                data.remove(k);
+                throw e;
+            }
+        }
+        return table;
     }
 
     /**
@@ -92,17 +178,33 @@ public class XtfTableMap {
      * @param key The key of the table.
      * @param table The table
      */
-    public void put(int key, XtfTable table) {
+    public synchronized void put(int key, XtfTable table) {
 
-        data.put(new Integer(key), table);
+        data.put(Integer.valueOf(key), table);
     }
 
     /**
-     * Returns the keys in an array
+     * Register a table which is created on the first request.
+     * 
+     * @param key The key of the table.
+     * @param entry The directory entry of the table.
+     */
+    public synchronized void register(int key, XtfTableDirectory.Entry entry) {
+
+        entries.put(Integer.valueOf(key), entry);
+    }
+
+    /**
+     * Returns the keys in an array. All registered tables are created.
      * 
      * @return Returns the keys in an array
      */
-    public int[] getKeys() {
+    public synchronized int[] getKeys() {
+
+        List<Integer> pending = new ArrayList<Integer>(entries.keySet());
+        for (Integer k : pending) {
+            get(k.intValue());
+        }
 
         Set<Integer> set = data.keySet();
         Integer[] i = new Integer[set.size()];
@@ -116,14 +218,15 @@ public class XtfTableMap {
     }
 
     /**
-     * Returns a TTFTable array from the map.
+     * Returns a TTFTable array from the map. All registered tables are
+     * created.
      * 
      * @return Returns a TTFTable array from the map.
      */
-    public XtfTable[] getTables() {
+    public synchronized XtfTable[] getTables() {
 
-        XtfTable[] tab = new XtfTable[data.size()];
         int[] keys = getKeys();
+        XtfTable[] tab = new XtfTable[keys.length];
         for (int i = 0; i < keys.length; i++) {
             tab[i] = get(keys[i]);
         }
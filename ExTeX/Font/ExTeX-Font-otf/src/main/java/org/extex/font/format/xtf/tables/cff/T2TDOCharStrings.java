@@ -26,6 +26,7 @@ import java.util.Map;
 
 import org.extex.font.format.xtf.tables.OtfTableCFF;
 import org.extex.util.file.random.RandomAccessInputArray;
+import org.extex.util.file.random.RandomAccessInputMapped;
 import org.extex.util.file.random.RandomAccessR;
 import org.extex.util.xml.XMLStreamWriter;
 
@@ -75,15 +76,38 @@ import org.extex.util.xml.XMLStreamWriter;
 public class T2TDOCharStrings extends T2TDONumber {
 
     /**
-     * The map for the charstrings.
+     * The map for the index of the charstrings by name. It is created on the
+     * first request.
      */
-    private Map<String, CharString> charmap = new HashMap<String, CharString>();
+    private Map<String, Integer> charmap = null;
 
     /**
-     * The array of the char strings.
+     * The array of the char strings. The elements are decoded on the first
+     * request.
      */
     private CharString[] chars;
 
+    /**
+     * The font.
+     */
+    private CffFont font;
+
+    /**
+     * The offsets of the char strings.
+     */
+    private int[] offsets;
+
+    /**
+     * The input for the char strings not decoded yet.
+     */
+    private RandomAccessR input;
+
+    /**
+     * The position of the data of the index in the input. The offsets are
+     * relative to it.
+     */
+    private long position;
+
     /**
      * Create a new object.
      * 
@@ -96,17 +120,58 @@ public class T2TDOCharStrings extends T2TDONumber {
     }
 
     /**
-     * Returns the charstring or <code>null</code>, if not found.
+     * Decode a charstring.
+     * 
+     * @param idx the index.
+     * @return Returns the charstring.
+     * @throws IOException if an IO.error occurs.
+     */
+    private CharString decode(int idx) throws IOException {
+
+        byte[] data = new byte[offsets[idx + 1] - offsets[idx]];
+        input.seek(position + offsets[idx]);
+        input.readFully(data);
+
+        CharString cs = new CharString(font, idx);
+
+        RandomAccessInputArray arar = new RandomAccessInputArray(data);
+        try {
+            while (true) {
+                // read until eof
+                T2Operator op = T2Operator.newInstance(arar, cs);
+                cs.add(op);
+                if (arar.isEOF()) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            // TODO change to EOFException ignore
+        }
+        cs.checkWidth();
+        return cs;
+    }
+
+    /**
+     * Returns the charstring or <code>null</code>, if not found. The
+     * charstring is decoded on the first request.
      * 
      * @param idx the index.
      * @return Returns the charstring.
      */
-    public CharString getCharString(int idx) {
+    public synchronized CharString getCharString(int idx) {
 
-        if (idx >= 0 && idx < chars.length) {
-            return chars[idx];
+        if (chars == null || idx < 0 || idx >= chars.length) {
+            return null;
+        }
+        if (chars[idx] == null) {
+            try {
+                chars[idx] = decode(idx);
+            } catch (IOException e) {
+                return null;
+            }
         }
-        return null;
+        return chars[idx];
     }
 
     /**
@@ -115,12 +180,19 @@ public class T2TDOCharStrings extends T2TDONumber {
      * @param name The name of the charstring.
      * @return Returns the charstring.
      */
-    public CharString getCharString(String name) {
+    public synchronized CharString getCharString(String name) {
 
-        if (name != null) {
-            return charmap.get(name);
+        if (name == null || chars == null) {
+            return null;
+        }
+        if (charmap == null) {
+            charmap = new HashMap<String, Integer>(chars.length);
+            for (int i = 0; i < chars.length; i++) {
+                charmap.put(font.getNameForPos(i), Integer.valueOf(i));
+            }
         }
-        return null;
+        Integer idx = charmap.get(name);
+        return idx == null ? null : getCharString(idx.intValue());
     }
 
     /**
@@ -172,40 +244,21 @@ public class T2TDOCharStrings extends T2TDONumber {
         if (offset > 0) {
             rar.seek(baseoffset + offset);
 
-            int[] offsetarray = cff.readOffsets(rar);
-
-            chars = new CharString[offsetarray.length - 1];
-
-            // notdef: guid 0
-            // chars[0] = new CharString(cffFont, 0);
-            // chars[0].checkWidth();
-
-            // get data
-            for (int i = 0; i < offsetarray.length - 1; i++) {
-
-                byte[] data =
-                        cff.readDataFromIndex(offsetarray[i],
-                            offsetarray[i + 1], rar);
-
-                chars[i] = new CharString(cffFont, i);
-
-                RandomAccessInputArray arar = new RandomAccessInputArray(data);
-                try {
-                    while (true) {
-                        // read until eof
-                        T2Operator op = T2Operator.newInstance(arar, chars[i]);
-                        chars[i].add(op);
-                        if (arar.isEOF()) {
-                            break;
-                        }
-                    }
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    // TODO change to EOFException ignore
+            offsets = cff.readOffsets(rar);
+            position = rar.getPointer() - 1;
+            font = cffFont;
+            chars = new CharString[offsets.length - 1];
+
+            if (rar instanceof RandomAccessInputMapped) {
+                // keep a view of its own for the decoding on demand
+                input = ((RandomAccessInputMapped) rar).slice(0, (int) rar
+                    .length());
+            } else {
+                input = rar;
+                for (int i = 0; i < chars.length; i++) {
+                    chars[i] = decode(i);
                 }
-                chars[i].checkWidth();
-
-                charmap.put(chars[i].getName(), chars[i]);
+                input = null;
             }
         }
     }
@@ -218,10 +271,14 @@ public class T2TDOCharStrings extends T2TDONumber {
     @Override
     public void writeXML(XMLStreamWriter writer) throws IOException {
 
+        int n = chars == null ? 0 : chars.length;
         writer.writeStartElement(getName());
-        writer.writeAttribute("count", chars.length);
-        for (int i = 0; i < chars.length; i++) {
-            chars[i].writeXML(writer);
+        writer.writeAttribute("count", n);
+        for (int i = 0; i < n; i++) {
+            CharString cs = getCharString(i);
+            if (cs != null) {
+                cs.writeXML(writer);
+            }
         }
         writer.writeEndElement();
     }
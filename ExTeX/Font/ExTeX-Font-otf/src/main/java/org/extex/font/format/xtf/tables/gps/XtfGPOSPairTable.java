@@ -462,12 +462,25 @@ public abstract class XtfGPOSPairTable extends XtfLookupTable {
                     PairValueRecord pst =
                             pairSetTables[coverageIndex]
                                 .getPairValueRecord(secondGlyph);
-                    return pst.getPairValue();
+                    if (pst != null) {
+                        return pst.getPairValue();
+                    }
                 }
             }
             return null;
         }
 
+        /**
+         * Getter for the pair sets. The pair sets are indexed by the coverage
+         * index of the first glyph.
+         * 
+         * @return the pair sets
+         */
+        public PairSetTable[] getPairSetTables() {
+
+            return pairSetTables;
+        }
+
         /**
          * {@inheritDoc}
          * 
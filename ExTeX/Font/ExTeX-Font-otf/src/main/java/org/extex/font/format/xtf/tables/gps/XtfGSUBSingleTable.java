@@ -91,6 +91,17 @@ public abstract class XtfGSUBSingleTable extends XtfLookupTable {
             coverage = XtfCoverage.newInstance(rar, xtfGlyph);
         }
 
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.font.format.xtf.tables.gps.XtfGSUBSingleTable#getCoverage()
+         */
+        @Override
+        public XtfCoverage getCoverage() {
+
+            return coverage;
+        }
+
         /**
          * {@inheritDoc}
          * 
@@ -219,6 +230,17 @@ public abstract class XtfGSUBSingleTable extends XtfLookupTable {
             coverage = XtfCoverage.newInstance(rar, xtfGlyph);
         }
 
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.font.format.xtf.tables.gps.XtfGSUBSingleTable#getCoverage()
+         */
+        @Override
+        public XtfCoverage getCoverage() {
+
+            return coverage;
+        }
+
         /**
          * {@inheritDoc}
          * 
@@ -327,6 +349,13 @@ public abstract class XtfGSUBSingleTable extends XtfLookupTable {
 
     }
 
+    /**
+     * Getter for the coverage of the input glyphs.
+     * 
+     * @return the coverage
+     */
+    public abstract XtfCoverage getCoverage();
+
     /**
      * Returns an array with the in/out glyph.
      * <p>
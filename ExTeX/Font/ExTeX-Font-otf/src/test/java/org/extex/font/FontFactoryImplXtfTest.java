@@ -25,6 +25,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.extex.core.UnicodeChar;
 import org.extex.core.count.FixedCount;
 import org.extex.core.dimen.Dimen;
@@ -415,4 +418,50 @@ public class FontFactoryImplXtfTest extends AbstractFontFactoryTester {
         assertNull(l);
     }
 
+    /**
+     * Test for the font: shape a run
+     * 
+     * @throws Exception if an error occurred.
+     */
+    @Test
+    public void testShape01() throws Exception {
+
+        assertNotNull(font);
+        assertTrue(font instanceof ShapingFont);
+
+        UnicodeChar[] run =
+                {UnicodeChar.get('A'), UnicodeChar.get('C'),
+                        UnicodeChar.get('f'), UnicodeChar.get('f')};
+        long[] kerning = new long[run.length];
+        int n = ((ShapingFont) font).shape(run, run.length, kerning);
+
+        // Font gara has no ligatures!
+        assertEquals(4, n);
+        assertEquals(UnicodeChar.get('C'), run[1]);
+        assertEquals(font.getKerning(UnicodeChar.get('A'),
+            UnicodeChar.get('C')).getValue(), kerning[0]);
+        assertEquals(0, kerning[3]);
+    }
+
+    /**
+     * Test for the font: a feature named in the font key is used in addition
+     * to the kerning
+     * 
+     * @throws Exception if an error occurred.
+     */
+    @Test
+    public void testShape02() throws Exception {
+
+        List<String> features = new ArrayList<String>();
+        features.add("smcp");
+        ExtexFont f =
+                factory.getInstance(new FontKeyFactory().newInstance(key,
+                    features));
+
+        FixedDimen k = f.getKerning(UnicodeChar.get('A'), UnicodeChar.get('C'));
+        assertTrue(k.getValue() != 0);
+        assertEquals(font.getKerning(UnicodeChar.get('A'),
+            UnicodeChar.get('C')).getValue(), k.getValue());
+    }
+
 }
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.font.format.xtf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.extex.font.format.xtf.tables.TtfTableKERN;
+import org.extex.font.format.xtf.tables.gps.OtfTableGPOS;
+import org.extex.font.format.xtf.tables.gps.PairValue;
+import org.extex.font.format.xtf.tables.gps.XtfGPOSPairTable;
+import org.extex.font.format.xtf.tables.gps.XtfLookup;
+import org.extex.font.format.xtf.tables.tag.FeatureTag;
+import org.extex.font.format.xtf.tables.tag.ScriptTag;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This is a test suite for the {@link XtfShaper XtfShaper}.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class XtfShaperTest {
+
+    /**
+     * The constant <tt>LETTERS</tt> contains the characters to test the
+     * kerning with.
+     */
+    private static final String LETTERS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz.,";
+
+    /**
+     * The command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(XtfShaperTest.class);
+    }
+
+    /**
+     * Create a shaper for a font.
+     *
+     * @param font the name of the font file
+     * @param features the features
+     *
+     * @return the shaper
+     *
+     * @throws Exception in case of an error
+     */
+    private static XtfShaper makeShaper(String font, String... features)
+            throws Exception {
+
+        XtfReader reader =
+                new XtfReader("../ExTeX-Font-otf/src/font/" + font);
+        List<FeatureTag> list = new ArrayList<FeatureTag>();
+        for (String f : features) {
+            list.add(FeatureTag.getInstance(f));
+        }
+        return new XtfShaper(reader, ScriptTag.getInstance("latn"), null,
+            list, true);
+    }
+
+    /**
+     * Shape a string.
+     *
+     * @param shaper the shaper
+     * @param s the string
+     * @param source the array for the source indices
+     *
+     * @return the code points of the result
+     */
+    private static int[] shape(XtfShaper shaper, String s, int[] source) {
+
+        int[] glyphs = new int[s.length()];
+        for (int i = 0; i < glyphs.length; i++) {
+            glyphs[i] = shaper.getGlyph(s.charAt(i));
+        }
+        int n = shaper.shape(glyphs, glyphs.length, null, source);
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = shaper.getCodePoint(glyphs[i]);
+        }
+        return result;
+    }
+
+    /**
+     * <testcase> Test that the kerning compiled from the table kern is the
+     * kerning of the table. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testKern1() throws Exception {
+
+        XtfReader reader =
+                new XtfReader("../ExTeX-Font-otf/src/font/Gara.ttf");
+        List<FeatureTag> list = new ArrayList<FeatureTag>();
+        list.add(FeatureTag.getInstance("kern"));
+        XtfShaper shaper =
+                new XtfShaper(reader, ScriptTag.getInstance("latn"), null,
+                    list, true);
+        TtfTableKERN kern = (TtfTableKERN) reader.getTable(XtfReader.KERN);
+        for (int i = 0; i < LETTERS.length(); i++) {
+            int g1 = shaper.getGlyph(LETTERS.charAt(i));
+            for (int j = 0; j < LETTERS.length(); j++) {
+                int g2 = shaper.getGlyph(LETTERS.charAt(j));
+                assertEquals(LETTERS.substring(i, i + 1)
+                        + LETTERS.charAt(j), kern.getKerning(g1, g2), shaper
+                    .getKerning(g1, g2));
+            }
+        }
+        assertEquals(-78, shaper.getKerning(shaper.getGlyph('A'), shaper
+            .getGlyph('C')));
+    }
+
+    /**
+     * <testcase> Test that the kerning compiled from the table GPOS is the
+     * kerning found by walking the lookups. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testKern2() throws Exception {
+
+        XtfReader reader =
+                new XtfReader("../ExTeX-Font-otf/src/font/fxlr.otf");
+        List<FeatureTag> list = new ArrayList<FeatureTag>();
+        list.add(FeatureTag.getInstance("kern"));
+        XtfShaper shaper =
+                new XtfShaper(reader, ScriptTag.getInstance("latn"), null,
+                    list, true);
+        OtfTableGPOS gpos = (OtfTableGPOS) reader.getTable(XtfReader.GPOS);
+        XtfLookup[] lookups =
+                gpos.findLookup(ScriptTag.getInstance("latn"), null,
+                    FeatureTag.getInstance("kern"));
+        for (int i = 0; i < LETTERS.length(); i++) {
+            int g1 = shaper.getGlyph(LETTERS.charAt(i));
+            for (int j = 0; j < LETTERS.length(); j++) {
+                int g2 = shaper.getGlyph(LETTERS.charAt(j));
+                int kern = 0;
+                for (XtfLookup lookup : lookups) {
+                    for (int k = 0; k < lookup.getSubtableCount(); k++) {
+                        PairValue pv =
+                                ((XtfGPOSPairTable) lookup.getSubtable(k))
+                                    .getPairValue(g1, g2);
+                        if (pv != null) {
+                            kern += pv.getValue1().getXAdvance();
+                            break;
+                        }
+                    }
+                }
+                assertEquals(LETTERS.substring(i, i + 1)
+                        + LETTERS.charAt(j), kern, shaper.getKerning(g1, g2));
+            }
+        }
+    }
+
+    /**
+     * <testcase> Test that the kerning is missing if the feature is not
+     * selected. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testKern3() throws Exception {
+
+        XtfShaper shaper = makeShaper("fxlr.otf", "liga");
+        assertEquals(0, shaper.getKerning(shaper.getGlyph('A'), shaper
+            .getGlyph('V')));
+    }
+
+    /**
+     * <testcase> Test that f and i form the ligature fi. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testLigature1() throws Exception {
+
+        XtfShaper shaper = makeShaper("fxlr.otf", "liga", "kern");
+        int lig = shaper.getLigature(shaper.getGlyph('f'), shaper
+            .getGlyph('i'));
+        assertEquals(0xfb01, shaper.getCodePoint(lig));
+        assertEquals(-1, shaper.getLigature(shaper.getGlyph('i'), shaper
+            .getGlyph('f')));
+    }
+
+    /**
+     * <testcase> Test that there are no ligatures if the feature is not
+     * selected. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testLigature2() throws Exception {
+
+        XtfShaper shaper = makeShaper("fxlr.otf", "kern");
+        assertEquals(-1, shaper.getLigature(shaper.getGlyph('f'), shaper
+            .getGlyph('i')));
+    }
+
+    /**
+     * <testcase> Test that the longest ligature is formed when a run is
+     * shaped. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testShape1() throws Exception {
+
+        XtfShaper shaper = makeShaper("lmroman10-regular.otf", "liga");
+        int[] source = new int[6];
+        assertArrayEquals(new int[]{'o', 0xfb03, 'c', 'e'}, shape(shaper,
+            "office", source));
+        assertArrayEquals(new int[]{0, 1, 4, 5, 0, 0}, source);
+    }
+
+    /**
+     * <testcase> Test that a run ending in the middle of a ligature keeps the
+     * shorter ligature. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testShape2() throws Exception {
+
+        XtfShaper shaper = makeShaper("lmroman10-regular.otf", "liga");
+        assertArrayEquals(new int[]{'o', 0xfb00}, shape(shaper, "off", null));
+    }
+
+    /**
+     * <testcase> Test that the kerning between the resulting glyphs is
+     * delivered when a run is shaped. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testShape3() throws Exception {
+
+        XtfShaper shaper = makeShaper("Gara.ttf", "liga", "kern");
+        int[] glyphs = {shaper.getGlyph('A'), shaper.getGlyph('C'),
+                shaper.getGlyph('u')};
+        int[] kerning = new int[3];
+        assertEquals(3, shaper.shape(glyphs, 3, kerning, null));
+        assertArrayEquals(new int[]{-78, 0, 0}, kerning);
+    }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.font.format.xtf.tables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.extex.util.file.random.RandomAccessInputArray;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This is a test suite for the {@link XtfTableMap XtfTableMap}.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class XtfTableMapTest {
+
+    /**
+     * This class provides a table which asks for another table when it is
+     * initialized.
+     */
+    private static class TestTable extends AbstractXtfTable {
+
+        /**
+         * The field <tt>initialized</tt> contains the indicator that the table
+         * has been initialized.
+         */
+        private boolean initialized = false;
+
+        /**
+         * The field <tt>other</tt> contains the table found in the init.
+         */
+        private XtfTable other = null;
+
+        /**
+         * The field <tt>type</tt> contains the type.
+         */
+        private final int type;
+
+        /**
+         * Creates a new object.
+         *
+         * @param tm the table map
+         * @param type the type
+         */
+        public TestTable(XtfTableMap tm, int type) {
+
+            super(tm);
+            this.type = type;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.font.format.xtf.tables.XtfTable#getShortcut()
+         */
+        @Override
+        public String getShortcut() {
+
+            return "test";
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.font.format.xtf.tables.XtfTable#getType()
+         */
+        @Override
+        public int getType() {
+
+            return type;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.font.format.xtf.tables.AbstractXtfTable#init()
+         */
+        @Override
+        public void init() throws IOException {
+
+            if (type == TAG_A) {
+                other = getTableMap().get(TAG_B);
+            }
+            initialized = true;
+        }
+    }
+
+    /**
+     * The constant <tt>TAG_A</tt> contains the tag of the first table.
+     */
+    private static final int TAG_A = 0x61616161;
+
+    /**
+     * The constant <tt>TAG_B</tt> contains the tag of the second table.
+     */
+    private static final int TAG_B = 0x62626262;
+
+    /**
+     * The constant <tt>TAG_C</tt> contains the tag of the unsupported table.
+     */
+    private static final int TAG_C = 0x63636363;
+
+    /**
+     * The command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(XtfTableMapTest.class);
+    }
+
+    /**
+     * Create a table directory with the tables <tt>aaaa</tt>, <tt>bbbb</tt>,
+     * and <tt>cccc</tt>.
+     *
+     * @return the directory
+     *
+     * @throws IOException in case of an error
+     */
+    private static XtfTableDirectory makeDirectory() throws IOException {
+
+        int[] tags = {TAG_A, TAG_B, TAG_C};
+        byte[] data = new byte[12 + 16 * tags.length];
+        data[5] = (byte) tags.length;
+        for (int i = 0; i < tags.length; i++) {
+            int p = 12 + 16 * i;
+            for (int j = 0; j < 4; j++) {
+                data[p + j] = (byte) (tags[i] >> (24 - 8 * j));
+            }
+            data[p + 11] = (byte) (0x10 * i);
+        }
+        return new XtfTableDirectory(new RandomAccessInputArray(data));
+    }
+
+    /**
+     * Create a map with all tables of a directory registered.
+     *
+     * @param count the array to count the created tables in
+     *
+     * @return the map
+     *
+     * @throws IOException in case of an error
+     */
+    private static XtfTableMap makeMap(final int[] count) throws IOException {
+
+        final XtfTableMap[] map = new XtfTableMap[1];
+        map[0] = new XtfTableMap(new XtfTableMap.TableFactory() {
+
+            /**
+             * {@inheritDoc}
+             *
+             * @see org.extex.font.format.xtf.tables.XtfTableMap.TableFactory#create(org.extex.font.format.xtf.tables.XtfTableDirectory.Entry)
+             */
+            @Override
+            public XtfTable create(XtfTableDirectory.Entry entry) {
+
+                if (entry.getTag() == TAG_C) {
+                    return null;
+                }
+                count[0]++;
+                return new TestTable(map[0], entry.getTag());
+            }
+        });
+        XtfTableDirectory directory = makeDirectory();
+        for (int i = 0; i < directory.getNumTables(); i++) {
+            XtfTableDirectory.Entry entry = directory.getEntry(i);
+            map[0].register(entry.getTag(), entry);
+        }
+        return map[0];
+    }
+
+    /**
+     * <testcase> Test that no table is created when the tables are
+     * registered. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testRegister1() throws Exception {
+
+        int[] count = new int[1];
+        XtfTableMap map = makeMap(count);
+        assertEquals(0, count[0]);
+        assertEquals(3, map.size());
+    }
+
+    /**
+     * <testcase> Test that a table is created and initialized once on the
+     * first request. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testGet1() throws Exception {
+
+        int[] count = new int[1];
+        XtfTableMap map = makeMap(count);
+        XtfTable b = map.get(TAG_B);
+        assertEquals(1, count[0]);
+        assertTrue(((TestTable) b).initialized);
+        assertSame(b, map.get(TAG_B));
+        assertEquals(1, count[0]);
+    }
+
+    /**
+     * <testcase> Test that a table requested in the initialization of another
+     * table is created on demand. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testGet2() throws Exception {
+
+        int[] count = new int[1];
+        XtfTableMap map = makeMap(count);
+        TestTable a = (TestTable) map.get(TAG_A);
+        assertEquals(2, count[0]);
+        assertSame(map.get(TAG_B), a.other);
+    }
+
+    /**
+     * <testcase> Test that unsupported and unknown tables are missing.
+     * </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testGet3() throws Exception {
+
+        int[] count = new int[1];
+        XtfTableMap map = makeMap(count);
+        assertNull(map.get(TAG_C));
+        assertFalse(map.containsKey(TAG_C));
+        assertNull(map.get(0x64646464));
+        assertEquals(0, count[0]);
+    }
+
+    /**
+     * <testcase> Test that all supported tables are created when the keys are
+     * requested. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testGetKeys1() throws Exception {
+
+        int[] count = new int[1];
+        XtfTableMap map = makeMap(count);
+        assertEquals(2, map.getKeys().length);
+        assertEquals(2, count[0]);
+        assertEquals(2, map.getTables().length);
+    }
+
+}
@@ -23,7 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.extex.font.format.tfm.TfmHeaderArray;
-import org.extex.util.file.random.RandomAccessInputStream;
+import org.extex.util.file.random.RandomAccessInputMapped;
 import org.extex.util.file.random.RandomAccessR;
 
 /**
@@ -58,7 +58,7 @@ public class OfmReader {
      */
     public OfmReader(InputStream in, String afontname) throws IOException {
 
-        this(new RandomAccessInputStream(in), afontname);
+        this(RandomAccessInputMapped.open(in), afontname);
     }
 
     /**
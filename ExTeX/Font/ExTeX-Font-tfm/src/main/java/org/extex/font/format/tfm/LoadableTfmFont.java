@@ -41,6 +41,7 @@ import org.extex.core.glue.Glue;
 import org.extex.font.BackendCharacter;
 import org.extex.font.BackendFont;
 import org.extex.font.CoreFontFactory;
+import org.extex.font.DerivableFont;
 import org.extex.font.FontKey;
 import org.extex.font.LoadableFont;
 import org.extex.font.exception.CorruptFontException;
@@ -62,7 +63,8 @@ import org.extex.typesetter.tc.TypesettingContextFactory;
 import org.extex.typesetter.type.Node;
 import org.extex.typesetter.type.node.CharNode;
 import org.extex.typesetter.type.node.factory.NodeFactory;
-import org.extex.util.file.random.RandomAccessInputStream;
+import org.extex.util.file.random.RandomAccessInputMapped;
+import org.extex.util.file.random.RandomAccessR;
 
 /**
  * Class to load tfm fonts.
@@ -72,7 +74,7 @@ import org.extex.util.file.random.RandomAccessInputStream;
  */
 public class LoadableTfmFont
         implements
-            LoadableFont,
+            DerivableFont,
             BackendFont,
             ResourceAware,
             LogEnabled,
@@ -249,8 +251,8 @@ public class LoadableTfmFont
                                 "Tfm.pfbFontNotFound", fontfile));
                         } else {
                             try {
-                                RandomAccessInputStream rar =
-                                        new RandomAccessInputStream(pfbin);
+                                RandomAccessR rar =
+                                        RandomAccessInputMapped.open(pfbin);
                                 pfbdata = rar.getData();
                                 rar.close();
                             } catch (IOException e) {
@@ -300,8 +302,8 @@ public class LoadableTfmFont
                             fontfile));
                     } else {
                         try {
-                            RandomAccessInputStream rar =
-                                    new RandomAccessInputStream(xtfin);
+                            RandomAccessR rar =
+                                    RandomAccessInputMapped.open(xtfin);
                             xtfdata = rar.getData();
                             rar.close();
                         } catch (IOException e) {
@@ -370,6 +372,37 @@ public class LoadableTfmFont
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * The new font shares the metric data and the code point map with this
+     * font.
+     * 
+     * @see org.extex.font.DerivableFont#deriveFont(org.extex.font.CoreFontFactory,
+     *      org.extex.font.FontKey)
+     */
+    @Override
+    public LoadableFont deriveFont(CoreFontFactory factory, FontKey key)
+            throws CorruptFontException,
+                ConfigurationException {
+
+        if (key == null) {
+            throw new IllegalArgumentException("fontkey");
+        }
+        if (factory == null) {
+            throw new IllegalArgumentException("factory");
+        }
+
+        LoadableTfmFont font = new LoadableTfmFont();
+        font.finder = finder;
+        font.logger = logger;
+        font.reader = reader;
+        font.codepointmap = codepointmap;
+        font.fontKey = key;
+        font.actualFontKey = font.makeActualFontKey(factory, key);
+        return font;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -585,7 +618,8 @@ public class LoadableTfmFont
         if (cp1 < 0 || cp2 < 0) {
             return Dimen.ZERO_PT;
         }
-        return reader.getKerning(cp1, cp2).toDimen(getDesignSize());
+        long kern = reader.getLigKernMatrix().getKerning(cp1, cp2);
+        return (kern == 0 ? Dimen.ZERO_PT : new Dimen(kern));
     }
 
     /**
@@ -603,7 +637,7 @@ public class LoadableTfmFont
         if (cp1 < 0 || cp2 < 0) {
             return null;
         }
-        int pos = reader.getLigature(cp1, cp2);
+        int pos = reader.getLigKernMatrix().getLigature(cp1, cp2);
         if (pos < 0) {
             return null;
         }
@@ -831,19 +865,7 @@ public class LoadableTfmFont
             throw new CorruptFontException(key, e.getLocalizedMessage());
         }
 
-        if (key.getDimen(FontKey.SIZE) == null
-                && key.getCount(FontKey.SCALE) == null) {
-            actualFontKey = factory.getFontKey(key, reader.getDesignSize());
-        } else if (key.getCount(FontKey.SCALE) != null) {
-            // design size * scale / 1000
-            actualFontKey =
-                    factory.getFontKey(key, new Dimen(reader.getDesignSize()
-                        .getValue()
-                            * key.getCount(FontKey.SCALE).getValue()
-                            / 1000));
-        } else {
-            actualFontKey = key;
-        }
+        actualFontKey = makeActualFontKey(factory, key);
 
         String cs =
                 reader.getCodingscheme().replaceAll("[^A-Za-z0-9]", "")
@@ -866,6 +888,29 @@ public class LoadableTfmFont
         }
     }
 
+    /**
+     * Compute the actual font key from the design size of the font and the
+     * size or scale of the key.
+     * 
+     * @param factory the font factory
+     * @param key the font key
+     * 
+     * @return the actual font key
+     */
+    private FontKey makeActualFontKey(CoreFontFactory factory, FontKey key) {
+
+        if (key.getDimen(FontKey.SIZE) == null
+                && key.getCount(FontKey.SCALE) == null) {
+            return factory.getFontKey(key, reader.getDesignSize());
+        } else if (key.getCount(FontKey.SCALE) != null) {
+            // design size * scale / 1000
+            return factory.getFontKey(key, new Dimen(reader.getDesignSize()
+                .getValue()
+                    * key.getCount(FontKey.SCALE).getValue() / 1000));
+        }
+        return key;
+    }
+
     /**
      * Load the psfonts.map file.
      */
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.font.format.tfm;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.extex.core.dimen.FixedDimen;
+
+/**
+ * This class contains the lig/kern programs of a font evaluated for all pairs
+ * of characters. The result of a pair can be found with two array accesses
+ * instead of running the lig/kern program of the first character.
+ * <p>
+ * There is one row for each character with a lig/kern program and one for
+ * the program of the left boundary. A row contains one cell for each
+ * character code in the range of the next characters used in any program.
+ * Each cell contains either a kern in scaled points or a ligature step. As in
+ * TeX the first instruction for a next character in a program wins.
+ * </p>
+ * <p>
+ * The kerns are computed for the design size. Thus the matrix does not depend
+ * on the size of the font and is shared by all fonts loaded from the same
+ * metric file.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class TfmLigKernMatrix implements Serializable {
+
+    /**
+     * The constant <tt>BOUNDARY</tt> contains the code of the left boundary
+     * character. It can be used as first character to query the program of
+     * the left boundary.
+     */
+    public static final int BOUNDARY = 256;
+
+    /**
+     * The field <tt>serialVersionUID</tt>.
+     */
+    private static final long serialVersionUID = 2011L;
+
+    /**
+     * The field <tt>bc</tt> contains the smallest character code in the font.
+     */
+    private final int bc;
+
+    /**
+     * The field <tt>boundaryChar</tt> contains the right boundary character
+     * or -1 if there is none.
+     */
+    private final int boundaryChar;
+
+    /**
+     * The field <tt>boundaryRow</tt> contains the start of the row of the
+     * left boundary or -1 if there is no such program.
+     */
+    private final int boundaryRow;
+
+    /**
+     * The field <tt>columns</tt> contains the number of cells in a row.
+     */
+    private final int columns;
+
+    /**
+     * The field <tt>first</tt> contains the character code of the first
+     * column.
+     */
+    private final int first;
+
+    /**
+     * The field <tt>kern</tt> contains the kerns in scaled points.
+     */
+    private final int[] kern;
+
+    /**
+     * The field <tt>lig</tt> contains the ligature steps. The lower 16 bits
+     * contain the character inserted and the upper bits the op byte as
+     * computed by {@link #opByte(TfmLigature) opByte()}. Cells without a
+     * ligature step contain -1.
+     */
+    private final int[] lig;
+
+    /**
+     * The field <tt>rows</tt> contains the start of the row for each
+     * character code minus <tt>bc</tt> or -1 if the character has no
+     * lig/kern program.
+     */
+    private final int[] rows;
+
+    /**
+     * Creates a new object.
+     *
+     * @param ligkern the lig/kern array; the lig/kern programs must have been
+     *        calculated already
+     * @param designSize the design size
+     */
+    public TfmLigKernMatrix(TfmLigKernArray ligkern, FixedDimen designSize) {
+
+        TfmLigKern[] table = ligkern.getLigKernTable();
+        TfmCharInfoWord[] ciw = ligkern.getCharinfo().getCharinfoword();
+        bc = ligkern.getBc();
+        boundaryChar = ligkern.getBoundaryChar();
+
+        int[] start = new int[ciw.length];
+        int n = 0;
+        for (int i = 0; i < ciw.length; i++) {
+            start[i] = (table == null || ciw[i] == null ? -1 : ciw[i]
+                .getLigkernstart());
+            if (start[i] >= 0) {
+                n++;
+            }
+        }
+        int boundaryStart = (table == null ? -1 : ligkern.getBoundaryStart());
+
+        int lo = Integer.MAX_VALUE;
+        int hi = -1;
+        for (TfmLigKern lk : (table == null ? new TfmLigKern[0] : table)) {
+            if (lk instanceof TfmLigature || lk instanceof TfmKerning) {
+                lo = Math.min(lo, lk.getNextChar());
+                hi = Math.max(hi, lk.getNextChar());
+            }
+        }
+        first = (hi < 0 ? 0 : lo);
+        columns = (hi < 0 ? 0 : hi - lo + 1);
+
+        rows = new int[ciw.length];
+        int size = columns * (n + (boundaryStart >= 0 ? 1 : 0));
+        kern = new int[size];
+        lig = new int[size];
+        Arrays.fill(lig, -1);
+        boolean[] set = new boolean[size];
+
+        int row = 0;
+        for (int i = 0; i < ciw.length; i++) {
+            if (start[i] < 0) {
+                rows[i] = -1;
+            } else {
+                rows[i] = row;
+                fill(table, start[i], row, set, designSize);
+                row += columns;
+            }
+        }
+        if (boundaryStart >= 0) {
+            boundaryRow = row;
+            fill(table, boundaryStart, row, set, designSize);
+        } else {
+            boundaryRow = -1;
+        }
+    }
+
+    /**
+     * Compute the op byte of a ligature step.
+     *
+     * @param l the ligature step
+     *
+     * @return the op byte <i>4a+2b+c</i>
+     */
+    private static int opByte(TfmLigature l) {
+
+        return (l.getStepOver() << 2) | (l.isKeepLeft() ? 2 : 0)
+                | (l.isKeepRight() ? 1 : 0);
+    }
+
+    /**
+     * Find the cell for a pair of characters.
+     *
+     * @param cp1 the first character or {@link #BOUNDARY BOUNDARY}
+     * @param cp2 the second character
+     *
+     * @return the index of the cell or -1 if there is none
+     */
+    private int cell(int cp1, int cp2) {
+
+        int row;
+        if (cp1 == BOUNDARY) {
+            row = boundaryRow;
+        } else {
+            int i = cp1 - bc;
+            row = (i >= 0 && i < rows.length ? rows[i] : -1);
+        }
+        int c = cp2 - first;
+        return (row < 0 || c < 0 || c >= columns ? -1 : row + c);
+    }
+
+    /**
+     * Run a lig/kern program and store the results in a row.
+     *
+     * @param table the lig/kern table
+     * @param start the index of the first instruction
+     * @param row the start of the row
+     * @param set the indicators that a cell has been stored already
+     * @param designSize the design size
+     */
+    private void fill(TfmLigKern[] table, int start, int row, boolean[] set,
+            FixedDimen designSize) {
+
+        for (int k = start; k >= 0 && k < table.length && table[k] != null; k =
+                table[k].nextIndex(k)) {
+            TfmLigKern lk = table[k];
+            int cell = row + lk.getNextChar() - first;
+            if (!(lk instanceof TfmLigature || lk instanceof TfmKerning)
+                    || set[cell]) {
+                continue;
+            }
+            set[cell] = true;
+            if (lk instanceof TfmLigature) {
+                TfmLigature l = (TfmLigature) lk;
+                lig[cell] = (opByte(l) << 16) | (l.getAddingChar() & 0xffff);
+            } else {
+                kern[cell] = (int) lk.getKern().toDimen(designSize).getValue();
+            }
+        }
+    }
+
+    /**
+     * Getter for the right boundary character.
+     *
+     * @return the right boundary character or -1 if there is none
+     */
+    public int getBoundaryChar() {
+
+        return boundaryChar;
+    }
+
+    /**
+     * Get the kern between two characters.
+     *
+     * @param cp1 the first character or {@link #BOUNDARY BOUNDARY}
+     * @param cp2 the second character
+     *
+     * @return the kern in scaled points or 0 if there is none
+     */
+    public long getKerning(int cp1, int cp2) {
+
+        int c = cell(cp1, cp2);
+        return (c < 0 ? 0 : kern[c]);
+    }
+
+    /**
+     * Get the character inserted by the ligature step for two characters.
+     *
+     * @param cp1 the first character or {@link #BOUNDARY BOUNDARY}
+     * @param cp2 the second character
+     *
+     * @return the character inserted or -1 if there is no ligature step
+     */
+    public int getLigature(int cp1, int cp2) {
+
+        int c = cell(cp1, cp2);
+        return (c < 0 || lig[c] < 0 ? -1 : lig[c] & 0xffff);
+    }
+
+    /**
+     * Get the op byte of the ligature step for two characters. The op byte is
+     * <i>4a+2b+c</i> where <i>b</i> and <i>c</i> tell whether the current and
+     * the next character are kept and <i>a</i> is the number of characters to
+     * pass over.
+     *
+     * @param cp1 the first character or {@link #BOUNDARY BOUNDARY}
+     * @param cp2 the second character
+     *
+     * @return the op byte or -1 if there is no ligature step
+     */
+    public int getLigatureOp(int cp1, int cp2) {
+
+        int c = cell(cp1, cp2);
+        return (c < 0 || lig[c] < 0 ? -1 : lig[c] >>> 16);
+    }
+
+}
@@ -25,7 +25,7 @@ import java.io.Serializable;
 
 import org.extex.core.dimen.Dimen;
 import org.extex.core.dimen.FixedDimen;
-import org.extex.util.file.random.RandomAccessInputStream;
+import org.extex.util.file.random.RandomAccessInputMapped;
 import org.extex.util.file.random.RandomAccessR;
 
 /**
@@ -103,6 +103,11 @@ public class TfmReader implements Serializable {
      */
     private TfmLigKernArray ligkern;
 
+    /**
+     * The lig/kern programs evaluated for all pairs of characters.
+     */
+    private TfmLigKernMatrix ligkernMatrix;
+
     /**
      * The param.
      */
@@ -142,7 +147,7 @@ public class TfmReader implements Serializable {
      */
     public TfmReader(InputStream in, String afontname) throws IOException {
 
-        this(new RandomAccessInputStream(in), afontname);
+        this(RandomAccessInputMapped.open(in), afontname);
     }
 
     /**
@@ -182,6 +187,9 @@ public class TfmReader implements Serializable {
         // create the lig/kern map for each character
         charinfo.createLigKernMap();
 
+        // evaluate the lig/kern programs for all pairs
+        ligkernMatrix = new TfmLigKernMatrix(ligkern, getDesignSize());
+
     }
 
     /**
@@ -440,6 +448,16 @@ public class TfmReader implements Serializable {
         return ligkern.getLigature(cp1, cp2);
     }
 
+    /**
+     * Getter for the lig/kern programs evaluated for all pairs of characters.
+     * 
+     * @return the lig/kern matrix
+     */
+    public TfmLigKernMatrix getLigKernMatrix() {
+
+        return ligkernMatrix;
+    }
+
     /**
      * Returns the ligkern.
      * 
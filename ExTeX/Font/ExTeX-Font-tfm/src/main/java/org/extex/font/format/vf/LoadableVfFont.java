@@ -345,7 +345,8 @@ public class LoadableVfFont
         if (cp1 < 0 || cp2 < 0) {
             return Dimen.ZERO_PT;
         }
-        return reader.getKerning(cp1, cp2).toDimen(getDesignSize());
+        long kern = reader.getLigKernMatrix().getKerning(cp1, cp2);
+        return (kern == 0 ? Dimen.ZERO_PT : new Dimen(kern));
     }
 
     /**
@@ -362,7 +363,7 @@ public class LoadableVfFont
         if (cp1 < 0 || cp2 < 0) {
             return null;
         }
-        int pos = reader.getLigature(cp1, cp2);
+        int pos = reader.getLigKernMatrix().getLigature(cp1, cp2);
         if (pos < 0) {
             return null;
         }
@@ -35,7 +35,7 @@ import org.extex.font.format.vf.command.VfCommandCharacterPackets;
 import org.extex.font.format.vf.command.VfCommandFontDef;
 import org.extex.framework.i18n.Localizer;
 import org.extex.framework.i18n.LocalizerFactory;
-import org.extex.util.file.random.RandomAccessInputStream;
+import org.extex.util.file.random.RandomAccessInputMapped;
 import org.extex.util.file.random.RandomAccessR;
 import org.extex.util.xml.XMLStreamWriter;
 import org.extex.util.xml.XMLWriterConvertible;
@@ -215,7 +215,7 @@ public class VfFont implements XMLWriterConvertible {
         chars = new HashMap<Integer, VfCommandCharacterPackets>();
 
         try {
-            RandomAccessR rar = new RandomAccessInputStream(in);
+            RandomAccessR rar = RandomAccessInputMapped.open(in);
 
             while (true) {
                 VfCommand command = VfCommand.getInstance(localizer, rar);
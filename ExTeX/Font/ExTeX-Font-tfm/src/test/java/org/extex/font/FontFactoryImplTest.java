@@ -21,7 +21,9 @@ package org.extex.font;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.HashMap;
@@ -30,6 +32,7 @@ import org.extex.core.dimen.Dimen;
 import org.extex.core.dimen.FixedDimen;
 import org.extex.font.exception.CorruptFontException;
 import org.extex.font.format.NullExtexFont;
+import org.extex.resource.ResourceFinder;
 import org.junit.Test;
 
 /**
@@ -281,4 +284,61 @@ public class FontFactoryImplTest extends AbstractFontFactoryTester {
         assertNull(key.getDimen("size"));
     }
 
+    /**
+     * Test for the font cache: a font loaded with one resource finder is not
+     * used for another resource finder.
+     * 
+     * @throws Exception if an error occurred.
+     */
+    @Test
+    public void testCache01() throws Exception {
+
+        FontFactoryImpl factory = (FontFactoryImpl) makeFontFactory();
+        ResourceFinder finder1 = finder;
+        FontKey key = factory.getFontKey("cmr12");
+        ExtexFont font = factory.getInstance(key);
+        assertNotNull(font);
+
+        makeFontFactory();
+        factory.setResourceFinder(finder);
+        assertNotSame(font, factory.getInstance(key));
+
+        factory.setResourceFinder(finder1);
+        assertSame(font, factory.getInstance(key));
+    }
+
+    /**
+     * Test for the font cache: factories configured separately with the same
+     * configuration share the fonts if they share the resource finder.
+     * 
+     * @throws Exception if an error occurred.
+     */
+    @Test
+    public void testCache03() throws Exception {
+
+        FontFactoryImpl factory1 = (FontFactoryImpl) makeFontFactory();
+        ResourceFinder finder1 = finder;
+        FontFactoryImpl factory2 = (FontFactoryImpl) makeFontFactory();
+        factory2.setResourceFinder(finder1);
+
+        FontKey key = factory1.getFontKey("cmr12");
+        assertSame(factory1.getInstance(key), factory2.getInstance(key));
+    }
+
+    /**
+     * Test for the font cache: the weight of a font is the number of bytes
+     * read.
+     * 
+     * @throws Exception if an error occurred.
+     */
+    @Test
+    public void testCache02() throws Exception {
+
+        FontFactoryImpl factory = (FontFactoryImpl) makeFontFactory();
+        FontCache cache = new FontCache(8, Long.MAX_VALUE);
+        factory.setFontCache(cache);
+        factory.getInstance(factory.getFontKey("cmr12"));
+        assertTrue(cache.getWeight() > 0);
+    }
+
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.font.format.tfm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileInputStream;
+import java.util.BitSet;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This is a test suite for the {@link TfmLigKernMatrix TfmLigKernMatrix}.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class TfmLigKernMatrixTest {
+
+    /**
+     * The constant <tt>DIR</tt> contains the directory of the tfm files.
+     */
+    private static final String DIR =
+            "../../../texmf/src/texmf/fonts/tfm/public/";
+
+    /**
+     * The command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(TfmLigKernMatrixTest.class);
+    }
+
+    /**
+     * Check that the matrix contains the first instruction for each next
+     * character in the lig/kern program of each character.
+     *
+     * @param name the name of the tfm file relative to {@link #DIR DIR}
+     *
+     * @return the number of cells checked
+     *
+     * @throws Exception in case of an error
+     */
+    private static int check(String name) throws Exception {
+
+        TfmReader reader =
+                new TfmReader(new FileInputStream(DIR + name), name);
+        TfmLigKernMatrix matrix = reader.getLigKernMatrix();
+        TfmLigKern[] table = reader.getLigkern().getLigKernTable();
+        TfmCharInfoWord[] ciw = reader.getCharinfo().getCharinfoword();
+        int bc = reader.getLengths().getBc();
+        int count = 0;
+        for (int i = 0; i < ciw.length; i++) {
+            BitSet seen = new BitSet();
+            for (int k = ciw[i].getLigkernstart(); k >= 0 && k < table.length
+                    && table[k] != null; k = table[k].nextIndex(k)) {
+                TfmLigKern lk = table[k];
+                int next = lk.getNextChar();
+                if (seen.get(next)) {
+                    continue;
+                }
+                seen.set(next);
+                if (lk instanceof TfmKerning) {
+                    assertEquals(lk.getKern()
+                        .toDimen(reader.getDesignSize()).getValue(), matrix
+                        .getKerning(i + bc, next));
+                    assertEquals(-1, matrix.getLigature(i + bc, next));
+                } else if (lk instanceof TfmLigature) {
+                    assertEquals(((TfmLigature) lk).getAddingChar(), matrix
+                        .getLigature(i + bc, next));
+                    assertEquals(0, matrix.getKerning(i + bc, next));
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * <testcase> Test that the matrix of cmr10 contains all pairs of the
+     * lig/kern programs. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testCmr10() throws Exception {
+
+        assertTrue(check("cm/cmr10.tfm") > 100);
+    }
+
+    /**
+     * <testcase> Test that the first instruction for a next character wins
+     * in cmmi10 where the program of N contains two kerns for =. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testCmmi10() throws Exception {
+
+        assertTrue(check("cm/cmmi10.tfm") > 100);
+    }
+
+    /**
+     * <testcase> Test that the characters of a font starting at A are found
+     * by their character codes. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testLogo10() throws Exception {
+
+        assertTrue(check("mflogo/logo10.tfm") > 0);
+    }
+
+    /**
+     * <testcase> Test the ligatures of cmr10. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testLigature1() throws Exception {
+
+        TfmLigKernMatrix matrix =
+                new TfmReader(new FileInputStream(DIR + "cm/cmr10.tfm"),
+                    "cmr10").getLigKernMatrix();
+        assertEquals(014, matrix.getLigature('f', 'i'));
+        assertEquals(0, matrix.getLigatureOp('f', 'i'));
+        assertEquals(013, matrix.getLigature('f', 'f'));
+        assertEquals(-1, matrix.getLigature('i', 'f'));
+        assertEquals(-1, matrix.getLigatureOp('i', 'f'));
+        assertEquals(-1, matrix.getLigature(-1, 'f'));
+        assertEquals(-1, matrix.getLigature('f', 0x100));
+        assertEquals(0, matrix.getKerning(TfmLigKernMatrix.BOUNDARY, 'A'));
+        assertEquals(-1, matrix.getBoundaryChar());
+    }
+
+}
@@ -101,6 +101,19 @@ public interface Interpreter extends TokenSource {
     void loadFormat(InputStream stream, String fmt, String contextType,
             String languageType) throws LoaderException, IOException;
 
+    /**
+     * Use a context which has been loaded from a format already, e.g. a fork
+     * of such a context. The context is attached to this interpreter like a
+     * context read by
+     * {@link #loadFormat(InputStream, String, String, String) loadFormat()}.
+     * The context is expected to be configured already.
+     * 
+     * @param context the context to use
+     * 
+     * @throws LoaderException in case of an error during loading
+     */
+    void loadFormat(Context context) throws LoaderException;
+
     /**
      * Load a unit.
      * 
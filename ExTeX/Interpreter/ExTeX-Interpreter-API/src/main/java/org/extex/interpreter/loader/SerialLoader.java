@@ -59,6 +59,14 @@ import org.extex.interpreter.context.Context;
  *  </dt>
  * </dl>
  * </p>
+ * <p>
+ * The objects following the magic line are compressed with gzip. They are
+ * written and read through buffers on both sides of the compression.
+ * </p>
+ * <p>
+ * Formats of version 1.0 are accepted as well. They differ in the encoding of
+ * the hyphenation tables only.
+ * </p>
  *
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @version $Revision:4408 $
@@ -74,7 +82,14 @@ public class SerialLoader {
      * The constant <tt>FORMAT_VERSION</tt> contains the version number of the
      * format file.
      */
-    private static final String FORMAT_VERSION = "1.0";
+    private static final String FORMAT_VERSION = "1.1";
+
+    /**
+     * The constant <tt>FORMAT_VERSION_1_0</tt> contains the version number of
+     * the previous format files. They differ in the encoding of the
+     * hyphenation tables only and can still be read.
+     */
+    private static final String FORMAT_VERSION_1_0 = "1.0";
 
     /**
      * The field <tt>FORMAT_ID</tt> contains the id string stored in the
@@ -82,6 +97,12 @@ public class SerialLoader {
      */
     private static final String FORMAT_ID = "ExTeX format";
 
+    /**
+     * The constant <tt>BUFFER_SIZE</tt> contains the size of the buffers for
+     * reading and writing formats.
+     */
+    private static final int BUFFER_SIZE = 0x10000;
+
     /**
      * Creates a new object.
      */
@@ -103,7 +124,7 @@ public class SerialLoader {
             throws IOException,
                 LoaderException {
 
-        InputStream inStream = new BufferedInputStream(stream);
+        InputStream inStream = new BufferedInputStream(stream, BUFFER_SIZE);
 
         for (int c = inStream.read(); c != '\n'; c = inStream.read()) {
             if (c < 0) {
@@ -111,8 +132,9 @@ public class SerialLoader {
             }
         }
 
-        ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(
-                inStream));
+        ObjectInputStream in =
+                new ObjectInputStream(new BufferedInputStream(
+                    new GZIPInputStream(inStream, BUFFER_SIZE), BUFFER_SIZE));
         Context context;
         try {
             String id = (String) in.readObject();
@@ -121,7 +143,8 @@ public class SerialLoader {
             }
 
             String version = (String) in.readObject();
-            if (!version.equals(FORMAT_VERSION)) {
+            if (!version.equals(FORMAT_VERSION)
+                    && !version.equals(FORMAT_VERSION_1_0)) {
                 throw new LoaderVersionException(version);
             }
             context = (Context) in.readObject();
@@ -148,12 +171,13 @@ public class SerialLoader {
     public void save(OutputStream stream, String jobname,
             Context context) throws IOException {
 
-        OutputStream outStream = new BufferedOutputStream(stream);
+        OutputStream outStream = new BufferedOutputStream(stream, BUFFER_SIZE);
 
         outStream.write(MAGIC_LINE.getBytes());
 
-        ObjectOutputStream os = new ObjectOutputStream(new GZIPOutputStream(
-                outStream));
+        ObjectOutputStream os =
+                new ObjectOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(outStream, BUFFER_SIZE), BUFFER_SIZE));
         os.writeObject(FORMAT_ID);
         os.writeObject(FORMAT_VERSION);
         os.writeObject(context);
@@ -148,6 +148,18 @@ public class Box implements BoxOrRule, Serializable {
         nodes = null;
     }
 
+    /**
+     * Make a copy of this box which does not share any nodes or dimensions
+     * with the original. Thus the original is not affected by modifications
+     * of the copy and vice versa.
+     * 
+     * @return the copy
+     */
+    public Box deepCopy() {
+
+        return new Box(nodes == null ? null : nodes.deepCopy());
+    }
+
     /**
      * Getter for the depth of this box.
      * 
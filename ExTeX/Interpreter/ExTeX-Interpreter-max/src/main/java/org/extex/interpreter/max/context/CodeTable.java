@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class provides a table for values attached to characters like the
+ * category codes or the space factor codes. The table is indexed by the code
+ * point of the character.
+ * <p>
+ * The characters of the basic multilingual plane (0&ndash;0xFFFF) are stored
+ * in arrays. To keep the table small the arrays are organized in pages of 256
+ * characters which are allocated when the first value in the page is stored.
+ * The remaining characters are stored in an overflow map.
+ * </p>
+ * <p>
+ * Like the {@link RegisterTable RegisterTable} the table holds the current
+ * values only. A local assignment records the value it overwrites on a save
+ * stack. When a group is closed the saved values of this group are restored
+ * unless the character has been assigned globally in the meantime.
+ * </p>
+ * <p>
+ * A table can be forked. The fork shares the pages with the original table.
+ * A page is copied when it is modified for the first time in one of the
+ * tables. Thus a fork costs memory for the pages modified only.
+ * </p>
+ *
+ * @param <T> the type of the values stored
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class CodeTable<T> implements Serializable {
+
+    /**
+     * This class is an item on the save stack. It contains the value which
+     * has been replaced by a local assignment.
+     */
+    private static final class SaveItem implements Serializable {
+
+        /**
+         * The constant <tt>serialVersionUID</tt> contains the id for
+         * serialization.
+         */
+        private static final long serialVersionUID = 2011L;
+
+        /**
+         * The field <tt>code</tt> contains the code point.
+         */
+        private int code;
+
+        /**
+         * The field <tt>level</tt> contains the group level which has to
+         * restore the entry.
+         */
+        private int level;
+
+        /**
+         * The field <tt>savedLevel</tt> contains the level of the saved value.
+         */
+        private int savedLevel;
+
+        /**
+         * The field <tt>savedValue</tt> contains the saved value. The value
+         * <code>null</code> indicates that no value has been stored before.
+         */
+        private Object savedValue;
+
+        /**
+         * Creates a new object.
+         *
+         * @param code the code point
+         * @param savedValue the value to save
+         * @param savedLevel the level of the value to save
+         * @param level the group level
+         */
+        SaveItem(int code, Object savedValue, int savedLevel, int level) {
+
+            this.code = code;
+            this.savedValue = savedValue;
+            this.savedLevel = savedLevel;
+            this.level = level;
+        }
+    }
+
+    /**
+     * The constant <tt>BMP_LIMIT</tt> contains the first code point not
+     * stored in the pages.
+     */
+    private static final int BMP_LIMIT = 0x10000;
+
+    /**
+     * The constant <tt>PAGE_BITS</tt> contains the number of bits of the code
+     * point which are used as index into a page.
+     */
+    private static final int PAGE_BITS = 8;
+
+    /**
+     * The constant <tt>PAGE_MASK</tt> contains the mask for the index into a
+     * page.
+     */
+    private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+    /**
+     * The constant <tt>serialVersionUID</tt> contains the id for
+     * serialization.
+     */
+    private static final long serialVersionUID = 2011L;
+
+    /**
+     * The field <tt>levels</tt> contains the pages of group levels for the
+     * values in the basic multilingual plane. The level 0 is used for global
+     * assignments.
+     */
+    private int[][] levels = new int[BMP_LIMIT >> PAGE_BITS][];
+
+    /**
+     * The field <tt>overflow</tt> contains the values and levels for
+     * characters outside the basic multilingual plane. The items serve as
+     * containers for the current value and level. The map is created on
+     * demand.
+     */
+    private Map<Integer, SaveItem> overflow = null;
+
+    /**
+     * The field <tt>saveStack</tt> contains the save stack. The items of the
+     * innermost group are on top of the stack.
+     */
+    private List<SaveItem> saveStack = new ArrayList<SaveItem>();
+
+    /**
+     * The field <tt>sharedPages</tt> contains the indicators for the pages
+     * which are shared with another table and have to be copied before they
+     * are modified. The value <code>null</code> indicates that no page is
+     * shared.
+     */
+    private transient boolean[] sharedPages = null;
+
+    /**
+     * The field <tt>values</tt> contains the pages of values for the basic
+     * multilingual plane.
+     */
+    private Object[][] values = new Object[BMP_LIMIT >> PAGE_BITS][];
+
+    /**
+     * Creates a new object.
+     */
+    public CodeTable() {
+
+        super();
+    }
+
+    /**
+     * Create a copy of this table. The pages are shared until they are
+     * modified in one of the tables.
+     *
+     * @return the new table
+     */
+    public synchronized CodeTable<T> fork() {
+
+        if (sharedPages == null) {
+            sharedPages = new boolean[values.length];
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                sharedPages[i] = true;
+            }
+        }
+        CodeTable<T> fork = new CodeTable<T>();
+        fork.values = values.clone();
+        fork.levels = levels.clone();
+        fork.sharedPages = sharedPages.clone();
+        fork.saveStack.addAll(saveStack);
+        if (overflow != null) {
+            fork.overflow = new HashMap<Integer, SaveItem>();
+            for (SaveItem item : overflow.values()) {
+                fork.overflow.put(Integer.valueOf(item.code), new SaveItem(
+                    item.code, item.savedValue, item.savedLevel, item.level));
+            }
+        }
+        return fork;
+    }
+
+    /**
+     * Getter for the current value of a character.
+     *
+     * @param code the code point of the character
+     *
+     * @return the current value or <code>null</code> if none is defined
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int code) {
+
+        if (code >= 0 && code < BMP_LIMIT) {
+            Object[] page = values[code >> PAGE_BITS];
+            return page == null ? null : (T) page[code & PAGE_MASK];
+        }
+        if (overflow == null) {
+            return null;
+        }
+        SaveItem item = overflow.get(Integer.valueOf(code));
+        return item == null ? null : (T) item.savedValue;
+    }
+
+    /**
+     * Assign a value to a character.
+     *
+     * @param code the code point of the character
+     * @param value the new value
+     * @param level the current group level
+     * @param global the indicator for the scope; <code>true</code> means all
+     *        groups; otherwise the current group is affected only
+     */
+    public void put(int code, T value, int level, boolean global) {
+
+        int lev = global ? 0 : level;
+
+        if (code >= 0 && code < BMP_LIMIT) {
+            int p = code >> PAGE_BITS;
+            int i = code & PAGE_MASK;
+            Object[] page = values[p];
+            if (page == null) {
+                page = new Object[PAGE_MASK + 1];
+                values[p] = page;
+                levels[p] = new int[PAGE_MASK + 1];
+            } else if (sharedPages != null && sharedPages[p]) {
+                page = writablePage(p);
+            }
+            if (lev != 0 && levels[p][i] != lev) {
+                saveStack.add(new SaveItem(code, page[i], levels[p][i], lev));
+            }
+            page[i] = value;
+            levels[p][i] = lev;
+            return;
+        }
+
+        if (overflow == null) {
+            overflow = new HashMap<Integer, SaveItem>();
+        }
+        Integer key = Integer.valueOf(code);
+        SaveItem item = overflow.get(key);
+        if (item == null) {
+            item = new SaveItem(code, null, 0, 0);
+            overflow.put(key, item);
+        }
+        if (lev != 0 && item.savedLevel != lev) {
+            saveStack.add(new SaveItem(code, item.savedValue, item.savedLevel,
+                lev));
+        }
+        item.savedValue = value;
+        item.savedLevel = lev;
+    }
+
+    /**
+     * Restore the values saved for a group which is about to be closed.
+     * Characters which have been assigned globally keep their value.
+     *
+     * @param level the level of the group to be closed
+     */
+    public void unsave(int level) {
+
+        for (int i = saveStack.size() - 1; i >= 0; i--) {
+            SaveItem item = saveStack.get(i);
+            if (item.level != level) {
+                return;
+            }
+            saveStack.remove(i);
+            int code = item.code;
+            if (code >= 0 && code < BMP_LIMIT) {
+                int p = code >> PAGE_BITS;
+                int j = code & PAGE_MASK;
+                if (levels[p][j] != 0) {
+                    if (sharedPages != null && sharedPages[p]) {
+                        writablePage(p);
+                    }
+                    values[p][j] = item.savedValue;
+                    levels[p][j] = item.savedLevel;
+                }
+            } else {
+                SaveItem current = overflow.get(Integer.valueOf(code));
+                if (current.savedLevel != 0) {
+                    current.savedValue = item.savedValue;
+                    current.savedLevel = item.savedLevel;
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy a shared page such that it can be modified.
+     *
+     * @param p the index of the page
+     *
+     * @return the copied page of values
+     */
+    private Object[] writablePage(int p) {
+
+        values[p] = values[p].clone();
+        levels[p] = levels[p].clone();
+        sharedPages[p] = false;
+        return values[p];
+    }
+
+}
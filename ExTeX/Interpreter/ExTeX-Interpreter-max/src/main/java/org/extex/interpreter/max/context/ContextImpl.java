@@ -96,6 +96,7 @@ import org.extex.scanner.type.file.OutFile;
 import org.extex.scanner.type.token.CodeToken;
 import org.extex.scanner.type.token.Token;
 import org.extex.scanner.type.token.TokenFactory;
+import org.extex.scanner.type.token.TokenFactoryImpl;
 import org.extex.scanner.type.tokens.FixedTokens;
 import org.extex.scanner.type.tokens.Tokens;
 import org.extex.typesetter.Typesetter;
@@ -168,18 +169,6 @@ public class ContextImpl
             Configurable,
             Serializable {
 
-    /**
-     * The field <tt>bottommarks</tt> contains the bottom marks.
-     */
-    private static Map<Object, Tokens> bottommarks =
-            new HashMap<Object, Tokens>();
-
-    /**
-     * The field <tt>firstmarks</tt> contains the first marks.
-     */
-    private static Map<Object, Tokens> firstmarks =
-            new HashMap<Object, Tokens>();
-
     /**
      * The constant <tt>GROUP_TAG</tt> contains the name of the tag for the
      * sub-configuration for the group factory.
@@ -198,11 +187,6 @@ public class ContextImpl
      */
     protected static final long serialVersionUID = 20060512L;
 
-    /**
-     * The field <tt>topmarks</tt> contains the top marks.
-     */
-    private static Map<Object, Tokens> topmarks = new HashMap<Object, Tokens>();
-
     /**
      * The constant <tt>TYPESETTING_CONTEXT_TAG</tt> contains the name of the
      * configuration tag for the typesetting context.
@@ -215,6 +199,11 @@ public class ContextImpl
      */
     private Token afterassignment = null;
 
+    /**
+     * The field <tt>bottommarks</tt> contains the bottom marks.
+     */
+    private transient Map<Object, Tokens> bottommarks;
+
     /**
      * The field <tt>changeCodeObservers</tt> contains the list of observers
      * registered for change event on the code.
@@ -273,6 +262,11 @@ public class ContextImpl
      */
     private int errorCount = 0;
 
+    /**
+     * The field <tt>firstmarks</tt> contains the first marks.
+     */
+    private transient Map<Object, Tokens> firstmarks;
+
     /**
      * The field <tt>fontFactory</tt> contains the font factory to use.
      */
@@ -383,6 +377,11 @@ public class ContextImpl
      */
     private transient TokenFactory tokenFactory;
 
+    /**
+     * The field <tt>topmarks</tt> contains the top marks.
+     */
+    private transient Map<Object, Tokens> topmarks;
+
     /**
      * The field <tt>tcFactory</tt> contains the factory to acquire new
      * instances of a TypesettingContext.
@@ -622,6 +621,66 @@ public class ContextImpl
         return (esc >= 0 ? UnicodeChar.get((int) esc) : null);
     }
 
+    /**
+     * Create a fork of this context. The fork starts with the same values as
+     * this context. Later modifications in one of the contexts are not visible
+     * in the other one.
+     * <p>
+     * The groups and the register and code tables are shared with this
+     * context until they are modified. Thus the memory needed for a fork is
+     * proportional to the modifications only. This can be used to run many
+     * jobs from one context which has been loaded from a format. The box
+     * registers are copied since boxes are modified in place.
+     * </p>
+     * <p>
+     * The fork is in the state of a context freshly loaded from a format: the
+     * observers, the open files, and the standard token stream are not
+     * carried over. The fork gets a token factory of its own since the token
+     * factory caches the tokens in unsynchronized maps. The other factories,
+     * the fonts, and the language manager are shared. The context must not be
+     * modified by another thread while it is forked. The forks can be used in
+     * different threads.
+     * </p>
+     * 
+     * @return the fork of the context
+     */
+    public synchronized ContextImpl fork() {
+
+        ContextImpl context = new ContextImpl();
+        context.afterassignment = afterassignment;
+        context.conditionalStack = new ArrayList<Conditional>(conditionalStack);
+        context.dirStack.addAll(dirStack);
+        context.errorCount = errorCount;
+        context.fontFactory = fontFactory;
+        context.group = (group == null ? null : group.fork());
+        context.groupFactory = groupFactory;
+        context.id = id;
+        context.interaction = interaction;
+        context.languageManager = languageManager;
+        if (loadObservers != null) {
+            context.loadObservers =
+                    new ArrayList<LoadedObserver>(loadObservers);
+        }
+        context.localizer = localizer;
+        context.logger = logger;
+        context.magnification = magnification;
+        context.magnificationLock = magnificationLock;
+        context.magnificationMax = magnificationMax;
+        context.parshape = parshape;
+        context.splitBottomMarks.putAll(splitBottomMarks);
+        context.splitFirstMarks.putAll(splitFirstMarks);
+        context.topmarks.putAll(topmarks);
+        context.firstmarks.putAll(firstmarks);
+        context.bottommarks.putAll(bottommarks);
+        context.tokenFactory =
+                (tokenFactory instanceof TokenFactoryImpl
+                        ? new TokenFactoryImpl()
+                        : tokenFactory);
+        context.typesettingContextFactory = typesettingContextFactory;
+        context.units.addAll(units);
+        return context;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -697,7 +756,22 @@ public class ContextImpl
     @Override
     public Catcode getCatcode(UnicodeChar uc) {
 
-        return group.getCatcode(uc);
+        return group.getCatcode(uc.getCodePoint());
+    }
+
+    /**
+     * Get the {@link Catcode Catcode} for a character given by its code point.
+     * 
+     * @param codePoint the code point of the character
+     * 
+     * @return the catcode for the character
+     * 
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+     */
+    @Override
+    public Catcode getCatcode(int codePoint) {
+
+        return group.getCatcode(codePoint);
     }
 
     /**
@@ -1358,6 +1432,9 @@ public class ContextImpl
         changeToksObservers = new HashMap<String, List<TokensObserver>>();
         changeInteractionObservers = new ArrayList<InteractionObserver>();
         groupObservers = null;
+        topmarks = new HashMap<Object, Tokens>();
+        firstmarks = new HashMap<Object, Tokens>();
+        bottommarks = new HashMap<Object, Tokens>();
 
         LanguageObserver languageObserver = new LanguageObserver();
         registerCountObserver("language", languageObserver);
@@ -76,6 +76,15 @@ public interface Group extends Tokenizer, Serializable {
      */
     void afterGroup(Token t);
 
+    /**
+     * Create a fork of this group and the groups below it. The fork starts
+     * with the same values as this group. Later modifications in one of the
+     * groups are not visible in the other one.
+     * 
+     * @return the fork of the group
+     */
+    Group fork();
+
     /**
      * Getter for the tokens which are inserted after the group has been closed.
      * 
@@ -108,6 +117,15 @@ public interface Group extends Tokenizer, Serializable {
      */
     Catcode getCatcode(UnicodeChar c);
 
+    /**
+     * Getter for the catcode of a character given by its code point.
+     * 
+     * @param codePoint the code point of the character to analyze
+     * 
+     * @return the catcode of a character
+     */
+    Catcode getCatcode(int codePoint);
+
     /**
      * Getter for the definition of an active character or macro.
      * 
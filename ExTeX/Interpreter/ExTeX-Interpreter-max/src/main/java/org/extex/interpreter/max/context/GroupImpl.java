@@ -59,7 +59,15 @@ import org.extex.typesetter.type.noad.MathGlyph;
  * This is a simple implementation for a group. The whole stack of groups is
  * implemented as a linked list. The list itself is mixed within the pure
  * elements of the linked list.
- * 
+ * <p>
+ * The count, dimen, skip, muskip, and toks registers are an exception. They
+ * are kept in {@link RegisterTable RegisterTable}s shared by all groups of
+ * the list. Thus reading a register takes constant time independent of the
+ * depth of the group nesting. The same holds for the codes attached to
+ * characters, i.e. catcode, lccode, uccode, sfcode, mathcode, and delcode.
+ * They are kept in {@link CodeTable CodeTable}s indexed by the code point.
+ * </p>
+ *
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
  * @version $Revision: 4770 $
@@ -89,6 +97,36 @@ public class GroupImpl implements Group {
      */
     private static final FixedCount SFCODE_LETTER = new CountConstant(999);
 
+    /**
+     * The constant <tt>SHARED_CODE</tt> contains the bit for the shared code
+     * map.
+     */
+    private static final int SHARED_CODE = 2;
+
+    /**
+     * The constant <tt>SHARED_EXTENSION</tt> contains the bit for the shared
+     * extension map.
+     */
+    private static final int SHARED_EXTENSION = 4;
+
+    /**
+     * The constant <tt>SHARED_FONT</tt> contains the bit for the shared font
+     * map.
+     */
+    private static final int SHARED_FONT = 8;
+
+    /**
+     * The constant <tt>SHARED_IF</tt> contains the bit for the shared if map.
+     */
+    private static final int SHARED_IF = 16;
+
+    /**
+     * The constant <tt>SHARED_ALL</tt> contains the bits for all maps which
+     * can be shared.
+     */
+    private static final int SHARED_ALL =
+            SHARED_CODE | SHARED_EXTENSION | SHARED_FONT | SHARED_IF;
+
     /**
      * The field <tt>afterGroup</tt> contains the tokens to be inserted after
      * the group has been closed.
@@ -108,10 +146,10 @@ public class GroupImpl implements Group {
     private Map<String, Box> boxMap;
 
     /**
-     * The field <tt>catcodeMap</tt> contains the map for the category codes.
-     * The field is initialized lacy. Thus new groups come up faster.
+     * The field <tt>catcodeTable</tt> contains the table for the category
+     * codes. It is shared by all groups in the linked list.
      */
-    private Map<UnicodeChar, Catcode> catcodeMap;
+    private CodeTable<Catcode> catcodeTable;
 
     /**
      * The field <tt>codeMap</tt> contains the map for the active characters and
@@ -121,23 +159,22 @@ public class GroupImpl implements Group {
     private Map<Token, Code> codeMap;
 
     /**
-     * The field <tt>countMap</tt> contains the map for the count registers. The
-     * field is initialized lacy. Thus new groups come up faster.
+     * The field <tt>countTable</tt> contains the table for the count
+     * registers. It is shared by all groups in the linked list.
      */
-    private Map<String, Count> countMap;
+    private RegisterTable<Count> countTable;
 
     /**
-     * The field <tt>delcodeMap</tt> contains the map for the delimiter code of
-     * the characters. The field is initialized lacy. Thus new groups come up
-     * faster.
+     * The field <tt>delcodeTable</tt> contains the table for the delimiter
+     * codes. It is shared by all groups in the linked list.
      */
-    private Map<UnicodeChar, MathDelimiter> delcodeMap;
+    private CodeTable<MathDelimiter> delcodeTable;
 
     /**
-     * The field <tt>dimenMap</tt> contains the map for the dimen registers. The
-     * field is initialized lacy. Thus new groups come up faster.
+     * The field <tt>dimenTable</tt> contains the table for the dimen
+     * registers. It is shared by all groups in the linked list.
      */
-    private Map<String, Dimen> dimenMap;
+    private RegisterTable<Dimen> dimenTable;
 
     /**
      * The field <tt>extensionMap</tt> contains the mapping from extension to
@@ -166,11 +203,16 @@ public class GroupImpl implements Group {
     private transient Map<String, InFile> inFileMap;
 
     /**
-     * The field <tt>lccodeMap</tt> contains the map for the translation to
-     * lower case. The field is initialized lacy. Thus new groups come up
-     * faster.
+     * The field <tt>lccodeTable</tt> contains the table for the lower case
+     * codes. It is shared by all groups in the linked list.
      */
-    private Map<UnicodeChar, UnicodeChar> lccodeMap;
+    private CodeTable<UnicodeChar> lccodeTable;
+
+    /**
+     * The field <tt>level</tt> contains the group level. The bottom level
+     * group has the level 0.
+     */
+    private int level;
 
     /**
      * The field <tt>locator</tt> contains the locator to determine the position
@@ -179,16 +221,16 @@ public class GroupImpl implements Group {
     private transient Locator locator;
 
     /**
-     * The field <tt>mathcodeMap</tt> contains the map for the category codes.
-     * The field is initialized lacy. Thus new groups come up faster.
+     * The field <tt>mathcodeTable</tt> contains the table for the math codes.
+     * It is shared by all groups in the linked list.
      */
-    private Map<UnicodeChar, MathCode> mathcodeMap;
+    private CodeTable<MathCode> mathcodeTable;
 
     /**
-     * The field <tt>muskipMap</tt> contains the map for the muskip registers.
-     * The field is initialized lacy. Thus new groups come up faster.
+     * The field <tt>muskipTable</tt> contains the table for the muskip
+     * registers. It is shared by all groups in the linked list.
      */
-    private Map<String, Muskip> muskipMap;
+    private RegisterTable<Muskip> muskipTable;
 
     /**
      * The field <tt>namespace</tt> contains the current name space.
@@ -208,16 +250,23 @@ public class GroupImpl implements Group {
     private transient Map<String, OutFile> outFileMap;
 
     /**
-     * The field <tt>sfcodeMap</tt> contains the map for the space factor. The
-     * field is initialized lacy. Thus new groups come up faster.
+     * The field <tt>sfcodeTable</tt> contains the table for the space factor
+     * codes. It is shared by all groups in the linked list.
      */
-    private Map<UnicodeChar, Count> sfcodeMap;
+    private CodeTable<Count> sfcodeTable;
 
     /**
-     * The field <tt>skipMap</tt> contains the map for the skip registers The
-     * field is initialized lacy. Thus new groups come up faster.
+     * The field <tt>sharedMaps</tt> contains the bits for the maps which are
+     * shared with a forked group. A shared map is copied before it is
+     * modified.
      */
-    private Map<String, Glue> skipMap;
+    private transient int sharedMaps = 0;
+
+    /**
+     * The field <tt>skipTable</tt> contains the table for the skip registers.
+     * It is shared by all groups in the linked list.
+     */
+    private RegisterTable<Glue> skipTable;
 
     /**
      * The field <tt>standardTokenStream</tt> contains the standard token
@@ -231,10 +280,10 @@ public class GroupImpl implements Group {
     private Token start;
 
     /**
-     * The field <tt>toksMap</tt> contains the map for the tokens registers. The
-     * field is initialized lacy. Thus new groups come up faster.
+     * The field <tt>toksTable</tt> contains the table for the tokens
+     * registers. It is shared by all groups in the linked list.
      */
-    private Map<String, Tokens> toksMap;
+    private RegisterTable<Tokens> toksTable;
 
     /**
      * The field <tt>type</tt> contains the type number of the group as returned
@@ -249,14 +298,20 @@ public class GroupImpl implements Group {
     private TypesettingContext typesettingContext = null;
 
     /**
-     * The field <tt>uccodeMap</tt> contains the map for the translation to
-     * upper case. The field is initialized lacy. Thus new groups come up
-     * faster.
+     * The field <tt>uccodeTable</tt> contains the table for the upper case
+     * codes. It is shared by all groups in the linked list.
      */
-    private Map<UnicodeChar, UnicodeChar> uccodeMap;
+    private CodeTable<UnicodeChar> uccodeTable;
 
     /**
      * Creates a new object.
+     * <p>
+     * The count, dimen, skip, muskip, and toks registers and the codes attached
+     * to characters are kept in tables which are shared with the next group if
+     * it is a <tt>GroupImpl</tt>.
+     * Thus the access to those registers does not depend on the number of
+     * open groups. The local values are restored when the group is closed.
+     * </p>
      * 
      * @param nextGroup the next group in the stack. If the value is
      *        <code>null</code> then this is the global base
@@ -264,6 +319,73 @@ public class GroupImpl implements Group {
     public GroupImpl(Group nextGroup) {
 
         this.next = nextGroup;
+        if (nextGroup instanceof GroupImpl) {
+            level = ((GroupImpl) nextGroup).level + 1;
+            shareTables((GroupImpl) nextGroup);
+        } else {
+            level = nextGroup == null ? 0 : (int) nextGroup.getLevel() + 1;
+            countTable = new RegisterTable<Count>();
+            dimenTable = new RegisterTable<Dimen>();
+            skipTable = new RegisterTable<Glue>();
+            muskipTable = new RegisterTable<Muskip>();
+            toksTable = new RegisterTable<Tokens>();
+            catcodeTable = new CodeTable<Catcode>();
+            delcodeTable = new CodeTable<MathDelimiter>();
+            lccodeTable = new CodeTable<UnicodeChar>();
+            mathcodeTable = new CodeTable<MathCode>();
+            sfcodeTable = new CodeTable<Count>();
+            uccodeTable = new CodeTable<UnicodeChar>();
+        }
+    }
+
+    /**
+     * Creates a new object as a fork of a given group.
+     * 
+     * @param group the group to fork
+     * @param nextGroup the fork of the next group
+     */
+    private GroupImpl(GroupImpl group, Group nextGroup) {
+
+        this.next = nextGroup;
+        level = group.level;
+        if (nextGroup instanceof GroupImpl) {
+            shareTables((GroupImpl) nextGroup);
+        } else {
+            countTable = group.countTable.fork();
+            dimenTable = group.dimenTable.fork();
+            skipTable = group.skipTable.fork();
+            muskipTable = group.muskipTable.fork();
+            toksTable = group.toksTable.fork();
+            catcodeTable = group.catcodeTable.fork();
+            delcodeTable = group.delcodeTable.fork();
+            lccodeTable = group.lccodeTable.fork();
+            mathcodeTable = group.mathcodeTable.fork();
+            sfcodeTable = group.sfcodeTable.fork();
+            uccodeTable = group.uccodeTable.fork();
+        }
+        if (group.afterGroup != null) {
+            afterGroup = new Tokens();
+            afterGroup.add(group.afterGroup);
+        }
+        if (group.boxMap != null) {
+            // boxes are modified in place; thus they can not be shared
+            boxMap = new HashMap<String, Box>(group.boxMap.size());
+            for (Map.Entry<String, Box> e : group.boxMap.entrySet()) {
+                Box box = e.getValue();
+                boxMap.put(e.getKey(), box == null ? null : box.deepCopy());
+            }
+        }
+        codeMap = group.codeMap;
+        extensionMap = group.extensionMap;
+        fontMap = group.fontMap;
+        ifMap = group.ifMap;
+        sharedMaps = SHARED_ALL;
+        group.sharedMaps = SHARED_ALL;
+        locator = group.locator;
+        namespace = group.namespace;
+        start = group.start;
+        type = group.type;
+        typesettingContext = group.typesettingContext;
     }
 
     /**
@@ -295,6 +417,24 @@ public class GroupImpl implements Group {
         afterGroup.add(t);
     }
 
+    /**
+     * Create a fork of this group and the groups below it. The fork shares the
+     * maps of the group until they are modified in one of the groups. The
+     * register and code tables are forked as well.
+     * <p>
+     * The observers, the open files, and the standard token stream are not
+     * carried over to the fork.
+     * </p>
+     * 
+     * @return the fork of the group
+     * 
+     * @see org.extex.interpreter.max.context.Group#fork()
+     */
+    public synchronized Group fork() {
+
+        return new GroupImpl(this, next != null ? next.fork() : null);
+    }
+
     /**
      * Get some extension object stored in the group.
      * 
@@ -372,23 +512,32 @@ public class GroupImpl implements Group {
      */
     public Catcode getCatcode(UnicodeChar c) {
 
-        if (catcodeMap != null) {
-            Catcode value = catcodeMap.get(c);
+        return getCatcode(c.getCodePoint());
+    }
 
-            if (value != null) {
-                return value;
-            }
-        }
-        if (next != null) {
-            return next.getCatcode(c);
+    /**
+     * Getter for the category code of a character given by its code point.
+     * 
+     * @param codePoint the code point of the character to analyze
+     * 
+     * @return the category code of a character
+     * 
+     * @see org.extex.interpreter.max.context.Group#getCatcode(int)
+     */
+    public Catcode getCatcode(int codePoint) {
+
+        Catcode value = catcodeTable.get(codePoint);
+
+        if (value != null) {
+            return value;
         }
 
         // Fallback for predefined catcodes
-        if (c.isLetter()) {
+        if (UnicodeChar.isLetter(codePoint)) {
             return Catcode.LETTER;
         }
 
-        switch (c.getCodePoint()) {
+        switch (codePoint) {
             case ' ':
                 return Catcode.SPACE;
             case '\\':
@@ -471,22 +620,12 @@ public class GroupImpl implements Group {
      */
     public Count getCount(String name) {
 
-        if (countMap != null) {
-            Count count = countMap.get(name);
-
-            if (count != null) {
-                return count;
-            }
-        }
-        if (next != null) {
-            return next.getCount(name);
-        }
+        Count count = countTable.get(name);
 
-        Count count = new Count(0);
-        if (countMap == null) {
-            countMap = new HashMap<String, Count>();
+        if (count == null) {
+            count = new Count(0);
+            countTable.put(name, count, level, true);
         }
-        countMap.put(name, count);
         return count;
     }
 
@@ -502,15 +641,10 @@ public class GroupImpl implements Group {
      */
     public MathDelimiter getDelcode(UnicodeChar c) {
 
-        if (delcodeMap != null) {
-            MathDelimiter delcode = delcodeMap.get(c);
+        MathDelimiter delcode = delcodeTable.get(c.getCodePoint());
 
-            if (delcode != null) {
-                return delcode;
-            }
-        }
-        if (next != null) {
-            return next.getDelcode(c);
+        if (delcode != null) {
+            return delcode;
         }
 
         // Fallback for predefined delimiter codes
@@ -546,22 +680,12 @@ public class GroupImpl implements Group {
      */
     public Dimen getDimen(String name) {
 
-        if (dimenMap != null) {
-            Dimen dimen = dimenMap.get(name);
+        Dimen dimen = dimenTable.get(name);
 
-            if (dimen != null) {
-                return dimen;
-            }
-        }
-        if (next != null) {
-            return next.getDimen(name);
+        if (dimen == null) {
+            dimen = new Dimen();
+            dimenTable.put(name, dimen, level, true);
         }
-
-        Dimen dimen = new Dimen();
-        if (dimenMap == null) {
-            dimenMap = new HashMap<String, Dimen>();
-        }
-        dimenMap.put(name, dimen);
         return dimen;
     }
 
@@ -710,25 +834,17 @@ public class GroupImpl implements Group {
      */
     public UnicodeChar getLccode(UnicodeChar lc) {
 
-        if (lccodeMap != null) {
-            UnicodeChar value = lccodeMap.get(lc);
+        UnicodeChar value = lccodeTable.get(lc.getCodePoint());
 
-            if (value != null) {
-                return value;
-            }
-        }
-        if (next != null) {
-            return next.getLccode(lc);
+        if (value != null) {
+            return value;
         }
 
         // Fallback for predefined lccodes
         if (lc.isLetter()) {
-            UnicodeChar value = lc.lower();
+            value = lc.lower();
             // the value is stored to avoid constructing UnicodeChars again
-            if (lccodeMap == null) {
-                lccodeMap = new HashMap<UnicodeChar, UnicodeChar>();
-            }
-            lccodeMap.put(lc, value);
+            lccodeTable.put(lc.getCodePoint(), value, level, true);
             return value;
         }
         return null;
@@ -745,7 +861,7 @@ public class GroupImpl implements Group {
      */
     public long getLevel() {
 
-        return (next == null ? 0 : 1 + next.getLevel());
+        return level;
     }
 
     /**
@@ -771,18 +887,10 @@ public class GroupImpl implements Group {
      */
     public MathCode getMathcode(UnicodeChar c) {
 
-        if (mathcodeMap != null) {
-            MathCode mathcode = mathcodeMap.get(c);
-            if (mathcode != null) {
-                return mathcode;
-            }
-        }
-
-        MathCode mc;
-
-        if (next != null) {
-            return next.getMathcode(c);
+        MathCode mc = mathcodeTable.get(c.getCodePoint());
 
+        if (mc != null) {
+            return mc;
         } else if (c.isDigit()) {
             // return new Count(c.getCodePoint() + MATHCODE_DIGIT_OFFSET);
             mc = new MathCode(MathClass.VARIABLE, new MathGlyph(0, c));
@@ -793,10 +901,7 @@ public class GroupImpl implements Group {
             mc = new MathCode(MathClass.ORDINARY, new MathGlyph(0, c));
         }
 
-        if (mathcodeMap == null) {
-            mathcodeMap = new HashMap<UnicodeChar, MathCode>();
-        }
-        mathcodeMap.put(c, mc);
+        mathcodeTable.put(c.getCodePoint(), mc, level, true);
         return mc;
     }
 
@@ -817,13 +922,8 @@ public class GroupImpl implements Group {
      */
     public Muskip getMuskip(String name) {
 
-        if (muskipMap != null) {
-            Muskip muskip = muskipMap.get(name);
-            if (muskip != null) {
-                return muskip;
-            }
-        }
-        return next != null ? next.getMuskip(name) : new Muskip();
+        Muskip muskip = muskipTable.get(name);
+        return muskip != null ? muskip : new Muskip();
     }
 
     /**
@@ -887,14 +987,10 @@ public class GroupImpl implements Group {
      */
     public FixedCount getSfcode(UnicodeChar c) {
 
-        if (sfcodeMap != null) {
-            Count sfcode = sfcodeMap.get(c);
-            if (sfcode != null) {
-                return sfcode;
-            }
-        }
-        if (next != null) {
-            return next.getSfcode(c);
+        Count sfcode = sfcodeTable.get(c.getCodePoint());
+
+        if (sfcode != null) {
+            return sfcode;
         }
 
         // Fallback for predefined space factor codes
@@ -922,13 +1018,8 @@ public class GroupImpl implements Group {
      */
     public Glue getSkip(String name) {
 
-        if (skipMap != null) {
-            Glue skip = skipMap.get(name);
-            if (skip != null) {
-                return skip;
-            }
-        }
-        return next != null ? next.getSkip(name) : new Glue(0);
+        Glue skip = skipTable.get(name);
+        return skip != null ? skip : new Glue(0);
     }
 
     /**
@@ -972,13 +1063,8 @@ public class GroupImpl implements Group {
      */
     public Tokens getToks(String name) {
 
-        if (toksMap != null) {
-            Tokens toks = toksMap.get(name);
-            if (toks != null) {
-                return toks;
-            }
-        }
-        return next != null ? next.getToks(name) : new Tokens();
+        Tokens toks = toksTable.get(name);
+        return toks != null ? toks : new Tokens();
     }
 
     /**
@@ -996,13 +1082,11 @@ public class GroupImpl implements Group {
      */
     public Tokens getToksOrNull(String name) {
 
-        if (toksMap != null) {
-            Tokens toks = toksMap.get(name);
-            if (toks != null) {
-                return toks;
-            }
+        Tokens toks = toksTable.get(name);
+        if (toks != null) {
+            return toks;
         }
-        return next != null ? next.getToks(name) : null;
+        return next != null ? new Tokens() : null;
     }
 
     /**
@@ -1045,25 +1129,17 @@ public class GroupImpl implements Group {
      */
     public UnicodeChar getUccode(UnicodeChar uc) {
 
-        if (uccodeMap != null) {
-            UnicodeChar value = uccodeMap.get(uc);
-            if (value != null) {
-                return value;
-            }
-        }
+        UnicodeChar value = uccodeTable.get(uc.getCodePoint());
 
-        if (next != null) {
-            return next.getUccode(uc);
+        if (value != null) {
+            return value;
         }
 
         // Fallback for predefined uc codes
         if (uc.isLetter()) {
-            UnicodeChar value = uc.upper();
+            value = uc.upper();
             // the value is stored to avoid constructing UnicodeChars again
-            if (uccodeMap == null) {
-                uccodeMap = new HashMap<UnicodeChar, UnicodeChar>();
-            }
-            uccodeMap.put(uc, value);
+            uccodeTable.put(uc.getCodePoint(), value, level, true);
             return value;
         }
         return null;
@@ -1079,6 +1155,17 @@ public class GroupImpl implements Group {
         if (afterGroupObservers != null) {
             afterGroupObservers.update();
         }
+        countTable.unsave(level);
+        dimenTable.unsave(level);
+        skipTable.unsave(level);
+        muskipTable.unsave(level);
+        toksTable.unsave(level);
+        catcodeTable.unsave(level);
+        delcodeTable.unsave(level);
+        lccodeTable.unsave(level);
+        mathcodeTable.unsave(level);
+        sfcodeTable.unsave(level);
+        uccodeTable.unsave(level);
     }
 
     /**
@@ -1091,6 +1178,15 @@ public class GroupImpl implements Group {
 
         if (extensionMap == null) {
             extensionMap = new HashMap<Object, Map<Object, Object>>();
+        } else if ((sharedMaps & SHARED_EXTENSION) != 0) {
+            HashMap<Object, Map<Object, Object>> map =
+                    new HashMap<Object, Map<Object, Object>>();
+            for (Map.Entry<Object, Map<Object, Object>> e : extensionMap
+                .entrySet()) {
+                map.put(e.getKey(), new HashMap<Object, Object>(e.getValue()));
+            }
+            extensionMap = map;
+            sharedMaps &= ~SHARED_EXTENSION;
         }
         Map<Object, Object> map = extensionMap.get(extension);
         if (map == null) {
@@ -1132,15 +1228,7 @@ public class GroupImpl implements Group {
      */
     public void setCatcode(UnicodeChar uc, Catcode code, boolean global) {
 
-        if (catcodeMap == null) {
-            catcodeMap = new HashMap<UnicodeChar, Catcode>();
-        }
-
-        catcodeMap.put(uc, code);
-
-        if (global && next != null) {
-            next.setCatcode(uc, code, global);
-        }
+        catcodeTable.put(uc.getCodePoint(), code, level, global);
     }
 
     /**
@@ -1159,6 +1247,9 @@ public class GroupImpl implements Group {
 
         if (codeMap == null) {
             codeMap = new HashMap<Token, Code>();
+        } else if ((sharedMaps & SHARED_CODE) != 0) {
+            codeMap = new HashMap<Token, Code>(codeMap);
+            sharedMaps &= ~SHARED_CODE;
         }
 
         codeMap.put(token, code);
@@ -1181,15 +1272,7 @@ public class GroupImpl implements Group {
      */
     public void setCount(String name, Count value, boolean global) {
 
-        if (countMap == null) {
-            countMap = new HashMap<String, Count>();
-        }
-
-        countMap.put(name, value);
-
-        if (global && next != null) {
-            next.setCount(name, value, global);
-        }
+        countTable.put(name, value, level, global);
     }
 
     /**
@@ -1205,15 +1288,7 @@ public class GroupImpl implements Group {
      */
     public void setDelcode(UnicodeChar uc, MathDelimiter code, boolean global) {
 
-        if (delcodeMap == null) {
-            delcodeMap = new HashMap<UnicodeChar, MathDelimiter>();
-        }
-
-        delcodeMap.put(uc, code);
-
-        if (global && next != null) {
-            next.setDelcode(uc, code, global);
-        }
+        delcodeTable.put(uc.getCodePoint(), code, level, global);
     }
 
     /**
@@ -1229,15 +1304,7 @@ public class GroupImpl implements Group {
      */
     public void setDimen(String name, Dimen value, boolean global) {
 
-        if (dimenMap == null) {
-            dimenMap = new HashMap<String, Dimen>();
-        }
-
-        dimenMap.put(name, value);
-
-        if (global && next != null) {
-            next.setDimen(name, value, global);
-        }
+        dimenTable.put(name, value, level, global);
     }
 
     /**
@@ -1255,6 +1322,9 @@ public class GroupImpl implements Group {
 
         if (fontMap == null) {
             fontMap = new HashMap<String, Font>();
+        } else if ((sharedMaps & SHARED_FONT) != 0) {
+            fontMap = new HashMap<String, Font>(fontMap);
+            sharedMaps &= ~SHARED_FONT;
         }
 
         fontMap.put(name, font);
@@ -1279,6 +1349,9 @@ public class GroupImpl implements Group {
 
         if (ifMap == null) {
             ifMap = new HashMap<String, Boolean>();
+        } else if ((sharedMaps & SHARED_IF) != 0) {
+            ifMap = new HashMap<String, Boolean>(ifMap);
+            sharedMaps &= ~SHARED_IF;
         }
 
         ifMap.put(name, (value ? Boolean.TRUE : Boolean.FALSE));
@@ -1326,15 +1399,7 @@ public class GroupImpl implements Group {
      */
     public void setLccode(UnicodeChar lc, UnicodeChar uc, boolean global) {
 
-        if (lccodeMap == null) {
-            lccodeMap = new HashMap<UnicodeChar, UnicodeChar>();
-        }
-
-        lccodeMap.put(lc, uc);
-
-        if (global && next != null) {
-            next.setLccode(lc, uc, global);
-        }
+        lccodeTable.put(lc.getCodePoint(), uc, level, global);
     }
 
     /**
@@ -1360,15 +1425,7 @@ public class GroupImpl implements Group {
      */
     public void setMathcode(UnicodeChar uc, MathCode code, boolean global) {
 
-        if (mathcodeMap == null) {
-            mathcodeMap = new HashMap<UnicodeChar, MathCode>();
-        }
-
-        mathcodeMap.put(uc, code);
-
-        if (global && next != null) {
-            next.setMathcode(uc, code, global);
-        }
+        mathcodeTable.put(uc.getCodePoint(), code, level, global);
     }
 
     /**
@@ -1379,15 +1436,7 @@ public class GroupImpl implements Group {
      */
     public void setMuskip(String name, Muskip value, boolean global) {
 
-        if (muskipMap == null) {
-            muskipMap = new HashMap<String, Muskip>();
-        }
-
-        muskipMap.put(name, value);
-
-        if (global && next != null) {
-            next.setMuskip(name, value, global);
-        }
+        muskipTable.put(name, value, level, global);
     }
 
     /**
@@ -1437,15 +1486,7 @@ public class GroupImpl implements Group {
      */
     public void setSfcode(UnicodeChar uc, Count code, boolean global) {
 
-        if (sfcodeMap == null) {
-            sfcodeMap = new HashMap<UnicodeChar, Count>();
-        }
-
-        sfcodeMap.put(uc, code);
-
-        if (global && next != null) {
-            next.setSfcode(uc, code, global);
-        }
+        sfcodeTable.put(uc.getCodePoint(), code, level, global);
     }
 
     /**
@@ -1461,15 +1502,7 @@ public class GroupImpl implements Group {
      */
     public void setSkip(String name, Glue value, boolean global) {
 
-        if (skipMap == null) {
-            skipMap = new HashMap<String, Glue>();
-        }
-
-        skipMap.put(name, value);
-
-        if (global && next != null) {
-            next.setSkip(name, value, global);
-        }
+        skipTable.put(name, value, level, global);
     }
 
     /**
@@ -1502,15 +1535,7 @@ public class GroupImpl implements Group {
      */
     public void setToks(String name, Tokens value, boolean global) {
 
-        if (toksMap == null) {
-            toksMap = new HashMap<String, Tokens>();
-        }
-
-        toksMap.put(name, value);
-
-        if (global && next != null) {
-            next.setToks(name, value, global);
-        }
+        toksTable.put(name, value, level, global);
     }
 
     /**
@@ -1546,15 +1571,27 @@ public class GroupImpl implements Group {
      */
     public void setUccode(UnicodeChar uc, UnicodeChar lc, boolean global) {
 
-        if (uccodeMap == null) {
-            uccodeMap = new HashMap<UnicodeChar, UnicodeChar>();
-        }
+        uccodeTable.put(uc.getCodePoint(), lc, level, global);
+    }
 
-        uccodeMap.put(uc, lc);
+    /**
+     * Use the register and code tables of another group.
+     * 
+     * @param group the group to take the tables from
+     */
+    private void shareTables(GroupImpl group) {
 
-        if (global && next != null) {
-            next.setUccode(uc, lc, global);
-        }
+        countTable = group.countTable;
+        dimenTable = group.dimenTable;
+        skipTable = group.skipTable;
+        muskipTable = group.muskipTable;
+        toksTable = group.toksTable;
+        catcodeTable = group.catcodeTable;
+        delcodeTable = group.delcodeTable;
+        lccodeTable = group.lccodeTable;
+        mathcodeTable = group.mathcodeTable;
+        sfcodeTable = group.sfcodeTable;
+        uccodeTable = group.uccodeTable;
     }
 
     /**
@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class provides a table for named registers which holds the current
+ * value of each register in one map. It is organized like the table of
+ * equivalents in <logo>T<span style=
+ * "text-transform:uppercase;font-size:90%;vertical-align:-0.4ex;margin-left:-0.2em;margin-right:-0.1em;line-height: 0;"
+ * >e</span>X</logo>: A local assignment records the value it overwrites on a
+ * save stack. When a group is closed the saved values of this group are
+ * restored from the save stack unless the register has been assigned globally
+ * in the meantime.
+ * <p>
+ * Thus the access to a value takes constant time independent of the number of
+ * open groups. The costs are moved to the local assignments and the closing of
+ * groups, which are far less frequent.
+ * </p>
+ * <p>
+ * A table can be forked. The fork shares the map of current values with the
+ * original table until one of them is modified. The entries themselves are
+ * immutable and can be shared permanently.
+ * </p>
+ *
+ * @param <T> the type of the values stored
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class RegisterTable<T> implements Serializable {
+
+    /**
+     * This class is a container for a value and the group level in which it
+     * has been assigned.
+     *
+     * @param <T> the type of the value
+     */
+    private static final class Entry<T> implements Serializable {
+
+        /**
+         * The constant <tt>serialVersionUID</tt> contains the id for
+         * serialization.
+         */
+        private static final long serialVersionUID = 2011L;
+
+        /**
+         * The field <tt>level</tt> contains the group level of the assignment.
+         * The level 0 is used for global assignments.
+         */
+        private final int level;
+
+        /**
+         * The field <tt>value</tt> contains the value.
+         */
+        private final T value;
+
+        /**
+         * Creates a new object.
+         *
+         * @param value the value
+         * @param level the level
+         */
+        Entry(T value, int level) {
+
+            this.value = value;
+            this.level = level;
+        }
+    }
+
+    /**
+     * This class is an item on the save stack. It contains the entry which
+     * has been replaced by a local assignment.
+     *
+     * @param <T> the type of the value
+     */
+    private static final class SaveItem<T> implements Serializable {
+
+        /**
+         * The constant <tt>serialVersionUID</tt> contains the id for
+         * serialization.
+         */
+        private static final long serialVersionUID = 2011L;
+
+        /**
+         * The field <tt>level</tt> contains the group level which has to
+         * restore the entry.
+         */
+        private final int level;
+
+        /**
+         * The field <tt>name</tt> contains the name of the register.
+         */
+        private final String name;
+
+        /**
+         * The field <tt>saved</tt> contains the saved entry. The value
+         * <code>null</code> indicates that the register has not been defined
+         * before.
+         */
+        private final Entry<T> saved;
+
+        /**
+         * Creates a new object.
+         *
+         * @param name the name of the register
+         * @param saved the entry to save
+         * @param level the group level
+         */
+        SaveItem(String name, Entry<T> saved, int level) {
+
+            this.name = name;
+            this.saved = saved;
+            this.level = level;
+        }
+    }
+
+    /**
+     * The constant <tt>serialVersionUID</tt> contains the id for
+     * serialization.
+     */
+    private static final long serialVersionUID = 2011L;
+
+    /**
+     * The field <tt>saveStack</tt> contains the save stack. The items of the
+     * innermost group are on top of the stack.
+     */
+    private List<SaveItem<T>> saveStack;
+
+    /**
+     * The field <tt>shared</tt> contains the indicator that the map of current
+     * values is shared with another table and has to be copied before it is
+     * modified.
+     */
+    private transient boolean shared = false;
+
+    /**
+     * The field <tt>table</tt> contains the current values.
+     */
+    private Map<String, Entry<T>> table;
+
+    /**
+     * Creates a new object.
+     */
+    public RegisterTable() {
+
+        this(new HashMap<String, Entry<T>>(), new ArrayList<SaveItem<T>>());
+    }
+
+    /**
+     * Creates a new object.
+     *
+     * @param table the map of current values
+     * @param saveStack the save stack
+     */
+    private RegisterTable(Map<String, Entry<T>> table,
+            List<SaveItem<T>> saveStack) {
+
+        this.table = table;
+        this.saveStack = saveStack;
+    }
+
+    /**
+     * Create a copy of this table. The map of current values is shared until
+     * one of the tables is modified.
+     *
+     * @return the new table
+     */
+    public synchronized RegisterTable<T> fork() {
+
+        shared = true;
+        RegisterTable<T> fork =
+                new RegisterTable<T>(table, new ArrayList<SaveItem<T>>(
+                    saveStack));
+        fork.shared = true;
+        return fork;
+    }
+
+    /**
+     * Getter for the current value of a register.
+     *
+     * @param name the name of the register
+     *
+     * @return the current value or <code>null</code> if the register is not
+     *         defined
+     */
+    public T get(String name) {
+
+        Entry<T> entry = table.get(name);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Assign a value to a register.
+     *
+     * @param name the name of the register
+     * @param value the new value
+     * @param level the current group level
+     * @param global the indicator for the scope; <code>true</code> means all
+     *        groups; otherwise the current group is affected only
+     */
+    public void put(String name, T value, int level, boolean global) {
+
+        Map<String, Entry<T>> map = writableTable();
+
+        if (global || level == 0) {
+            map.put(name, new Entry<T>(value, 0));
+            return;
+        }
+        Entry<T> entry = map.put(name, new Entry<T>(value, level));
+        if (entry == null || entry.level != level) {
+            saveStack.add(new SaveItem<T>(name, entry, level));
+        }
+    }
+
+    /**
+     * Restore the values saved for a group which is about to be closed.
+     * Registers which have been assigned globally keep their value.
+     *
+     * @param level the level of the group to be closed
+     */
+    public void unsave(int level) {
+
+        for (int i = saveStack.size() - 1; i >= 0; i--) {
+            SaveItem<T> item = saveStack.get(i);
+            if (item.level != level) {
+                return;
+            }
+            saveStack.remove(i);
+            Entry<T> entry = table.get(item.name);
+            if (entry != null && entry.level == 0) {
+                continue;
+            }
+            if (item.saved == null) {
+                writableTable().remove(item.name);
+            } else {
+                writableTable().put(item.name, item.saved);
+            }
+        }
+    }
+
+    /**
+     * Get the map of current values for modification. A shared map is copied
+     * first.
+     *
+     * @return the map of current values owned by this table
+     */
+    private Map<String, Entry<T>> writableTable() {
+
+        if (shared) {
+            table = new HashMap<String, Entry<T>>(table);
+            shared = false;
+        }
+        return table;
+    }
+
+}
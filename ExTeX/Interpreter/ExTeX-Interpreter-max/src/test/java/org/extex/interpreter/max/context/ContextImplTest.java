@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.extex.scanner.type.tokens.Tokens;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This class contains test cases for the context implementation.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class ContextImplTest {
+
+    /**
+     * Command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(ContextImplTest.class);
+    }
+
+    /**
+     * <testcase class="ContextImpl"> Test case checking that the marks of a
+     * context are not seen by another context. </testcase>
+     */
+    @Test
+    public void testMarks1() {
+
+        ContextImpl context = new ContextImpl();
+        context.setMark("0", new Tokens());
+
+        ContextImpl other = new ContextImpl();
+        assertNull(other.getFirstMark("0"));
+        assertNull(other.getBottomMark("0"));
+    }
+
+    /**
+     * <testcase class="ContextImpl"> Test case checking that a fork starts
+     * with the marks of the context and that later marks are not shared.
+     * </testcase>
+     */
+    @Test
+    public void testForkMarks1() {
+
+        ContextImpl context = new ContextImpl();
+        Tokens mark = new Tokens();
+        context.setMark("0", mark);
+        context.startMarks();
+
+        ContextImpl fork = context.fork();
+        assertSame(mark, fork.getTopMark("0"));
+
+        fork.setMark("1", new Tokens());
+        fork.startMarks();
+        assertNull(context.getTopMark("1"));
+
+        context.setMark("2", new Tokens());
+        assertNull(fork.getFirstMark("2"));
+    }
+
+}
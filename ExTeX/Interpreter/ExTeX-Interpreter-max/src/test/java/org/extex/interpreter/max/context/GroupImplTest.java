@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.extex.core.dimen.Dimen;
+import org.extex.interpreter.type.box.Box;
+import org.extex.typesetter.type.node.HorizontalListNode;
+import org.extex.typesetter.type.node.PenaltyNode;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This class contains test cases for the group implementation.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class GroupImplTest {
+
+    /**
+     * Command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(GroupImplTest.class);
+    }
+
+    /**
+     * Create a group containing the box register 0 with a width of 1pt.
+     *
+     * @return the new group
+     */
+    private static GroupImpl makeGroup() {
+
+        HorizontalListNode nodes = new HorizontalListNode();
+        nodes.add(new PenaltyNode(123));
+        nodes.setWidth(Dimen.ONE_PT);
+        GroupImpl group = new GroupImpl(null);
+        group.setBox("0", new Box(nodes), false);
+        return group;
+    }
+
+    /**
+     * <testcase class="GroupImpl"> Test case checking that the width of a
+     * box in a fork can be changed without affecting the original group.
+     * </testcase>
+     */
+    @Test
+    public void testForkBox1() {
+
+        GroupImpl group = makeGroup();
+        Group fork = group.fork();
+        fork.getBox("0").setWidth(Dimen.ZERO_PT);
+        assertEquals(Dimen.ONE_PT.getValue(), group.getBox("0").getWidth()
+            .getValue());
+        assertEquals(0, fork.getBox("0").getWidth().getValue());
+    }
+
+    /**
+     * <testcase class="GroupImpl"> Test case checking that a box in a fork
+     * can be cleared without affecting the original group and another fork.
+     * </testcase>
+     */
+    @Test
+    public void testForkBox2() {
+
+        GroupImpl group = makeGroup();
+        Group fork1 = group.fork();
+        Group fork2 = group.fork();
+        fork1.getBox("0").clear();
+        assertTrue(fork1.getBox("0").isVoid());
+        assertFalse(group.getBox("0").isVoid());
+        assertFalse(fork2.getBox("0").isVoid());
+        assertNotSame(group.getBox("0").getNodes(), fork2.getBox("0")
+            .getNodes());
+        assertEquals(1, fork2.getBox("0").getNodes().size());
+    }
+
+    /**
+     * <testcase class="GroupImpl"> Test case checking that a box assigned in
+     * the original group after the fork is not visible in the fork.
+     * </testcase>
+     */
+    @Test
+    public void testForkBox3() {
+
+        GroupImpl group = makeGroup();
+        Group fork = group.fork();
+        group.setBox("1", new Box((Box) null), false);
+        assertEquals(null, fork.getBox("1"));
+    }
+
+}
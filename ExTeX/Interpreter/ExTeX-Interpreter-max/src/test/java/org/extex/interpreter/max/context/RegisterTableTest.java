@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This class contains test cases for the register table.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class RegisterTableTest {
+
+    /**
+     * Command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(RegisterTableTest.class);
+    }
+
+    /**
+     * <testcase class="RegisterTable"> Test case checking that an undefined
+     * register is <code>null</code>. </testcase>
+     */
+    @Test
+    public void testUndefined() {
+
+        RegisterTable<String> table = new RegisterTable<String>();
+        assertNull(table.get("a"));
+    }
+
+    /**
+     * <testcase class="RegisterTable"> Test case checking that a local
+     * assignment is restored at the end of the group. </testcase>
+     */
+    @Test
+    public void testLocal1() {
+
+        RegisterTable<String> table = new RegisterTable<String>();
+        table.put("a", "0", 0, false);
+        table.put("a", "1", 1, false);
+        assertEquals("1", table.get("a"));
+        table.unsave(1);
+        assertEquals("0", table.get("a"));
+    }
+
+    /**
+     * <testcase class="RegisterTable"> Test case checking that a local
+     * assignment to an undefined register is removed at the end of the group.
+     * </testcase>
+     */
+    @Test
+    public void testLocal2() {
+
+        RegisterTable<String> table = new RegisterTable<String>();
+        table.put("a", "1", 1, false);
+        table.put("a", "2", 1, false);
+        assertEquals("2", table.get("a"));
+        table.unsave(1);
+        assertNull(table.get("a"));
+    }
+
+    /**
+     * <testcase class="RegisterTable"> Test case checking that nested local
+     * assignments are restored one group at a time. </testcase>
+     */
+    @Test
+    public void testNested() {
+
+        RegisterTable<String> table = new RegisterTable<String>();
+        table.put("a", "0", 0, false);
+        table.put("a", "1", 1, false);
+        table.put("a", "3", 3, false);
+        assertEquals("3", table.get("a"));
+        table.unsave(3);
+        assertEquals("1", table.get("a"));
+        table.unsave(2);
+        assertEquals("1", table.get("a"));
+        table.unsave(1);
+        assertEquals("0", table.get("a"));
+    }
+
+    /**
+     * <testcase class="RegisterTable"> Test case checking that a global
+     * assignment survives the end of all groups. </testcase>
+     */
+    @Test
+    public void testGlobal1() {
+
+        RegisterTable<String> table = new RegisterTable<String>();
+        table.put("a", "0", 0, false);
+        table.put("a", "1", 1, false);
+        table.put("a", "2", 2, false);
+        table.put("a", "g", 2, true);
+        table.unsave(2);
+        assertEquals("g", table.get("a"));
+        table.unsave(1);
+        assertEquals("g", table.get("a"));
+    }
+
+    /**
+     * <testcase class="RegisterTable"> Test case checking that a local
+     * assignment after a global one in the same group is restored to the
+     * global value. </testcase>
+     */
+    @Test
+    public void testGlobal2() {
+
+        RegisterTable<String> table = new RegisterTable<String>();
+        table.put("a", "0", 0, false);
+        table.put("a", "g", 1, true);
+        table.put("a", "1", 1, false);
+        assertEquals("1", table.get("a"));
+        table.unsave(1);
+        assertEquals("g", table.get("a"));
+    }
+
+    /**
+     * <testcase class="RegisterTable"> Test case checking that a fork is not
+     * affected by assignments to the original table and vice versa.
+     * </testcase>
+     */
+    @Test
+    public void testFork1() {
+
+        RegisterTable<String> table = new RegisterTable<String>();
+        table.put("a", "0", 0, false);
+        RegisterTable<String> fork = table.fork();
+        fork.put("a", "1", 0, false);
+        table.put("b", "2", 0, false);
+        assertEquals("0", table.get("a"));
+        assertEquals("1", fork.get("a"));
+        assertNull(fork.get("b"));
+    }
+
+    /**
+     * <testcase class="RegisterTable"> Test case checking that a fork taken
+     * in a group restores the saved values independently of the original
+     * table. </testcase>
+     */
+    @Test
+    public void testFork2() {
+
+        RegisterTable<String> table = new RegisterTable<String>();
+        table.put("a", "0", 0, false);
+        table.put("a", "1", 1, false);
+        RegisterTable<String> fork = table.fork();
+        fork.unsave(1);
+        assertEquals("0", fork.get("a"));
+        assertEquals("1", table.get("a"));
+        table.unsave(1);
+        assertEquals("0", table.get("a"));
+    }
+
+}
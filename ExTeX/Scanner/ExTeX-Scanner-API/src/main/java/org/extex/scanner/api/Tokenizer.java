@@ -40,6 +40,17 @@ public interface Tokenizer {
      */
     Catcode getCatcode(UnicodeChar c);
 
+    /**
+     * Getter for the category code of a character given by its code point.
+     * This method allows the caller to avoid the creation of a
+     * {@link UnicodeChar UnicodeChar} for the character.
+     *
+     * @param codePoint the code point of the character to analyze
+     *
+     * @return the category code of a character
+     */
+    Catcode getCatcode(int codePoint);
+
     /**
      * Getter for the name space.
      *
@@ -84,6 +84,19 @@ import org.extex.scanner.stream.observer.writer.OpenWriterObserverList;
  * 
  * </p>
  * <p>
+ * The class can provide a second constructor which takes the input stream
+ * and the name of the encoding instead of a reader:
+ * 
+ * <pre>
+ *     public TheClass(Configuration config, TokenStreamOptions options,
+ *          InputStream stream, String encoding, Boolean isFile,
+ *          String theSource) throws IOException
+ * </pre>
+ * 
+ * If present it is used for Token streams fed from a file as long as no
+ * interceptors are registered. The input stream is passed unbuffered.
+ * </p>
+ * <p>
  * If the Token stream is fed from a file then the additional parameter
  * <tt>buffersize</tt> is taken into account. This parameter is optional. Its
  * usage can look as follows:
@@ -214,6 +227,13 @@ public class TokenStreamFactory extends AbstractFactory<Object>
      */
     private Constructor<?> readerConstructor;
 
+    /**
+     * The field <tt>streamConstructor</tt> contains the constructor for the
+     * input stream variant. It is <code>null</code> if the class does not
+     * provide such a constructor.
+     */
+    private Constructor<?> streamConstructor;
+
     /**
      * The field <tt>tag</tt> contains the tag name of the sub-configuration to
      * use.
@@ -272,6 +292,17 @@ public class TokenStreamFactory extends AbstractFactory<Object>
             throw new ConfigurationClassNotFoundException(classname,
                 configuration);
         }
+        try {
+            streamConstructor =
+                    readerConstructor.getDeclaringClass().getConstructor(
+                        new Class<?>[]{Configuration.class,
+                                TokenStreamOptions.class, InputStream.class,
+                                String.class, Boolean.class, String.class});
+        } catch (SecurityException e) {
+            throw new ConfigurationInstantiationException(e);
+        } catch (NoSuchMethodException e) {
+            streamConstructor = null;
+        }
         String bs = config.getAttribute(BUFFERSIZE_ATTRIBUTE);
         if (bs != null && bs.matches("^[0-9]+$")) {
             bufferSize = Integer.parseInt(bs);
@@ -364,6 +395,49 @@ public class TokenStreamFactory extends AbstractFactory<Object>
         return stream;
     }
 
+    /**
+     * Provide a new instance of a token stream reading from an input stream.
+     * The stream is passed to the token stream unchanged. Thus the token
+     * stream can take advantage of the kind of stream, e.g. by mapping a file
+     * into memory.
+     * 
+     * @param stream the input stream
+     * @param encoding the name of the encoding or <code>null</code>
+     * @param source the description of the source
+     * 
+     * @return the new instance
+     * 
+     * @throws ConfigurationException in case of an error in the configuration
+     */
+    private TokenStream getStream(InputStream stream, String encoding,
+            String source) throws ConfigurationException {
+
+        TokenStream tokenStream;
+        try {
+
+            tokenStream = (TokenStream) streamConstructor.newInstance(//
+                new Object[]{configuration, options, stream, encoding,
+                        Boolean.TRUE, source});
+
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationInstantiationException(e);
+        } catch (InstantiationException e) {
+            throw new ConfigurationInstantiationException(e);
+        } catch (IllegalAccessException e) {
+            throw new ConfigurationInstantiationException(e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof UnsupportedEncodingException) {
+                throw new ConfigurationUnsupportedEncodingException(encoding,
+                    (String) null);
+            }
+            throw new ConfigurationInstantiationException(e);
+        }
+
+        enableLogging(tokenStream, getLogger());
+
+        return tokenStream;
+    }
+
     /**
      * Provide a new instance of a token stream reading from a file or other
      * resource.
@@ -388,6 +462,14 @@ public class TokenStreamFactory extends AbstractFactory<Object>
         if (istream == null) {
             return null;
         }
+        if (streamConstructor != null && inStreamInterceptors == null
+                && inReaderInterceptors == null) {
+            // the token stream may consume and close the stream at once
+            if (openFileObservers != null) {
+                openFileObservers.update(name, type, istream);
+            }
+            return getStream(istream, encoding, name);
+        }
         if (bufferSize > 0) {
             istream = new BufferedInputStream(istream, bufferSize);
         } else {
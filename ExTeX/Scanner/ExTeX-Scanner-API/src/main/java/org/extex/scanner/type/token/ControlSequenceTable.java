@@ -0,0 +1,417 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.scanner.type.token;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class provides the symbol table for the names of control sequences.
+ * Each name is stored once and receives a unique positive integer id.
+ * <p>
+ * Names can be looked up directly from a character buffer. Thus the scanner
+ * does not have to construct a string for a name which is already known.
+ * </p>
+ * <p>
+ * The table holds its entries weakly. An entry and its id stay valid as long
+ * as the entry is referenced, e.g. by a control sequence token. Afterwards the
+ * entry is dropped from the table and the id may be assigned to another name.
+ * Thus the ids are dense and the table does not grow with the names ever seen
+ * in a long running virtual machine.
+ * </p>
+ * <p>
+ * The table can be read without locking. The entries are immutable and the
+ * buckets are published through an atomic array. Only the insertion of a new
+ * name and the removal of collected entries are synchronized.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public final class ControlSequenceTable {
+
+    /**
+     * This class represents an entry in the symbol table.
+     */
+    public static final class Entry {
+
+        /**
+         * The field <tt>hash</tt> contains the hash code of the name.
+         */
+        private final int hash;
+
+        /**
+         * The field <tt>id</tt> contains the id.
+         */
+        private final int id;
+
+        /**
+         * The field <tt>name</tt> contains the name.
+         */
+        private final String name;
+
+        /**
+         * Creates a new object.
+         *
+         * @param name the name
+         * @param hash the hash code of the name
+         * @param id the id
+         */
+        Entry(String name, int hash, int id) {
+
+            this.name = name;
+            this.hash = hash;
+            this.id = id;
+        }
+
+        /**
+         * Getter for the id. The id is a positive number.
+         *
+         * @return the id
+         */
+        public int getId() {
+
+            return id;
+        }
+
+        /**
+         * Getter for the name.
+         *
+         * @return the name
+         */
+        public String getName() {
+
+            return name;
+        }
+
+        /**
+         * Check whether the name of this entry is equal to a part of a
+         * character buffer.
+         *
+         * @param buffer the buffer
+         * @param offset the offset of the first character
+         * @param length the number of characters
+         *
+         * @return <code>true</code> iff the characters are the same
+         */
+        boolean matches(char[] buffer, int offset, int length) {
+
+            if (name.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (name.charAt(i) != buffer[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * This class represents a slot in a bucket of the hash table. It refers
+     * weakly to the entry.
+     */
+    private static final class Slot extends WeakReference<Entry> {
+
+        /**
+         * The field <tt>hash</tt> contains the hash code of the name.
+         */
+        private final int hash;
+
+        /**
+         * The field <tt>id</tt> contains the id of the entry. It is released
+         * when the entry has been collected.
+         */
+        private final int id;
+
+        /**
+         * The field <tt>next</tt> contains the next slot in the bucket.
+         */
+        private volatile Slot next;
+
+        /**
+         * The field <tt>removed</tt> contains the indicator that the slot has
+         * been dropped from the table already.
+         */
+        private boolean removed = false;
+
+        /**
+         * Creates a new object.
+         *
+         * @param entry the entry
+         * @param next the next slot in the bucket
+         */
+        Slot(Entry entry, Slot next) {
+
+            super(entry, queue);
+            this.hash = entry.hash;
+            this.id = entry.id;
+            this.next = next;
+        }
+
+    }
+
+    /**
+     * The constant <tt>INITIAL_SIZE</tt> contains the initial number of
+     * buckets. It has to be a power of 2.
+     */
+    private static final int INITIAL_SIZE = 4096;
+
+    /**
+     * The field <tt>buckets</tt> contains the buckets of the hash table.
+     */
+    private static volatile AtomicReferenceArray<Slot> buckets =
+            new AtomicReferenceArray<Slot>(INITIAL_SIZE);
+
+    /**
+     * The field <tt>free</tt> contains the ids released by collected entries.
+     */
+    private static int[] free = new int[64];
+
+    /**
+     * The field <tt>freeSize</tt> contains the number of ids in
+     * {@link #free free}.
+     */
+    private static int freeSize = 0;
+
+    /**
+     * The field <tt>maxId</tt> contains the largest id assigned so far.
+     */
+    private static int maxId = 0;
+
+    /**
+     * The field <tt>queue</tt> contains the queue for the slots of collected
+     * entries.
+     */
+    private static final ReferenceQueue<Entry> queue =
+            new ReferenceQueue<Entry>();
+
+    /**
+     * The field <tt>size</tt> contains the number of slots in the table.
+     */
+    private static int size = 0;
+
+    /**
+     * Compute the hash code for a part of a character buffer. The result is
+     * the same as the hash code of the corresponding string.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the first character
+     * @param length the number of characters
+     *
+     * @return the hash code
+     */
+    private static int hash(char[] buffer, int offset, int length) {
+
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + buffer[offset + i];
+        }
+        return h;
+    }
+
+    /**
+     * Insert a name into the table unless it is already present.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the first character
+     * @param length the number of characters
+     * @param hash the hash code
+     * @param s the name as string or <code>null</code> if it should be
+     *        created from the buffer
+     *
+     * @return the entry for the name
+     */
+    private static synchronized Entry insert(char[] buffer, int offset,
+            int length, int hash, String s) {
+
+        purge();
+        AtomicReferenceArray<Slot> b = buckets;
+        int index = hash & (b.length() - 1);
+        for (Slot e = b.get(index); e != null; e = e.next) {
+            Entry entry = e.get();
+            if (entry != null && e.hash == hash
+                    && entry.matches(buffer, offset, length)) {
+                return entry;
+            }
+        }
+
+        if (size >= b.length() - (b.length() >> 2)) {
+            b = rehash(b);
+            index = hash & (b.length() - 1);
+        }
+        Entry entry =
+                new Entry(s != null ? s : new String(buffer, offset, length),
+                    hash, freeSize > 0 ? free[--freeSize] : ++maxId);
+        b.set(index, new Slot(entry, b.get(index)));
+        size++;
+        return entry;
+    }
+
+    /**
+     * Look up a name in the table. If the name is not contained yet then it
+     * is inserted.
+     *
+     * @param buffer the buffer containing the name
+     * @param offset the offset of the first character
+     * @param length the number of characters
+     *
+     * @return the entry for the name
+     */
+    public static Entry lookup(char[] buffer, int offset, int length) {
+
+        int hash = hash(buffer, offset, length);
+        AtomicReferenceArray<Slot> b = buckets;
+        for (Slot e = b.get(hash & (b.length() - 1)); e != null; e = e.next) {
+            if (e.hash == hash) {
+                Entry entry = e.get();
+                if (entry != null && entry.matches(buffer, offset, length)) {
+                    return entry;
+                }
+            }
+        }
+        return insert(buffer, offset, length, hash, null);
+    }
+
+    /**
+     * Look up a name in the table. If the name is not contained yet then it
+     * is inserted.
+     *
+     * @param name the name
+     *
+     * @return the entry for the name
+     */
+    public static Entry lookup(String name) {
+
+        int hash = name.hashCode();
+        AtomicReferenceArray<Slot> b = buckets;
+        for (Slot e = b.get(hash & (b.length() - 1)); e != null; e = e.next) {
+            if (e.hash == hash) {
+                Entry entry = e.get();
+                if (entry != null && entry.name.equals(name)) {
+                    return entry;
+                }
+            }
+        }
+        char[] buffer = name.toCharArray();
+        return insert(buffer, 0, buffer.length, hash, name);
+    }
+
+    /**
+     * Drop the slots of collected entries from the table and release their
+     * ids. The caller has to hold the lock.
+     */
+    private static void purge() {
+
+        AtomicReferenceArray<Slot> b = buckets;
+        for (Reference<? extends Entry> r = queue.poll(); r != null; r =
+                queue.poll()) {
+            Slot slot = (Slot) r;
+            if (slot.removed) {
+                continue;
+            }
+            int index = slot.hash & (b.length() - 1);
+            Slot e = b.get(index);
+            if (e == slot) {
+                b.set(index, slot.next);
+            } else {
+                while (e.next != slot) {
+                    e = e.next;
+                }
+                e.next = slot.next;
+            }
+            release(slot);
+        }
+    }
+
+    /**
+     * Double the number of buckets and publish the new bucket array. The
+     * slots of collected entries are dropped on the fly. The caller has to
+     * hold the lock.
+     *
+     * @param old the old buckets
+     *
+     * @return the new buckets
+     */
+    private static AtomicReferenceArray<Slot> rehash(
+            AtomicReferenceArray<Slot> old) {
+
+        int len = old.length() * 2;
+        AtomicReferenceArray<Slot> b = new AtomicReferenceArray<Slot>(len);
+        for (int i = old.length() - 1; i >= 0; i--) {
+            for (Slot e = old.get(i); e != null; e = e.next) {
+                Entry entry = e.get();
+                if (entry == null) {
+                    release(e);
+                } else {
+                    e.removed = true;
+                    int index = e.hash & (len - 1);
+                    b.set(index, new Slot(entry, b.get(index)));
+                }
+            }
+        }
+        buckets = b;
+        return b;
+    }
+
+    /**
+     * Release the id of a slot which has been dropped from the table. The
+     * caller has to hold the lock.
+     *
+     * @param slot the slot
+     */
+    private static void release(Slot slot) {
+
+        slot.removed = true;
+        size--;
+        if (freeSize == free.length) {
+            int[] f = new int[2 * freeSize];
+            System.arraycopy(free, 0, f, 0, freeSize);
+            free = f;
+        }
+        free[freeSize++] = slot.id;
+    }
+
+    /**
+     * Getter for the number of names in the table. The number may include
+     * names which are not referenced any more but have not been dropped yet.
+     *
+     * @return the number of names
+     */
+    public static synchronized int size() {
+
+        purge();
+        return size;
+    }
+
+    /**
+     * Creates a new object. This constructor is private since the class
+     * provides static methods only.
+     */
+    private ControlSequenceTable() {
+
+        // unused
+    }
+
+}
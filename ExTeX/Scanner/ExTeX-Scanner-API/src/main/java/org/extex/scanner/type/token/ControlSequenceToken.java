@@ -49,6 +49,15 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
      */
     protected static final long serialVersionUID = 2011L;
 
+    /**
+     * The field <tt>entry</tt> contains the entry of the name in the
+     * {@link ControlSequenceTable ControlSequenceTable}. The value
+     * <code>null</code> indicates that the entry has not been determined yet.
+     * The reference keeps the entry and thus its id alive. The entry is not
+     * serialized since the id is valid in the current virtual machine only.
+     */
+    private transient ControlSequenceTable.Entry entry;
+
     /**
      * The field <tt>value</tt> contains the string value.
      */
@@ -74,6 +83,23 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
         super(esc);
         this.namespace = namespace;
         this.name = name;
+        this.entry = null;
+    }
+
+    /**
+     * Creates a new object for an entry of the symbol table.
+     * 
+     * @param esc the escape character
+     * @param entry the entry of the symbol table containing the name
+     * @param namespace the name space
+     */
+    protected ControlSequenceToken(UnicodeChar esc,
+            ControlSequenceTable.Entry entry, String namespace) {
+
+        super(esc);
+        this.namespace = namespace;
+        this.name = entry.getName();
+        this.entry = entry;
     }
 
     /**
@@ -91,8 +117,11 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
         if (Namespace.DEFAULT_NAMESPACE.equals(namespace)) {
             return this;
         }
-        return new ControlSequenceToken(getChar(), name,
-            Namespace.DEFAULT_NAMESPACE);
+        ControlSequenceToken t =
+                new ControlSequenceToken(getChar(), name,
+                    Namespace.DEFAULT_NAMESPACE);
+        t.entry = entry;
+        return t;
     }
 
     /**
@@ -111,7 +140,10 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
         if (theNamespace == null || namespace.equals(theNamespace)) {
             return this;
         }
-        return new ControlSequenceToken(getChar(), name, theNamespace);
+        ControlSequenceToken t =
+                new ControlSequenceToken(getChar(), name, theNamespace);
+        t.entry = entry;
+        return t;
     }
 
     /**
@@ -181,12 +213,14 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
     @Override
     public boolean equals(Object other) {
 
-        if (!(other instanceof ControlSequenceToken)) {
+        if (this == other) {
+            return true;
+        } else if (!(other instanceof ControlSequenceToken)) {
             return false;
         }
 
         ControlSequenceToken othertoken = (ControlSequenceToken) other;
-        return name.equals(othertoken.getName()) //
+        return getId() == othertoken.getId() //
                 && namespace.equals(othertoken.namespace);
     }
 
@@ -203,6 +237,21 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
         return Catcode.ESCAPE;
     }
 
+    /**
+     * Getter for the id of the name. The id is a positive number which is
+     * unique for the name as long as a token with this name exists. Thus two
+     * control sequence tokens have the same name iff they have the same id.
+     * 
+     * @return the id of the name
+     */
+    public int getId() {
+
+        if (entry == null) {
+            entry = ControlSequenceTable.lookup(name);
+        }
+        return entry.getId();
+    }
+
     /**
      * Getter for the name. The name is the string representation without the
      * escape character in front.
@@ -240,7 +289,7 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
     @Override
     public int hashCode() {
 
-        return name.hashCode(); // + HASH_FACTOR * namespace.hashCode();
+        return getId(); // + HASH_FACTOR * namespace.hashCode();
     }
 
     /**
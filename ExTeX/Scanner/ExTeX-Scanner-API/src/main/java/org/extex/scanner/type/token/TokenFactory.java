@@ -35,6 +35,24 @@ import org.extex.scanner.type.tokens.Tokens;
  */
 public interface TokenFactory {
 
+    /**
+     * Get an instance of a control sequence token. The name is taken from a
+     * character buffer. This method is meant for scanners which collect the
+     * name in a buffer. The buffer is not retained by the factory.
+     *
+     * @param esc the Unicode character value of the escape character
+     * @param buffer the buffer containing the name
+     * @param offset the offset of the first character of the name
+     * @param length the number of characters of the name
+     * @param namespace the name space for the token
+     *
+     * @return the appropriate token
+     *
+     * @throws CatcodeException in case of an error
+     */
+    CodeToken createControlSequence(UnicodeChar esc, char[] buffer,
+            int offset, int length, String namespace) throws CatcodeException;
+
     /**
      * Get an instance of a token with a given Catcode and value.
      *
@@ -84,10 +84,26 @@ public class TokenFactoryImpl
 
     /**
      * The field <tt>csCache</tt> contains the cache for control sequence
-     * tokens.
+     * tokens. For each name space an array is stored which is indexed by the
+     * id of the name in the {@link ControlSequenceTable ControlSequenceTable}.
+     * The tokens are held weakly. Thus unused tokens and their entries in the
+     * symbol table can be collected.
+     */
+    private Map<String, WeakReference<ControlSequenceToken>[]> csCache =
+            new HashMap<String, WeakReference<ControlSequenceToken>[]>();
+
+    /**
+     * The field <tt>csCacheNamespace</tt> contains the name space of the
+     * array in {@link #csTokens csTokens}.
+     */
+    private String csCacheNamespace = null;
+
+    /**
+     * The field <tt>csTokens</tt> contains the control sequence tokens for
+     * the name space last used. This is a shortcut for the look-up in
+     * {@link #csCache csCache}.
      */
-    private Map<String, Map<String, WeakReference<ControlSequenceToken>>> csCache =
-            new HashMap<String, Map<String, WeakReference<ControlSequenceToken>>>();
+    private WeakReference<ControlSequenceToken>[] csTokens = null;
 
     /**
      * The field <tt>leftBraceCache</tt> contains the cache for left brace
@@ -147,6 +163,78 @@ public class TokenFactoryImpl
     private Map<UnicodeChar, WeakReference<TabMarkToken>> tabMarkCache =
             new HashMap<UnicodeChar, WeakReference<TabMarkToken>>();
 
+    /**
+     * Get the cached control sequence token for an entry in the symbol table
+     * or create a new one.
+     * 
+     * @param esc the escape character
+     * @param entry the entry of the symbol table
+     * @param namespace the name space
+     * 
+     * @return the control sequence token
+     */
+    @SuppressWarnings("unchecked")
+    private ControlSequenceToken controlSequence(UnicodeChar esc,
+            ControlSequenceTable.Entry entry, String namespace) {
+
+        WeakReference<ControlSequenceToken>[] tokens;
+        if (namespace == csCacheNamespace) {
+            tokens = csTokens;
+        } else {
+            tokens = csCache.get(namespace);
+        }
+        int id = entry.getId();
+
+        if (tokens == null || id >= tokens.length) {
+            WeakReference<ControlSequenceToken>[] t =
+                    new WeakReference[Math.max(id + 1,
+                        tokens == null ? 1024 : 2 * tokens.length)];
+            if (tokens != null) {
+                System.arraycopy(tokens, 0, t, 0, tokens.length);
+            }
+            tokens = t;
+            csCache.put(namespace, tokens);
+        }
+        csCacheNamespace = namespace;
+        csTokens = tokens;
+
+        WeakReference<ControlSequenceToken> wr = tokens[id];
+        ControlSequenceToken token = null;
+
+        if (wr != null) {
+            token = wr.get();
+        }
+        if (token == null) {
+            token = new ControlSequenceToken(esc, entry, namespace);
+            tokens[id] = new WeakReference<ControlSequenceToken>(token);
+        }
+        return token;
+    }
+
+    /**
+     * Get an instance of a control sequence token. The name is taken from a
+     * character buffer. If the name is already known then no string is
+     * created.
+     * 
+     * @param esc the Unicode character value of the escape character
+     * @param buffer the buffer containing the name
+     * @param offset the offset of the first character of the name
+     * @param length the number of characters of the name
+     * @param namespace the name space for the token
+     * 
+     * @return the appropriate token
+     * 
+     * @see org.extex.scanner.type.token.TokenFactory#createControlSequence(org.extex.core.UnicodeChar,
+     *      char[], int, int, java.lang.String)
+     */
+    @Override
+    public CodeToken createControlSequence(UnicodeChar esc, char[] buffer,
+            int offset, int length, String namespace) {
+
+        return controlSequence(esc, ControlSequenceTable.lookup(buffer,
+            offset, length), namespace);
+    }
+
     /**
      * Create a new {@link org.extex.scanner.type.token.Token Token} of the
      * appropriate kind. Tokens are immutable (no setters) thus the factory
@@ -427,26 +515,8 @@ public class TokenFactoryImpl
             throw new CatcodeVisitorException();
         }
 
-        Map<String, WeakReference<ControlSequenceToken>> map =
-                csCache.get(namespace);
-
-        if (map == null) {
-            map = new HashMap<String, WeakReference<ControlSequenceToken>>();
-            csCache.put(namespace, map);
-        }
-
-        WeakReference<ControlSequenceToken> wr = map.get(name);
-        ControlSequenceToken token = null;
-
-        if (wr != null) {
-            token = wr.get();
-        }
-        if (token == null) {
-            token = new ControlSequenceToken(uchar, name, namespace);
-            map.put(name, new WeakReference<ControlSequenceToken>(token));
-        }
-
-        return token;
+        return controlSequence(uchar, ControlSequenceTable.lookup(name),
+            namespace);
     }
 
     /**
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.scanner.type.token;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * This is a test suite for the symbol table of control sequences.
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class ControlSequenceTableTest {
+
+    /**
+     * <testcase> A name looked up from a buffer and from a string gives the
+     * same entry. </testcase>
+     */
+    @Test
+    public void test1() {
+
+        ControlSequenceTable.Entry e1 =
+                ControlSequenceTable.lookup("--test1--".toCharArray(), 2, 5);
+        ControlSequenceTable.Entry e2 = ControlSequenceTable.lookup("test1");
+        assertSame(e1, e2);
+        assertEquals("test1", e1.getName());
+        assertTrue(e1.getId() > 0);
+    }
+
+    /**
+     * <testcase> Different names have different ids. </testcase>
+     */
+    @Test
+    public void test2() {
+
+        ControlSequenceTable.Entry e1 = ControlSequenceTable.lookup("test2a");
+        ControlSequenceTable.Entry e2 = ControlSequenceTable.lookup("test2b");
+        assertTrue(e1.getId() != e2.getId());
+    }
+
+    /**
+     * <testcase> The empty name can be stored. </testcase>
+     */
+    @Test
+    public void test3() {
+
+        ControlSequenceTable.Entry e = ControlSequenceTable.lookup("");
+        assertSame(e, ControlSequenceTable.lookup(new char[0], 0, 0));
+    }
+
+    /**
+     * <testcase> The ids survive the growing of the table. </testcase>
+     */
+    @Test
+    public void test4() {
+
+        ControlSequenceTable.Entry e = ControlSequenceTable.lookup("test4");
+        List<ControlSequenceTable.Entry> list =
+                new ArrayList<ControlSequenceTable.Entry>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(ControlSequenceTable.lookup("test4-" + i));
+        }
+        assertEquals(e.getId(), ControlSequenceTable.lookup("test4")
+            .getId());
+        assertEquals(e.getName(), ControlSequenceTable.lookup("test4")
+            .getName());
+        assertTrue(ControlSequenceTable.size() > 10000);
+    }
+
+    /**
+     * <testcase> Names which are not referenced any more are dropped and
+     * their ids are reused. </testcase>
+     */
+    @Test
+    public void test5() {
+
+        ControlSequenceTable.Entry e = ControlSequenceTable.lookup("test5");
+        int size = ControlSequenceTable.size();
+        for (int i = 0; i < 100000; i++) {
+            ControlSequenceTable.lookup("test5-" + i);
+        }
+        for (int i = 0; i < 10
+                && ControlSequenceTable.size() > size + 50000; i++) {
+            System.gc();
+            ControlSequenceTable.lookup("test5-x" + i);
+        }
+        assertTrue(ControlSequenceTable.size() <= size + 50000);
+        assertSame(e, ControlSequenceTable.lookup("test5"));
+    }
+
+}
@@ -21,7 +21,9 @@ package org.extex.scanner.type.token;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.extex.core.UnicodeChar;
@@ -1310,4 +1312,74 @@ public class TokenFactoryImplTest {
         assertEquals("123", tokens.toText());
     }
 
+    /**
+     * <testcase> A control sequence created from a character buffer is the
+     * same as the one created from a string. </testcase>
+     * 
+     * @throws CatcodeException in case of an error
+     */
+    @Test
+    public void testControlSequence1() throws CatcodeException {
+
+        TokenFactoryImpl tf = new TokenFactoryImpl();
+        char[] buffer = "xabcx".toCharArray();
+        CodeToken t =
+                tf.createControlSequence(UnicodeChar.get('\\'), buffer, 1, 3,
+                    "namespace");
+        assertEquals("abc", t.getName());
+        assertEquals("namespace", t.getNamespace());
+        assertSame(t, tf.createToken(Catcode.ESCAPE, UnicodeChar.get('\\'),
+            "abc", "namespace"));
+    }
+
+    /**
+     * <testcase> Control sequences in different name spaces are different
+     * but have the same id. </testcase>
+     * 
+     * @throws CatcodeException in case of an error
+     */
+    @Test
+    public void testControlSequence2() throws CatcodeException {
+
+        TokenFactoryImpl tf = new TokenFactoryImpl();
+        char[] buffer = "abc".toCharArray();
+        CodeToken t1 =
+                tf.createControlSequence(UnicodeChar.get('\\'), buffer, 0, 3,
+                    "a");
+        CodeToken t2 =
+                tf.createControlSequence(UnicodeChar.get('\\'), buffer, 0, 3,
+                    "b");
+        assertNotSame(t1, t2);
+        assertTrue(!t1.equals(t2));
+        assertEquals(((ControlSequenceToken) t1).getId(),
+            ((ControlSequenceToken) t2).getId());
+        assertEquals(t1, t2.cloneInNamespace("a"));
+    }
+
+    /**
+     * <testcase> Control sequences which are not referenced any more are not
+     * kept by the cache. Thus their names can be dropped from the symbol
+     * table. </testcase>
+     * 
+     * @throws CatcodeException in case of an error
+     */
+    @Test
+    public void testControlSequence3() throws CatcodeException {
+
+        TokenFactoryImpl tf = new TokenFactoryImpl();
+        UnicodeChar esc = UnicodeChar.get('\\');
+        Token t = tf.createToken(Catcode.ESCAPE, esc, "cs3", "namespace");
+        int size = ControlSequenceTable.size();
+        for (int i = 0; i < 100000; i++) {
+            tf.createToken(Catcode.ESCAPE, esc, "cs3-" + i, "namespace");
+        }
+        for (int i = 0; i < 10
+                && ControlSequenceTable.size() > size + 50000; i++) {
+            System.gc();
+            tf.createToken(Catcode.ESCAPE, esc, "cs3-x" + i, "namespace");
+        }
+        assertTrue(ControlSequenceTable.size() <= size + 50000);
+        assertSame(t, tf.createToken(Catcode.ESCAPE, esc, "cs3", "namespace"));
+    }
+
 }
@@ -0,0 +1,744 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.scanner.base;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+import org.extex.core.Locator;
+import org.extex.core.UnicodeChar;
+import org.extex.framework.configuration.Configuration;
+import org.extex.scanner.api.TokenStream;
+import org.extex.scanner.api.Tokenizer;
+import org.extex.scanner.api.exception.CatcodeException;
+import org.extex.scanner.api.exception.InvalidCharacterScannerException;
+import org.extex.scanner.api.exception.ScannerException;
+import org.extex.scanner.stream.TokenStreamOptions;
+import org.extex.scanner.type.Catcode;
+import org.extex.scanner.type.Namespace;
+import org.extex.scanner.type.token.Token;
+import org.extex.scanner.type.token.TokenFactory;
+
+/**
+ * This class contains an implementation of a token stream which holds the
+ * complete input in one character buffer.
+ * <p>
+ * The input is decoded at once when the first character is requested. Files
+ * are memory mapped and decoded directly from the mapped bytes. Other sources
+ * are read from a Reader. Afterwards the characters are taken from the buffer
+ * without copying the lines into strings. The bounds of the current line are
+ * kept for the locator only.
+ * </p>
+ * <p>
+ * The characters are classified with a switch on the category code instead of
+ * a visitor. The tokens delivered are the same as those of the
+ * {@link TokenStreamImpl TokenStreamImpl}. This implementation is meant for
+ * large input files. It can be selected in the configuration of the
+ * {@link org.extex.scanner.stream.TokenStreamFactory TokenStreamFactory}:
+ * </p>
+ *
+ * <pre>
+ *   &lt;Scanner class="org.extex.scanner.base.BufferedTokenStreamImpl"/&gt;
+ * </pre>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class BufferedTokenStreamImpl extends TokenStreamBaseImpl
+        implements
+            TokenStream {
+
+    /**
+     * The constant <tt>CARET_LIMIT</tt> contains the threshold for the ^
+     * notation.
+     */
+    protected static final int CARET_LIMIT = 0100; // 0100 = 64
+
+    /**
+     * The constant <tt>CR</tt> contains the code point of the character
+     * delivered at the end of each line.
+     */
+    private static final int CR = 13;
+
+    /**
+     * The constant <tt>INITIAL_SIZE</tt> contains the initial size of the
+     * buffer when reading from a Reader.
+     */
+    private static final int INITIAL_SIZE = 0x2000;
+
+    /**
+     * The constant <tt>MID_LINE</tt> contains the state for the processing in
+     * the middle of a line.
+     */
+    private static final int MID_LINE = 0;
+
+    /**
+     * The constant <tt>NEW_LINE</tt> contains the state for the processing at
+     * the beginning of a new line.
+     */
+    private static final int NEW_LINE = 1;
+
+    /**
+     * The constant <tt>NO_CHAR</tt> contains the value used to indicate that
+     * no character is available.
+     */
+    private static final int NO_CHAR = -1;
+
+    /**
+     * The constant <tt>SKIP_BLANKS</tt> contains the state for the processing
+     * when spaces are ignored.
+     */
+    private static final int SKIP_BLANKS = 2;
+
+    /**
+     * The field <tt>buffer</tt> contains the characters of the complete input.
+     * It is <code>null</code> until the input has been loaded.
+     */
+    private char[] buffer = null;
+
+    /**
+     * The field <tt>bytes</tt> contains the mapped bytes of the input file or
+     * <code>null</code> if the input is not read from a file.
+     */
+    private ByteBuffer bytes = null;
+
+    /**
+     * The field <tt>catcode</tt> contains the category code of the character
+     * last returned by {@link #getChar(Tokenizer) getChar()}. Thus each
+     * character is classified only once.
+     */
+    private Catcode catcode = null;
+
+    /**
+     * The field <tt>charset</tt> contains the character set to decode the
+     * bytes.
+     */
+    private Charset charset = null;
+
+    /**
+     * The field <tt>end</tt> contains the number of characters in the buffer.
+     */
+    private int end = 0;
+
+    /**
+     * The field <tt>lineEnd</tt> contains the index in the buffer of the end
+     * of the current line. The line terminator is not part of the line.
+     */
+    private int lineEnd = 0;
+
+    /**
+     * The field <tt>lineNumber</tt> contains the number of the current line.
+     */
+    private int lineNumber = 0;
+
+    /**
+     * The field <tt>lineStart</tt> contains the index in the buffer of the
+     * first character of the current line.
+     */
+    private int lineStart = 0;
+
+    /**
+     * The field <tt>nameBuffer</tt> contains the buffer for collecting the
+     * name of a control sequence. It is reused for all control sequences and
+     * enlarged on demand.
+     */
+    private char[] nameBuffer = new char[64];
+
+    /**
+     * The field <tt>nextLine</tt> contains the index in the buffer of the
+     * first character of the next line.
+     */
+    private int nextLine = 0;
+
+    /**
+     * The index in the buffer for the next character to consider. This is an
+     * invariant: after a character is read this pointer has to be advanced.
+     * The value <tt>lineEnd</tt> denotes the end of line character and a
+     * value beyond indicates that the line is exhausted.
+     */
+    private int pointer = 1;
+
+    /**
+     * The field <tt>reader</tt> contains the reader to load the input from or
+     * <code>null</code> if the input is mapped or has already been loaded.
+     */
+    private Reader reader;
+
+    /**
+     * The field <tt>saveChar</tt> contains the saved look-ahead character or
+     * <tt>NO_CHAR</tt>.
+     */
+    private int saveChar = NO_CHAR;
+
+    /**
+     * The field <tt>source</tt> contains the description of the source for
+     * tokens.
+     */
+    private String source;
+
+    /**
+     * The field <tt>state</tt> contains the current state of operation.
+     */
+    private int state = NEW_LINE;
+
+    /**
+     * Creates a new object for an input stream. If the stream is a file
+     * stream then the remaining part of the file is memory mapped and the
+     * stream is closed. Otherwise the stream is read through a Reader.
+     *
+     * @param config the configuration object for this instance; This
+     *        configuration is ignored in this implementation.
+     * @param options ignored here
+     * @param stream the input stream
+     * @param encoding the name of the encoding or <code>null</code> for the
+     *        platform default
+     * @param isFile indicator for file streams
+     * @param theSource the description of the input source
+     *
+     * @throws IOException in case of an IO error
+     */
+    public BufferedTokenStreamImpl(Configuration config,
+            TokenStreamOptions options, InputStream stream, String encoding,
+            Boolean isFile, String theSource) throws IOException {
+
+        super(isFile.booleanValue());
+        this.source = theSource;
+        try {
+            charset =
+                    encoding == null
+                            ? Charset.defaultCharset()
+                            : Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedEncodingException(encoding);
+        }
+
+        if (stream instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) stream).getChannel();
+            try {
+                long position = channel.position();
+                bytes =
+                        channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            channel.size() - position);
+            } finally {
+                stream.close();
+            }
+        } else {
+            reader = new InputStreamReader(stream, charset);
+        }
+    }
+
+    /**
+     * Creates a new object.
+     *
+     * @param config the configuration object for this instance; This
+     *        configuration is ignored in this implementation.
+     * @param options ignored here
+     * @param reader the reader
+     * @param isFile indicator for file streams
+     * @param theSource the description of the input source
+     *
+     * @throws IOException in case of an IO error
+     */
+    public BufferedTokenStreamImpl(Configuration config,
+            TokenStreamOptions options, Reader reader, Boolean isFile,
+            String theSource) throws IOException {
+
+        super(isFile.booleanValue());
+        this.reader = reader;
+        this.source = theSource;
+    }
+
+    /**
+     * Checks whether the pointer is at the end of line.
+     *
+     * @return <code>true</code> iff the next reading operation would try to
+     *         refill the line buffer
+     */
+    protected boolean atEndofLine() {
+
+        return pointer >= lineEnd;
+    }
+
+    /**
+     * Handle double carets.
+     *
+     * @return the code point to use instead
+     */
+    private int caretCaret() {
+
+        int c = getRawChar();
+        if (c < 0) {
+            // this should be impossible since a CR is added to the end of
+            // the line
+            return NO_CHAR; // ^^ at end is silently ignored
+        }
+        int hexHigh = hex2int(c);
+        if (hexHigh < 0) {
+            return (c < CARET_LIMIT ? c + CARET_LIMIT : c - CARET_LIMIT);
+        }
+
+        c = getRawChar();
+        if (c < 0) {
+            return hexHigh;
+        }
+        int hexLow = hex2int(c);
+        if (hexLow < 0) {
+            saveChar = c;
+            return hexHigh;
+        }
+
+        return (hexHigh << 4) + hexLow;
+    }
+
+    /**
+     * End the current line.
+     */
+    protected void endLine() {
+
+        pointer = lineEnd + 1;
+    }
+
+    /**
+     * Return the next character to process. The pointer is advanced and points
+     * to the character returned. The category code of the character is
+     * stored in the field <tt>catcode</tt>.
+     * <p>
+     * This operation might involve that the next line is made the current
+     * line (with {@link #refill() refill()}).
+     * </p>
+     *
+     * @param tokenizer the classifier for characters
+     * @return the code point of the character or <tt>NO_CHAR</tt> if no
+     *         character is available
+     * @throws ScannerException in the rare case that an IO Exception has
+     *         occurred.
+     */
+    private int getChar(Tokenizer tokenizer) throws ScannerException {
+
+        int c = saveChar;
+        if (c >= 0) {
+            saveChar = NO_CHAR;
+            catcode = tokenizer.getCatcode(c);
+            return c;
+        }
+
+        c = getRawChar();
+
+        if (c < 0) {
+            do {
+                if (!refill()) {
+                    return NO_CHAR;
+                }
+                c = getRawChar();
+
+            } while (c < 0);
+
+            state = NEW_LINE;
+        }
+
+        catcode = tokenizer.getCatcode(c);
+
+        if (catcode == Catcode.SUPMARK) {
+
+            int savePointer = pointer;
+
+            if (getRawChar() == c) {
+                c = caretCaret();
+                if (c >= 0) {
+                    catcode = tokenizer.getCatcode(c);
+                }
+                return c;
+            }
+            pointer = savePointer;
+        }
+
+        return c;
+    }
+
+    /**
+     * Getter for the locator. The locator describes the place the tokens have
+     * been read from in terms of the user. This information is meant for the
+     * end user to track down problems.
+     *
+     * @return the locator
+     *
+     * @see org.extex.scanner.api.TokenStream#getLocator()
+     */
+    @Override
+    public Locator getLocator() {
+
+        return new Locator(source, lineNumber, getLine(), pointer - lineStart
+                - 1);
+    }
+
+    /**
+     * Getter for the current line.
+     *
+     * @return the current line without line terminator
+     */
+    private String getLine() {
+
+        return buffer == null ? "" : new String(buffer, lineStart, lineEnd
+                - lineStart);
+    }
+
+    /**
+     * Get the next token when the stack is empty.
+     *
+     * @param factory the factory for new tokens
+     * @param tokenizer the classifies for characters
+     *
+     * @return the next Token or <code>null</code>
+     * @throws ScannerException in case of an error
+     *
+     * @see org.extex.scanner.base.TokenStreamBaseImpl#getNext(org.extex.scanner.type.token.TokenFactory,
+     *      org.extex.scanner.api.Tokenizer)
+     */
+    @Override
+    protected Token getNext(TokenFactory factory, Tokenizer tokenizer)
+            throws ScannerException {
+
+        Token t = null;
+
+        do {
+            int c = getChar(tokenizer);
+            if (c < 0) {
+                return null;
+            }
+
+            try {
+                t = scan(factory, tokenizer, c, catcode);
+            } catch (Exception e) {
+                throw new ScannerException(e);
+            }
+        } while (t == null);
+
+        return t;
+    }
+
+    /**
+     * Get the next character from the input line.
+     *
+     * @return the next raw character or <tt>NO_CHAR</tt> if none is
+     *         available.
+     */
+    private int getRawChar() {
+
+        int p = pointer++;
+        if (p < lineEnd) {
+            return buffer[p];
+        }
+        return (p > lineEnd ? NO_CHAR : CR);
+    }
+
+    /**
+     * Analyze a character and return its hex value. This means '0' to '9' are
+     * mapped to 0 to 9 and 'a' to 'f' (case sensitive) are mapped to 10 to 15.
+     *
+     * @param c the character code to analyze
+     *
+     * @return the integer value of a hex digit or -1 if no hex digit is given
+     */
+    protected int hex2int(int c) {
+
+        if ('0' <= c && c <= '9') {
+            return c - '0';
+        } else if ('a' <= c && c <= 'f') {
+            return c - 'a' + 10;
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * Check to see if a further token can be acquired from the token stream.
+     *
+     * @return <code>true</code> if the stream is at its end
+     *
+     * @throws ScannerException in case that an error has been encountered.
+     *         Especially if an IO exceptions occurs it is delivered as chained
+     *         exception in a ScannerException.
+     *
+     * @see org.extex.scanner.api.TokenStream#isEof()
+     */
+    @Override
+    public boolean isEof() throws ScannerException {
+
+        if (saveChar >= 0 || !super.isEof()) {
+            return false;
+        }
+
+        try {
+            do {
+                if (pointer < lineEnd) {
+                    return false;
+                }
+            } while (refill());
+        } catch (ScannerException e) {
+            return true;
+        }
+
+        return true;
+    }
+
+    /**
+     * Check to see if the token stream is currently at the end of line.
+     *
+     * @return <code>true</code> if the stream is at end of line
+     *
+     * @see org.extex.scanner.api.TokenStream#isEol()
+     */
+    @Override
+    public boolean isEol() {
+
+        return pointer > lineEnd;
+    }
+
+    /**
+     * Decode the complete input into the buffer.
+     *
+     * @throws ScannerException in case of some kind of IO error
+     */
+    private void load() throws ScannerException {
+
+        if (bytes != null) {
+            CharsetDecoder decoder = charset.newDecoder();
+            decoder.onMalformedInput(CodingErrorAction.REPLACE);
+            decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer chars;
+            try {
+                chars = decoder.decode(bytes);
+            } catch (CharacterCodingException e) {
+                throw new ScannerException(e);
+            }
+            bytes = null;
+            if (chars.hasArray() && chars.arrayOffset() == 0) {
+                buffer = chars.array();
+                end = chars.limit();
+            } else {
+                end = chars.remaining();
+                buffer = new char[end];
+                chars.get(buffer);
+            }
+            return;
+        }
+
+        char[] b = new char[INITIAL_SIZE];
+        int n = 0;
+        try {
+            if (reader != null) {
+                for (int len = reader.read(b, 0, b.length); len >= 0; len =
+                        reader.read(b, n, b.length - n)) {
+                    n += len;
+                    if (n >= b.length) {
+                        char[] nb = new char[2 * b.length];
+                        System.arraycopy(b, 0, nb, 0, n);
+                        b = nb;
+                    }
+                }
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new ScannerException(e);
+        } finally {
+            reader = null;
+        }
+        buffer = b;
+        end = n;
+    }
+
+    /**
+     * Advance to the next line of the input. The line terminators are the
+     * same as for {@link java.io.BufferedReader#readLine() readLine()}.
+     *
+     * @return <code>true</code> iff the next line could be acquired.
+     *
+     * @throws ScannerException in case of some kind of IO error
+     */
+    protected boolean refill() throws ScannerException {
+
+        if (buffer == null) {
+            load();
+        }
+        if (nextLine >= end) {
+            return false;
+        }
+        char[] b = buffer;
+        int i = nextLine;
+        while (i < end && b[i] != '\n' && b[i] != '\r') {
+            i++;
+        }
+        lineStart = nextLine;
+        lineEnd = i;
+        if (i < end && b[i++] == '\r' && i < end && b[i] == '\n') {
+            i++;
+        }
+        nextLine = i;
+        lineNumber++;
+        pointer = lineStart;
+        return true;
+    }
+
+    /**
+     * Produce the token for a character according to its category code.
+     *
+     * @param factory the factory for new tokens
+     * @param tokenizer the classifier for characters
+     * @param c the code point of the character
+     * @param cc the category code of the character
+     *
+     * @return the token or <code>null</code> if the character does not
+     *         produce a token
+     *
+     * @throws CatcodeException in case of an error
+     * @throws ScannerException in case of an error
+     */
+    private Token scan(TokenFactory factory, Tokenizer tokenizer, int c,
+            Catcode cc) throws CatcodeException, ScannerException {
+
+        switch (cc) {
+            case ESCAPE:
+                return scanEscape(factory, tokenizer, UnicodeChar.get(c));
+
+            case SPACE:
+                if (state == MID_LINE) {
+                    state = SKIP_BLANKS;
+                    return factory.createToken(Catcode.SPACE, ' ',
+                        Namespace.DEFAULT_NAMESPACE);
+                }
+                return null;
+
+            case CR:
+                Token t = null;
+                if (state == MID_LINE) {
+                    t = factory.createToken(Catcode.SPACE, ' ', //
+                        tokenizer.getNamespace());
+                } else if (state == NEW_LINE) {
+                    t = factory.createToken(Catcode.ESCAPE, //
+                        UnicodeChar.get('\\'), "par", //
+                        tokenizer.getNamespace());
+                }
+                endLine();
+                return t;
+
+            case COMMENT:
+                endLine();
+                return null;
+
+            case IGNORE:
+                return null;
+
+            case INVALID:
+                state = MID_LINE;
+                throw new InvalidCharacterScannerException(UnicodeChar.get(c));
+
+            default:
+                state = MID_LINE;
+                return factory.createToken(cc, c, tokenizer.getNamespace());
+        }
+    }
+
+    /**
+     * Produce the token for an escape character. In <logo>T<span style=
+     * "text-transform:uppercase;font-size:90%;vertical-align:-0.4ex;margin-left:-0.2em;margin-right:-0.1em;line-height: 0;"
+     * >e</span>X</logo> this normally means a control sequence.
+     *
+     * @param factory the factory for new tokens
+     * @param tokenizer the classifier for characters
+     * @param esc the escape character
+     *
+     * @return the control sequence token
+     *
+     * @throws CatcodeException in case of an error
+     * @throws ScannerException in case of an error
+     */
+    private Token scanEscape(TokenFactory factory, Tokenizer tokenizer,
+            UnicodeChar esc) throws CatcodeException, ScannerException {
+
+        String namespace = tokenizer.getNamespace();
+
+        if (atEndofLine()) {
+            // empty control sequence; see "The TeXbook, Chapter 8, p. 47"
+            return factory.createToken(Catcode.ESCAPE, esc, "", namespace);
+        }
+
+        int c = getChar(tokenizer);
+
+        if (c < 0) {
+            return factory.createToken(Catcode.ESCAPE, esc, "", namespace);
+
+        } else if (catcode != Catcode.LETTER) {
+            state = MID_LINE;
+            return factory.createToken(Catcode.ESCAPE, esc, Character
+                .toString((char) c), namespace);
+        }
+
+        char[] name = nameBuffer;
+        name[0] = (char) c;
+        int length = 1;
+        state = SKIP_BLANKS;
+
+        while (!atEndofLine()) {
+            c = getChar(tokenizer);
+            if (c < 0) {
+                break;
+            }
+            if (catcode != Catcode.LETTER) {
+                saveChar = c;
+                break;
+            }
+            if (length >= name.length) {
+                char[] n = new char[2 * name.length];
+                System.arraycopy(name, 0, n, 0, length);
+                name = n;
+                nameBuffer = n;
+            }
+            name[length++] = (char) c;
+        }
+
+        return factory.createControlSequence(esc, name, 0, length, namespace);
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return a string representation of the object
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return source + ":" + lineNumber + "[" + (pointer - lineStart) + "]:"
+                + getLine();
+    }
+
+}
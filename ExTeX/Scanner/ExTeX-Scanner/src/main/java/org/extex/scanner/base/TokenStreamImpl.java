@@ -132,6 +132,13 @@ public class TokenStreamImpl extends TokenStreamBaseImpl implements TokenStream
      */
     private int pointer = 1;
 
+    /**
+     * The field <tt>nameBuffer</tt> contains the buffer for collecting the
+     * name of a control sequence. It is reused for all control sequences and
+     * enlarged on demand.
+     */
+    private char[] nameBuffer = new char[64];
+
     /**
      * The field <tt>saveChar</tt> contains the saved look-ahead character.
      */
@@ -281,8 +288,9 @@ public class TokenStreamImpl extends TokenStreamBaseImpl implements TokenStream
                             namespace);
 
                     } else if (tokenizer.getCatcode(uc) == Catcode.LETTER) {
-                        StringBuilder sb = new StringBuilder();
-                        sb.append((char) (uc.getCodePoint()));
+                        char[] buffer = nameBuffer;
+                        buffer[0] = (char) (uc.getCodePoint());
+                        int length = 1;
                         state = SKIP_BLANKS;
 
                         while (!atEndofLine()) {
@@ -293,14 +301,19 @@ public class TokenStreamImpl extends TokenStreamBaseImpl implements TokenStream
 
                             if (tokenizer.getCatcode(uc) != Catcode.LETTER) {
                                 ungetChar(uc);
-                                return factory.createToken(Catcode.ESCAPE,
-                                    uchar, sb.toString(), namespace);
+                                break;
+                            }
+                            if (length >= buffer.length) {
+                                char[] b = new char[2 * buffer.length];
+                                System.arraycopy(buffer, 0, b, 0, length);
+                                buffer = b;
+                                nameBuffer = b;
                             }
-                            sb.append((char) (uc.getCodePoint()));
+                            buffer[length++] = (char) (uc.getCodePoint());
                         }
 
-                        return factory.createToken(Catcode.ESCAPE, uchar,
-                            sb.toString(), namespace);
+                        return factory.createControlSequence(uchar, buffer, 0,
+                            length, namespace);
 
                     } else {
                         state = MID_LINE;
@@ -739,7 +752,7 @@ public class TokenStreamImpl extends TokenStreamBaseImpl implements TokenStream
             state = NEW_LINE;
         }
 
-        if (tokenizer.getCatcode(uc) == Catcode.SUPMARK) {
+        if (tokenizer.getCatcode(uc.getCodePoint()) == Catcode.SUPMARK) {
 
             int savePointer = pointer;
             UnicodeChar c = getRawChar();
@@ -795,8 +808,8 @@ public class TokenStreamImpl extends TokenStreamBaseImpl implements TokenStream
             }
 
             try {
-                t = (Token) tokenizer.getCatcode(uc).visit(visitor, //
-                    factory, tokenizer, uc);
+                t = (Token) tokenizer.getCatcode(uc.getCodePoint()).visit(
+                    visitor, factory, tokenizer, uc);
             } catch (Exception e) {
                 throw new ScannerException(e);
             }
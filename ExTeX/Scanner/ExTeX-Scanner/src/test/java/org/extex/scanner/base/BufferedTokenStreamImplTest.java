@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.scanner.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+
+import org.extex.scanner.api.TokenStream;
+import org.extex.scanner.type.token.Token;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * Test cases for the buffered implementation of a token stream.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class BufferedTokenStreamImplTest extends TokenStreamStringImplTest {
+
+    /**
+     * The constant <tt>INPUT</tt> contains the input for the comparison with
+     * the reader based implementation.
+     */
+    private static final String INPUT =
+            "\\abc def\r\n\r\n  x^^41^^4g^^M% comment\r\\a1\n\n\\\n{$#&_~}";
+
+    /**
+     * Command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(BufferedTokenStreamImplTest.class);
+    }
+
+    /**
+     * Creates a new object.
+     */
+    public BufferedTokenStreamImplTest() {
+
+    }
+
+    /**
+     * Check that two token streams deliver the same tokens.
+     *
+     * @param expected the stream with the expected tokens
+     * @param stream the stream to check
+     *
+     * @throws Exception in case of an error
+     */
+    private void assertSameTokens(TokenStream expected, TokenStream stream)
+            throws Exception {
+
+        for (Token t = expected.get(FACTORY, TOKENIZER); t != null; t =
+                expected.get(FACTORY, TOKENIZER)) {
+            assertEquals(t, stream.get(FACTORY, TOKENIZER));
+        }
+        assertNull(stream.get(FACTORY, TOKENIZER));
+    }
+
+    /**
+     * Create a stream of tokens fed from a string.
+     *
+     * @param line the input string
+     * @return the new token stream
+     * @throws IOException in case of an error
+     */
+    @Override
+    protected TokenStream makeStream(String line) throws IOException {
+
+        return new BufferedTokenStreamImpl(null, null, new StringReader(line),
+            Boolean.FALSE, "test");
+    }
+
+    /**
+     * <testcase> Test that a stream fed from a reader delivers the same tokens
+     * as the reader based implementation. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testCompare1() throws Exception {
+
+        assertSameTokens(new TokenStreamImpl(null, null, new StringReader(
+            INPUT), Boolean.FALSE, "test"), makeStream(INPUT));
+    }
+
+    /**
+     * <testcase> Test that a stream fed from an input stream delivers the same
+     * tokens as the reader based implementation. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testCompare2() throws Exception {
+
+        TokenStream stream =
+                new BufferedTokenStreamImpl(null, null,
+                    new ByteArrayInputStream(INPUT.getBytes("UTF-8")),
+                    "UTF-8", Boolean.FALSE, "test");
+        assertSameTokens(new TokenStreamImpl(null, null, new StringReader(
+            INPUT), Boolean.FALSE, "test"), stream);
+    }
+
+    /**
+     * <testcase> Test that a memory mapped file delivers the same tokens as
+     * the reader based implementation. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testCompare3() throws Exception {
+
+        File file = File.createTempFile("extex", ".tex");
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                out.write(INPUT.getBytes("UTF-8"));
+            } finally {
+                out.close();
+            }
+            TokenStream stream =
+                    new BufferedTokenStreamImpl(null, null,
+                        new FileInputStream(file), "UTF-8", Boolean.TRUE,
+                        "test");
+            assertSameTokens(new TokenStreamImpl(null, null,
+                new StringReader(INPUT), Boolean.FALSE, "test"), stream);
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * <testcase> Test that an empty line is translated into <tt>\par</tt>.
+     * The end of the line before it is translated into a space. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Override
+    @Test
+    public void testCr2() throws Exception {
+
+        TokenStream stream = makeStream("x\n\nx");
+        assertEquals("the letter x", stream.get(FACTORY, TOKENIZER).toString());
+        assertEquals("blank space  ", stream.get(FACTORY, TOKENIZER)
+            .toString());
+        assertEquals("the control sequence \\par", stream.get(FACTORY,
+            TOKENIZER).toString());
+        assertEquals("the letter x", stream.get(FACTORY, TOKENIZER).toString());
+        assertEquals("blank space  ", stream.get(FACTORY, TOKENIZER)
+            .toString());
+        assertNull(stream.get(FACTORY, TOKENIZER));
+    }
+
+    /**
+     * <testcase> Test that the locator reports the line number and the
+     * current line. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testLocator1() throws Exception {
+
+        TokenStream stream = makeStream("a\r\nbc\n");
+        stream.get(FACTORY, TOKENIZER);
+        stream.get(FACTORY, TOKENIZER);
+        stream.get(FACTORY, TOKENIZER);
+        assertEquals(2, stream.getLocator().getLineNumber());
+        assertEquals("bc", stream.getLocator().getLine());
+    }
+
+}
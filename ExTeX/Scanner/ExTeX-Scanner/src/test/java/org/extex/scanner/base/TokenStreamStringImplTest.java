@@ -117,6 +117,17 @@ public class TokenStreamStringImplTest {
             }
         }
 
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+         */
+        @Override
+        public Catcode getCatcode(int codePoint) {
+
+            return getCatcode(UnicodeChar.get(codePoint));
+        }
+
         /**
          * Getter for the name space.
          * 
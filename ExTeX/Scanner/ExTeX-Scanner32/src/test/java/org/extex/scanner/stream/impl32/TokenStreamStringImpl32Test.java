@@ -149,6 +149,17 @@ public class TokenStreamStringImpl32Test {
                 }
             }
 
+            /**
+             * {@inheritDoc}
+             * 
+             * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+             */
+            @Override
+            public Catcode getCatcode(int codePoint) {
+
+                return getCatcode(UnicodeChar.get(codePoint));
+            }
+
             /**
              * {@inheritDoc}
              * 
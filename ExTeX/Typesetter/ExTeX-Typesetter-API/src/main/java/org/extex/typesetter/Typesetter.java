@@ -115,6 +115,15 @@ public interface Typesetter extends ListMaker {
      */
     boolean isShipoutMark();
 
+    /**
+     * Wait for the paragraphs which are broken into lines in the background
+     * and add their lines to the vertical list. Afterwards the registers set
+     * by the paragraph builder, e.g. <tt>\prevgraf</tt>, are up to date.
+     * 
+     * @throws TypesetterException in case of an error
+     */
+    void joinParagraphs() throws TypesetterException;
+
     /**
      * Open a new list maker and put it in the top of the stack as current box.
      * 
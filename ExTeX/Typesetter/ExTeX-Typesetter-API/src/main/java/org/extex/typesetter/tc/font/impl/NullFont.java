@@ -19,6 +19,7 @@
 
 package org.extex.typesetter.tc.font.impl;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
@@ -32,6 +33,7 @@ import org.extex.core.glue.FixedGlue;
 import org.extex.core.glue.Glue;
 import org.extex.font.FontKey;
 import org.extex.font.FontKeyFactory;
+import org.extex.framework.Registrar;
 import org.extex.typesetter.tc.font.Font;
 
 /**
@@ -82,6 +84,29 @@ public class NullFont implements Font, Serializable {
 
     }
 
+    /**
+     * Copy the values which can be modified by assignments from another font.
+     *
+     * @param font the font to copy the values from
+     */
+    private void copyParameters(NullFont font) {
+
+        efCode = (font.efCode == null //
+                ? null
+                : new HashMap<UnicodeChar, Long>(font.efCode));
+        if (font.fontDimens == null) {
+            fontDimens = null;
+        } else {
+            fontDimens = new HashMap<String, Dimen>(font.fontDimens.size());
+            for (Map.Entry<String, Dimen> e : font.fontDimens.entrySet()) {
+                Dimen d = e.getValue();
+                fontDimens.put(e.getKey(), d == null ? null : new Dimen(d));
+            }
+        }
+        hyphen = font.hyphen;
+        skew = font.skew;
+    }
+
     /**
      * Returns the actual FontKey for this font.
      * The font key may differ from the one requested.
@@ -364,6 +389,41 @@ public class NullFont implements Font, Serializable {
         return false;
     }
 
+    /**
+     * Magic method for deserialization.
+     *
+     * @return the reconnection result
+     *
+     * @throws ObjectStreamException in case of an error
+     */
+    protected Object readResolve() throws ObjectStreamException {
+
+        return Registrar.reconnect(this);
+    }
+
+    /**
+     * Restore the values which can be modified by assignments.
+     *
+     * @param parameters the values returned by {@link #saveParameters()}
+     */
+    public void restoreParameters(Object parameters) {
+
+        copyParameters((NullFont) parameters);
+    }
+
+    /**
+     * Save the values which can be modified by assignments, i.e. the font
+     * dimens, the hyphen character, the skew character, and the ef codes.
+     *
+     * @return an opaque object containing the current values
+     */
+    public Object saveParameters() {
+
+        NullFont parameters = new NullFont();
+        parameters.copyParameters(this);
+        return parameters;
+    }
+
     /**
      * Setter for the ef code.
      * The ef code influences the stretchability of characters. It has a
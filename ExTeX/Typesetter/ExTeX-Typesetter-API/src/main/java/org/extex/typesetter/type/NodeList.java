@@ -82,6 +82,16 @@ public interface NodeList extends Node, Iterable<Node>, Cloneable {
      */
     NodeList copy();
 
+    /**
+     * Clone the current object together with all nodes contained in it. The
+     * copy does not share any dimensions or nested node lists with the
+     * original. Thus the original is not affected by modifications of the
+     * copy and vice versa.
+     * 
+     * @return the copy
+     */
+    NodeList deepCopy();
+
     /**
      * Getter for a node at a given position.
      * 
@@ -74,6 +74,19 @@ public abstract class AbstractLeadersNode extends AbstractExpandableNode
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.type.node.AbstractNode#deepCopy()
+     */
+    @Override
+    public Node deepCopy() {
+
+        AbstractLeadersNode copy = (AbstractLeadersNode) super.deepCopy();
+        copy.node = deepCopy(node);
+        return copy;
+    }
+
     /**
      * {@inheritDoc}
      * 
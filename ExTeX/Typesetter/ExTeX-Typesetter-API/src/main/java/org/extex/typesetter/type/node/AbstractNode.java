@@ -22,6 +22,7 @@ package org.extex.typesetter.type.node;
 import org.extex.core.dimen.Dimen;
 import org.extex.core.dimen.FixedDimen;
 import org.extex.core.exception.GeneralException;
+import org.extex.core.exception.ImpossibleException;
 import org.extex.core.glue.FixedGlue;
 import org.extex.core.glue.FixedGlueComponent;
 import org.extex.core.glue.Glue;
@@ -31,6 +32,7 @@ import org.extex.framework.i18n.LocalizerFactory;
 import org.extex.typesetter.PageContext;
 import org.extex.typesetter.Typesetter;
 import org.extex.typesetter.type.Node;
+import org.extex.typesetter.type.NodeList;
 
 /**
  * This abstract class provides some methods common to all Nodes.
@@ -38,7 +40,7 @@ import org.extex.typesetter.type.Node;
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @version $Revision: 4739 $
  */
-public abstract class AbstractNode implements Node {
+public abstract class AbstractNode implements Node, Cloneable {
 
     /**
      * The field <tt>serialVersionUID</tt> contains the version number for
@@ -209,6 +211,49 @@ public abstract class AbstractNode implements Node {
         return clone;
     }
 
+    /**
+     * Make a copy of this node which does not share any dimensions with the
+     * original. Nodes containing other nodes copy them as well.
+     * 
+     * @return the copy
+     */
+    public Node deepCopy() {
+
+        try {
+            return (Node) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new ImpossibleException(e);
+        }
+    }
+
+    /**
+     * Make a copy of a node which does not share any dimensions with the
+     * original.
+     * 
+     * @param node the node or <code>null</code>
+     * 
+     * @return the copy or <code>null</code>
+     */
+    protected static Node deepCopy(Node node) {
+
+        return node instanceof AbstractNode
+                ? ((AbstractNode) node).deepCopy()
+                : node;
+    }
+
+    /**
+     * Make a copy of a node list which does not share any dimensions or nodes
+     * with the original.
+     * 
+     * @param nodes the node list or <code>null</code>
+     * 
+     * @return the copy or <code>null</code>
+     */
+    protected static NodeList deepCopy(NodeList nodes) {
+
+        return nodes == null ? null : nodes.deepCopy();
+    }
+
     /**
      * Compute the amount of adjustment needed to achieve a certain size.
      * 
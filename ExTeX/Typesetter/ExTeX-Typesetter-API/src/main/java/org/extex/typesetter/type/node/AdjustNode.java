@@ -58,6 +58,19 @@ public class AdjustNode extends AbstractNode implements Node {
         this.nodes = nodes;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.type.node.AbstractNode#deepCopy()
+     */
+    @Override
+    public Node deepCopy() {
+
+        AdjustNode copy = (AdjustNode) super.deepCopy();
+        copy.nodes = deepCopy(nodes);
+        return copy;
+    }
+
     /**
      * Getter for nodes.
      * 
@@ -77,6 +77,21 @@ public class DiscretionaryNode extends AbstractNode implements Node {
         noBreak = no;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.type.node.AbstractNode#deepCopy()
+     */
+    @Override
+    public Node deepCopy() {
+
+        DiscretionaryNode copy = (DiscretionaryNode) super.deepCopy();
+        copy.preBreak = deepCopy(preBreak);
+        copy.postBreak = deepCopy(postBreak);
+        copy.noBreak = deepCopy(noBreak);
+        return copy;
+    }
+
     /**
      * Getter for noBreak.
      * 
@@ -200,6 +200,26 @@ public class GenericNodeList extends AbstractNode implements NodeList {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.type.NodeList#deepCopy()
+     */
+    @Override
+    public NodeList deepCopy() {
+
+        try {
+            GenericNodeList clone = (GenericNodeList) this.clone();
+            clone.list = new ArrayList<Node>(list.size());
+            for (Node n : list) {
+                clone.list.add(deepCopy(n));
+            }
+            return clone;
+        } catch (CloneNotSupportedException e) {
+            throw new ImpossibleException(e);
+        }
+    }
+
     /**
      * This method determines the number of characters contained in a node.
      * 
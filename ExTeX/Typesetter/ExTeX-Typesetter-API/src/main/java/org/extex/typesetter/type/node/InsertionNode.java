@@ -87,6 +87,19 @@ public class InsertionNode extends AbstractNode implements Node {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.type.node.AbstractNode#deepCopy()
+     */
+    @Override
+    public Node deepCopy() {
+
+        InsertionNode copy = (InsertionNode) super.deepCopy();
+        copy.nodes = deepCopy(nodes);
+        return copy;
+    }
+
     /**
      * This method returns the printable representation. This is meant to
      * produce a exhaustive form as it is used in tracing output to the log
@@ -249,6 +249,20 @@ public class VirtualCharNode extends CharNode implements NodeList {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.type.NodeList#deepCopy()
+     */
+    @Override
+    public NodeList deepCopy() {
+
+        VirtualCharNode copy = (VirtualCharNode) super.deepCopy();
+        copy.nodes = (NL) nodes.deepCopy();
+        copy.nodes.setParent(copy);
+        return copy;
+    }
+
     /**
      * This method determines the number of characters contained in a node.
      * 
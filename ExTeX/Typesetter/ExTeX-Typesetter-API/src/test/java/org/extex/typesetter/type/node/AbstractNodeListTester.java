@@ -534,6 +534,30 @@ public abstract class AbstractNodeListTester {
         assertList(copy, 1, 0, 0, 0, 0, 0);
     }
 
+    /**
+     * <testcase> Test case checking that a deep copy does not share the nodes
+     * and their dimensions with the original. </testcase>
+     * 
+     */
+    @Test
+    public void testDeepCopy1() {
+
+        HorizontalListNode inner = new HorizontalListNode(new PenaltyNode(123));
+        inner.setWidth(Dimen.ONE_PT);
+        NodeList list = makeList(inner);
+        NodeList copy = list.deepCopy();
+        assertNotNull(copy);
+        assertEquals(list.getClass(), copy.getClass());
+        assertNotSame(list, copy);
+        assertEquals(1, copy.size());
+        Node n = copy.get(0);
+        assertNotSame(inner, n);
+        assertTrue(n instanceof HorizontalListNode);
+        assertNotSame(inner.get(0), ((NodeList) n).get(0));
+        n.setWidth(Dimen.ZERO_PT);
+        assertEquals(Dimen.ONE_PT.getValue(), inner.getWidth().getValue());
+    }
+
     /**
      * <testcase> ... </testcase>
      * 
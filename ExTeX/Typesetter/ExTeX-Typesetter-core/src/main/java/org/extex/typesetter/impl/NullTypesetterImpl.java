@@ -311,6 +311,17 @@ public class NullTypesetterImpl implements Typesetter, TokenDelegateListMaker {
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.Typesetter#joinParagraphs()
+     */
+    @Override
+    public void joinParagraphs() {
+
+        // nothing to do
+    }
+
     /**
      * {@inheritDoc}
      * 
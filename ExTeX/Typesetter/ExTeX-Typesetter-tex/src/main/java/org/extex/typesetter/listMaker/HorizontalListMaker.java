@@ -254,7 +254,7 @@ public class HorizontalListMaker extends AbstractListMaker {
      * 
      * @return the nodes.
      */
-    protected HorizontalListNode getNodes() {
+    public HorizontalListNode getNodes() {
 
         return this.nodes;
     }
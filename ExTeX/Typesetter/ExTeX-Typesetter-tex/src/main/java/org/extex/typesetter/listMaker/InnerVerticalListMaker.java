@@ -104,7 +104,7 @@ public class InnerVerticalListMaker extends AbstractListMaker {
      * @see org.extex.typesetter.ListMaker#add(org.extex.typesetter.type.Node)
      */
     @Override
-    public void add(Node n) {
+    public void add(Node n) throws TypesetterException {
 
         nodes.add(n);
     }
@@ -156,7 +156,8 @@ public class InnerVerticalListMaker extends AbstractListMaker {
      * @see org.extex.typesetter.ListMaker#complete(TypesetterOptions)
      */
     @Override
-    public NodeList complete(TypesetterOptions context) {
+    public NodeList complete(TypesetterOptions context)
+            throws TypesetterException {
 
         return nodes;
     }
@@ -0,0 +1,399 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.typesetter.listMaker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.extex.core.UnicodeChar;
+import org.extex.core.count.Count;
+import org.extex.core.count.FixedCount;
+import org.extex.core.dimen.Dimen;
+import org.extex.core.dimen.FixedDimen;
+import org.extex.core.exception.GeneralException;
+import org.extex.core.glue.FixedGlue;
+import org.extex.core.glue.Glue;
+import org.extex.core.muskip.Muskip;
+import org.extex.scanner.type.token.TokenFactory;
+import org.extex.typesetter.TypesetterOptions;
+import org.extex.typesetter.common.Parameter;
+import org.extex.typesetter.paragraphBuilder.ParagraphShape;
+import org.extex.typesetter.tc.TypesettingContext;
+import org.extex.typesetter.tc.TypesettingContextFactory;
+import org.extex.typesetter.tc.font.Font;
+import org.extex.typesetter.type.Node;
+import org.extex.typesetter.type.NodeList;
+import org.extex.typesetter.type.node.CharNode;
+import org.extex.typesetter.type.node.DiscretionaryNode;
+
+/**
+ * This class contains a copy of the options needed to break a paragraph into
+ * lines. It is used when the paragraph builder runs in a thread of its own
+ * while the interpreter continues to modify the options.
+ * <p>
+ * The parameters of the paragraph builders, the paragraph shape, the current
+ * typesetting context, the name space, and the lower case codes of the
+ * characters in the paragraph are copied when the instance is created. The
+ * token factory and the typesetting context factory are kept as well. Fonts,
+ * math glue, and parameters which have not been copied are read from the
+ * original options; they are never modified through this instance.
+ * </p>
+ * <p>
+ * Assignments made by the paragraph builder are recorded and carried over to
+ * the original options by {@link #apply(TypesetterOptions) apply()} when the
+ * lines are added to the vertical list.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+final class ParagraphOptions implements TypesetterOptions {
+
+    /**
+     * The constant <tt>COUNTS</tt> contains the names of the count parameters
+     * copied.
+     */
+    private static final String[] COUNTS = {"adjdemerits", "brokenpenalty",
+            "clubpenalty", "doublehyphendemerits", "exhyphenpenalty",
+            "finalhyphendemerits", "finalwidowpenalty", "hangafter",
+            "hyphenpenalty", "interlinepenalty", "linepenalty", "looseness",
+            "pretolerance", "prevgraf", "tolerance", "tracingparagraphs",
+            "widowpenalty"};
+
+    /**
+     * The constant <tt>DIMENS</tt> contains the names of the dimen parameters
+     * copied.
+     */
+    private static final String[] DIMENS = {"emergencystretch", "hangindent",
+            "hsize", Parameter.LINESKIPLIMIT};
+
+    /**
+     * The constant <tt>GLUES</tt> contains the names of the glue parameters
+     * copied.
+     */
+    private static final String[] GLUES = {Parameter.BASELINESKIP,
+            "leftskip", Parameter.LINESKIP, "parfillskip", "parskip",
+            "rightskip"};
+
+    /**
+     * The field <tt>assigned</tt> contains the count parameters assigned by
+     * the paragraph builder.
+     */
+    private Map<String, Long> assigned = new HashMap<String, Long>();
+
+    /**
+     * The field <tt>counts</tt> contains the copied count parameters.
+     */
+    private Map<String, FixedCount> counts = new HashMap<String, FixedCount>();
+
+    /**
+     * The field <tt>dimens</tt> contains the copied dimen parameters.
+     */
+    private Map<String, FixedDimen> dimens = new HashMap<String, FixedDimen>();
+
+    /**
+     * The field <tt>glues</tt> contains the copied glue parameters.
+     */
+    private Map<String, FixedGlue> glues = new HashMap<String, FixedGlue>();
+
+    /**
+     * The field <tt>lccodes</tt> contains the lower case codes of the
+     * characters in the paragraph.
+     */
+    private Map<UnicodeChar, UnicodeChar> lccodes =
+            new HashMap<UnicodeChar, UnicodeChar>();
+
+    /**
+     * The field <tt>namespace</tt> contains the current name space.
+     */
+    private String namespace;
+
+    /**
+     * The field <tt>options</tt> contains the original options. They are used
+     * for reading the values which have not been copied.
+     */
+    private TypesetterOptions options;
+
+    /**
+     * The field <tt>parshape</tt> contains the paragraph shape.
+     */
+    private ParagraphShape parshape;
+
+    /**
+     * The field <tt>tokenFactory</tt> contains the token factory.
+     */
+    private TokenFactory tokenFactory;
+
+    /**
+     * The field <tt>typesettingContext</tt> contains the current typesetting
+     * context.
+     */
+    private TypesettingContext typesettingContext;
+
+    /**
+     * The field <tt>typesettingContextFactory</tt> contains the typesetting
+     * context factory.
+     */
+    private TypesettingContextFactory typesettingContextFactory;
+
+    /**
+     * Creates a new object.
+     *
+     * @param options the options to copy
+     * @param nodes the nodes of the paragraph
+     */
+    public ParagraphOptions(TypesetterOptions options, NodeList nodes) {
+
+        for (String name : COUNTS) {
+            counts.put(name, new Count(options.getCountOption(name)));
+        }
+        for (String name : DIMENS) {
+            dimens.put(name, new Dimen(options.getDimenOption(name)));
+        }
+        for (String name : GLUES) {
+            glues.put(name, new Glue(options.getGlueOption(name)));
+        }
+        this.options = options;
+        parshape = options.getParshape();
+        typesettingContext = options.getTypesettingContext();
+        namespace = options.getNamespace();
+        tokenFactory = options.getTokenFactory();
+        typesettingContextFactory = options.getTypesettingContextFactory();
+        copyLccodes(options, nodes);
+    }
+
+    /**
+     * Carry the assignments made by the paragraph builder over to the given
+     * options.
+     *
+     * @param target the options to modify
+     *
+     * @throws GeneralException in case of an error
+     */
+    public void apply(TypesetterOptions target) throws GeneralException {
+
+        for (Map.Entry<String, Long> e : assigned.entrySet()) {
+            target.setCountOption(e.getKey(), e.getValue().longValue());
+        }
+    }
+
+    /**
+     * Copy the lower case code of a character.
+     *
+     * @param options the options to copy from
+     * @param uc the character
+     */
+    private void copyLccode(TypesetterOptions options, UnicodeChar uc) {
+
+        if (uc != null && !lccodes.containsKey(uc)) {
+            lccodes.put(uc, options.getLccode(uc));
+        }
+    }
+
+    /**
+     * Copy the lower case codes of the characters in a list of nodes. Nested
+     * lists, ligatures, and discretionaries are considered as well.
+     *
+     * @param options the options to copy from
+     * @param nodes the nodes or <code>null</code>
+     */
+    private void copyLccodes(TypesetterOptions options, NodeList nodes) {
+
+        if (nodes == null) {
+            return;
+        }
+        int size = nodes.size();
+        for (int i = 0; i < size; i++) {
+            Node n = nodes.get(i);
+            if (n instanceof CharNode) {
+                copyLccode(options, ((CharNode) n).getCharacter());
+                for (CharNode cn : n.getChars()) {
+                    copyLccode(options, cn.getCharacter());
+                }
+            } else if (n instanceof DiscretionaryNode) {
+                DiscretionaryNode d = (DiscretionaryNode) n;
+                copyLccodes(options, d.getPreBreak());
+                copyLccodes(options, d.getPostBreak());
+                copyLccodes(options, d.getNoBreak());
+            } else if (n instanceof NodeList) {
+                copyLccodes(options, (NodeList) n);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getCountOption(java.lang.String)
+     */
+    @Override
+    public FixedCount getCountOption(String name) {
+
+        FixedCount count = counts.get(name);
+        return count != null ? count : options.getCountOption(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getDimenOption(java.lang.String)
+     */
+    @Override
+    public FixedDimen getDimenOption(String name) {
+
+        FixedDimen dimen = dimens.get(name);
+        return dimen != null ? dimen : options.getDimenOption(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getFont(java.lang.String)
+     */
+    @Override
+    public Font getFont(String name) {
+
+        return options.getFont(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getGlueOption(java.lang.String)
+     */
+    @Override
+    public FixedGlue getGlueOption(String name) {
+
+        FixedGlue glue = glues.get(name);
+        return glue != null ? glue : options.getGlueOption(name);
+    }
+
+    /**
+     * Getter for the lower case code of a character. Only the characters in
+     * the paragraph are known.
+     *
+     * @param uc the character
+     *
+     * @return the lower case code or <code>null</code> for an unknown
+     *         character
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getLccode(org.extex.core.UnicodeChar)
+     */
+    @Override
+    public UnicodeChar getLccode(UnicodeChar uc) {
+
+        return lccodes.get(uc);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getMuskip(java.lang.String)
+     */
+    @Override
+    public Muskip getMuskip(String name) {
+
+        return options.getMuskip(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getNamespace()
+     */
+    @Override
+    public String getNamespace() {
+
+        return namespace;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getParshape()
+     */
+    @Override
+    public ParagraphShape getParshape() {
+
+        return parshape;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getTokenFactory()
+     */
+    @Override
+    public TokenFactory getTokenFactory() {
+
+        return tokenFactory;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getTypesettingContext()
+     */
+    @Override
+    public TypesettingContext getTypesettingContext() {
+
+        return typesettingContext;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#getTypesettingContextFactory()
+     */
+    @Override
+    public TypesettingContextFactory getTypesettingContextFactory() {
+
+        return typesettingContextFactory;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.typesetter.TypesetterOptions#setCountOption(java.lang.String,
+     *      long)
+     */
+    @Override
+    public void setCountOption(String name, long value) {
+
+        counts.put(name, new Count(value));
+        assigned.put(name, Long.valueOf(value));
+    }
+
+    /**
+     * Setter for the paragraph shape. The paragraph shape of the original
+     * options is not affected; it has been reset when the paragraph has been
+     * handed over.
+     *
+     * @param shape the new paragraph shape
+     *
+     * @see org.extex.typesetter.TypesetterOptions#setParshape(org.extex.typesetter.paragraphBuilder.ParagraphShape)
+     */
+    @Override
+    public void setParshape(ParagraphShape shape) {
+
+        parshape = shape;
+    }
+
+}
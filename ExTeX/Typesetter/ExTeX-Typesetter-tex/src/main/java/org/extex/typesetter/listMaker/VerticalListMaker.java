@@ -19,6 +19,11 @@
 
 package org.extex.typesetter.listMaker;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.extex.core.Locator;
 import org.extex.core.dimen.FixedDimen;
 import org.extex.core.glue.FixedGlue;
@@ -26,16 +31,38 @@ import org.extex.core.glue.Glue;
 import org.extex.framework.configuration.exception.ConfigurationException;
 import org.extex.typesetter.ListManager;
 import org.extex.typesetter.Mode;
+import org.extex.typesetter.Typesetter;
 import org.extex.typesetter.TypesetterOptions;
 import org.extex.typesetter.common.Parameter;
 import org.extex.typesetter.exception.TypesetterException;
+import org.extex.typesetter.exception.TypesetterUnsupportedException;
+import org.extex.typesetter.pageBuilder.PageBuilder;
+import org.extex.typesetter.paragraphBuilder.ParagraphBuilder;
 import org.extex.typesetter.type.Node;
 import org.extex.typesetter.type.NodeList;
 import org.extex.typesetter.type.node.HorizontalListNode;
+import org.extex.typesetter.type.node.VerticalListNode;
+import org.extex.typesetter.type.node.factory.CachingNodeFactory;
+import org.extex.typesetter.type.node.factory.NodeFactory;
 
 /**
  * This class provides a maker for a vertical list.
- * 
+ * <p>
+ * A paragraph can be handed over with
+ * {@link #addParagraph(HorizontalListNode, ParagraphBuilder, ExecutorService)
+ * addParagraph()}. Then the paragraph is broken into lines in the background
+ * while the interpreter continues with the following material. The lines are
+ * added to the vertical list as soon as the list is needed, i.e. when
+ * something is added to it, when it is inspected or completed, or when the
+ * next paragraph is handed over. Thus the list maker behaves as if the
+ * paragraph had been added immediately.
+ * </p>
+ * <p>
+ * Adding the lines does not invoke the page builder. The page builder is
+ * invoked with {@link #buildPage(PageBuilder, Typesetter) buildPage()} after
+ * the lines of a pending paragraph have been added. Thus the pages are the
+ * same as the pages made when the paragraphs are broken one after the other.
+ * </p>
  * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
@@ -43,6 +70,36 @@ import org.extex.typesetter.type.node.HorizontalListNode;
  */
 public class VerticalListMaker extends InnerVerticalListMaker {
 
+    /**
+     * The field <tt>builder</tt> contains the paragraph builder working on the
+     * pending paragraph.
+     */
+    private ParagraphBuilder builder = null;
+
+    /**
+     * The field <tt>failure</tt> contains the exception of the pending
+     * paragraph which has not been reported yet.
+     */
+    private TypesetterException failure = null;
+
+    /**
+     * The field <tt>nodeFactory</tt> contains the node factory for the
+     * paragraph builder while it is running in the background.
+     */
+    private NodeFactory nodeFactory = null;
+
+    /**
+     * The field <tt>pending</tt> contains the lines of the paragraph which
+     * is broken in the background or <code>null</code> if there is none.
+     */
+    private Future<NodeList> pending = null;
+
+    /**
+     * The field <tt>pendingOptions</tt> contains the options of the pending
+     * paragraph.
+     */
+    private ParagraphOptions pendingOptions = null;
+
     /**
      * Creates a new object.
      * 
@@ -54,6 +111,30 @@ public class VerticalListMaker extends InnerVerticalListMaker {
         super(manager, locator);
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.listMaker.InnerVerticalListMaker#add(org.extex.core.glue.FixedGlue)
+     */
+    @Override
+    public void add(FixedGlue g) throws TypesetterException {
+
+        join();
+        super.add(g);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.listMaker.InnerVerticalListMaker#add(org.extex.typesetter.type.Node)
+     */
+    @Override
+    public void add(Node n) throws TypesetterException {
+
+        join();
+        super.add(n);
+    }
+
     /**
      * Add a node list to the current list maker and adjust the spacing between
      * the elements of the list.
@@ -92,6 +173,7 @@ public class VerticalListMaker extends InnerVerticalListMaker {
             throws TypesetterException,
                 ConfigurationException {
 
+        join();
         FixedDimen prevDepth = getPrevDepth();
         FixedGlue baselineSkip = context.getGlueOption(Parameter.BASELINESKIP);
         FixedGlue lineskip = context.getGlueOption(Parameter.LINESKIP);
@@ -119,6 +201,94 @@ public class VerticalListMaker extends InnerVerticalListMaker {
         setPrevDepth(prevDepth);
     }
 
+    /**
+     * Hand a paragraph over to the paragraph builder running in the
+     * background. A paragraph still pending is added to the list first.
+     * <p>
+     * The options needed by the paragraph builder are copied and the
+     * paragraph shape is reset immediately. The remaining assignments of the
+     * paragraph builder are carried over when the lines are added to the
+     * list.
+     * </p>
+     * 
+     * @param nodes the nodes of the paragraph
+     * @param parBuilder the paragraph builder to use
+     * @param executor the executor to run the paragraph builder
+     * 
+     * @throws TypesetterException in case of an error
+     */
+    public void addParagraph(final HorizontalListNode nodes,
+            final ParagraphBuilder parBuilder, ExecutorService executor)
+            throws TypesetterException {
+
+        join();
+        TypesetterOptions options = getManager().getOptions();
+        final ParagraphOptions opts = new ParagraphOptions(options, nodes);
+        options.setParshape(null);
+        if (nodeFactory == null) {
+            nodeFactory = new CachingNodeFactory();
+        }
+        final NodeFactory factory = nodeFactory;
+        builder = parBuilder;
+        pendingOptions = opts;
+        pending = executor.submit(new Callable<NodeList>() {
+
+            /**
+             * {@inheritDoc}
+             * 
+             * @see java.util.concurrent.Callable#call()
+             */
+            public NodeList call() throws Exception {
+
+                parBuilder.setOptions(opts);
+                parBuilder.setNodefactory(factory);
+                return parBuilder.build(nodes);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.listMaker.InnerVerticalListMaker#complete(org.extex.typesetter.TypesetterOptions)
+     */
+    @Override
+    public NodeList complete(TypesetterOptions context)
+            throws TypesetterException {
+
+        join();
+        return super.complete(context);
+    }
+
+    /**
+     * Invoke the page builder on the list. A paragraph which is still being
+     * broken into lines is waited for and its lines are added first.
+     * 
+     * @param pageBuilder the page builder
+     * @param typesetter the typesetter
+     * 
+     * @throws TypesetterException in case of an error
+     */
+    public void buildPage(PageBuilder pageBuilder, Typesetter typesetter)
+            throws TypesetterException {
+
+        join();
+        pageBuilder.inspectAndBuild((VerticalListNode) super
+            .complete(getManager().getOptions()), typesetter);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.listMaker.InnerVerticalListMaker#getLastNode()
+     */
+    @Override
+    public Node getLastNode() {
+
+        sync();
+        return super.getLastNode();
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -130,4 +300,135 @@ public class VerticalListMaker extends InnerVerticalListMaker {
         return Mode.VERTICAL;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.listMaker.InnerVerticalListMaker#getPrevDepth()
+     */
+    @Override
+    public FixedDimen getPrevDepth() throws TypesetterUnsupportedException {
+
+        sync();
+        return super.getPrevDepth();
+    }
+
+    /**
+     * Wait for the pending paragraph and add its lines to the list. Any
+     * exception raised by the paragraph builder is reported here.
+     * 
+     * @throws TypesetterException in case of an error
+     */
+    public void join() throws TypesetterException {
+
+        sync();
+        if (failure != null) {
+            TypesetterException e = failure;
+            failure = null;
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.listMaker.InnerVerticalListMaker#par()
+     */
+    @Override
+    public void par() throws TypesetterException, ConfigurationException {
+
+        join();
+        super.par();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.listMaker.InnerVerticalListMaker#removeLastNode()
+     */
+    @Override
+    public void removeLastNode() {
+
+        sync();
+        super.removeLastNode();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.listMaker.InnerVerticalListMaker#setPrevDepth(org.extex.core.dimen.FixedDimen)
+     */
+    @Override
+    public void setPrevDepth(FixedDimen pd) {
+
+        sync();
+        super.setPrevDepth(pd);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.listMaker.InnerVerticalListMaker#showlist(java.lang.StringBuilder,
+     *      long, long)
+     */
+    @Override
+    public void showlist(StringBuilder sb, long l, long m) {
+
+        sync();
+        super.showlist(sb, l, m);
+    }
+
+    /**
+     * Wait for the pending paragraph and add its lines to the list. Any
+     * exception is kept until it can be reported by {@link #join() join()}.
+     */
+    private void sync() {
+
+        if (pending == null) {
+            return;
+        }
+        Future<NodeList> future = pending;
+        ParagraphOptions opts = pendingOptions;
+        pending = null;
+        pendingOptions = null;
+        TypesetterOptions options = getManager().getOptions();
+        try {
+            NodeList lines;
+            try {
+                lines = future.get();
+            } finally {
+                if (builder != null) {
+                    builder.setOptions(options);
+                    builder.setNodefactory(getManager().getNodeFactory());
+                    builder = null;
+                }
+            }
+            opts.apply(options);
+            addAndAdjust(lines, options);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new TypesetterException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            failure = cause instanceof TypesetterException
+                    ? (TypesetterException) cause
+                    : new TypesetterException(cause);
+        } catch (TypesetterException e) {
+            failure = e;
+        } catch (Exception e) {
+            failure = new TypesetterException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.listMaker.InnerVerticalListMaker#toString()
+     */
+    @Override
+    public String toString() {
+
+        sync();
+        return super.toString();
+    }
+
 }
@@ -21,16 +21,23 @@ package org.extex.typesetter.tex.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 
 import org.extex.backend.BackendDriver;
 import org.extex.core.Locator;
 import org.extex.core.UnicodeChar;
+import org.extex.core.count.Count;
 import org.extex.core.count.FixedCount;
 import org.extex.core.dimen.FixedDimen;
 import org.extex.core.exception.ImpossibleException;
 import org.extex.core.exception.helping.HelpingException;
 import org.extex.core.glue.FixedGlue;
+import org.extex.framework.configuration.Configurable;
+import org.extex.framework.configuration.Configuration;
+import org.extex.framework.configuration.exception.ConfigurationException;
 import org.extex.framework.i18n.Localizer;
 import org.extex.framework.i18n.LocalizerFactory;
 import org.extex.framework.logger.LogEnabled;
@@ -50,6 +57,7 @@ import org.extex.typesetter.exception.TypesetterException;
 import org.extex.typesetter.exception.TypesetterUnsupportedException;
 import org.extex.typesetter.listMaker.HorizontalListMaker;
 import org.extex.typesetter.listMaker.TokenDelegateListMaker;
+import org.extex.typesetter.listMaker.VerticalListMaker;
 import org.extex.typesetter.output.OutputRoutine;
 import org.extex.typesetter.pageBuilder.PageBuilder;
 import org.extex.typesetter.paragraphBuilder.ParagraphBuilder;
@@ -67,6 +75,26 @@ import org.extex.typesetter.type.node.factory.NodeFactory;
  * This is a reference implementation of the
  * {@link org.extex.typesetter.Typesetter Typesetter} interface.
  * 
+ * <h3>Configuration</h3>
+ * <p>
+ * The typesetter can be configured with the attribute <tt>parallel</tt>. If
+ * it is set to <tt>true</tt> then the paragraphs of the main vertical list
+ * are broken into lines in a thread of their own while the interpreter
+ * continues with the following paragraph. The lines are added to the vertical
+ * list as soon as the list is needed, at the latest when the following
+ * paragraph is complete. Reading the register <tt>\prevgraf</tt> waits for
+ * the lines as well. The page builder is still invoked at the end of each
+ * paragraph. It does not wait for the lines of this paragraph but considers
+ * them at its next invocation. Paragraphs in boxes and paragraphs traced with
+ * <tt>\tracingparagraphs</tt> are always broken immediately. The default is
+ * <tt>false</tt>.
+ * </p>
+ * 
+ * <pre>
+ *  &lt;Typesetter class="org.extex.typesetter.tex.impl.TypesetterImpl"
+ *              parallel="true"&gt;
+ * </pre>
+ * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
  * @version $Revision:4526 $
@@ -76,6 +104,7 @@ public class TypesetterImpl extends ListMakerFactory
             Typesetter,
             ListManager,
             TokenDelegateListMaker,
+            Configurable,
             LogEnabled {
 
     /**
@@ -84,6 +113,12 @@ public class TypesetterImpl extends ListMakerFactory
      */
     private BackendDriver backend = null;
 
+    /**
+     * The field <tt>executor</tt> contains the executor for breaking
+     * paragraphs in the background. It is created when needed.
+     */
+    private ExecutorService executor = null;
+
     /**
      * The field <tt>listMaker</tt> contains the current list maker for
      * efficiency. Thus we can avoid to peek at the stack whenever the list
@@ -128,6 +163,12 @@ public class TypesetterImpl extends ListMakerFactory
      */
     private ParagraphBuilder paragraphBuilder = null;
 
+    /**
+     * The field <tt>parallel</tt> contains the indicator that paragraphs
+     * should be broken into lines in the background.
+     */
+    private boolean parallel = false;
+
     /**
      * The field <tt>saveStack</tt> contains the stack of list makers.
      */
@@ -270,6 +311,8 @@ public class TypesetterImpl extends ListMakerFactory
     public NodeList buildParagraph(HorizontalListNode nodes)
             throws TypesetterException {
 
+        // the paragraph builder might still be busy in the background
+        joinParagraphs();
         return this.paragraphBuilder.build(nodes);
     }
 
@@ -315,6 +358,22 @@ public class TypesetterImpl extends ListMakerFactory
         return nodes;
     }
 
+    /**
+     * Configure an object according to a given Configuration.
+     * 
+     * @param config the configuration object to consider
+     * 
+     * @throws ConfigurationException in case that something went wrong
+     * 
+     * @see org.extex.framework.configuration.Configurable#configure(org.extex.framework.configuration.Configuration)
+     */
+    @Override
+    public void configure(Configuration config) throws ConfigurationException {
+
+        String s = config.getAttribute("parallel");
+        parallel = (s == null ? false : Boolean.valueOf(s).booleanValue());
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -360,6 +419,18 @@ public class TypesetterImpl extends ListMakerFactory
     @Override
     public void endParagraph() throws TypesetterException {
 
+        if (parallel && listMaker.getClass() == HorizontalListMaker.class
+                && saveStack.size() == 1
+                && saveStack.get(0) instanceof VerticalListMaker
+                && options.getCountOption("tracingparagraphs").le(Count.ZERO)) {
+            HorizontalListNode nodes =
+                    ((HorizontalListMaker) listMaker).getNodes();
+            pop();
+            ((VerticalListMaker) listMaker).addParagraph(nodes,
+                paragraphBuilder, getExecutor());
+            return;
+        }
+
         NodeList list = listMaker.complete(options);
         pop();
         if (list instanceof VerticalListNode) {
@@ -416,6 +487,10 @@ public class TypesetterImpl extends ListMakerFactory
             throw new InternalError("typesetter.saveStack.notEmpty");
         }
         pageBuilder.close();
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
     }
 
     /**
@@ -445,6 +520,34 @@ public class TypesetterImpl extends ListMakerFactory
         return listMaker.getLastNode();
     }
 
+    /**
+     * Getter for the executor to break paragraphs in the background. The
+     * executor is created on first use. It uses a single daemon thread since
+     * the paragraph builder can only work on one paragraph at a time.
+     * 
+     * @return the executor
+     */
+    private ExecutorService getExecutor() {
+
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                /**
+                 * {@inheritDoc}
+                 * 
+                 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+                 */
+                public Thread newThread(Runnable r) {
+
+                    Thread t = new Thread(r, "ParagraphBuilder");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return executor;
+    }
+
     /**
      * Getter for the current list maker.
      * 
@@ -566,6 +669,21 @@ public class TypesetterImpl extends ListMakerFactory
         return shipoutMark;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.extex.typesetter.Typesetter#joinParagraphs()
+     */
+    public void joinParagraphs() throws TypesetterException {
+
+        if (executor != null) {
+            ListMaker lm = saveStack.isEmpty() ? listMaker : saveStack.get(0);
+            if (lm instanceof VerticalListMaker) {
+                ((VerticalListMaker) lm).join();
+            }
+        }
+    }
+
     /**
      * Notification method to deal the case that a left brace has been
      * encountered.
@@ -622,7 +740,11 @@ public class TypesetterImpl extends ListMakerFactory
 
         listMaker.par();
 
-        if (saveStack.size() == 0) {
+        if (saveStack.size() != 0) {
+            // no page building in inner lists
+        } else if (listMaker instanceof VerticalListMaker) {
+            ((VerticalListMaker) listMaker).buildPage(pageBuilder, this);
+        } else {
             pageBuilder.inspectAndBuild(
                 (VerticalListNode) listMaker.complete(options), this);
         }
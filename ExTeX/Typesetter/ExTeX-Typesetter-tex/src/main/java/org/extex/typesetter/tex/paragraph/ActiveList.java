@@ -0,0 +1,412 @@
+/*
+ * Copyright (C) 2006-2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.typesetter.tex.paragraph;
+
+/**
+ * 819.
+ *
+ * An active node for a given breakpoint contains six fields:
+ * <ul>
+ * <li>
+ *  <i>link</i> points to the next node in the list of active nodes; the
+ *  last active node has <i>link=last_active</i>.
+ * </li>
+ * <li>
+ *  <i>break_node</i> points to the passive node associated with this breakpoint.
+ * </li>
+ * <li>
+ *  <i>line_number</i> is the number of the line that follows this breakpoint.
+ * </li>
+ * <li>
+ *  <i>fitness</i> is the fitness classification of the line ending at this
+ *  breakpoint.
+ * </li>
+ * <li>
+ *  <i>type</i> is either hyphenated or unhyphenated, depending on
+ *  whether this breakpoint is a disc_node.
+ * </li>
+ * <li>
+ *  <i>total_demerits</i> is the minimum possible sum of demerits over all
+ *  lines leading from the beginning of the paragraph to this breakpoint.
+ * </li>
+ * <ul>
+ * <p>
+ *  The value of <i>link(active)</i> points to the first active node on a
+ *  linked list of all currently active nodes. This list is in order by
+ *  <i>line_number<i>, except that nodes with <i>line_number &gt; easy_line</i>
+ *  may be in any order relative to each other.
+ * </p>
+ *
+ * <pre>
+ * <b>define</b> active_node_size=3  {number of words in active nodes}
+ *
+ * <b>define</b> fitness ::= subtype  {very_loose_fit .. tight_fit on final line for this break}
+ *
+ * <b>define</b> break_node ::= rlink  {pointer to the corresponding passive node}
+ *
+ * <b>define</b> line_number ::= llink  {line that begins at this breakpoint}
+ *
+ * <b>define</b> total_demerits(#) ::= mem[#+2].int  {the quantity that TeX minimizes}
+ *
+ * <b>define</b> unhyphenated=0  {the type of a normal active break node}
+ *
+ * <b>define</b> hyphenated=1  {the type of an active node that breaks at a disc_node}
+ *
+ * <b>define</b> last_active ::= active  {the active list ends where it begins}
+ * </pre>
+ * <p>
+ * 822.
+ * </p>
+ * <p>
+ * The active list also contains "delta" nodes that help the
+ * algorithm compute the badness of individual lines. Such nodes
+ * appear only between two active nodes, and they have
+ * <i>type=delta_node</i>. If <i>p</i> and <i>r</i> are active nodes and if
+ * <i>q</i> is a delta node between them, so that <i>link(p)=q</i> and
+ * <i>link(q)=r</i>, then <i>q</i> tells the space difference between lines
+ * in the horizontal list that
+ * start after breakpoint <i>p</i> and lines that start after breakpoint <i>r</i>.
+ * In other words, if we know the length of the line that starts
+ * after <i>p</i> and ends at our current position, then the corresponding
+ * length of the line that starts after <i>r</i> is obtained by adding the
+ * amounts in node <i>q</i>. A delta node contains six scaled numbers, since
+ * it must record the net change in glue stretchability with respect
+ * to all orders of infinity. The natural width difference appears in
+ * <i>mem[q+1].sc</i>; the stretch differences in units of pt, fil, fill,
+ * and filll appear in <i>mem[q+2 .. q+5].sc</i>; and the shrink difference
+ * appears in <i>mem[q+6].sc</i>. The subtype field of a delta node is not
+ * used.
+ * </p>
+ * <p>
+ * The active list is stored as a set of parallel arrays indexed by the
+ * position in the list. Delta nodes are marked in the array of fitness
+ * classes; their widths are kept in one array of <code>long</code> with
+ * {@link Widths#SIZE Widths.SIZE} values per entry. The arrays are kept
+ * when the list is cleared. Thus no objects are created for a paragraph once
+ * the arrays have grown large enough.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class ActiveList {
+
+    /**
+     * The constant <tt>DELTA</tt> contains the marker for a delta node in
+     * the array of fitness classes.
+     */
+    private static final byte DELTA = -1;
+
+    /**
+     * The field <tt>breakNode</tt> contains the index of the associated
+     * passive node or -1 for none.
+     */
+    private int[] breakNode = new int[16];
+
+    /**
+     * The field <tt>demerits</tt> contains the total demerits.
+     */
+    private long[] demerits = new long[16];
+
+    /**
+     * The field <tt>fitness</tt> contains the order of the fitness
+     * classification or {@link #DELTA DELTA} for a delta node.
+     */
+    private byte[] fitness = new byte[16];
+
+    /**
+     * The field <tt>hyphenated</tt> contains the indicators for hyphenation
+     * at the break points.
+     */
+    private boolean[] hyphenated = new boolean[16];
+
+    /**
+     * The field <tt>lineNumber</tt> contains the sequence numbers of the
+     * lines.
+     */
+    private int[] lineNumber = new int[16];
+
+    /**
+     * The field <tt>size</tt> contains the number of nodes in the list.
+     */
+    private int size = 0;
+
+    /**
+     * The field <tt>widths</tt> contains the widths of the delta nodes.
+     */
+    private long[] widths = new long[16 * Widths.SIZE];
+
+    /**
+     * Creates a new object.
+     */
+    public ActiveList() {
+
+    }
+
+    /**
+     * Add the widths of a delta node to a width array.
+     *
+     * @param i the index of the delta node
+     * @param w the target width array
+     */
+    public void addDeltaTo(int i, long[] w) {
+
+        Widths.add(w, 0, widths, i * Widths.SIZE);
+    }
+
+    /**
+     * Remove all nodes. The storage is kept for the next paragraph.
+     */
+    public void clear() {
+
+        size = 0;
+    }
+
+    /**
+     * Add the widths of a delta node to another delta node.
+     *
+     * @param i the index of the delta node to modify
+     * @param j the index of the delta node to add
+     */
+    public void combineDeltas(int i, int j) {
+
+        Widths.add(widths, i * Widths.SIZE, widths, j * Widths.SIZE);
+    }
+
+    /**
+     * Getter for the passive node of an active node.
+     *
+     * @param i the index of the active node
+     *
+     * @return the index of the passive node or -1 for none
+     */
+    public int getBreakNode(int i) {
+
+        return breakNode[i];
+    }
+
+    /**
+     * Getter for the order of the fitness classification of an active node.
+     *
+     * @param i the index of the active node
+     *
+     * @return the order of the fitness
+     */
+    public int getFitness(int i) {
+
+        return fitness[i];
+    }
+
+    /**
+     * Getter for the sequence number of the line of an active node.
+     *
+     * @param i the index of the active node
+     *
+     * @return the line number
+     */
+    public int getLineNumber(int i) {
+
+        return lineNumber[i];
+    }
+
+    /**
+     * Getter for the total demerits of an active node.
+     *
+     * @param i the index of the active node
+     *
+     * @return the demerits
+     */
+    public long getTotalDemerits(int i) {
+
+        return demerits[i];
+    }
+
+    /**
+     * Make room for a node at a given position.
+     *
+     * @param i the index of the new node
+     */
+    private void insert(int i) {
+
+        if (size == fitness.length) {
+            int n = 2 * size;
+            int[] bn = new int[n];
+            System.arraycopy(breakNode, 0, bn, 0, size);
+            breakNode = bn;
+            long[] d = new long[n];
+            System.arraycopy(demerits, 0, d, 0, size);
+            demerits = d;
+            byte[] f = new byte[n];
+            System.arraycopy(fitness, 0, f, 0, size);
+            fitness = f;
+            boolean[] h = new boolean[n];
+            System.arraycopy(hyphenated, 0, h, 0, size);
+            hyphenated = h;
+            int[] ln = new int[n];
+            System.arraycopy(lineNumber, 0, ln, 0, size);
+            lineNumber = ln;
+            long[] w = new long[n * Widths.SIZE];
+            System.arraycopy(widths, 0, w, 0, size * Widths.SIZE);
+            widths = w;
+        }
+        int n = size - i;
+        if (n > 0) {
+            System.arraycopy(breakNode, i, breakNode, i + 1, n);
+            System.arraycopy(demerits, i, demerits, i + 1, n);
+            System.arraycopy(fitness, i, fitness, i + 1, n);
+            System.arraycopy(hyphenated, i, hyphenated, i + 1, n);
+            System.arraycopy(lineNumber, i, lineNumber, i + 1, n);
+            System.arraycopy(widths, i * Widths.SIZE, widths, (i + 1)
+                    * Widths.SIZE, n * Widths.SIZE);
+        }
+        size++;
+    }
+
+    /**
+     * Insert an active node.
+     *
+     * @param i the index of the new node
+     * @param fit the fitness classification
+     * @param hyphen the indicator for hyphenation at this break point
+     * @param totalDemerits the demerits for this break point
+     * @param line the sequence number of the line
+     * @param passive the index of the passive node or -1 for none
+     */
+    public void insertActive(int i, Fitness fit, boolean hyphen,
+            long totalDemerits, int line, int passive) {
+
+        insert(i);
+        fitness[i] = (byte) fit.getOrder();
+        hyphenated[i] = hyphen;
+        demerits[i] = totalDemerits;
+        lineNumber[i] = line;
+        breakNode[i] = passive;
+    }
+
+    /**
+     * Insert a delta node containing the difference of two width arrays.
+     *
+     * @param i the index of the new node
+     * @param w the width array to start with
+     * @param minus the width array to subtract
+     */
+    public void insertDelta(int i, long[] w, long[] minus) {
+
+        insert(i);
+        fitness[i] = DELTA;
+        int at = i * Widths.SIZE;
+        for (int j = 0; j < Widths.SIZE; j++) {
+            widths[at + j] = w[j] - minus[j];
+        }
+    }
+
+    /**
+     * Check whether a node is a delta node.
+     *
+     * @param i the index of the node
+     *
+     * @return <code>true</code> iff the node at the given index is a delta
+     *         node
+     */
+    public boolean isDelta(int i) {
+
+        return fitness[i] == DELTA;
+    }
+
+    /**
+     * Check whether the list is empty.
+     *
+     * @return <code>true</code> iff there are no nodes in the list
+     */
+    public boolean isEmpty() {
+
+        return size == 0;
+    }
+
+    /**
+     * Getter for the hyphenation indicator of an active node.
+     *
+     * @param i the index of the active node
+     *
+     * @return the indicator for hyphenation at this break point
+     */
+    public boolean isHyphenated(int i) {
+
+        return hyphenated[i];
+    }
+
+    /**
+     * Remove a node.
+     *
+     * @param i the index of the node
+     */
+    public void remove(int i) {
+
+        size--;
+        int n = size - i;
+        if (n > 0) {
+            System.arraycopy(breakNode, i + 1, breakNode, i, n);
+            System.arraycopy(demerits, i + 1, demerits, i, n);
+            System.arraycopy(fitness, i + 1, fitness, i, n);
+            System.arraycopy(hyphenated, i + 1, hyphenated, i, n);
+            System.arraycopy(lineNumber, i + 1, lineNumber, i, n);
+            System.arraycopy(widths, (i + 1) * Widths.SIZE, widths, i
+                    * Widths.SIZE, n * Widths.SIZE);
+        }
+    }
+
+    /**
+     * Getter for the number of nodes.
+     *
+     * @return the number of active and delta nodes in the list
+     */
+    public int size() {
+
+        return size;
+    }
+
+    /**
+     * Subtract the widths of a delta node from a width array.
+     *
+     * @param i the index of the delta node
+     * @param w the target width array
+     */
+    public void subtractDeltaFrom(int i, long[] w) {
+
+        Widths.subtract(w, 0, widths, i * Widths.SIZE);
+    }
+
+    /**
+     * Change a delta node by subtracting one width array and adding another
+     * one.
+     *
+     * @param i the index of the delta node
+     * @param minus the width array to subtract
+     * @param plus the width array to add
+     */
+    public void updateDelta(int i, long[] minus, long[] plus) {
+
+        int at = i * Widths.SIZE;
+        for (int j = 0; j < Widths.SIZE; j++) {
+            widths[at + j] += plus[j] - minus[j];
+        }
+    }
+
+}
@@ -102,9 +102,23 @@ public final class Fitness {
      */
     public boolean adjacent(Fitness fitness) {
 
-        return (fitness.order == order
-                || fitness.order + 1 == order
-                || fitness.order - 1 == order);
+        return adjacent(fitness.order);
+    }
+
+    /**
+     * Determine whether the given order is the own order or one less or one
+     * more than the own order.
+     *
+     * @param theOrder the order to compare to
+     *
+     * @return <code>true</code> iff the given order is equal or adjacent to
+     *  the own order
+     */
+    public boolean adjacent(int theOrder) {
+
+        return (theOrder == order
+                || theOrder + 1 == order
+                || theOrder - 1 == order);
     }
 
     /**
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2006-2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.typesetter.tex.paragraph;
+
+/**
+ * The passive nodes constitute linked lists with break points.
+ * <p>
+ * The passive nodes are stored in parallel arrays and referred to by their
+ * index. The links are indices as well; -1 stands for no node. The arrays
+ * are kept when the list is cleared.
+ * </p>
+ * <p>
+ * Clearing the list at the end of a pass does not release the nodes of this
+ * pass. The line breaker may still refer to them via <i>best_place</i> in
+ * the next pass of the same paragraph. The storage is reused only after
+ * {@link #reset() reset()} has been invoked for the next paragraph.
+ * </p>
+ * 
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class PassiveList {
+
+    /**
+     * The field <tt>curBreak</tt> contains the indices of the break points.
+     */
+    private int[] curBreak = new int[16];
+
+    /**
+     * The field <tt>first</tt> contains the index of the first passive node of
+     * the current pass.
+     */
+    private int first = 0;
+
+    /**
+     * The field <tt>nextBreak</tt> contains the next passive nodes.
+     */
+    private int[] nextBreak = new int[16];
+
+    /**
+     * The field <tt>prevBreak</tt> contains the previous passive nodes.
+     */
+    private int[] prevBreak = new int[16];
+
+    /**
+     * The field <tt>serial</tt> contains the serial numbers for tracing.
+     */
+    private int[] serial = new int[16];
+
+    /**
+     * The field <tt>size</tt> contains the number of passive nodes.
+     */
+    private int size = 0;
+
+    /**
+     * Creates a new object.
+     */
+    public PassiveList() {
+
+    }
+
+    /**
+     * Add a new passive node.
+     * 
+     * @param theBreak the index of the break point
+     * @param prev the previous passive node or -1 for none
+     * 
+     * @return the index of the new passive node
+     */
+    public int add(int theBreak, int prev) {
+
+        if (size == curBreak.length) {
+            int[] a = new int[2 * size];
+            System.arraycopy(curBreak, 0, a, 0, size);
+            curBreak = a;
+            a = new int[2 * size];
+            System.arraycopy(nextBreak, 0, a, 0, size);
+            nextBreak = a;
+            a = new int[2 * size];
+            System.arraycopy(prevBreak, 0, a, 0, size);
+            prevBreak = a;
+            a = new int[2 * size];
+            System.arraycopy(serial, 0, a, 0, size);
+            serial = a;
+        }
+        curBreak[size] = theBreak;
+        nextBreak[size] = -1;
+        prevBreak[size] = prev;
+        serial[size] = size - first + 1;
+        return size++;
+    }
+
+    /**
+     * Remove all passive nodes of the current pass. The next passive node
+     * gets the serial number 1 again.
+     */
+    public void clear() {
+
+        first = size;
+    }
+
+    /**
+     * Getter for the index of a break point.
+     * 
+     * @param i the index of the passive node
+     * 
+     * @return the index of the break point
+     */
+    public int getCurBreak(int i) {
+
+        return curBreak[i];
+    }
+
+    /**
+     * Getter for the next passive node.
+     * 
+     * @param i the index of the passive node
+     * 
+     * @return the next passive node or -1 for none
+     */
+    public int getNextBreak(int i) {
+
+        return nextBreak[i];
+    }
+
+    /**
+     * Getter for the previous passive node.
+     * 
+     * @param i the index of the passive node
+     * 
+     * @return the previous passive node or -1 for none
+     */
+    public int getPrevBreak(int i) {
+
+        return prevBreak[i];
+    }
+
+    /**
+     * Getter for the serial number of a passive node.
+     * 
+     * @param i the index of the passive node
+     * 
+     * @return the serial number
+     */
+    public int getSerial(int i) {
+
+        return serial[i];
+    }
+
+    /**
+     * Remove all passive nodes of all passes. The storage is kept for the
+     * next paragraph.
+     */
+    public void reset() {
+
+        size = 0;
+        first = 0;
+    }
+
+    /**
+     * Setter for the next passive node.
+     * 
+     * @param i the index of the passive node
+     * @param next the next passive node or -1 for none
+     */
+    public void setNextBreak(int i, int next) {
+
+        nextBreak[i] = next;
+    }
+
+    /**
+     * Getter for the number of passive nodes.
+     * 
+     * @return the number of passive nodes
+     */
+    public int size() {
+
+        return size;
+    }
+
+}
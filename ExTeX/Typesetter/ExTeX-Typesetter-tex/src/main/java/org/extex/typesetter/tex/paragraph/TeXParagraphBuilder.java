@@ -19,8 +19,6 @@
 
 package org.extex.typesetter.tex.paragraph;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.logging.Logger;
 
 import org.extex.core.Locator;
@@ -363,12 +361,12 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
     /**
      * The field <tt>active</tt> contains the list of active and delta nodes.
      */
-    private List<Object> active = new ArrayList<Object>();
+    private ActiveList active = new ActiveList();
 
     /**
      * The field <tt>passive</tt> contains the list of potential break points.
      */
-    private List<PassiveNode> passive = new ArrayList<PassiveNode>();
+    private PassiveList passive = new PassiveList();
 
     /**
      * The field <tt>parshape</tt> contains the paragraph shape specification.
@@ -500,24 +498,24 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
      * active_width: array [1 .. 6] of scaled; {distance from first active node
      * to cur_p}
      */
-    private WideGlue activeWidth = new WideGlue();
+    private long[] activeWidth = new long[Widths.SIZE];
 
     /**
      * cur_active_width: array [1 .. 6] of scaled; {distance from current active
      * node}
      */
-    private WideGlue curActiveWidth = new WideGlue();
+    private long[] curActiveWidth = new long[Widths.SIZE];
 
     /**
      * background: array [1 .. 6] of scaled; {length of an "empty" line}
      */
-    private WideGlue background = new WideGlue();
+    private long[] background = new long[Widths.SIZE];
 
     /**
      * break_width: array [1 .. 6] of scaled; {length being computed after
      * current break}
      */
-    private WideGlue breakWidth = new WideGlue();
+    private long[] breakWidth = new long[Widths.SIZE];
 
     /**
      * no_shrink_error_yet: boolean; {have we complained about infinite
@@ -603,7 +601,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
      * The field <tt>shortfall</tt> is used in badness calculations. shortfall:
      * scaled; {used in badness calculations}
      */
-    private Dimen shortfall = new Dimen();
+    private long shortfall;
 
     /**
      * no_break_yet: boolean; {have we found a feasible break at cur_p?}
@@ -668,7 +666,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
     /**
      * line_width: scaled; {the current line will be justified to this width}
      */
-    private Dimen lineWidth = new Dimen();
+    private long lineWidth;
 
     /**
      * l: halfword; {line number of current active node}
@@ -781,7 +779,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
     /**
      * how to achieve minimal_demerits
      */
-    private PassiveNode[] bestPlace = new PassiveNode[4];
+    private int[] bestPlace = {-1, -1, -1, -1};
 
     /**
      * corresponding line number
@@ -792,7 +790,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
      * disc_width: scaled; {the length of discretionary material preceding a
      * break}
      */
-    private Dimen discretionaryWidth = new Dimen();
+    private long discretionaryWidth;
 
     /**
      * 847.
@@ -826,11 +824,6 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
     // second_indent: scaled; {left margin to go with second_width}
     private long easyLine;
 
-    /**
-     * The field <tt>D_7230584</tt> contains the constant for comparison.
-     */
-    private static final Dimen D_7230584 = new Dimen(7230584);
-
     /**
      * is node cur_p outside a formula?
      */
@@ -987,7 +980,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                     // begin s <-- pre_break(cur_p);
                     NodeList nl = node.getPreBreak();
                     // disc_width <-- 0;
-                    discretionaryWidth.set(0);
+                    discretionaryWidth = 0;
                     // if s=null then
                     if (nl == null || nl.size() == 0) {
                         // try_break(ex_hyphen_penalty,hyphenated)
@@ -998,13 +991,13 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                         // <<Add the width of node s to disc_width 870>>;
                         // s <-- link(s);
                         // until s=null;
-                        discretionaryWidth.add(node.getWidth());
+                        discretionaryWidth += node.getWidth().getValue();
                         // act_width <-- act_width+disc_width;
-                        activeWidth.add(discretionaryWidth);
+                        activeWidth[Widths.LENGTH] += discretionaryWidth;
                         // try_break(hyphen_penalty,hyphenated);
                         tryBreak(nodes, hyphenPenalty, true);
                         // act_width <-- act_width-disc_width;
-                        activeWidth.subtract(discretionaryWidth);
+                        activeWidth[Widths.LENGTH] -= discretionaryWidth;
                         // end ;
                     }
                     // r <-- replace_count(cur_p);
@@ -1016,7 +1009,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                     // s <-- link(s);
                     // end ;
                     if (s != null) {
-                        activeWidth.add(s.getWidth());
+                        activeWidth[Widths.LENGTH] += s.getWidth().getValue();
                     }
                     // prev_p <-- cur_p;
                     prevP = curBreak;
@@ -1090,7 +1083,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                     // active_width[2+stretch_order(q)] <-- active_width[2+
                     // stretch_order(q)]+stretch(q);
                     // active_width[6] <-- active_width[6]+shrink(q)
-                    activeWidth.add(g);
+                    Widths.add(activeWidth, g);
 
                     // - - - -
                     // if second_pass && auto_breaking then
@@ -1111,7 +1104,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                 public Object visitHorizontalList(HorizontalListNode node,
                         NodeList value) throws GeneralException {
 
-                    activeWidth.add(node.getWidth());
+                    activeWidth[Widths.LENGTH] += node.getWidth().getValue();
                     return null;
                 }
 
@@ -1140,7 +1133,8 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                         kernBreak(value);
                         // else act_width <-- act_width+width(cur_p);
                     } else {
-                        activeWidth.add(node.getWidth());
+                        activeWidth[Widths.LENGTH] +=
+                                node.getWidth().getValue();
                     }
                     return null;
                 }
@@ -1157,7 +1151,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                     // act_width <-- act_width+char_width(f)(char_info(f)(
                     // character(lig_char(cur_p))));
 
-                    activeWidth.add(node.getWidth());
+                    activeWidth[Widths.LENGTH] += node.getWidth().getValue();
 
                     // end ;
                     return null;
@@ -1194,7 +1188,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                 public Object visitRule(RuleNode node, NodeList value)
                         throws GeneralException {
 
-                    activeWidth.add(node.getWidth());
+                    activeWidth[Widths.LENGTH] += node.getWidth().getValue();
                     return null;
                 }
 
@@ -1217,7 +1211,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                 public Object visitVerticalList(VerticalListNode node,
                         NodeList value) throws GeneralException {
 
-                    activeWidth.add(node.getWidth());
+                    activeWidth[Widths.LENGTH] += node.getWidth().getValue();
                     return null;
                 }
 
@@ -1320,7 +1314,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
      * line_diff: integer; {the difference between the current line number and
      * the optimum best_line}
      */
-    private ActiveNode bestBet;
+    private int bestBet = -1;
 
     /**
      * fewest_demerits: integer; {the demerits associated with best_bet}
@@ -1407,7 +1401,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             // repeat f <-- font(cur_p);
             // act_width <--
             // act_width+char_width(f)(char_info(f)(character(cur_p)));
-            activeWidth.add(node.getWidth());
+            activeWidth[Widths.LENGTH] += node.getWidth().getValue();
             // cur_p <-- link(cur_p);
             curBreak++;
 
@@ -1493,17 +1487,15 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
     private int badnessForShrinking() {
 
         // begin if -shortfall > cur_active_width[6] then
-        GlueComponent minusShortfall = new GlueComponent(shortfall);
-        minusShortfall.negate();
+        int order = Widths.order(curActiveWidth, Widths.SHRINK);
+        long shrink = curActiveWidth[Widths.SHRINK + order];
         int badness;
-        if (minusShortfall.gt(curActiveWidth.getShrink())) {
+        if (order == 0 && -shortfall > shrink) {
             // b <-- inf_bad+1
             badness = Badness.INF_BAD + 1;
             // else b <-- badness(-shortfall,cur_active_width[6]);
         } else {
-            badness =
-                    Badness.badness(minusShortfall.getValue(), curActiveWidth
-                        .getShrink().getValue());
+            badness = Badness.badness(-shortfall, shrink);
         }
         // if b > 12 then
         // fit_class <-- tight_fit else fit_class <-- decent_fit;
@@ -1537,18 +1529,19 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
 
         // if (cur_active_width[3] != 0) || (cur_active_width[4] != 0) || (
         // cur_active_width[5] != 0) then
-        FixedGlueComponent stretch = curActiveWidth.getStretch();
+        int order = Widths.order(curActiveWidth, Widths.STRETCH);
+        long stretch = curActiveWidth[Widths.STRETCH + order];
         int badness;
-        if (stretch.getOrder() > 0) {
+        if (order > 0) {
             // begin b <-- 0;
             badness = 0;
             // fit_class <-- decent_fit; {infinite stretch}
             fitClass = Fitness.DECENT;
             // end
-        } else if (shortfall.gt(D_7230584)) {
+        } else if (shortfall > 7230584) {
             // else begin if shortfall > 7230584 then
             // if cur_active_width[2] < 1663497 then
-            if (stretch.getValue() < 1663497) {
+            if (stretch < 1663497) {
                 // begin b <-- inf_bad;
                 badness = Badness.INF_BAD;
                 // fit_class <-- very_loose_fit;
@@ -1559,7 +1552,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             }
         }
         // b <-- badness(shortfall,cur_active_width[2]);
-        badness = Badness.badness(shortfall.getValue(), stretch.getValue());
+        badness = Badness.badness(shortfall, stretch);
         // if b > 12 then
         // if b > 99 then
         // fit_class <-- very_loose_fit
@@ -1889,7 +1882,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // begin no_break_yet <-- false;
         noBreakYet = false;
         // do_all_six(set_break_width_to_background);
-        breakWidth.set(background);
+        Widths.set(breakWidth, 0, background, 0);
         // s <-- cur_p;
         int s = curBreak;
         // if break_type > unhyphenated then
@@ -1923,7 +1916,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                 // break_width[2+stretch_order(v)] <--
                 // break_width[2+stretch_order(v)]-stretch(v);
                 // break_width[6] <-- break_width[6]-shrink(v);
-                breakWidth.subtract(((GlueNode) n).getSize());
+                Widths.subtract(breakWidth, ((GlueNode) n).getSize());
                 // end
 
             } else if (n instanceof PenaltyNode) {
@@ -1931,7 +1924,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             } else if (n instanceof BeforeMathNode
                     || n instanceof AfterMathNode) {
                 // math_node: break_width[1] <-- break_width[1]-width(s);
-                breakWidth.subtract(n.getWidth());
+                breakWidth[Widths.LENGTH] -= n.getWidth().getValue();
             } else if (n instanceof KernNode) {
                 // kern_node: if subtype(s) != explicit then
                 if (!(n instanceof ExplicitKernNode)) {
@@ -1939,7 +1932,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                     return;
                 }
                 // else break_width[1] <-- break_width[1]-width(s);
-                breakWidth.subtract(n.getWidth());
+                breakWidth[Widths.LENGTH] -= n.getWidth().getValue();
             } else {
                 // othercases goto done
                 return;
@@ -1974,7 +1967,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
      * 
      * @return the demerits value
      */
-    private long computeDemertis(ActiveNode activeNode, long penalty,
+    private long computeDemertis(int activeNode, long penalty,
             long badness) {
 
         // begin d <-- line_penalty+b;
@@ -1999,7 +1992,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             }
         }
         // if (break_type=hyphenated) && (type(r)=hyphenated)
-        if (breakType && activeNode.isHyphenated()) {
+        if (breakType && active.isHyphenated(activeNode)) {
             // then
             // if cur_p != null then
             if (curBreak < active.size()) {
@@ -2010,7 +2003,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                 d += finalHyphenDemerits;
             }
             // if abs(fit_class-fitness(r)) > 1 then
-            if (!fitClass.adjacent(activeNode.getFitness())) {
+            if (!fitClass.adjacent(active.getFitness(activeNode))) {
                 // d <-- d+adj_demerits;
             }
         }
@@ -2039,17 +2032,17 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // begin decr(t);
         // v <-- link(v);
         // <<Subtract the width of node v from break_width 841>>;
-        breakWidth.subtract(x.getWidth());
+        breakWidth[Widths.LENGTH] -= x.getWidth().getValue();
         // end ;
         // while s != null do
         // begin <<Add the width of node s to break_width 842>>;
         // s <-- link(s);
         // end ;
         // break_width[1] <-- break_width[1]+disc_width;
-        breakWidth.add(discretionaryWidth);
+        breakWidth[Widths.LENGTH] += discretionaryWidth;
         // if post_break(cur_p)=null then
         if (postBreak != null) {
-            breakWidth.add(postBreak.getWidth());
+            breakWidth[Widths.LENGTH] += postBreak.getWidth().getValue();
             // s <-- link(v); {nodes may be discardable after the break}
             // end
         }
@@ -2103,7 +2096,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // else line_width <-- mem[par_shape_ptr+2*l].sc;
         // end
         oldL = line;
-        lineWidth.set(parshape.getLength((int) line));
+        lineWidth = parshape.getLength((int) line).getValue();
     }
 
     /**
@@ -2127,10 +2120,9 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // total_demerits(q) <-- 0;
         // link(active) <-- q;
         active.clear();
-        active
-            .add(new ActiveNode(Fitness.DECENT, false, 0, prevGraf + 1, null));
+        active.insertActive(0, Fitness.DECENT, false, 0, prevGraf + 1, -1);
         // do_all_six(store_background);
-        activeWidth.set(background);
+        Widths.set(activeWidth, 0, background, 0);
 
         // passive <-- null;
         passive.clear();
@@ -2247,13 +2239,12 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             // deleted 861>>
             sub861();
             // else if type(prev_r)=delta_node then
-        } else if (active.get(prevR) instanceof DeltaNode) {
-            DeltaNode deltaPrev = (DeltaNode) active.get(prevR);
+        } else if (active.isDelta(prevR)) {
             // begin r <-- link(prev_r);
             // if r=last_active then
             if (r >= active.size()) {
                 // begin do_all_six(downdate_width);
-                curActiveWidth.subtract(deltaPrev);
+                active.subtractDeltaFrom(prevR, curActiveWidth);
                 // link(prev_prev_r) <-- last_active;
                 active.remove(prevR);
                 // free_node(prev_r,delta_node_size);
@@ -2262,12 +2253,11 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                 r--;
                 // end
                 // else if type(r)=delta_node then
-            } else if (active.get(r) instanceof DeltaNode) {
+            } else if (active.isDelta(r)) {
                 // begin do_all_six(update_width);
-                DeltaNode delta = (DeltaNode) active.get(r);
-                curActiveWidth.add(delta);
+                active.addDeltaTo(r, curActiveWidth);
                 // do_all_six(combine_two_deltas);
-                deltaPrev.add(delta);
+                active.combineDeltas(prevR, r);
                 // link(prev_r) <-- link(r);
                 active.remove(r);
                 // free_node(r,delta_node_size);
@@ -2302,27 +2292,27 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
      * <<Reverse the links of the relevant passive nodes, setting cur_p to the
      * first breakpoint 878>> ::=
      * 
-     * @return the first passive node
+     * @return the index of the first passive node
      */
-    private PassiveNode extractBestBreaks() {
+    private int extractBestBreaks() {
 
-        PassiveNode ptr;
-        PassiveNode ret;
+        int ptr;
+        int ret;
         // q <-- break_node(best_bet);
-        PassiveNode breakNode = bestBet.getBreakNode();
+        int breakNode = active.getBreakNode(bestBet);
         // cur_p <-- null;
-        ret = null;
+        ret = -1;
         // repeat r <-- q;
         do {
             ptr = breakNode;
             // q <-- prev_break(q);
-            breakNode = breakNode.getPrevBreak();
+            breakNode = passive.getPrevBreak(breakNode);
             // next_break(r) <-- cur_p;
-            ptr.setNextBreak(ret);
+            passive.setNextBreak(ptr, ret);
             // cur_p <-- r;
             ret = ptr;
             // until q=null
-        } while (breakNode != null);
+        } while (breakNode >= 0);
 
         return ret;
     }
@@ -2417,23 +2407,19 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
      */
     private void findAnActiveNodeWithFewestDemerits() {
 
-        Object n;
-        ActiveNode node;
         // r <-- link(active);
         // fewest_demerits <-- awful_bad;
         fewestDemerits = AWFUL_BAD;
 
         for (int i = 0; i < active.size(); i++) {
             // repeat if type(r) != delta_node then
-            n = active.get(i);
-            if (n instanceof ActiveNode) {
-                node = (ActiveNode) n;
+            if (!active.isDelta(i)) {
                 // if total_demerits(r) < fewest_demerits then
-                if (node.getTotalDemerits() < fewestDemerits) {
+                if (active.getTotalDemerits(i) < fewestDemerits) {
                     // begin fewest_demerits <-- total_demerits(r);
-                    fewestDemerits = node.getTotalDemerits();
+                    fewestDemerits = active.getTotalDemerits(i);
                     // best_bet <-- r;
-                    bestBet = node;
+                    bestBet = i;
                     // end ;
                 }
             }
@@ -2442,7 +2428,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         }
 
         // best_line <-- line_number(best_bet)
-        bestLine = bestBet.getLineNumber();
+        bestLine = active.getLineNumber(bestBet);
     }
 
     /*
@@ -2580,7 +2566,9 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                     logger.info("@emergencypass\n");
                 }
                 // background[2] <-- background[2]+emergency_stretch;
-                background.addStretch(emergencyStretch);
+                // the emergency stretch is added like in
+                // WideGlue.addStretch()
+                background[Widths.SHRINK] += emergencyStretch.getValue();
                 // final_pass <-- true;
                 finalPass = true;
                 // end ;
@@ -2617,11 +2605,9 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
 
         do {
             // repeat if type(r) != delta_node then
-            Object node = active.get(idx);
-            if (node instanceof ActiveNode) {
-                ActiveNode aNode = (ActiveNode) node;
+            if (!active.isDelta(idx)) {
                 // begin line_diff <-- line_number(r)-best_line;
-                lineDiff = aNode.getLineNumber() - bestLine;
+                lineDiff = active.getLineNumber(idx) - bestLine;
 
                 // if ((line_diff < actual_looseness) && (looseness =<
                 // line_diff)) ||
@@ -2630,21 +2616,21 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
                 if ((lineDiff < actualLooseness && looseness <= lineDiff)
                         || (lineDiff > actualLooseness && looseness >= lineDiff)) {
                     // begin best_bet <-- r;
-                    bestBet = aNode;
+                    bestBet = idx;
                     // actual_looseness <-- line_diff;
                     actualLooseness = lineDiff;
                     // fewest_demerits <-- total_demerits(r);
-                    fewestDemerits = aNode.getTotalDemerits();
+                    fewestDemerits = active.getTotalDemerits(idx);
 
                     // end
                     // else if (line_diff=actual_looseness) &&
                     // (total_demerits(r) < fewest_demerits) then
                 } else if (lineDiff == actualLooseness
-                        && aNode.getTotalDemerits() < fewestDemerits) {
+                        && active.getTotalDemerits(idx) < fewestDemerits) {
                     // begin best_bet <-- r;
-                    bestBet = aNode;
+                    bestBet = idx;
                     // fewest_demerits <-- total_demerits(r);
-                    fewestDemerits = aNode.getTotalDemerits();
+                    fewestDemerits = active.getTotalDemerits(idx);
                     // end ;
                 }
                 // end ;
@@ -2656,7 +2642,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         } while (idx < active.size());
 
         // best_line <-- line_number(best_bet);
-        bestLine = bestBet.getLineNumber();
+        bestLine = active.getLineNumber(bestBet);
 
         // end
     }
@@ -2733,8 +2719,8 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // background[2+stretch_order(r)] <--
         // background[2+stretch_order(r)]+stretch(r);
         // background[6] <-- shrink(q)+shrink(r);
-        background.set(leftSkip);
-        background.add(rightSkip);
+        Widths.set(background, leftSkip);
+        Widths.add(background, rightSkip);
 
         /**
          * 834.
@@ -2751,6 +2737,12 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         minimalDemerits[1] = AWFUL_BAD;
         minimalDemerits[2] = AWFUL_BAD;
         minimalDemerits[3] = AWFUL_BAD;
+        // the passive nodes of the previous paragraph are gone
+        bestPlace[0] = -1;
+        bestPlace[1] = -1;
+        bestPlace[2] = -1;
+        bestPlace[3] = -1;
+        passive.reset();
 
         /*
          * 848.
@@ -2841,10 +2833,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // stat incr(pass_number);
         // serial(q) <-- pass_number; tats
         // prev_break(q) <-- best_place[fit_class];
-        PassiveNode pn =
-                new PassiveNode(curBreak, passive.size() + 1,
-                    bestPlace[fitClass.getOrder()]);
-        passive.add(pn);
+        int pn = passive.add(curBreak, bestPlace[fitClass.getOrder()]);
 
         // q <-- get_node(active_node_size);
         // break_node(q) <-- passive;
@@ -2852,21 +2841,19 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // fitness(q) <-- fit_class;
         // type(q) <-- break_type;
         // total_demerits(q) <-- minimal_demerits[fit_class];
-        ActiveNode an =
-                new ActiveNode(fitClass, breakType,
-                    minimalDemerits[fitClass.getOrder()],
-                    bestPlaceLine[fitClass.getOrder()] + 1, pn);
         // link(q) <-- r;
         // link(prev_r) <-- q;
         // prev_r <-- q;
-        active.add(r, an);
+        active.insertActive(r, fitClass, breakType,
+            minimalDemerits[fitClass.getOrder()],
+            bestPlaceLine[fitClass.getOrder()] + 1, pn);
         prevR++;
         r++;
 
         // stat if tracing_paragraphs > 0 then
         if (tracingParagraphs) {
             // <<Print a symbolic description of the new break node 846>>;
-            printNewBreakNode(an);
+            printNewBreakNode(r - 1);
             // tats
         }
         // end
@@ -2889,15 +2876,13 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
 
         // if r != last_active then
         if (r < active.size()) {
-            DeltaNode delta = new DeltaNode(curActiveWidth);
-            delta.subtract(breakWidth);
             // begin q <-- get_node(delta_node_size);
             // link(q) <-- r;
             // type(q) <-- delta_node;
             // subtype(q) <-- 0; {the subtype is not used}
             // do_all_six(new_delta_from_break_width);
             // link(prev_r) <-- q;
-            active.add(prevR + 1, delta);
+            active.insertDelta(prevR + 1, curActiveWidth, breakWidth);
             // prev_prev_r <-- prev_r;
             prevPrevR = prevR;
             // prev_r <-- q;
@@ -2941,28 +2926,24 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
      */
     private void insertDeltaNodeForBreaks() {
 
-        Object prevNode;
         // if type(prev_r)=delta_node then {modify an existing delta node}
         // else if prev_r=active then {no delta node needed at the beginning}
         if (prevR < 0) {
             // begin do_all_six(store_break_width);
-            activeWidth.set(breakWidth);
+            Widths.set(activeWidth, 0, breakWidth, 0);
             // end
-        } else if ((prevNode = active.get(prevR)) instanceof DeltaNode) {
+        } else if (active.isDelta(prevR)) {
             // begin do_all_six(convert_to_break_width);
-            ((DeltaNode) prevNode).subtract(curActiveWidth);
-            ((DeltaNode) prevNode).add(breakWidth);
+            active.updateDelta(prevR, curActiveWidth, breakWidth);
             // end
             // else begin q <-- get_node(delta_node_size);
         } else {
-            DeltaNode delta = new DeltaNode(breakWidth);
-            delta.subtract(curActiveWidth);
             // link(q) <-- r;
             // type(q) <-- delta_node;
             // subtype(q) <-- 0; {the subtype is not used}
             // do_all_six(new_delta_to_break_width);
             // link(prev_r) <-- q;
-            active.add(r, delta);
+            active.insertDelta(r, breakWidth, curActiveWidth);
             // prev_prev_r <-- prev_r;
             prevPrevR = prevR;
             // prev_r <-- q;
@@ -3031,7 +3012,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             }
         }
         // act_width <-- act_width+width(cur_p);
-        activeWidth.add(nodes.get(curBreak).getWidth());
+        activeWidth[Widths.LENGTH] += nodes.get(curBreak).getWidth().getValue();
         // end
     }
 
@@ -3138,7 +3119,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
 
         VerticalListNode vlist = new VerticalListNode();
         HorizontalListNode line;
-        PassiveNode curP;
+        int curP;
 
         // label done,done1;
 
@@ -3175,7 +3156,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         do {
             line = new HorizontalListNode();
             adjust = new HorizontalListNode();
-            int theBreak = curP.getCurBreak();
+            int theBreak = passive.getCurBreak(curP);
             fillLine(nodes, idx, theBreak, line, lineGlue, adjust);
             idx = theBreak;
 
@@ -3240,9 +3221,9 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             // incr(cur_line);
             curLine++;
             // cur_p <-- next_break(cur_p);
-            curP = curP.getNextBreak();
+            curP = passive.getNextBreak(curP);
             // if cur_p != null then
-            if (curP != null) {
+            if (curP >= 0) {
                 // if not post_disc_break then
                 if (postDiscBreak == null) {
                     // <<Prune unwanted nodes at the beginning of the next line
@@ -3252,7 +3233,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             }
 
             // until cur_p=null;
-        } while (curP != null);
+        } while (curP >= 0);
 
         // if (cur_line != best_line) || (link(temp_head) != null) then
         if (curLine != bestLine) {
@@ -3401,15 +3382,13 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             }
             // end ;
         }
-        PassiveNode breakNode =
-                (r < active.size() ? ((ActiveNode) active.get(r))
-                    .getBreakNode() : null);
+        int breakNode = (r < active.size() ? active.getBreakNode(r) : -1);
         // print(" via @@");
         sb.append(" via @@");
         // if break_node(r)=null then
         // print_char("0")
         // else print_int(serial(break_node(r)));
-        sb.append(breakNode == null ? "0" : "" + breakNode.getSerial());
+        sb.append(breakNode < 0 ? "0" : "" + passive.getSerial(breakNode));
         // print(" b=");
         // if b > inf_bad then print_char("*") else print_int(b);
         sb.append(badness > Badness.INF_BAD ? " b=*" : " b=" + badness);
@@ -3479,23 +3458,23 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
      * 
      * <<Print a symbolic description of the new break node 846>> ::=
      * 
-     * @param aNode the active node
+     * @param aNode the index of the active node
      */
-    private void printNewBreakNode(ActiveNode aNode) {
+    private void printNewBreakNode(int aNode) {
 
         // begin print_nl("@@");
         StringBuilder sb = new StringBuilder("@@");
         // print_int(serial(passive));
-        PassiveNode passiveNode = passive.get(passive.size() - 1);
-        sb.append(passiveNode.getSerial());
+        int passiveNode = passive.size() - 1;
+        sb.append(passive.getSerial(passiveNode));
         // print(": line ");
         sb.append(": line ");
         // print_int(line_number(q)-1);
-        sb.append(aNode.getLineNumber() - 1);
+        sb.append(active.getLineNumber(aNode) - 1);
         // print_char(".");
         sb.append(".");
         // print_int(fit_class);
-        sb.append(fitClass.getOrder());
+        sb.append(active.getFitness(aNode));
         // if break_type=hyphenated then
         if (breakType) {
             // print_char("-");
@@ -3504,18 +3483,18 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // print(" t=");
         sb.append(" t=");
         // print_int(total_demerits(q));
-        sb.append(aNode.getTotalDemerits());
+        sb.append(active.getTotalDemerits(aNode));
 
         // print(" - > @@");
         sb.append(" - > @@");
         // if prev_break(passive)=null then
-        PassiveNode prevBreak = passiveNode.getPrevBreak();
-        if (prevBreak == null) {
+        int prevBreak = passive.getPrevBreak(passiveNode);
+        if (prevBreak < 0) {
             // print_char("0")
             sb.append("0");
         } else {
             // else print_int(serial(prev_break(passive)));
-            sb.append(prevBreak.getSerial());
+            sb.append(passive.getSerial(prevBreak));
         }
 
         sb.append("\n");
@@ -3643,7 +3622,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             d = 0;
         } else {
             // else <<Compute the demerits, d, from r to cur_p 859>>;
-            d = computeDemertis((ActiveNode) active.get(r), penalty, badness);
+            d = computeDemertis(r, penalty, badness);
         }
         // stat if tracing_paragraphs > 0 then
         if (tracingParagraphs) {
@@ -3654,7 +3633,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // d <-- d+total_demerits(r); {this is the minimum total demerits
         // from the beginning to cur_p via r}
         if (r < active.size()) {
-            d += ((ActiveNode) active.get(r)).getTotalDemerits();
+            d += active.getTotalDemerits(r);
         }
         // if d =< minimal_demerits[fit_class] then
         int fit = fitClass.getOrder();
@@ -3662,7 +3641,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             // begin minimal_demerits[fit_class] <-- d;
             minimalDemerits[fit] = d;
             // best_place[fit_class] <-- break_node(r);
-            bestPlace[fit] = ((ActiveNode) active.get(r)).getBreakNode();
+            bestPlace[fit] = active.getBreakNode(r);
             // best_pl_line[fit_class] <-- l;
             bestPlaceLine[fit] = l;
             // if d < minimum_demerits then
@@ -3727,7 +3706,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             l = Integer.MAX_VALUE;
         } else {
             // begin l <-- line_number(r);
-            l = ((ActiveNode) active.get(r)).getLineNumber();
+            l = active.getLineNumber(r);
         }
         // if l > old_l then
         if (l > oldL) {
@@ -3779,7 +3758,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // end ;
         // hlist_node,vlist_node,rule_node,kern_node:
         // break_width[1] <-- break_width[1]-width(v);
-        breakWidth.subtract(v.getWidth());
+        breakWidth[Widths.LENGTH] -= v.getWidth().getValue();
         // othercases confusion("disc1")
         // endcases
     }
@@ -3821,10 +3800,9 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         artificialDemerits = false;
         // shortfall <-- line_width-cur_active_width[1]; {we're this much too
         // short}
-        shortfall.set(lineWidth);
-        shortfall.subtract(curActiveWidth.getLength());
+        shortfall = lineWidth - curActiveWidth[Widths.LENGTH];
         // if shortfall > 0 then
-        if (shortfall.gt(Dimen.ZERO_PT)) {
+        if (shortfall > 0) {
             // <<Set the value of b to the badness for stretching the line, and
             // compute the corresponding fit_class 852>>
             badness = badnessForStretching();
@@ -3891,11 +3869,11 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // begin r <-- link(active);
         r = 0;
         // if type(r)=delta_node then
-        if (!active.isEmpty() && active.get(r) instanceof DeltaNode) {
+        if (!active.isEmpty() && active.isDelta(r)) {
             // begin do_all_six(update_active);
-            activeWidth.add((DeltaNode) active.get(r));
+            active.addDeltaTo(r, activeWidth);
             // do_all_six(copy_to_cur_active);
-            curActiveWidth.set(activeWidth);
+            Widths.set(curActiveWidth, 0, activeWidth, 0);
             // link(active) <-- link(r);
             // free_node(r,delta_node_size);
             active.remove(r);
@@ -4038,7 +4016,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         // old_l <-- 0;
         oldL = 0;
         // do_all_six(copy_to_cur_active);
-        curActiveWidth.set(activeWidth);
+        Widths.set(curActiveWidth, 0, activeWidth, 0);
 
         for (;;) {
             // loop begin continue: r <-- link(prev_r);
@@ -4062,10 +4040,9 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             // <<If node r is of type delta_node, update cur_active_width,
             // set prev_r and prev_prev_r, then goto continue 832>> ::=
             // if type(r)=delta_node then
-            Object n = (r < active.size() ? active.get(r) : null);
-            if (n instanceof DeltaNode) {
+            if (r < active.size() && active.isDelta(r)) {
                 // begin do_all_six(update_width);
-                curActiveWidth.add((DeltaNode) n);
+                active.addDeltaTo(r, curActiveWidth);
                 // prev_prev_r <-- prev_r;
                 prevPrevR = prevR;
                 // prev_r <-- r;
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.typesetter.tex.paragraph;
+
+import org.extex.core.glue.FixedGlue;
+import org.extex.core.glue.FixedGlueComponent;
+
+/**
+ * This class contains the arithmetic on the width arrays of the line
+ * breaker. A width array corresponds to the arrays <i>active_width</i>,
+ * <i>background</i> or <i>break_width</i> of <logo>T<span style=
+ * "text-transform:uppercase;font-size:90%;vertical-align:-0.4ex;margin-left:-0.2em;margin-right:-0.1em;line-height: 0;"
+ * >e</span>X</logo>. It contains {@link #SIZE SIZE} scaled values: the
+ * natural width at {@link #LENGTH LENGTH}, the stretchability for each order
+ * starting at {@link #STRETCH STRETCH}, and the shrinkability for each order
+ * starting at {@link #SHRINK SHRINK}.
+ * <p>
+ * The values are kept in plain arrays of <code>long</code> in order to avoid
+ * the creation of dimen and glue objects in the inner loop of the line
+ * breaker. Several width arrays can be stored in one array; in this case the
+ * offset of the first value is passed in.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public final class Widths {
+
+    /**
+     * The constant <tt>LENGTH</tt> contains the index of the natural width.
+     */
+    public static final int LENGTH = 0;
+
+    /**
+     * The constant <tt>ORDERS</tt> contains the number of orders of
+     * stretchability and shrinkability.
+     */
+    public static final int ORDERS = 5;
+
+    /**
+     * The constant <tt>STRETCH</tt> contains the index of the
+     * stretchability of order 0.
+     */
+    public static final int STRETCH = 1;
+
+    /**
+     * The constant <tt>SHRINK</tt> contains the index of the shrinkability
+     * of order 0.
+     */
+    public static final int SHRINK = STRETCH + ORDERS;
+
+    /**
+     * The constant <tt>SIZE</tt> contains the number of values in a width
+     * array.
+     */
+    public static final int SIZE = SHRINK + ORDERS;
+
+    /**
+     * Add a width array to another one.
+     *
+     * @param to the target array
+     * @param at the offset in the target array
+     * @param from the source array
+     * @param off the offset in the source array
+     */
+    public static void add(long[] to, int at, long[] from, int off) {
+
+        for (int i = 0; i < SIZE; i++) {
+            to[at + i] += from[off + i];
+        }
+    }
+
+    /**
+     * Add a glue to a width array.
+     *
+     * @param to the target array
+     * @param glue the glue to add
+     */
+    public static void add(long[] to, FixedGlue glue) {
+
+        to[LENGTH] += glue.getLength().getValue();
+        FixedGlueComponent s = glue.getStretch();
+        to[STRETCH + s.getOrder()] += s.getValue();
+        s = glue.getShrink();
+        to[SHRINK + s.getOrder()] += s.getValue();
+    }
+
+    /**
+     * Find the highest order with a non-zero value.
+     *
+     * @param w the width array
+     * @param base the index of the value of order 0; i.e. {@link #STRETCH
+     *        STRETCH} or {@link #SHRINK SHRINK}
+     *
+     * @return the highest order with a non-zero value or 0
+     */
+    public static int order(long[] w, int base) {
+
+        for (int i = ORDERS - 1; i > 0; i--) {
+            if (w[base + i] != 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Copy a width array.
+     *
+     * @param to the target array
+     * @param at the offset in the target array
+     * @param from the source array
+     * @param off the offset in the source array
+     */
+    public static void set(long[] to, int at, long[] from, int off) {
+
+        System.arraycopy(from, off, to, at, SIZE);
+    }
+
+    /**
+     * Set a width array to a glue.
+     *
+     * @param to the target array
+     * @param glue the glue
+     */
+    public static void set(long[] to, FixedGlue glue) {
+
+        for (int i = 0; i < SIZE; i++) {
+            to[i] = 0;
+        }
+        add(to, glue);
+    }
+
+    /**
+     * Subtract a width array from another one.
+     *
+     * @param to the target array
+     * @param at the offset in the target array
+     * @param from the source array
+     * @param off the offset in the source array
+     */
+    public static void subtract(long[] to, int at, long[] from, int off) {
+
+        for (int i = 0; i < SIZE; i++) {
+            to[at + i] -= from[off + i];
+        }
+    }
+
+    /**
+     * Subtract a glue from a width array.
+     *
+     * @param to the target array
+     * @param glue the glue to subtract
+     */
+    public static void subtract(long[] to, FixedGlue glue) {
+
+        to[LENGTH] -= glue.getLength().getValue();
+        FixedGlueComponent s = glue.getStretch();
+        to[STRETCH + s.getOrder()] -= s.getValue();
+        s = glue.getShrink();
+        to[SHRINK + s.getOrder()] -= s.getValue();
+    }
+
+    /**
+     * Creates a new object.
+     */
+    private Widths() {
+
+        // not used
+    }
+
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.typesetter.listMaker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.extex.core.UnicodeChar;
+import org.extex.core.count.Count;
+import org.extex.core.count.FixedCount;
+import org.extex.core.dimen.Dimen;
+import org.extex.core.dimen.FixedDimen;
+import org.extex.core.glue.FixedGlue;
+import org.extex.core.glue.Glue;
+import org.extex.core.muskip.Muskip;
+import org.extex.scanner.type.token.TokenFactory;
+import org.extex.typesetter.TypesetterOptions;
+import org.extex.typesetter.paragraphBuilder.ParagraphShape;
+import org.extex.typesetter.tc.TypesettingContext;
+import org.extex.typesetter.tc.TypesettingContextFactory;
+import org.extex.typesetter.tc.TypesettingContextImpl;
+import org.extex.typesetter.tc.font.Font;
+import org.extex.typesetter.tc.font.impl.NullFont;
+import org.extex.typesetter.type.node.CharNode;
+import org.extex.typesetter.type.node.DiscretionaryNode;
+import org.extex.typesetter.type.node.HorizontalListNode;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This class contains test cases for the {@link ParagraphOptions}.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ * @version $Revision$
+ */
+public class ParagraphOptionsTest {
+
+    /**
+     * These options keep the values in maps which can be modified after a
+     * copy has been made.
+     */
+    private static class MockOptions implements TypesetterOptions {
+
+        /**
+         * The field <tt>counts</tt> contains the count parameters.
+         */
+        private Map<String, Count> counts = new HashMap<String, Count>();
+
+        /**
+         * The field <tt>lccodes</tt> contains the lower case codes.
+         */
+        private Map<UnicodeChar, UnicodeChar> lccodes =
+                new HashMap<UnicodeChar, UnicodeChar>();
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getCountOption(java.lang.String)
+         */
+        public FixedCount getCountOption(String name) {
+
+            Count count = counts.get(name);
+            if (count == null) {
+                count = new Count(0);
+                counts.put(name, count);
+            }
+            return count;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getDimenOption(java.lang.String)
+         */
+        public FixedDimen getDimenOption(String name) {
+
+            return Dimen.ONE_PT;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getFont(java.lang.String)
+         */
+        public Font getFont(String name) {
+
+            return new NullFont();
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getGlueOption(java.lang.String)
+         */
+        public FixedGlue getGlueOption(String name) {
+
+            return new Glue(Dimen.ONE_PT);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getLccode(org.extex.core.UnicodeChar)
+         */
+        public UnicodeChar getLccode(UnicodeChar uc) {
+
+            return lccodes.get(uc);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getMuskip(java.lang.String)
+         */
+        public Muskip getMuskip(String name) {
+
+            return new Muskip();
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getNamespace()
+         */
+        public String getNamespace() {
+
+            return "ns";
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getParshape()
+         */
+        public ParagraphShape getParshape() {
+
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getTokenFactory()
+         */
+        public TokenFactory getTokenFactory() {
+
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getTypesettingContext()
+         */
+        public TypesettingContext getTypesettingContext() {
+
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#getTypesettingContextFactory()
+         */
+        public TypesettingContextFactory getTypesettingContextFactory() {
+
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#setCountOption(java.lang.String,
+         *      long)
+         */
+        public void setCountOption(String name, long value) {
+
+            counts.put(name, new Count(value));
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.extex.typesetter.TypesetterOptions#setParshape(org.extex.typesetter.paragraphBuilder.ParagraphShape)
+         */
+        public void setParshape(ParagraphShape shape) {
+
+            // not needed
+        }
+    }
+
+    /**
+     * The constant <tt>TC</tt> contains the typesetting context for the
+     * characters.
+     */
+    private static final TypesettingContext TC =
+            new TypesettingContextImpl(new NullFont());
+
+    /**
+     * Command line interface.
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+
+        (new JUnitCore()).run(ParagraphOptionsTest.class);
+    }
+
+    /**
+     * Create a character node.
+     *
+     * @param c the character
+     *
+     * @return the new node
+     */
+    private static CharNode makeChar(char c) {
+
+        return new CharNode(TC, UnicodeChar.get(c));
+    }
+
+    /**
+     * <testcase class="ParagraphOptions"> Test case checking that a count
+     * parameter assigned after the copy has been made is not seen.
+     * </testcase>
+     */
+    @Test
+    public void testCount1() {
+
+        MockOptions options = new MockOptions();
+        options.setCountOption("tolerance", 200);
+        ParagraphOptions opts =
+                new ParagraphOptions(options, new HorizontalListNode());
+        options.setCountOption("tolerance", 10000);
+        assertEquals(200, opts.getCountOption("tolerance").getValue());
+    }
+
+    /**
+     * <testcase class="ParagraphOptions"> Test case checking that the
+     * parameters of the paragraph builders are available. </testcase>
+     */
+    @Test
+    public void testParameters1() {
+
+        ParagraphOptions opts =
+                new ParagraphOptions(new MockOptions(),
+                    new HorizontalListNode());
+        assertEquals(Dimen.ONE_PT.getValue(), opts.getDimenOption(
+            "lineskiplimit").getValue());
+        assertEquals(Dimen.ONE_PT.getValue(), opts.getGlueOption(
+            "baselineskip").getLength().getValue());
+        assertEquals(Dimen.ONE_PT.getValue(), opts.getGlueOption("parskip")
+            .getLength().getValue());
+        assertEquals("ns", opts.getNamespace());
+    }
+
+    /**
+     * <testcase class="ParagraphOptions"> Test case checking that the lower
+     * case codes of characters in nested lists and discretionaries are
+     * copied. </testcase>
+     */
+    @Test
+    public void testLccode1() {
+
+        MockOptions options = new MockOptions();
+        UnicodeChar a = UnicodeChar.get('A');
+        UnicodeChar b = UnicodeChar.get('B');
+        options.lccodes.put(a, UnicodeChar.get('a'));
+        options.lccodes.put(b, UnicodeChar.get('b'));
+        HorizontalListNode nodes = new HorizontalListNode();
+        nodes.add(new HorizontalListNode(makeChar('A')));
+        nodes.add(new DiscretionaryNode(new HorizontalListNode(makeChar('B')),
+            null, null));
+        ParagraphOptions opts = new ParagraphOptions(options, nodes);
+        options.lccodes.clear();
+
+        assertEquals(UnicodeChar.get('a'), opts.getLccode(a));
+        assertEquals(UnicodeChar.get('b'), opts.getLccode(b));
+        assertNull(opts.getLccode(UnicodeChar.get('C')));
+    }
+
+    /**
+     * <testcase class="ParagraphOptions"> Test case checking that the
+     * assignments to count parameters are carried over. </testcase>
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testApply1() throws Exception {
+
+        MockOptions options = new MockOptions();
+        ParagraphOptions opts =
+                new ParagraphOptions(options, new HorizontalListNode());
+        opts.setCountOption("prevgraf", 3);
+        assertEquals(0, options.getCountOption("prevgraf").getValue());
+        opts.apply(options);
+        assertEquals(3, options.getCountOption("prevgraf").getValue());
+    }
+
+    /**
+     * <testcase class="ParagraphOptions"> Test case checking that a parameter
+     * which has not been copied is read from the original options.
+     * </testcase>
+     */
+    @Test
+    public void testOriginal1() {
+
+        MockOptions options = new MockOptions();
+        ParagraphOptions opts =
+                new ParagraphOptions(options, new HorizontalListNode());
+        options.setCountOption("escapechar", 92);
+        assertEquals(92, opts.getCountOption("escapechar").getValue());
+        assertNotNull(opts.getFont("x"));
+        assertNotNull(opts.getMuskip("thinmuskip"));
+        assertNull(opts.getTokenFactory());
+        assertNull(opts.getTypesettingContextFactory());
+    }
+
+}
@@ -110,6 +110,17 @@ public class Readline extends AbstractAssignment implements LogEnabled {
             return (c.getCodePoint() == ' ' ? Catcode.SPACE : Catcode.OTHER);
         }
 
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+         */
+        @Override
+        public Catcode getCatcode(int codePoint) {
+
+            return getCatcode(UnicodeChar.get(codePoint));
+        }
+
         /**
          * Getter for the name space.
          * 
@@ -149,7 +149,8 @@ public class Prevgraf extends CountPrimitive {
 
     /**
      * Return the key (the name of the primitive) for the numbered count
-     * register.
+     * register. A paragraph broken into lines in the background is completed
+     * first since it sets the register.
      * 
      * @param context the interpreter context to use
      * @param source the source for new tokens
@@ -157,13 +158,18 @@ public class Prevgraf extends CountPrimitive {
      * 
      * @return the key for the current register
      * 
+     * @throws TypesetterException in case of an error in the paragraph
+     * 
      * @see org.extex.unit.tex.register.count.AbstractCount#getKey(org.extex.interpreter.context.Context,
      *      org.extex.interpreter.TokenSource, org.extex.typesetter.Typesetter)
      */
     @Override
     protected String getKey(Context context, TokenSource source,
-            Typesetter typesetter) {
+            Typesetter typesetter) throws TypesetterException {
 
+        if (typesetter != null) {
+            typesetter.joinParagraphs();
+        }
         return getName();
     }
 
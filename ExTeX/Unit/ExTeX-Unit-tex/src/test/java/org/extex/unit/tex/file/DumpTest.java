@@ -276,6 +276,17 @@ public class DumpTest extends NoFlagsPrimitiveTester {
                     return null;
                 }
 
+                /**
+                 * {@inheritDoc}
+                 * 
+                 * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+                 */
+                @Override
+                public Catcode getCatcode(int codePoint) {
+
+                    return getCatcode(UnicodeChar.get(codePoint));
+                }
+
                 /**
                  * {@inheritDoc}
                  * 
@@ -1479,6 +1490,17 @@ public class DumpTest extends NoFlagsPrimitiveTester {
                     return null;
                 }
 
+                /**
+                 * {@inheritDoc}
+                 * 
+                 * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+                 */
+                @Override
+                public Catcode getCatcode(int codePoint) {
+
+                    return getCatcode(UnicodeChar.get(codePoint));
+                }
+
                 /**
                  * {@inheritDoc}
                  * 
@@ -19,7 +19,10 @@
 
 package org.extex.unit.tex.register.count;
 
+import java.util.Properties;
+
 import org.extex.test.NoFlagsButGlobalPrimitiveTester;
+import org.junit.Test;
 import org.junit.runner.JUnitCore;
 
 /**
@@ -48,5 +51,51 @@ public class PrevgrafTest extends NoFlagsButGlobalPrimitiveTester {
         super("prevgraf", "0", "0");
     }
 
-    // TODO implement the primitive specific test cases
+    /**
+     * <testcase primitive="\prevgraf"> Test case checking that
+     * <tt>\prevgraf</tt> contains the number of lines of the last paragraph
+     * when the paragraph is broken into lines in the background.
+     * </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testParallel1() throws Exception {
+
+        Properties properties = getProps();
+        properties.setProperty("extex.typesetter", "test-parallel");
+
+        assertOutput(properties,
+        // --- input code ---
+            "\\hsize=100pt \\indent\\par \\showthe\\prevgraf \\end",
+            // --- log message ---
+            "> 1.\n",
+            // --- output channel ---
+            null);
+    }
+
+    /**
+     * <testcase primitive="\prevgraf"> Test case checking that
+     * <tt>\prevgraf</tt> contains the number of lines of the last paragraph
+     * when the paragraph is broken into lines in the background and the
+     * following paragraph has been started.
+     * </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testParallel2() throws Exception {
+
+        Properties properties = getProps();
+        properties.setProperty("extex.typesetter", "test-parallel");
+
+        assertOutput(properties,
+        // --- input code ---
+            "\\hsize=100pt \\indent\\par \\indent\\showthe\\prevgraf \\end",
+            // --- log message ---
+            "> 1.\n",
+            // --- output channel ---
+            null);
+    }
+
 }
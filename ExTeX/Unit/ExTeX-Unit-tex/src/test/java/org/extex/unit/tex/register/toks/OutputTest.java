@@ -19,7 +19,10 @@
 
 package org.extex.unit.tex.register.toks;
 
+import java.util.Properties;
+
 import org.extex.test.NoFlagsButGlobalPrimitiveTester;
+import org.junit.Test;
 import org.junit.runner.JUnitCore;
 
 /**
@@ -48,5 +51,68 @@ public class OutputTest extends NoFlagsButGlobalPrimitiveTester {
         super("output", "{}", "");
     }
 
-    // TODO implement the primitive specific test cases
+    /**
+     * Run some code with the typesetter breaking the paragraphs one after the
+     * other and with the typesetter breaking the paragraphs in the background.
+     * Both runs have to produce the same log.
+     * 
+     * @param code the code to run
+     * @param log the expected log
+     * 
+     * @throws Exception in case of an error
+     */
+    private void assertParallel(String code, String log) throws Exception {
+
+        assertOutput(getProps(), code, log, null);
+
+        Properties properties = getProps();
+        properties.setProperty("extex.typesetter", "test-parallel");
+        assertOutput(properties, code, log, null);
+    }
+
+    /**
+     * <testcase primitive="\output"> Test case checking that the output
+     * routine is invoked for the lines of a paragraph broken in the
+     * background as soon as the paragraph has ended.
+     * </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testParallel1() throws Exception {
+
+        assertParallel(DEFINE_BRACES + "\\hsize=100pt \\vsize=5pt "
+                + "\\output={\\global\\advance\\count9 1 "
+                + "\\setbox0\\box255 }"
+                + "\\noindent\\vrule height 10pt\\par "
+                + "\\showthe\\count9 \\showthe\\prevdepth "
+                + "\\showthe\\count9 \\end",
+            "> 1.\n> 0.0pt.\n> 1.\n");
+    }
+
+    /**
+     * <testcase primitive="\output"> Test case checking that the pages made
+     * from paragraphs broken in the background are the same as the pages made
+     * from paragraphs broken one after the other.
+     * </testcase>
+     * 
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testParallel2() throws Exception {
+
+        assertParallel(DEFINE_BRACES + "\\hsize=100pt \\vsize=25pt "
+                + "\\output={\\global\\advance\\count9 1 "
+                + "\\message{[\\the\\count9:\\the\\ht255]}"
+                + "\\setbox0\\box255 }"
+                + "\\noindent\\vrule height 10pt\\par "
+                + "\\noindent\\vrule height 10pt\\par "
+                + "\\noindent\\vrule height 10pt\\par "
+                + "\\showthe\\count9 "
+                + "\\noindent\\vrule height 10pt\\par "
+                + "\\noindent\\vrule height 10pt\\par "
+                + "\\showthe\\count9 \\showthe\\pagetotal \\end",
+            "[1:30.0pt]> 1.\n> 1.\n> 0.0pt.\n[2:20.0pt]");
+    }
+
 }
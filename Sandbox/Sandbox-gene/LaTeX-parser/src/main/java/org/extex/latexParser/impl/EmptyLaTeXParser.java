@@ -355,6 +355,16 @@ public class EmptyLaTeXParser implements LaTeXParser, ResourceAware, Parser {
             }
         }
 
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+         */
+        public Catcode getCatcode(int codePoint) {
+
+            return getCatcode(UnicodeChar.get(codePoint));
+        }
+
         /**
          * Getter for the name space.
          * 
@@ -428,6 +438,16 @@ public class EmptyLaTeXParser implements LaTeXParser, ResourceAware, Parser {
             }
         }
 
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+         */
+        public Catcode getCatcode(int codePoint) {
+
+            return getCatcode(UnicodeChar.get(codePoint));
+        }
+
         /**
          * Getter for the name space.
          * 
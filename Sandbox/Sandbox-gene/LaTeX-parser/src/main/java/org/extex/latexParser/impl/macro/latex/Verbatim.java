@@ -79,6 +79,16 @@ public class Verbatim extends AbstractNode implements Macro {
             return Catcode.OTHER;
         }
 
+        /**
+         * {@inheritDoc}
+         * 
+         * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+         */
+        public Catcode getCatcode(int codePoint) {
+
+            return getCatcode(UnicodeChar.get(codePoint));
+        }
+
         /**
          * Getter for the name space.
          * 